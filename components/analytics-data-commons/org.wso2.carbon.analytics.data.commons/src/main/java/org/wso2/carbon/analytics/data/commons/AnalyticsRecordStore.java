@@ -19,10 +19,16 @@
 package org.wso2.carbon.analytics.data.commons;
 
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
 import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.BufferedRecordWriter;
 import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordAggregate;
 import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
+import org.wso2.carbon.analytics.data.commons.utils.RecordAggregator;
 
 import java.util.List;
 import java.util.Map;
@@ -68,6 +74,18 @@ public interface AnalyticsRecordStore {
      * @throws AnalyticsTableNotAvailableException
      */
     void put(List<Record> records) throws AnalyticsException, AnalyticsTableNotAvailableException;
+
+    /**
+     * Opens a writer to stream records in to the given table, where the record store decides the batch and the
+     * commit granularity of the writes, and blocks the writer when the backend falls behind. By default, the records
+     * are put in batches of {@link AnalyticsCommonConstants#RECORDS_BATCH_SIZE}, with one batch in flight.
+     * @param tableName The name of the table to be written to
+     * @return The record writer, which must be closed after use
+     * @throws AnalyticsException
+     */
+    default AnalyticsRecordWriter openBulkWriter(String tableName) throws AnalyticsException {
+        return new BufferedRecordWriter(tableName, AnalyticsCommonConstants.RECORDS_BATCH_SIZE, this::put);
+    }
     
     /**
      * Retrieves data from a table, with a given range.
@@ -110,6 +128,30 @@ public interface AnalyticsRecordStore {
      */
     AnalyticsIterator<Record> readRecords(RecordGroup recordGroup) throws AnalyticsException;
 
+    /**
+     * Computes an aggregate of a column over the records in a time range, optionally grouped by time buckets, which
+     * the record stores compute close to the data where they can. By default, the records are read with only the
+     * aggregated column and aggregated here.
+     * @param tableName The name of the table to aggregate on
+     * @param function The aggregate function, where the values other than counted should be numbers
+     * @param column The column to be aggregated, the null values are skipped, null or
+     * {@link AnalyticsCommonConstants#TIMESTAMP_FIELD} to aggregate the record timestamps, i.e. COUNT of all records
+     * @param timeFrom The starting time to aggregate the records from, inclusive, relatively to epoch,
+     * Long.MIN_VALUE should signal, this restriction to be disregarded
+     * @param timeTo The ending time to aggregate the records to, non-inclusive, relatively to epoch,
+     * Long.MAX_VALUE should signal, this restriction to be disregarded
+     * @param bucketSize The size of the time buckets, aligned to the multiples of it from the epoch, or 0 to
+     * aggregate all the records in the range together
+     * @return The aggregates of the time buckets with values, ordered by their start
+     * @throws AnalyticsException
+     * @throws AnalyticsTableNotAvailableException
+     */
+    default List<RecordAggregate> aggregate(String tableName, AggregateFunction function, String column,
+                                            long timeFrom, long timeTo, long bucketSize)
+            throws AnalyticsException, AnalyticsTableNotAvailableException {
+        return RecordAggregator.aggregate(this, tableName, function, column, timeFrom, timeTo, bucketSize);
+    }
+
     /**
      * Deletes a set of records in the table.
      * @param tableName The name of the table to search on
@@ -25,4 +25,21 @@ public class AnalyticsCommonConstants {
     public static final String TIMESTAMP_FIELD = "_timestamp";
 
     public static final String ANALYTICS_CONF_DIR = "analytics";
+
+    /* record store property selecting the format in which the record values are written */
+    public static final String RECORD_BLOB_FORMAT = "recordBlobFormat";
+    public static final String RECORD_BLOB_FORMAT_INDEXED = "indexed";
+
+    /* record store property selecting the compression of the record values, which is overridden for a table by the
+     * property with the table name as the suffix, i.e. "recordCompression.TABLE1" */
+    public static final String RECORD_COMPRESSION = "recordCompression";
+
+    /* record store property setting the number of threads putting the table batches to the record store in parallel */
+    public static final String RECORD_STORE_PUT_THREADS = "putThreads";
+
+    /* record store property setting the page size of the records read ahead in the background, not set to disable */
+    public static final String READ_PREFETCH_PAGE_SIZE = "readPrefetchPageSize";
+
+    /* record store property setting the maximum number of records cached by the range reads, not set to disable */
+    public static final String QUERY_CACHE_MAX_RECORDS = "queryCacheMaxRecords";
 }
@@ -18,8 +18,26 @@
 package org.wso2.carbon.analytics.data.commons.sources;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public interface AnalyticsIterator<T> extends Iterator<T>, Closeable {
 
+    /**
+     * Returns the next elements, which are the ones {@link #next()} would return in the same order, where the
+     * implementations that read the elements in pages hand over a page at once. Fewer than max elements are
+     * returned only at the end of the iterator.
+     *
+     * @param max The maximum number of elements to be returned
+     * @return The next elements, or an empty list at the end of the iterator
+     */
+    default List<T> nextBatch(int max) {
+        List<T> result = new ArrayList<>(Math.min(max, 1024));
+        while (result.size() < max && this.hasNext()) {
+            result.add(this.next());
+        }
+        return result;
+    }
+
 }
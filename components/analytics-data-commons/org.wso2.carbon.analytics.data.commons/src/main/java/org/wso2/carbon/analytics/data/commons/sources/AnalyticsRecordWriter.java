@@ -0,0 +1,53 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.analytics.data.commons.sources;
+
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+
+/**
+ * Streams records in to a table of a record store, where the record store decides the batches the records are
+ * written in, and blocks the writes when it falls behind. A writer is not thread safe, and must be closed to
+ * release its resources, even if a write failed.
+ */
+public interface AnalyticsRecordWriter extends AutoCloseable {
+
+    /**
+     * Writes a record, which may be buffered until a batch is complete. A failure in writing an earlier batch is
+     * thrown from here, after which the writer cannot be used anymore.
+     *
+     * @param record The record to be written, which should belong to the table of the writer
+     * @throws AnalyticsException
+     */
+    void write(Record record) throws AnalyticsException;
+
+    /**
+     * Writes all the records buffered so far, and returns after they are stored.
+     *
+     * @throws AnalyticsException
+     */
+    void flush() throws AnalyticsException;
+
+    /**
+     * Flushes the buffered records, and releases the resources of the writer.
+     *
+     * @throws AnalyticsException
+     */
+    @Override
+    void close() throws AnalyticsException;
+
+}
@@ -0,0 +1,192 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.analytics.data.commons.sources;
+
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AnalyticsRecordWriter} which buffers the records in to batches of a given size, and writes each batch in a
+ * background thread while the caller fills the next one. Only one batch is in flight, so when the caller fills a
+ * batch before the previous one is written, it waits for it, which throttles the caller to the rate of the record
+ * store, and at most two batches are held in memory. The batches written before a failure are not rolled back.
+ */
+public class BufferedRecordWriter implements AnalyticsRecordWriter {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger(1);
+
+    private static final ExecutorService WRITER_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "AnalyticsRecordWriter-thread-" + THREAD_NUMBER.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private String tableName;
+
+    private int batchSize;
+
+    private BatchWriter batchWriter;
+
+    private List<Record> batch;
+
+    private Future<?> pendingBatch;
+
+    private AnalyticsException error;
+
+    private boolean closed;
+
+    /**
+     * Writes a batch of records of the same table to the record store, which is called for one batch at a time.
+     */
+    public interface BatchWriter {
+
+        void writeBatch(List<Record> records) throws AnalyticsException;
+
+        /**
+         * Releases the resources held for writing the batches, called once after the last batch is written.
+         */
+        default void close() throws AnalyticsException {
+            /* nothing to release by default */
+        }
+
+    }
+
+    public BufferedRecordWriter(String tableName, int batchSize, BatchWriter batchWriter) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size should be a positive integer: " + batchSize);
+        }
+        this.tableName = tableName;
+        this.batchSize = batchSize;
+        this.batchWriter = batchWriter;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    private void checkUsable() throws AnalyticsException {
+        if (this.error != null) {
+            throw new AnalyticsException("Error in writing records to table [" + this.tableName + "]: " +
+                    this.error.getMessage(), this.error);
+        }
+        if (this.closed) {
+            throw new AnalyticsException("The record writer of table [" + this.tableName + "] is closed");
+        }
+    }
+
+    @Override
+    public void write(Record record) throws AnalyticsException {
+        /* a batch, which failed in the background, is reported by the next write, not the next batch boundary */
+        if (this.pendingBatch != null && this.pendingBatch.isDone()) {
+            this.awaitPendingBatch();
+        }
+        this.checkUsable();
+        if (record.getTableName() != null && !AnalyticsCommonUtils.normalizeTableName(record.getTableName()).equals(
+                AnalyticsCommonUtils.normalizeTableName(this.tableName))) {
+            throw new AnalyticsException("The record of table [" + record.getTableName() +
+                    "] cannot be written to table [" + this.tableName + "]");
+        }
+        /* the records are written with the table name the writer is opened with, as the stores may not normalize it */
+        record.setTableName(this.tableName);
+        if (record.getId() == null) {
+            record.setId(AnalyticsCommonUtils.generateRecordID());
+        }
+        this.batch.add(record);
+        if (this.batch.size() >= this.batchSize) {
+            this.awaitPendingBatch();
+            this.checkUsable();
+            List<Record> records = this.batch;
+            BatchWriter batchWriter = this.batchWriter;
+            this.pendingBatch = WRITER_EXECUTOR.submit(() -> {
+                batchWriter.writeBatch(records);
+                return null;
+            });
+            this.batch = new ArrayList<>(this.batchSize);
+        }
+    }
+
+    private void awaitPendingBatch() {
+        if (this.pendingBatch == null) {
+            return;
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    this.pendingBatch.get();
+                    return;
+                } catch (InterruptedException e) {
+                    /* the batch in flight is still waited for, as the batch writer must not be left in use */
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof AnalyticsException) {
+                        this.error = (AnalyticsException) e.getCause();
+                    } else {
+                        this.error = new AnalyticsException(String.valueOf(e.getCause().getMessage()), e.getCause());
+                    }
+                    return;
+                }
+            }
+        } finally {
+            this.pendingBatch = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws AnalyticsException {
+        this.checkUsable();
+        this.awaitPendingBatch();
+        this.checkUsable();
+        if (!this.batch.isEmpty()) {
+            try {
+                this.batchWriter.writeBatch(this.batch);
+            } catch (AnalyticsException e) {
+                this.error = e;
+                throw e;
+            }
+            this.batch = new ArrayList<>(this.batchSize);
+        }
+    }
+
+    @Override
+    public void close() throws AnalyticsException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            if (this.error == null) {
+                this.flush();
+            } else {
+                this.awaitPendingBatch();
+            }
+        } finally {
+            this.closed = true;
+            this.batch = null;
+            this.batchWriter.close();
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.sources;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class represents a data record, which holds its values in the column order of a {@link RecordSchema} shared
+ * with the other records of the same columns, instead of a map of its own. This avoids the map entries of each
+ * record when large numbers of records with the same columns are ingested. The values are exposed through
+ * {@link #getValues()} as a map view backed by the value array, hence a compact record can be used wherever a
+ * {@link Record} is, and it is equal to a {@link Record} with the same non-null values.
+ */
+public class CompactRecord extends Record {
+
+    private static final long serialVersionUID = -6386093712874617425L;
+
+    private RecordSchema schema;
+
+    private Object[] columnValues;
+
+    private transient Map<String, Object> valuesView;
+
+    private transient Map<String, Object> notNullValuesView;
+
+    /* used by the serialization frameworks */
+    private CompactRecord() {
+    }
+
+    public CompactRecord(String tableName, RecordSchema schema, Object[] values) {
+        this(null, tableName, schema, values, System.currentTimeMillis());
+    }
+
+    public CompactRecord(String id, String tableName, RecordSchema schema, Object[] values) {
+        this(id, tableName, schema, values, System.currentTimeMillis());
+    }
+
+    public CompactRecord(String id, String tableName, RecordSchema schema, Object[] values, long timestamp) {
+        super(id, tableName, null, timestamp);
+        if (values.length != schema.getColumnCount()) {
+            throw new IllegalArgumentException("The record has " + values.length + " values, but its schema has "
+                    + schema.getColumnCount() + " columns: " + schema);
+        }
+        this.schema = schema;
+        this.columnValues = values;
+    }
+
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    public Object getValue(int index) {
+        return columnValues[index];
+    }
+
+    @Override
+    public Object getValue(String name) {
+        int index = schema.getIndex(name);
+        return index == -1 ? null : columnValues[index];
+    }
+
+    /**
+     * Returns a view of the values, which only allows the values of the schema columns to be changed.
+     */
+    @Override
+    public Map<String, Object> getValues() {
+        if (valuesView == null) {
+            valuesView = new ValuesView(false);
+        }
+        return valuesView;
+    }
+
+    /**
+     * Returns a read-only view of the non-null values, instead of a copy.
+     */
+    @Override
+    public Map<String, Object> getNotNullValues() {
+        if (notNullValuesView == null) {
+            notNullValuesView = new ValuesView(true);
+        }
+        return notNullValuesView;
+    }
+
+    /**
+     * Map view of the values in the column order of the schema.
+     */
+    private class ValuesView extends AbstractMap<String, Object> {
+
+        private final boolean notNullOnly;
+
+        private ValuesView(boolean notNullOnly) {
+            this.notNullOnly = notNullOnly;
+        }
+
+        @Override
+        public int size() {
+            if (!notNullOnly) {
+                return columnValues.length;
+            }
+            int size = 0;
+            for (Object value : columnValues) {
+                if (value != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            int index = key instanceof String ? schema.getIndex((String) key) : -1;
+            return index != -1 && (!notNullOnly || columnValues[index] != null);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? getValue((String) key) : null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            int index = schema.getIndex(key);
+            if (notNullOnly || index == -1) {
+                throw new UnsupportedOperationException("Only the values of the schema columns " + schema
+                        + " can be set in a compact record, column: " + key);
+            }
+            Object previous = columnValues[index];
+            columnValues[index] = value;
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new ValueIterator(notNullOnly);
+                }
+
+                @Override
+                public int size() {
+                    return ValuesView.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterates the values in the column order, skipping the null values if required.
+     */
+    private class ValueIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final boolean notNullOnly;
+
+        private int nextIndex;
+
+        private ValueIterator(boolean notNullOnly) {
+            this.notNullOnly = notNullOnly;
+            this.nextIndex = this.advance(0);
+        }
+
+        private int advance(int index) {
+            while (notNullOnly && index < columnValues.length && columnValues[index] == null) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < columnValues.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = nextIndex;
+            nextIndex = this.advance(index + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(schema.getColumn(index), columnValues[index]);
+        }
+    }
+
+}
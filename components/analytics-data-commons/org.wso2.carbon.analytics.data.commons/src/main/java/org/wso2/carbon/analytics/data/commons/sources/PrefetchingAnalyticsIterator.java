@@ -0,0 +1,161 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.analytics.data.commons.sources;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps an {@link AnalyticsIterator}, reading its next page in a background thread while the caller processes the
+ * current one, so the caller does not wait on the I/O of the record store for every page. Only one page is read
+ * ahead, so at most two pages are held in memory, and the wrapped iterator is used by one thread at a time, as the
+ * next page is requested only after the previous one is read.
+ */
+public class PrefetchingAnalyticsIterator<T> implements AnalyticsIterator<T> {
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger(1);
+
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "AnalyticsIteratorPrefetch-thread-" + THREAD_NUMBER.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AnalyticsIterator<T> iterator;
+
+    private int pageSize;
+
+    private Future<List<T>> pendingPage;
+
+    private Iterator<T> currentPage = Collections.emptyIterator();
+
+    public PrefetchingAnalyticsIterator(AnalyticsIterator<T> iterator, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The prefetch page size should be a positive integer: " + pageSize);
+        }
+        this.iterator = iterator;
+        this.pageSize = pageSize;
+        this.prefetch();
+    }
+
+    /**
+     * Wraps the given iterator to prefetch pages of the given size, or returns it as is if the page size is not
+     * positive, i.e. prefetching is not enabled.
+     */
+    public static <T> AnalyticsIterator<T> wrap(AnalyticsIterator<T> iterator, int pageSize) {
+        if (pageSize <= 0) {
+            return iterator;
+        }
+        return new PrefetchingAnalyticsIterator<>(iterator, pageSize);
+    }
+
+    private void prefetch() {
+        AnalyticsIterator<T> iterator = this.iterator;
+        int pageSize = this.pageSize;
+        this.pendingPage = PREFETCH_EXECUTOR.submit(() -> iterator.nextBatch(pageSize));
+    }
+
+    private List<T> awaitPendingPage() throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return this.pendingPage.get();
+                } catch (InterruptedException e) {
+                    /* the page in flight is still waited for, as the wrapped iterator must not be left in use */
+                    interrupted = true;
+                }
+            }
+        } finally {
+            this.pendingPage = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean nextPage() {
+        if (this.pendingPage == null) {
+            return false;
+        }
+        List<T> page;
+        try {
+            page = this.awaitPendingPage();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Error in prefetching records: " + e.getCause().getMessage(), e.getCause());
+        }
+        if (page.size() == this.pageSize) {
+            this.prefetch();
+        }
+        this.currentPage = page.iterator();
+        return !page.isEmpty();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.currentPage.hasNext() || this.nextPage();
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException("No further elements exist in iterator");
+        }
+        return this.currentPage.next();
+    }
+
+    @Override
+    public List<T> nextBatch(int max) {
+        List<T> result = new ArrayList<>(Math.min(max, this.pageSize));
+        while (result.size() < max && this.hasNext()) {
+            result.add(this.currentPage.next());
+        }
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        /* this is a read-only iterator, nothing will be removed */
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.pendingPage != null) {
+            try {
+                this.awaitPendingPage();
+            } catch (ExecutionException ignore) {
+                /* the iterator is closed anyway */
+            }
+        }
+        this.currentPage = Collections.emptyIterator();
+        this.iterator.close();
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.sources;
+
+import java.io.Serializable;
+
+/**
+ * This class represents the aggregate of a column over the records of a time bucket, with the number of records
+ * the aggregate is computed from.
+ */
+public class RecordAggregate implements Serializable {
+
+    private static final long serialVersionUID = -6290147265394213807L;
+
+    private long bucketStart;
+
+    private long count;
+
+    private double value;
+
+    public RecordAggregate() {
+    }
+
+    public RecordAggregate(long bucketStart, long count, double value) {
+        this.bucketStart = bucketStart;
+        this.count = count;
+        this.value = value;
+    }
+
+    /**
+     * Returns the start of the time bucket, inclusive, or the start of the time range if the records are not
+     * grouped by time buckets.
+     */
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RecordAggregate)) {
+            return false;
+        }
+        RecordAggregate rhs = (RecordAggregate) obj;
+        return this.bucketStart == rhs.bucketStart && this.count == rhs.count &&
+                Double.compare(this.value, rhs.value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(this.bucketStart);
+        result = 31 * result + Long.hashCode(this.count);
+        result = 31 * result + Double.hashCode(this.value);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.bucketStart + ": count=" + this.count + ", value=" + this.value + "]";
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.sources;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the ordered columns of a set of records with the same columns, which is shared by the
+ * {@link CompactRecord}s of the set, so that each record only holds its values by the column index.
+ */
+public class RecordSchema implements Serializable {
+
+    private static final long serialVersionUID = 3198721409842335412L;
+
+    private String[] columns;
+
+    private Map<String, Integer> columnIndexes;
+
+    private long fingerprint;
+
+    public RecordSchema() {
+        this(Collections.<String>emptyList());
+    }
+
+    public RecordSchema(List<String> columns) {
+        this.columns = columns.toArray(new String[columns.size()]);
+        this.columnIndexes = new HashMap<>(this.columns.length * 2);
+        for (int i = 0; i < this.columns.length; i++) {
+            if (this.columnIndexes.put(this.columns[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate column '" + this.columns[i] + "' in record schema: "
+                        + columns);
+            }
+        }
+        this.fingerprint = computeFingerprint(this.columns);
+    }
+
+    /* 64-bit FNV-1a hash of the column names, which is stable across JVMs as it is stored with the records */
+    private static long computeFingerprint(String[] columns) {
+        long hash = 0xcbf29ce484222325L;
+        for (String column : columns) {
+            for (int i = 0; i < column.length(); i++) {
+                hash ^= column.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            /* separates the names, so that ["ab", "c"] and ["a", "bc"] do not collide */
+            hash ^= 0xffff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getColumn(int index) {
+        return columns[index];
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    /**
+     * @param column The column name
+     * @return The index of the column, or -1 if the column is not in this schema
+     */
+    public int getIndex(String column) {
+        Integer index = columnIndexes.get(column);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return The fingerprint of the ordered column names, with which the records encoded against this schema
+     * refer to it
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof RecordSchema && Arrays.equals(this.columns, ((RecordSchema) obj).columns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(columns);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(columns);
+    }
+
+}
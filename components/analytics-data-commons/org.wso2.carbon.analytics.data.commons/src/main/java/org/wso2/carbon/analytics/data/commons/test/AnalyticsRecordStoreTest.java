@@ -24,12 +24,31 @@ import org.testng.annotations.Test;
 import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.CachingAnalyticsRecordStore;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.BufferedRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.CompactRecord;
+import org.wso2.carbon.analytics.data.commons.sources.PrefetchingAnalyticsIterator;
 import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordAggregate;
 import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
+import org.wso2.carbon.analytics.data.commons.sources.RecordSchema;
+import org.wso2.carbon.analytics.data.commons.utils.ParallelRecordGroupReader;
+import org.wso2.carbon.analytics.data.commons.utils.ParallelRecordPutter;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class contains tests related to {@link AnalyticsRecordStore}.
@@ -40,11 +59,21 @@ public abstract class AnalyticsRecordStoreTest {
 
     private String implementationName;
 
+    private AnalyticsRecordStore otherBlobFormatRS;
+
     protected void init(String implementationName, AnalyticsRecordStore analyticsRS) throws AnalyticsException {
         this.implementationName = implementationName;
         this.analyticsRS = analyticsRS;
     }
 
+    /**
+     * Sets a record store on the same storage as the tested one, which writes the record values in the other
+     * record blob format, to check that the records written in one format are read in the other.
+     */
+    protected void initOtherBlobFormat(AnalyticsRecordStore otherBlobFormatRS) {
+        this.otherBlobFormatRS = otherBlobFormatRS;
+    }
+
     protected void cleanup() throws AnalyticsException {
         this.analyticsRS.deleteTable("MYTABLE1");
         this.analyticsRS.deleteTable("T1");
@@ -227,6 +256,67 @@ public abstract class AnalyticsRecordStoreTest {
         this.cleanupT1();
     }
 
+    @Test
+    public void testCompactDataRecordAddRetrieve() throws AnalyticsException {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        List<Record> records = generateRecords("T1", 1, 100, -1, -1);
+        RecordSchema schema = new RecordSchema(new ArrayList<>(records.get(0).getValues().keySet()));
+        List<Record> compactRecords = new ArrayList<>(records.size());
+        for (Record record : records) {
+            Object[] values = new Object[schema.getColumnCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = record.getValue(schema.getColumn(i));
+            }
+            compactRecords.add(new CompactRecord(record.getId(), record.getTableName(), schema, values,
+                    record.getTimestamp()));
+        }
+        Assert.assertEquals(new HashSet<>(compactRecords), new HashSet<>(records));
+        this.analyticsRS.put(compactRecords);
+        List<Record> recordsIn = AnalyticsCommonUtils.listRecords(this.analyticsRS,
+                this.analyticsRS.get("T1", 2, null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1));
+        Assert.assertEquals(new HashSet<>(recordsIn), new HashSet<>(records));
+        Assert.assertEquals(new HashSet<>(compactRecords), new HashSet<>(recordsIn));
+        this.cleanupT1();
+    }
+
+    @Test
+    public void testRecordBlobFormatCompatibility() throws AnalyticsException {
+        if (this.otherBlobFormatRS == null) {
+            return;
+        }
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        List<Record> records = generateRecords("T1", 1, 50, -1, -1);
+        List<Record> otherRecords = generateRecords("T1", 2, 50, -1, -1);
+        this.analyticsRS.put(records);
+        this.otherBlobFormatRS.put(otherRecords);
+        Set<Record> allRecords = new HashSet<>(records);
+        allRecords.addAll(otherRecords);
+        for (AnalyticsRecordStore rs : Arrays.asList(this.analyticsRS, this.otherBlobFormatRS)) {
+            List<Record> recordsIn = AnalyticsCommonUtils.listRecords(rs,
+                    rs.get("T1", 2, null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1));
+            Assert.assertEquals(new HashSet<>(recordsIn), allRecords);
+            recordsIn = AnalyticsCommonUtils.listRecords(rs, rs.get("T1", 1, Arrays.asList("log", "tenant"),
+                    Long.MIN_VALUE, Long.MAX_VALUE, 0, -1));
+            Assert.assertEquals(recordsIn.size(), allRecords.size());
+            for (Record recordIn : recordsIn) {
+                Assert.assertEquals(recordIn.getValues().keySet(), new HashSet<>(Arrays.asList("log", "tenant")));
+            }
+        }
+        /* records overwritten in the other format */
+        records = this.generateRecordsForUpdate(records);
+        this.otherBlobFormatRS.put(records);
+        List<String> ids = new ArrayList<>();
+        for (Record record : records) {
+            ids.add(record.getId());
+        }
+        List<Record> recordsIn = AnalyticsCommonUtils.listRecords(this.analyticsRS,
+                this.analyticsRS.get("T1", 1, null, ids));
+        Assert.assertEquals(new HashSet<>(recordsIn), new HashSet<>(records));
+        this.cleanupT1();
+    }
+
     @Test
     public void testMultipleDataRecordAddRetrieveUpdate() throws AnalyticsException {
         this.cleanupT1();
@@ -462,6 +552,597 @@ public abstract class AnalyticsRecordStoreTest {
         this.cleanupT1();
     }
 
+    private void writeAndCheckRecords(AnalyticsRecordWriter writer) throws AnalyticsException {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        int n = 2500;
+        long hash1 = 0;
+        try {
+            for (Record record : generateRecords("T1", 1, n, 10000, 1)) {
+                writer.write(record);
+                hash1 += record.hashCode();
+            }
+            /* a flush returns after all the written records are stored */
+            writer.flush();
+            Assert.assertEquals(AnalyticsCommonUtils.listRecords(this.analyticsRS, this.analyticsRS.get("T1", 2, null,
+                    Long.MIN_VALUE, Long.MAX_VALUE, 0, -1)).size(), n);
+            for (Record record : generateRecords("t1", 2, n, 20000, 1, false)) {
+                writer.write(record);
+                hash1 += record.hashCode();
+            }
+            boolean ok;
+            try {
+                writer.write(generateRecords("T2", 1, 1, 10000, 1).get(0));
+                ok = false;
+            } catch (AnalyticsException e) {
+                ok = true;
+            }
+            Assert.assertTrue(ok);
+        } finally {
+            writer.close();
+        }
+        writer.close();
+        List<Record> recordsIn = AnalyticsCommonUtils.listRecords(this.analyticsRS, this.analyticsRS.get("T1", 3,
+                null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1));
+        Assert.assertEquals(recordsIn.size(), n * 2);
+        long hash2 = 0;
+        for (Record record : recordsIn) {
+            hash2 += record.hashCode();
+        }
+        Assert.assertEquals(hash2, hash1);
+        boolean ok;
+        try {
+            writer.write(generateRecords("T1", 1, 1, 10000, 1).get(0));
+            ok = false;
+        } catch (AnalyticsException e) {
+            ok = true;
+        }
+        Assert.assertTrue(ok);
+        this.cleanupT1();
+    }
+
+    @Test
+    public void testBulkWriterAddRetrieve() throws AnalyticsException {
+        this.writeAndCheckRecords(this.analyticsRS.openBulkWriter("T1"));
+        /* the generic writer of the record stores with no bulk writer of their own */
+        this.writeAndCheckRecords(new BufferedRecordWriter("T1", 300, this.analyticsRS::put));
+    }
+
+    @Test
+    public void testBufferedWriterFailureOnNextWrite() throws AnalyticsException, InterruptedException {
+        CountDownLatch batchFailed = new CountDownLatch(1);
+        AnalyticsRecordWriter writer = new BufferedRecordWriter("T1", 10, records -> {
+            batchFailed.countDown();
+            throw new AnalyticsException("Batch write failure");
+        });
+        List<Record> records = generateRecords("T1", 1, 11, 10000, 1);
+        boolean ok;
+        try {
+            for (Record record : records.subList(0, 10)) {
+                writer.write(record);
+            }
+            Assert.assertTrue(batchFailed.await(10, TimeUnit.SECONDS));
+            /* the background batch completes right after its writer throws */
+            Thread.sleep(500);
+            writer.write(records.get(10));
+            ok = false;
+        } catch (AnalyticsException e) {
+            ok = true;
+        } finally {
+            writer.close();
+        }
+        Assert.assertTrue(ok);
+    }
+
+    @Test
+    public void testBulkWriterToMissingTable() throws AnalyticsException {
+        this.analyticsRS.deleteTable("T_MISSING");
+        AnalyticsRecordWriter writer = this.analyticsRS.openBulkWriter("T_MISSING");
+        boolean ok;
+        try {
+            for (Record record : generateRecords("T_MISSING", 1, 5000, 10000, 1)) {
+                writer.write(record);
+            }
+            writer.flush();
+            ok = false;
+        } catch (AnalyticsException e) {
+            ok = true;
+        } finally {
+            writer.close();
+        }
+        Assert.assertTrue(ok);
+    }
+
+    private List<String> readRecordIds(AnalyticsIterator<Record> iterator, int batchSize) throws IOException {
+        List<String> result = new ArrayList<>();
+        try {
+            boolean batched = false;
+            while (true) {
+                /* alternates between the batches and the single records, which should continue from each other */
+                if (batched) {
+                    List<Record> batch = iterator.nextBatch(batchSize);
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    for (Record record : batch) {
+                        result.add(record.getId());
+                    }
+                } else if (iterator.hasNext()) {
+                    result.add(iterator.next().getId());
+                } else {
+                    break;
+                }
+                batched = !batched;
+            }
+        } finally {
+            iterator.close();
+        }
+        return result;
+    }
+
+    @Test
+    public void testBatchedAndPrefetchedRecordRead() throws AnalyticsException, IOException {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        int count = 1000;
+        this.analyticsRS.put(generateRecords("T1", 1, count, 10000, 1));
+        RecordGroup[] rgs = this.analyticsRS.get("T1", 1, null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1);
+        List<String> expected = new ArrayList<>();
+        for (Record record : AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs)) {
+            expected.add(record.getId());
+        }
+        Assert.assertEquals(expected.size(), count);
+        for (int batchSize : new int[] { 1, 7, 100, count * 2 }) {
+            List<String> ids = new ArrayList<>();
+            for (RecordGroup rg : rgs) {
+                ids.addAll(this.readRecordIds(this.analyticsRS.readRecords(rg), batchSize));
+            }
+            Assert.assertEquals(ids, expected);
+            ids.clear();
+            for (RecordGroup rg : rgs) {
+                ids.addAll(this.readRecordIds(new PrefetchingAnalyticsIterator<>(
+                        this.analyticsRS.readRecords(rg), 64), batchSize));
+            }
+            Assert.assertEquals(ids, expected);
+        }
+        /* the iterators closed before their end should release their resources, or else the reads would run out of
+         * the connections of the record store before the end of this */
+        for (int i = 0; i < 100; i++) {
+            TrackingIterator plain = new TrackingIterator(this.analyticsRS.readRecords(rgs[0]));
+            Assert.assertEquals(plain.nextBatch(10).size(), 10);
+            plain.close();
+            Assert.assertTrue(plain.closed);
+            TrackingIterator tracking = new TrackingIterator(this.analyticsRS.readRecords(rgs[0]));
+            AnalyticsIterator<Record> prefetching = new PrefetchingAnalyticsIterator<>(tracking, 10);
+            Assert.assertEquals(prefetching.next().getId(), expected.get(0));
+            prefetching.close();
+            Assert.assertTrue(tracking.closed);
+            Assert.assertFalse(tracking.concurrentlyUsed);
+        }
+        Assert.assertEquals(AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs).size(), count);
+        this.cleanupT1();
+    }
+
+    /**
+     * Checks that an iterator is closed, and is not used by more than one thread at a time.
+     */
+    private static class TrackingIterator implements AnalyticsIterator<Record> {
+
+        private AnalyticsIterator<Record> iterator;
+
+        private AtomicBoolean inUse = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private volatile boolean concurrentlyUsed;
+
+        TrackingIterator(AnalyticsIterator<Record> iterator) {
+            this.iterator = iterator;
+        }
+
+        private void enter() {
+            if (!this.inUse.compareAndSet(false, true) || this.closed) {
+                this.concurrentlyUsed = true;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            this.enter();
+            try {
+                return this.iterator.hasNext();
+            } finally {
+                this.inUse.set(false);
+            }
+        }
+
+        @Override
+        public Record next() {
+            this.enter();
+            try {
+                return this.iterator.next();
+            } finally {
+                this.inUse.set(false);
+            }
+        }
+
+        @Override
+        public List<Record> nextBatch(int max) {
+            this.enter();
+            try {
+                return this.iterator.nextBatch(max);
+            } finally {
+                this.inUse.set(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.enter();
+            this.closed = true;
+            this.iterator.close();
+            this.inUse.set(false);
+        }
+    }
+
+    private Set<Record> readRange(AnalyticsRecordStore store, long timeFrom, long timeTo) throws AnalyticsException {
+        return new HashSet<>(AnalyticsCommonUtils.listRecords(store, store.get("T1", 2, null, timeFrom, timeTo, 0,
+                -1)));
+    }
+
+    private void checkCachedRanges(CachingAnalyticsRecordStore cache, long[][] ranges) throws AnalyticsException {
+        for (long[] range : ranges) {
+            Assert.assertEquals(this.readRange(cache, range[0], range[1]),
+                    this.readRange(this.analyticsRS, range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testCachedRangeReadsWithConcurrentWrites() throws AnalyticsException, InterruptedException {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        this.analyticsRS.put(generateRecords("T1", 1, 500, 10000, 10));
+        CachingAnalyticsRecordStore cache = new CachingAnalyticsRecordStore(this.analyticsRS, 100000);
+        long[][] ranges = { { Long.MIN_VALUE, Long.MAX_VALUE }, { 10000, 12000 }, { 11000, 14000 },
+                { 14000, 20000 } };
+        this.checkCachedRanges(cache, ranges);
+        Assert.assertTrue(cache.getCachedRecordCount() > 0);
+        /* the cached reads are not affected by the changes to the records handed out */
+        for (Record record : this.readRange(cache, 10000, 12000)) {
+            record.getValues().put("log", "changed");
+        }
+        this.checkCachedRanges(cache, ranges);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        long[] range = ranges[ThreadLocalRandom.current().nextInt(ranges.length)];
+                        this.readRange(cache, range[0], range[1]);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        try {
+            /* after each write, the cached reads should see it, while the readers are loading the ranges in to the
+             * cache */
+            for (int i = 0; i < 10; i++) {
+                cache.put(generateRecords("T1", i, 20, 10000 + i * 500, 7));
+                this.checkCachedRanges(cache, ranges);
+                /* the updates moving the records out of the cached ranges, which are found by their ids */
+                List<Record> moved = new ArrayList<>();
+                for (Record record : this.readRange(this.analyticsRS, 10000, 12000)) {
+                    if (moved.size() < 10) {
+                        moved.add(new Record(record.getId(), "T1", record.getValues(), 16000 + i));
+                    }
+                }
+                cache.put(moved);
+                this.checkCachedRanges(cache, ranges);
+                List<String> ids = new ArrayList<>();
+                for (Record record : this.readRange(this.analyticsRS, 11000, 14000)) {
+                    if (ids.size() < 10) {
+                        ids.add(record.getId());
+                    }
+                }
+                cache.delete("T1", ids);
+                this.checkCachedRanges(cache, ranges);
+                cache.delete("T1", 14000 + i * 100, 14050 + i * 100);
+                this.checkCachedRanges(cache, ranges);
+            }
+        } finally {
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+        Assert.assertEquals(errors, new ArrayList<>());
+        this.checkCachedRanges(cache, ranges);
+        /* a write that is not done through the cache is seen after the table is invalidated */
+        this.analyticsRS.put(generateRecords("T1", 1, 10, 10000, 1));
+        cache.invalidateTable("T1");
+        this.checkCachedRanges(cache, ranges);
+        this.cleanupT1();
+    }
+
+    @Test
+    public void testCachedRangeReadPerformance() throws AnalyticsException {
+        System.out.println("\n************** START CACHED RANGE READ PERF TEST [" + this.getImplementationName() +
+                "] **************");
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        int count = 5000, n = 20;
+        this.analyticsRS.put(generateRecords("T1", 1, count, 10000, 1));
+        CachingAnalyticsRecordStore cache = new CachingAnalyticsRecordStore(this.analyticsRS, count * 2);
+        long[][] ranges = { { 10000, 12000 }, { 11000, 15000 }, { 10000, 10000 + count } };
+        for (AnalyticsRecordStore store : new AnalyticsRecordStore[] { this.analyticsRS, cache }) {
+            long start = System.currentTimeMillis();
+            int records = 0;
+            for (int i = 0; i < n; i++) {
+                for (long[] range : ranges) {
+                    records += AnalyticsCommonUtils.listRecords(store, store.get("T1", 2, null, range[0], range[1],
+                            0, -1)).size();
+                }
+            }
+            long end = System.currentTimeMillis();
+            Assert.assertEquals(records, n * (2000 + 4000 + count));
+            System.out.println("* " + (store == cache ? "Cached" : "Uncached") + " Range Reads: " +
+                    (n * ranges.length) + ", Records: " + records + ", Time: " + (end - start) + " ms.");
+        }
+        System.out.println("************** END CACHED RANGE READ PERF TEST [" + this.getImplementationName() +
+                "] **************\n");
+        this.cleanupT1();
+    }
+
+    private List<RecordAggregate> computeAggregates(List<Record> records, AggregateFunction function, String column,
+                                                    long timeFrom, long timeTo, long bucketSize) {
+        Map<Long, List<Double>> buckets = new TreeMap<>();
+        for (Record record : records) {
+            long timestamp = record.getTimestamp();
+            Object value = column == null ? timestamp : record.getValue(column);
+            if (timestamp < timeFrom || timestamp >= timeTo || value == null) {
+                continue;
+            }
+            long bucketStart = bucketSize > 0 ? Math.floorDiv(timestamp, bucketSize) * bucketSize : timeFrom;
+            buckets.computeIfAbsent(bucketStart, k -> new ArrayList<>()).add(((Number) value).doubleValue());
+        }
+        List<RecordAggregate> result = new ArrayList<>();
+        for (Map.Entry<Long, List<Double>> entry : buckets.entrySet()) {
+            List<Double> values = entry.getValue();
+            double value;
+            switch (function) {
+                case COUNT:
+                    value = values.size();
+                    break;
+                case SUM:
+                    value = values.stream().mapToDouble(Double::doubleValue).sum();
+                    break;
+                case MIN:
+                    value = Collections.min(values);
+                    break;
+                default:
+                    value = Collections.max(values);
+            }
+            result.add(new RecordAggregate(entry.getKey(), values.size(), value));
+        }
+        return result;
+    }
+
+    @Test
+    public void testRecordAggregation() throws AnalyticsException {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            records.addAll(generateRecords("T1", i, 100, 10000 + i * 7, 10));
+        }
+        Map<String, Object> values = new HashMap<>();
+        values.put("server_name", "ESB-X");
+        records.add(new Record(AnalyticsCommonUtils.generateRecordID(), "T1", values, 10505));
+        this.analyticsRS.put(records);
+        long[][] ranges = { { Long.MIN_VALUE, Long.MAX_VALUE }, { 10200, 10800 }, { 20000, 30000 } };
+        for (AggregateFunction function : AggregateFunction.values()) {
+            for (String column : new String[] { null, "tenant", "sequence" }) {
+                for (long[] range : ranges) {
+                    for (long bucketSize : new long[] { 0, 100 }) {
+                        List<RecordAggregate> expected = this.computeAggregates(records, function, column,
+                                range[0], range[1], bucketSize);
+                        Assert.assertEquals(this.analyticsRS.aggregate("T1", function, column, range[0], range[1],
+                                bucketSize), expected);
+                        if (column == null) {
+                            Assert.assertEquals(this.analyticsRS.aggregate("T1", function,
+                                    AnalyticsCommonConstants.TIMESTAMP_FIELD, range[0], range[1], bucketSize),
+                                    expected);
+                        }
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(this.analyticsRS.aggregate("T1", AggregateFunction.COUNT, null, Long.MIN_VALUE,
+                Long.MAX_VALUE, 0).get(0).getCount(), records.size());
+        Assert.assertEquals(this.analyticsRS.aggregate("T1", AggregateFunction.COUNT, "missing", Long.MIN_VALUE,
+                Long.MAX_VALUE, 0).size(), 0);
+        boolean ok;
+        try {
+            this.analyticsRS.aggregate("T1", AggregateFunction.SUM, "server_name", Long.MIN_VALUE, Long.MAX_VALUE, 0);
+            ok = false;
+        } catch (AnalyticsException e) {
+            ok = true;
+        }
+        Assert.assertTrue(ok);
+        this.cleanupT1();
+        try {
+            this.analyticsRS.aggregate("T1", AggregateFunction.COUNT, null, Long.MIN_VALUE, Long.MAX_VALUE, 0);
+            ok = false;
+        } catch (AnalyticsTableNotAvailableException e) {
+            ok = true;
+        }
+        Assert.assertTrue(ok);
+    }
+
+    private RecordGroup[] parallelReadGroups(int numPartitionsHint) throws AnalyticsException {
+        /* the full range groups are split by the partitions or regions, and the bounded range ones by the time */
+        List<RecordGroup> result = new ArrayList<>(Arrays.asList(this.analyticsRS.get("T1", numPartitionsHint, null,
+                Long.MIN_VALUE, Long.MAX_VALUE, 0, -1)));
+        result.addAll(Arrays.asList(this.analyticsRS.get("T1", numPartitionsHint, null, 11000, 13500, 0, -1)));
+        return result.toArray(new RecordGroup[result.size()]);
+    }
+
+    @Test
+    public void testParallelRecordGroupRead() throws AnalyticsException, IOException {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        this.analyticsRS.put(generateRecords("T1", 1, 5000, 10000, 1));
+        RecordGroup[] rgs = this.parallelReadGroups(16);
+        List<Record> expected = AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs);
+        Assert.assertEquals(expected.size(), 5000 + 2500);
+        for (int threads : new int[] { 1, 3, 16 }) {
+            ParallelRecordGroupReader reader = new ParallelRecordGroupReader(threads);
+            try {
+                Assert.assertEquals(AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs, reader), expected);
+                List<Record> streamed = new ArrayList<>();
+                try (AnalyticsIterator<Record> itr = reader.readRecords(this.analyticsRS, rgs)) {
+                    while (itr.hasNext()) {
+                        streamed.add(itr.next());
+                    }
+                    Assert.assertFalse(itr.hasNext());
+                }
+                Assert.assertEquals(streamed.size(), expected.size());
+                Assert.assertEquals(new HashSet<>(streamed), new HashSet<>(expected));
+                /* the streams closed early stop the groups being read, and skip the rest */
+                for (int i = 0; i < 20; i++) {
+                    try (AnalyticsIterator<Record> itr = reader.readRecords(this.analyticsRS, rgs)) {
+                        for (int j = 0; j < i * 10 && itr.hasNext(); j++) {
+                            Assert.assertNotNull(itr.next());
+                        }
+                    }
+                }
+                Assert.assertEquals(reader.listRecords(this.analyticsRS, new RecordGroup[0]).size(), 0);
+                try (AnalyticsIterator<Record> itr = reader.readRecords(this.analyticsRS, new RecordGroup[0])) {
+                    Assert.assertFalse(itr.hasNext());
+                }
+            } finally {
+                reader.destroy();
+            }
+        }
+        /* the groups of a deleted table fail the read as a whole, if they fail when read one after the other */
+        this.cleanupT1();
+        ParallelRecordGroupReader reader = new ParallelRecordGroupReader(4);
+        try {
+            List<Record> sequential;
+            try {
+                sequential = AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs);
+            } catch (AnalyticsException e) {
+                sequential = null;
+            }
+            List<Record> parallel;
+            try {
+                parallel = reader.listRecords(this.analyticsRS, rgs);
+            } catch (AnalyticsException e) {
+                parallel = null;
+            }
+            Assert.assertEquals(parallel, sequential);
+        } finally {
+            reader.destroy();
+        }
+        /* a reader cannot be used after it is destroyed */
+        boolean ok;
+        try {
+            reader.listRecords(this.analyticsRS, rgs);
+            ok = rgs.length == 0;
+        } catch (AnalyticsException e) {
+            ok = true;
+        }
+        Assert.assertTrue(ok);
+    }
+
+    @Test
+    public void testParallelRecordGroupReadWithSlowConsumer() throws Exception {
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        this.analyticsRS.put(generateRecords("T1", 1, 5000, 10000, 1));
+        RecordGroup[] rgs = this.parallelReadGroups(16);
+        List<Record> expected = AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs);
+        ParallelRecordGroupReader reader = new ParallelRecordGroupReader(2);
+        ExecutorService listExecutor = Executors.newSingleThreadExecutor();
+        try (AnalyticsIterator<Record> itr = reader.readRecords(this.analyticsRS, rgs)) {
+            /* the stream is stalled with its queue full, while the other reads of the reader go on */
+            Assert.assertTrue(itr.hasNext());
+            List<Record> streamed = new ArrayList<>();
+            streamed.add(itr.next());
+            Thread.sleep(500);
+            Future<List<Record>> listed = listExecutor.submit(() -> reader.listRecords(this.analyticsRS, rgs));
+            Assert.assertEquals(listed.get(30, TimeUnit.SECONDS), expected);
+            while (itr.hasNext()) {
+                streamed.add(itr.next());
+            }
+            Assert.assertEquals(streamed.size(), expected.size());
+            Assert.assertEquals(new HashSet<>(streamed), new HashSet<>(expected));
+        } finally {
+            listExecutor.shutdownNow();
+            reader.destroy();
+        }
+        this.cleanupT1();
+    }
+
+    @Test
+    public void testParallelRecordGroupReadPerformance() throws AnalyticsException, IOException {
+        System.out.println("\n************** START PARALLEL RECORD GROUP READ PERF TEST [" +
+                this.getImplementationName() + "] **************");
+        this.cleanupT1();
+        this.analyticsRS.createTable("T1");
+        int count = 20000, n = 5;
+        for (int i = 0; i < count / 1000; i++) {
+            this.analyticsRS.put(generateRecords("T1", i, 1000, 10000 + i * 1000, 1));
+        }
+        RecordGroup[] rgs = this.analyticsRS.get("T1", 16, null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(AnalyticsCommonUtils.listRecords(this.analyticsRS, rgs).size(), count);
+        }
+        System.out.println("* Record Groups: " + rgs.length + ", Records: " + count + ", Reads: " + n);
+        System.out.println("* Sequential Read Time: " + (System.currentTimeMillis() - start) + " ms.");
+        for (int threads : new int[] { 1, 2, 4, 8, 16 }) {
+            ParallelRecordGroupReader reader = new ParallelRecordGroupReader(threads);
+            try {
+                start = System.currentTimeMillis();
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals(reader.listRecords(this.analyticsRS, rgs).size(), count);
+                }
+                long orderedTime = System.currentTimeMillis() - start;
+                long firstRecordTime = 0;
+                start = System.currentTimeMillis();
+                for (int i = 0; i < n; i++) {
+                    long readStart = System.currentTimeMillis();
+                    int records = 0;
+                    try (AnalyticsIterator<Record> itr = reader.readRecords(this.analyticsRS, rgs)) {
+                        while (itr.hasNext()) {
+                            itr.next();
+                            if (records++ == 0) {
+                                firstRecordTime += System.currentTimeMillis() - readStart;
+                            }
+                        }
+                    }
+                    Assert.assertEquals(records, count);
+                }
+                long streamedTime = System.currentTimeMillis() - start;
+                System.out.println("* Threads: " + threads + ", Ordered Read Time: " + orderedTime +
+                        " ms., Streamed Read Time: " + streamedTime + " ms., Avg. Time To First Record: " +
+                        (firstRecordTime / n) + " ms.");
+            } finally {
+                reader.destroy();
+            }
+        }
+        System.out.println("************** END PARALLEL RECORD GROUP READ PERF TEST [" +
+                this.getImplementationName() + "] **************\n");
+        this.cleanupT1();
+    }
+
     @Test
     public void testDataRecordAddReadPerformance() throws AnalyticsException {
         System.out.println(
@@ -508,4 +1189,90 @@ public abstract class AnalyticsRecordStoreTest {
                 .println("************** END RECORD PERF TEST [" + this.getImplementationName() + "] **************\n");
         this.cleanupT1();
     }
+
+    @Test
+    public void testMultiTableParallelPut() throws AnalyticsException {
+        System.out.println("\n************** START MULTI TABLE PUT PERF TEST [" + this.getImplementationName() +
+                "] **************");
+        int tableCount = 8, n = 10, batch = 200;
+        List<String> tables = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++) {
+            tables.add("MT" + i);
+        }
+        ParallelRecordPutter putter = new ParallelRecordPutter();
+        putter.addRecordStore("RS", this.analyticsRS, tableCount);
+        try {
+            long sequentialTime = 0, parallelTime = 0;
+            for (boolean parallel : new boolean[] { false, true, false, true }) {
+                for (String table : tables) {
+                    this.analyticsRS.deleteTable(table);
+                    this.analyticsRS.createTable(table);
+                }
+                Map<String, Long> hashes = new HashMap<>();
+                long time = 0;
+                for (int i = 0; i < n; i++) {
+                    List<Record> records = new ArrayList<>();
+                    for (String table : tables) {
+                        records.addAll(generateRecords(table, i, batch, -1, -1));
+                    }
+                    for (Record record : records) {
+                        hashes.merge(record.getTableName(), (long) record.hashCode(), Long::sum);
+                    }
+                    Collection<List<Record>> recordBatches = AnalyticsCommonUtils.generateRecordBatches(records);
+                    long start = System.currentTimeMillis();
+                    if (parallel) {
+                        putter.put(recordBatches, tableName -> "RS");
+                    } else {
+                        for (List<Record> recordBatch : recordBatches) {
+                            this.analyticsRS.put(recordBatch);
+                        }
+                    }
+                    time += System.currentTimeMillis() - start;
+                }
+                for (String table : tables) {
+                    List<Record> recordsIn = AnalyticsCommonUtils.listRecords(this.analyticsRS,
+                            this.analyticsRS.get(table, 1, null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1));
+                    Assert.assertEquals(recordsIn.size(), n * batch);
+                    long hash = 0;
+                    for (Record record : recordsIn) {
+                        hash += record.hashCode();
+                    }
+                    Assert.assertEquals(hash, hashes.get(table).longValue());
+                }
+                /* the first run of each is the warm-up */
+                if (parallel) {
+                    parallelTime = time;
+                } else {
+                    sequentialTime = time;
+                }
+            }
+            System.out.println("* Tables: " + tableCount + ", Records: " + (tableCount * n * batch));
+            System.out.println("* Sequential Write Time: " + sequentialTime + " ms.");
+            System.out.println("* Parallel Write Time: " + parallelTime + " ms.");
+            /* a put to a table that does not exist fails the call, after the other batches are put */
+            this.analyticsRS.deleteTable("MT_X");
+            List<Record> records = new ArrayList<>(generateRecords("MT_X", 0, batch, -1, -1));
+            records.addAll(generateRecords(tables.get(0), 0, batch, -1, -1));
+            records.addAll(generateRecords(tables.get(1), 0, batch, -1, -1));
+            boolean ok;
+            try {
+                putter.put(AnalyticsCommonUtils.generateRecordBatches(records), tableName -> "RS");
+                ok = false;
+            } catch (AnalyticsException e) {
+                ok = true;
+            }
+            Assert.assertTrue(ok);
+            for (int i = 0; i < 2; i++) {
+                Assert.assertEquals(AnalyticsCommonUtils.listRecords(this.analyticsRS, this.analyticsRS.get(
+                        tables.get(i), 1, null, Long.MIN_VALUE, Long.MAX_VALUE, 0, -1)).size(), (n + 1) * batch);
+            }
+        } finally {
+            putter.destroy();
+            for (String table : tables) {
+                this.analyticsRS.deleteTable(table);
+            }
+        }
+        System.out.println("************** END MULTI TABLE PUT PERF TEST [" + this.getImplementationName() +
+                "] **************\n");
+    }
 }
@@ -20,8 +20,6 @@ package org.wso2.carbon.analytics.data.commons.utils;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.google.common.io.ByteArrayDataOutput;
-import com.google.common.io.ByteStreams;
 import org.apache.commons.collections.IteratorUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +33,7 @@ import org.wso2.carbon.analytics.data.commons.service.AnalyticsSchema;
 import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
 import org.wso2.carbon.analytics.data.commons.sources.Record;
 import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
+import org.wso2.carbon.analytics.data.commons.sources.RecordSchema;
 
 import java.io.*;
 import java.net.URISyntaxException;
@@ -59,6 +58,21 @@ public class AnalyticsCommonUtils {
     private static final byte DATA_TYPE_BINARY = 0x07;
     private static final byte DATA_TYPE_OBJECT = 0x10;
     private static final String ANALYTICS_USER_TABLE_PREFIX = "ANX";
+    private static final int INITIAL_ENCODE_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_ENCODE_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_COLUMNS_TO_MATCH_ENCODED = 8;
+    /* negative, hence never a column name length of the self-describing format: 0x80, 'R', 'V', version 1 */
+    private static final int INDEXED_RECORD_VALUES_MARKER = 0x80525601;
+    /* the marker, the schema fingerprint and the column count, followed by the column offset table */
+    private static final int INDEXED_RECORD_VALUES_HEADER_SIZE = 16;
+    private static final int NULL_VALUE_OFFSET = -1;
+    /* the first byte of a negative int as well, followed by the compression id and the decompressed length */
+    private static final byte COMPRESSED_RECORD_VALUES_MARKER = (byte) 0x81;
+    private static final int COMPRESSED_RECORD_VALUES_HEADER_SIZE = 6;
+    /* set on the compression id, when a 4-byte dictionary id follows the header */
+    private static final byte DICTIONARY_FLAG = (byte) 0x80;
+    /* smaller values hardly compress, and are not worth the header */
+    private static final int MIN_RECORD_VALUES_SIZE_TO_COMPRESS = 64;
 
     private static final String CUSTOM_WSO2_CONF_DIR_NAME = "conf";
     private static final String ANALYTICS_CONF_DIR_NAME = "analytics";
@@ -73,6 +87,12 @@ public class AnalyticsCommonUtils {
         }
     };
 
+    private static ThreadLocal<EncodeBuffer> encodeBufferTL = new ThreadLocal<EncodeBuffer>() {
+        protected EncodeBuffer initialValue() {
+            return new EncodeBuffer();
+        }
+    };
+
     public static String generateRecordID() {
         byte[] data = new byte[16];
         secureRandom.get().nextBytes(data);
@@ -151,15 +171,22 @@ public class AnalyticsCommonUtils {
          * "ABABABCCAACBDABCABCDBAC", the job of this method is to make it like the following,
          * {"AAAAAAAA", "BBBBBBB", "CCCCCC", "DD" } */
         Map<String, List<Record>> recordBatches = new HashMap<>();
-        List<Record> recordBatch;
+        List<Record> recordBatch = null;
+        String lastTableName = null;
+        String identity = null;
         for (Record record : records) {
-            if (normalizeTableName) {
-                record.setTableName(normalizeTableName(record.getTableName()));
+            /* the records of a table mostly come in runs, where the table name is normalized once for the run */
+            if (recordBatch == null || !record.getTableName().equals(lastTableName)) {
+                lastTableName = record.getTableName();
+                identity = calculateRecordIdentity(record);
+                recordBatch = recordBatches.get(identity);
+                if (recordBatch == null) {
+                    recordBatch = new ArrayList<>();
+                    recordBatches.put(identity, recordBatch);
+                }
             }
-            recordBatch = recordBatches.get(calculateRecordIdentity(record));
-            if (recordBatch == null) {
-                recordBatch = new ArrayList<>();
-                recordBatches.put(calculateRecordIdentity(record), recordBatch);
+            if (normalizeTableName) {
+                record.setTableName(identity);
             }
             recordBatch.add(record);
         }
@@ -202,133 +229,289 @@ public class AnalyticsCommonUtils {
     }
 
     public static byte[] encodeRecordValues(Map<String, Object> values) throws AnalyticsException {
-        ByteArrayDataOutput byteOut = ByteStreams.newDataOutput();
-        String name;
-        Object value;
+        EncodeBuffer buffer = encodeBufferTL.get();
+        buffer.reset();
         for (Map.Entry<String, Object> entry : values.entrySet()) {
-            name = entry.getKey();
-            value = entry.getValue();
-            byteOut.write(encodeElement(name, value));
+            encodeElement(entry.getKey(), entry.getValue(), buffer);
         }
-        return byteOut.toByteArray();
+        return buffer.toByteArray();
     }
 
     public static byte[] encodeElement(String name, Object value) throws AnalyticsException {
-        ByteArrayDataOutput buffer = ByteStreams.newDataOutput();
-        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
-        buffer.writeInt(nameBytes.length);
-        buffer.write(nameBytes);
+        EncodeBuffer buffer = encodeBufferTL.get();
+        buffer.reset();
+        encodeElement(name, value, buffer);
+        return buffer.toByteArray();
+    }
+
+    private static void encodeElement(String name, Object value, EncodeBuffer buffer) {
+        buffer.writeString(name);
+        encodeValue(value, buffer);
+    }
+
+    private static void encodeValue(Object value, EncodeBuffer buffer) {
         if (value instanceof String) {
-            buffer.write(DATA_TYPE_STRING);
-            String strVal = (String) value;
-            byte[] strBytes = strVal.getBytes(StandardCharsets.UTF_8);
-            buffer.writeInt(strBytes.length);
-            buffer.write(strBytes);
+            buffer.writeByte(DATA_TYPE_STRING);
+            buffer.writeString((String) value);
         } else if (value instanceof Long) {
-            buffer.write(DATA_TYPE_LONG);
+            buffer.writeByte(DATA_TYPE_LONG);
             buffer.writeLong((Long) value);
         } else if (value instanceof Double) {
-            buffer.write(DATA_TYPE_DOUBLE);
-            buffer.writeDouble((Double) value);
+            buffer.writeByte(DATA_TYPE_DOUBLE);
+            buffer.writeLong(Double.doubleToLongBits((Double) value));
         } else if (value instanceof Boolean) {
-            buffer.write(DATA_TYPE_BOOLEAN);
-            boolean boolVal = (Boolean) value;
-            if (boolVal) {
-                buffer.write(BOOLEAN_TRUE);
-            } else {
-                buffer.write(BOOLEAN_FALSE);
-            }
+            buffer.writeByte(DATA_TYPE_BOOLEAN);
+            buffer.writeByte((Boolean) value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
         } else if (value instanceof Integer) {
-            buffer.write(DATA_TYPE_INTEGER);
+            buffer.writeByte(DATA_TYPE_INTEGER);
             buffer.writeInt((Integer) value);
         } else if (value instanceof Float) {
-            buffer.write(DATA_TYPE_FLOAT);
-            buffer.writeFloat((Float) value);
+            buffer.writeByte(DATA_TYPE_FLOAT);
+            buffer.writeInt(Float.floatToIntBits((Float) value));
         } else if (value instanceof byte[]) {
-            buffer.write(DATA_TYPE_BINARY);
-            byte[] binData = (byte[]) value;
-            buffer.writeInt(binData.length);
-            buffer.write(binData);
+            buffer.writeByte(DATA_TYPE_BINARY);
+            buffer.writeBytes((byte[]) value);
         } else if (value == null) {
-            buffer.write(DATA_TYPE_NULL);
+            buffer.writeByte(DATA_TYPE_NULL);
         } else {
-            buffer.write(DATA_TYPE_OBJECT);
-            byte[] binData = serializeObject(value);
-            buffer.writeInt(binData.length);
-            buffer.write(binData);
+            buffer.writeByte(DATA_TYPE_OBJECT);
+            buffer.writeBytes(serializeObject(value));
+        }
+    }
+
+    /**
+     * Encodes the values of a record against its schema in the indexed format, where the column names are replaced
+     * by the fingerprint of the schema, and a table of the value offsets follows the header, so that the value of a
+     * column can be decoded without going through the values before it. Null values are not written, but have a
+     * negative offset. The values should not have columns that are not in the schema.
+     */
+    public static byte[] encodeIndexedRecordValues(RecordSchema schema, Map<String, Object> values)
+            throws AnalyticsException {
+        int columnCount = schema.getColumnCount();
+        EncodeBuffer buffer = encodeBufferTL.get();
+        buffer.reset();
+        buffer.writeInt(INDEXED_RECORD_VALUES_MARKER);
+        buffer.writeLong(schema.getFingerprint());
+        buffer.writeInt(columnCount);
+        buffer.skip(columnCount * Integer.SIZE / 8);
+        Object value;
+        for (int i = 0; i < columnCount; i++) {
+            value = values.get(schema.getColumn(i));
+            if (value == null) {
+                buffer.setInt(INDEXED_RECORD_VALUES_HEADER_SIZE + i * Integer.SIZE / 8, NULL_VALUE_OFFSET);
+            } else {
+                buffer.setInt(INDEXED_RECORD_VALUES_HEADER_SIZE + i * Integer.SIZE / 8, buffer.position);
+                encodeValue(value, buffer);
+            }
         }
         return buffer.toByteArray();
     }
 
+    /**
+     * Checks if the given record values are encoded in the indexed format, rather than the self-describing format.
+     */
+    public static boolean isIndexedRecordValues(byte[] data) {
+        return data.length >= INDEXED_RECORD_VALUES_HEADER_SIZE &&
+                ByteBuffer.wrap(data).getInt() == INDEXED_RECORD_VALUES_MARKER;
+    }
+
+    /**
+     * @return The fingerprint of the schema, against which the given record values are encoded in the indexed format
+     */
+    public static long decodeRecordSchemaFingerprint(byte[] data) {
+        return ByteBuffer.wrap(data).getLong(Integer.SIZE / 8);
+    }
+
+    /**
+     * Decodes the values of the given columns, or all the values if the columns are null, from record values
+     * encoded in the indexed format against the given schema. Only the requested values are visited, by their
+     * offsets.
+     */
+    public static Map<String, Object> decodeIndexedRecordValues(byte[] data, RecordSchema schema,
+                                                                Set<String> columns) throws AnalyticsException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            int columnCount = buffer.getInt(INDEXED_RECORD_VALUES_HEADER_SIZE - Integer.SIZE / 8);
+            if (columnCount != schema.getColumnCount() ||
+                    buffer.getLong(Integer.SIZE / 8) != schema.getFingerprint()) {
+                throw new AnalyticsException("The record values are not encoded against the record schema: " +
+                        schema);
+            }
+            int[] indexes;
+            if (columns == null) {
+                indexes = null;
+            } else {
+                indexes = new int[columns.size()];
+                int count = 0, index;
+                for (String column : columns) {
+                    index = schema.getIndex(column);
+                    if (index != -1) {
+                        indexes[count++] = index;
+                    }
+                }
+                indexes = Arrays.copyOf(indexes, count);
+                /* keeps the schema column order, as with the self-describing format */
+                Arrays.sort(indexes);
+            }
+            int valueCount = indexes == null ? columnCount : indexes.length;
+            /* using LinkedHashMap to retain the column order */
+            Map<String, Object> result = new LinkedHashMap<>(valueCount * 2);
+            int index, offset;
+            for (int i = 0; i < valueCount; i++) {
+                index = indexes == null ? i : indexes[i];
+                offset = buffer.getInt(INDEXED_RECORD_VALUES_HEADER_SIZE + index * Integer.SIZE / 8);
+                if (offset == NULL_VALUE_OFFSET) {
+                    result.put(schema.getColumn(index), null);
+                } else {
+                    buffer.position(offset);
+                    result.put(schema.getColumn(index), decodeValue(data, buffer));
+                }
+            }
+            return result;
+        } catch (AnalyticsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AnalyticsException("Error in decoding record values: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compresses the encoded record values of either format, prefixed with a header that identifies the
+     * compression. The values are returned as they are if they are too small, or do not get smaller.
+     */
+    public static byte[] compressRecordValues(byte[] data, RecordCompression compression) {
+        return compressRecordValues(data, compression, 0, null);
+    }
+
+    /**
+     * Compresses the encoded record values as with {@link #compressRecordValues(byte[], RecordCompression)}, with a
+     * preset dictionary of content similar to the values if the compression supports it, whose id is written to the
+     * header to find the dictionary again for the decompression.
+     */
+    public static byte[] compressRecordValues(byte[] data, RecordCompression compression, int dictionaryId,
+                                              byte[] dictionary) {
+        if (compression == RecordCompression.NONE || data.length < MIN_RECORD_VALUES_SIZE_TO_COMPRESS) {
+            return data;
+        }
+        if (!compression.supportsDictionary()) {
+            dictionary = null;
+        }
+        byte[] compressed = compression.compress(data, dictionary);
+        int headerSize = COMPRESSED_RECORD_VALUES_HEADER_SIZE + (dictionary == null ? 0 : Integer.SIZE / 8);
+        if (compressed.length + headerSize >= data.length) {
+            return data;
+        }
+        ByteBuffer result = ByteBuffer.allocate(compressed.length + headerSize);
+        result.put(COMPRESSED_RECORD_VALUES_MARKER);
+        result.put(dictionary == null ? compression.getId() : (byte) (compression.getId() | DICTIONARY_FLAG));
+        result.putInt(data.length);
+        if (dictionary != null) {
+            result.putInt(dictionaryId);
+        }
+        result.put(compressed);
+        return result.array();
+    }
+
+    public static boolean isCompressedRecordValues(byte[] data) {
+        return data.length >= COMPRESSED_RECORD_VALUES_HEADER_SIZE && data[0] == COMPRESSED_RECORD_VALUES_MARKER;
+    }
+
+    /**
+     * @return The id of the dictionary, with which the given compressed record values are compressed, or null if
+     * they are compressed without a dictionary
+     */
+    public static Integer decodeCompressionDictionaryId(byte[] data) {
+        if ((data[1] & DICTIONARY_FLAG) == 0) {
+            return null;
+        }
+        return ByteBuffer.wrap(data).getInt(COMPRESSED_RECORD_VALUES_HEADER_SIZE);
+    }
+
+    /**
+     * Decompresses the record values compressed with
+     * {@link #compressRecordValues(byte[], RecordCompression, int, byte[])}, and returns the values that are not
+     * compressed as they are. The dictionary is required if the values are compressed with one.
+     */
+    public static byte[] decompressRecordValues(byte[] data, byte[] dictionary) throws AnalyticsException {
+        if (!isCompressedRecordValues(data)) {
+            return data;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.position(1);
+        byte flags = buffer.get();
+        RecordCompression compression = RecordCompression.forId((byte) (flags & ~DICTIONARY_FLAG));
+        int length = buffer.getInt();
+        int offset = COMPRESSED_RECORD_VALUES_HEADER_SIZE;
+        if ((flags & DICTIONARY_FLAG) != 0) {
+            if (dictionary == null) {
+                throw new AnalyticsException("The record values are compressed with a dictionary, which is not given");
+            }
+            offset += Integer.SIZE / 8;
+        } else {
+            dictionary = null;
+        }
+        return compression.decompress(data, offset, data.length - offset, length, dictionary);
+    }
+
+    /**
+     * @return The 32-bit FNV-1a hash of the given data, which is stable across JVMs, to be stored as an id
+     */
+    public static int fingerprint(byte[] data) {
+        int hash = 0x811c9dc5;
+        for (byte value : data) {
+            hash ^= value & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * Decodes the values of the given columns, or all the values if the columns are null. The values of the other
+     * columns are skipped by their length without being decoded, and the decoding stops once all the given columns
+     * are found.
+     */
     public static Map<String, Object> decodeRecordValues(byte[] data, Set<String> columns) throws AnalyticsException {
         /* using LinkedHashMap to retain the column order */
         Map<String, Object> result = new LinkedHashMap<>();
-        int type, size;
+        int remainingColumns = columns == null ? -1 : columns.size();
+        String[] requestedColumns = null;
+        byte[][] requestedColumnNames = null;
+        int size, nameOffset, index;
         String colName;
-        Object value;
-        byte[] buff;
-        byte boolVal;
-        byte[] binData;
         try {
+            if (columns != null && columns.size() <= MAX_COLUMNS_TO_MATCH_ENCODED) {
+                /* a few columns are matched against the encoded names, without decoding the names of the others */
+                requestedColumns = columns.toArray(new String[columns.size()]);
+                requestedColumnNames = new byte[requestedColumns.length][];
+                for (int i = 0; i < requestedColumns.length; i++) {
+                    requestedColumnNames[i] = requestedColumns[i].getBytes(StandardCharsets.UTF_8);
+                }
+            }
             ByteBuffer buffer = ByteBuffer.wrap(data);
-            while (buffer.remaining() > 0) {
+            while (buffer.remaining() > 0 && remainingColumns != 0) {
                 size = buffer.getInt();
                 if (size == 0) {
                     break;
                 }
-                buff = new byte[size];
-                buffer.get(buff, 0, size);
-                colName = new String(buff, StandardCharsets.UTF_8);
-                type = buffer.get();
-                switch (type) {
-                    case DATA_TYPE_STRING:
-                        size = buffer.getInt();
-                        buff = new byte[size];
-                        buffer.get(buff, 0, size);
-                        value = new String(buff, StandardCharsets.UTF_8);
-                        break;
-                    case DATA_TYPE_LONG:
-                        value = buffer.getLong();
-                        break;
-                    case DATA_TYPE_DOUBLE:
-                        value = buffer.getDouble();
-                        break;
-                    case DATA_TYPE_BOOLEAN:
-                        boolVal = buffer.get();
-                        if (boolVal == BOOLEAN_TRUE) {
-                            value = true;
-                        } else if (boolVal == BOOLEAN_FALSE) {
-                            value = false;
-                        } else {
-                            throw new AnalyticsException("Invalid encoded boolean value: " + boolVal);
-                        }
-                        break;
-                    case DATA_TYPE_INTEGER:
-                        value = buffer.getInt();
-                        break;
-                    case DATA_TYPE_FLOAT:
-                        value = buffer.getFloat();
-                        break;
-                    case DATA_TYPE_BINARY:
-                        size = buffer.getInt();
-                        binData = new byte[size];
-                        buffer.get(binData);
-                        value = binData;
-                        break;
-                    case DATA_TYPE_OBJECT:
-                        size = buffer.getInt();
-                        binData = new byte[size];
-                        buffer.get(binData);
-                        value = deserializeObject(binData);
-                        break;
-                    case DATA_TYPE_NULL:
-                        value = null;
-                        break;
-                    default:
-                        throw new AnalyticsException("Unknown encoded data source type : " + type);
+                nameOffset = buffer.position();
+                buffer.position(nameOffset + size);
+                if (requestedColumnNames != null) {
+                    index = indexOfEncodedName(requestedColumnNames, data, nameOffset, size);
+                    colName = index == -1 ? null : requestedColumns[index];
+                    if (index != -1) {
+                        requestedColumnNames[index] = null;
+                    }
+                } else {
+                    colName = new String(data, nameOffset, size, StandardCharsets.UTF_8);
+                    if (columns != null && !columns.contains(colName)) {
+                        colName = null;
+                    }
                 }
-                if (columns == null || columns.contains(colName)) {
-                    result.put(colName, value);
+                if (colName == null) {
+                    skipValue(buffer);
+                } else {
+                    result.put(colName, decodeValue(data, buffer));
+                    remainingColumns--;
                 }
             }
         } catch (Exception e) {
@@ -337,6 +520,176 @@ public class AnalyticsCommonUtils {
         return result;
     }
 
+    private static int indexOfEncodedName(byte[][] names, byte[] data, int offset, int length) {
+        byte[] name;
+        for (int i = 0; i < names.length; i++) {
+            name = names[i];
+            if (name != null && name.length == length) {
+                int j = 0;
+                while (j < length && name[j] == data[offset + j]) {
+                    j++;
+                }
+                if (j == length) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static Object decodeValue(byte[] data, ByteBuffer buffer) throws AnalyticsException {
+        int type = buffer.get();
+        int size;
+        switch (type) {
+            case DATA_TYPE_STRING:
+                size = buffer.getInt();
+                String value = new String(data, buffer.position(), size, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + size);
+                return value;
+            case DATA_TYPE_LONG:
+                return buffer.getLong();
+            case DATA_TYPE_DOUBLE:
+                return buffer.getDouble();
+            case DATA_TYPE_BOOLEAN:
+                byte boolVal = buffer.get();
+                if (boolVal == BOOLEAN_TRUE) {
+                    return true;
+                } else if (boolVal == BOOLEAN_FALSE) {
+                    return false;
+                } else {
+                    throw new AnalyticsException("Invalid encoded boolean value: " + boolVal);
+                }
+            case DATA_TYPE_INTEGER:
+                return buffer.getInt();
+            case DATA_TYPE_FLOAT:
+                return buffer.getFloat();
+            case DATA_TYPE_BINARY:
+                size = buffer.getInt();
+                byte[] binData = new byte[size];
+                buffer.get(binData);
+                return binData;
+            case DATA_TYPE_OBJECT:
+                size = buffer.getInt();
+                binData = new byte[size];
+                buffer.get(binData);
+                return deserializeObject(binData);
+            case DATA_TYPE_NULL:
+                return null;
+            default:
+                throw new AnalyticsException("Unknown encoded data source type : " + type);
+        }
+    }
+
+    private static void skipValue(ByteBuffer buffer) throws AnalyticsException {
+        int type = buffer.get();
+        switch (type) {
+            case DATA_TYPE_STRING:
+            case DATA_TYPE_BINARY:
+            case DATA_TYPE_OBJECT:
+                int size = buffer.getInt();
+                buffer.position(buffer.position() + size);
+                break;
+            case DATA_TYPE_LONG:
+            case DATA_TYPE_DOUBLE:
+                buffer.position(buffer.position() + Long.SIZE / 8);
+                break;
+            case DATA_TYPE_INTEGER:
+            case DATA_TYPE_FLOAT:
+                buffer.position(buffer.position() + Integer.SIZE / 8);
+                break;
+            case DATA_TYPE_BOOLEAN:
+                buffer.position(buffer.position() + 1);
+                break;
+            case DATA_TYPE_NULL:
+                break;
+            default:
+                throw new AnalyticsException("Unknown encoded data source type : " + type);
+        }
+    }
+
+    /**
+     * Growable buffer into which the record values are encoded, which is reused by the encodings of a thread.
+     * The buffer is written in the big-endian order of {@link DataOutput}, to keep the encoded format.
+     */
+    private static class EncodeBuffer {
+
+        private byte[] data = new byte[INITIAL_ENCODE_BUFFER_SIZE];
+
+        private int position;
+
+        private void reset() {
+            this.position = 0;
+        }
+
+        private void ensureCapacity(int size) {
+            if (this.position + size > this.data.length) {
+                this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.position + size));
+            }
+        }
+
+        private void skip(int size) {
+            this.ensureCapacity(size);
+            this.position += size;
+        }
+
+        private void setInt(int index, int value) {
+            this.data[index] = (byte) (value >>> 24);
+            this.data[index + 1] = (byte) (value >>> 16);
+            this.data[index + 2] = (byte) (value >>> 8);
+            this.data[index + 3] = (byte) value;
+        }
+
+        private void writeByte(byte value) {
+            this.ensureCapacity(1);
+            this.data[this.position++] = value;
+        }
+
+        private void writeInt(int value) {
+            this.ensureCapacity(4);
+            this.data[this.position++] = (byte) (value >>> 24);
+            this.data[this.position++] = (byte) (value >>> 16);
+            this.data[this.position++] = (byte) (value >>> 8);
+            this.data[this.position++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            this.writeInt((int) (value >>> 32));
+            this.writeInt((int) value);
+        }
+
+        private void writeBytes(byte[] value) {
+            this.writeInt(value.length);
+            this.ensureCapacity(value.length);
+            System.arraycopy(value, 0, this.data, this.position, value.length);
+            this.position += value.length;
+        }
+
+        /* writes the UTF-8 bytes of the string with their length, where ASCII strings are copied without encoding */
+        private void writeString(String value) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80) {
+                    this.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+            this.writeInt(length);
+            this.ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                this.data[this.position++] = (byte) value.charAt(i);
+            }
+        }
+
+        private byte[] toByteArray() {
+            byte[] result = Arrays.copyOf(this.data, this.position);
+            if (this.data.length > MAX_RETAINED_ENCODE_BUFFER_SIZE) {
+                /* do not hold on to the memory of an unusually large record */
+                this.data = new byte[INITIAL_ENCODE_BUFFER_SIZE];
+            }
+            return result;
+        }
+    }
+
     public static List<Integer[]> splitNumberRange(int count, int nsplit) {
         List<Integer[]> result = new ArrayList<>(nsplit);
         int range = Math.max(1, count / nsplit);
@@ -355,6 +708,22 @@ public class AnalyticsCommonUtils {
         return result;
     }
 
+    /**
+     * Returns the integer value of the given record store property, or the default value if it is not set.
+     */
+    public static int getIntProperty(Map<String, String> properties, String name, int defaultValue)
+            throws AnalyticsException {
+        String value = properties == null ? null : properties.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new AnalyticsException("Invalid value for the record store property '" + name + "': " + value);
+        }
+    }
+
     public static void closeQuietly(Closeable closeable) {
         try {
             if (closeable != null) {
@@ -373,6 +742,15 @@ public class AnalyticsCommonUtils {
         return result;
     }
 
+    /**
+     * Lists the records of the given record groups, reading the groups in parallel with the given reader, in the
+     * same order as {@link #listRecords(AnalyticsRecordStore, RecordGroup[])}.
+     */
+    public static List<Record> listRecords(AnalyticsRecordStore rs, RecordGroup[] rgs,
+                                           ParallelRecordGroupReader reader) throws AnalyticsException {
+        return reader.listRecords(rs, rgs);
+    }
+
     public static List<Record> listRecords(AnalyticsDataService ads,
                                            AnalyticsDataResponse response) throws AnalyticsException {
         List<Record> result = new ArrayList<>();
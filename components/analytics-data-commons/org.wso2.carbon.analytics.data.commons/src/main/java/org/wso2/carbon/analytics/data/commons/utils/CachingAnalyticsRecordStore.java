@@ -0,0 +1,572 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.utils;
+
+import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.BufferedRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordAggregate;
+import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-through cache of the time range reads of a record store, which keeps the record groups of a range, and the
+ * records of each group once it is read to the end, keyed by the table, the columns and the range. The cache is
+ * bounded by the total number of the cached records, evicting the least recently used ranges. Puts and deletes
+ * through this store invalidate the cached ranges of the table they overlap, after the record store is written, and
+ * the ranges that are not fully read yet, as the records they see cannot be known. Records written to the record
+ * store other than through this store are not seen until the table is invalidated with
+ * {@link #invalidateTable(String)}. The reads by ids are not cached.
+ */
+public class CachingAnalyticsRecordStore implements AnalyticsRecordStore {
+
+    private static final int MAX_CACHED_RANGES = 1024;
+
+    private AnalyticsRecordStore recordStore;
+
+    private int maxCachedRecords;
+
+    /* the cached ranges in the least recently used order, guarded by itself */
+    private final LinkedHashMap<RangeKey, CacheEntry> entries = new LinkedHashMap<RangeKey, CacheEntry>(16, 0.75f,
+            true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RangeKey, CacheEntry> eldest) {
+            if (this.size() > MAX_CACHED_RANGES) {
+                discard(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private int cachedRecords;
+
+    private long invalidations;
+
+    public CachingAnalyticsRecordStore(AnalyticsRecordStore recordStore, int maxCachedRecords) {
+        if (maxCachedRecords <= 0) {
+            throw new IllegalArgumentException("The maximum cached records should be a positive integer: " +
+                    maxCachedRecords);
+        }
+        this.recordStore = recordStore;
+        this.maxCachedRecords = maxCachedRecords;
+    }
+
+    /**
+     * Wraps the given record store with a cache of the size set by the record store property
+     * {@link AnalyticsCommonConstants#QUERY_CACHE_MAX_RECORDS}, or returns it as is if the property is not set.
+     */
+    public static AnalyticsRecordStore wrap(AnalyticsRecordStore recordStore, Map<String, String> properties)
+            throws AnalyticsException {
+        int maxCachedRecords = AnalyticsCommonUtils.getIntProperty(properties,
+                AnalyticsCommonConstants.QUERY_CACHE_MAX_RECORDS, 0);
+        if (maxCachedRecords <= 0) {
+            return recordStore;
+        }
+        return new CachingAnalyticsRecordStore(recordStore, maxCachedRecords);
+    }
+
+    public AnalyticsRecordStore getRecordStore() {
+        return recordStore;
+    }
+
+    public int getCachedRecordCount() {
+        synchronized (this.entries) {
+            return this.cachedRecords;
+        }
+    }
+
+    @Override
+    public void init(Map<String, String> properties) throws AnalyticsException {
+        this.recordStore.init(properties);
+    }
+
+    @Override
+    public void createTable(String tableName) throws AnalyticsException {
+        this.recordStore.createTable(tableName);
+        this.invalidateTable(tableName);
+    }
+
+    @Override
+    public void deleteTable(String tableName) throws AnalyticsException {
+        try {
+            this.recordStore.deleteTable(tableName);
+        } finally {
+            this.invalidateTable(tableName);
+        }
+    }
+
+    @Override
+    public void put(List<Record> records) throws AnalyticsException {
+        try {
+            this.recordStore.put(records);
+        } finally {
+            /* invalidated even if the put failed, as some of the records may have been written */
+            for (List<Record> recordBatch : AnalyticsCommonUtils.generateRecordBatches(records)) {
+                long timeFrom = Long.MAX_VALUE, timeTo = Long.MIN_VALUE;
+                Set<String> ids = new HashSet<>(recordBatch.size());
+                for (Record record : recordBatch) {
+                    timeFrom = Math.min(timeFrom, record.getTimestamp());
+                    timeTo = Math.max(timeTo, record.getTimestamp());
+                    ids.add(record.getId());
+                }
+                this.invalidate(recordBatch.get(0).getTableName(), timeFrom,
+                        timeTo == Long.MAX_VALUE ? timeTo : timeTo + 1, ids);
+            }
+        }
+    }
+
+    @Override
+    public AnalyticsRecordWriter openBulkWriter(String tableName) throws AnalyticsException {
+        /* written through the puts of this, since the batches of the writer of the record store are stored at times
+         * not known here, after which the cached ranges should be invalidated */
+        return new BufferedRecordWriter(tableName, AnalyticsCommonConstants.RECORDS_BATCH_SIZE, this::put);
+    }
+
+    @Override
+    public RecordGroup[] get(String tableName, int numPartitionsHint, List<String> columns, long timeFrom,
+                             long timeTo, int recordsFrom, int recordsCount) throws AnalyticsException {
+        RangeKey key = new RangeKey(tableName, numPartitionsHint, columns, timeFrom, timeTo, recordsFrom,
+                recordsCount);
+        CacheEntry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+        }
+        if (entry == null) {
+            long invalidationsBefore;
+            synchronized (this.entries) {
+                invalidationsBefore = this.invalidations;
+            }
+            RecordGroup[] recordGroups = this.recordStore.get(tableName, numPartitionsHint, columns, timeFrom,
+                    timeTo, recordsFrom, recordsCount);
+            synchronized (this.entries) {
+                entry = this.entries.get(key);
+                if (entry == null) {
+                    entry = new CacheEntry(key, recordGroups);
+                    if (this.invalidations == invalidationsBefore) {
+                        this.entries.put(key, entry);
+                    } else {
+                        /* a write may have happened while the record groups were looked up, so they are read
+                         * without being cached */
+                        entry.valid = false;
+                    }
+                }
+            }
+        }
+        RecordGroup[] result = new RecordGroup[entry.recordGroups.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new CachedRecordGroup(entry, i);
+        }
+        return result;
+    }
+
+    @Override
+    public RecordGroup[] get(String tableName, int numPartitionsHint, List<String> columns, List<String> ids)
+            throws AnalyticsException {
+        return this.recordStore.get(tableName, numPartitionsHint, columns, ids);
+    }
+
+    @Override
+    public AnalyticsIterator<Record> readRecords(RecordGroup recordGroup) throws AnalyticsException {
+        if (!(recordGroup instanceof CachedRecordGroup)) {
+            return this.recordStore.readRecords(recordGroup);
+        }
+        CachedRecordGroup cachedRecordGroup = (CachedRecordGroup) recordGroup;
+        CacheEntry entry = cachedRecordGroup.entry;
+        int index = cachedRecordGroup.index;
+        if (entry == null) {
+            /* the record group has been serialized, and is read away from the cache it came from */
+            return this.recordStore.readRecords(cachedRecordGroup.recordGroup);
+        }
+        List<Record> records;
+        synchronized (this.entries) {
+            records = entry.valid ? entry.records[index] : null;
+        }
+        if (records != null) {
+            return new CachedRecordIterator(records);
+        }
+        return new CachingRecordIterator(entry, index,
+                this.recordStore.readRecords(cachedRecordGroup.recordGroup));
+    }
+
+    @Override
+    public List<RecordAggregate> aggregate(String tableName, AggregateFunction function, String column,
+                                           long timeFrom, long timeTo, long bucketSize) throws AnalyticsException {
+        /* the aggregates are computed by the record store, and are not cached */
+        return this.recordStore.aggregate(tableName, function, column, timeFrom, timeTo, bucketSize);
+    }
+
+    @Override
+    public void delete(String tableName, long timeFrom, long timeTo) throws AnalyticsException {
+        try {
+            this.recordStore.delete(tableName, timeFrom, timeTo);
+        } finally {
+            this.invalidate(tableName, timeFrom, timeTo, null);
+        }
+    }
+
+    @Override
+    public void delete(String tableName, List<String> ids) throws AnalyticsException {
+        try {
+            this.recordStore.delete(tableName, ids);
+        } finally {
+            this.invalidate(tableName, 0, 0, new HashSet<>(ids));
+        }
+    }
+
+    /**
+     * Discards all the cached ranges of the given table.
+     */
+    public void invalidateTable(String tableName) {
+        this.invalidate(tableName, Long.MIN_VALUE, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Discards the cached ranges of the table which overlap the given range, contain any of the given records, or
+     * are not fully read yet.
+     */
+    private void invalidate(String tableName, long timeFrom, long timeTo, Set<String> ids) {
+        String normalizedTableName = AnalyticsCommonUtils.normalizeTableName(tableName);
+        synchronized (this.entries) {
+            this.invalidations++;
+            Iterator<CacheEntry> iterator = this.entries.values().iterator();
+            while (iterator.hasNext()) {
+                CacheEntry entry = iterator.next();
+                if (entry.key.normalizedTableName.equals(normalizedTableName) && (!entry.isFullyRead() ||
+                        entry.overlaps(timeFrom, timeTo) || entry.containsAny(ids))) {
+                    this.discard(entry);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /* called holding the lock of the entries */
+    private void discard(CacheEntry entry) {
+        entry.valid = false;
+        this.cachedRecords -= entry.cachedRecords;
+    }
+
+    private void cacheRecords(CacheEntry entry, int index, List<Record> records) {
+        synchronized (this.entries) {
+            if (!entry.valid || entry.records[index] != null) {
+                return;
+            }
+            entry.records[index] = records;
+            entry.ids[index] = new HashSet<>(records.size());
+            for (Record record : records) {
+                entry.ids[index].add(record.getId());
+            }
+            entry.cachedRecords += records.size();
+            this.cachedRecords += records.size();
+            Iterator<CacheEntry> iterator = this.entries.values().iterator();
+            while (this.cachedRecords > this.maxCachedRecords && iterator.hasNext()) {
+                CacheEntry eldest = iterator.next();
+                this.discard(eldest);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Record copyOf(Record record) {
+        return new Record(record.getId(), record.getTableName(), new HashMap<>(record.getValues()),
+                record.getTimestamp());
+    }
+
+    @Override
+    public void destroy() throws AnalyticsException {
+        synchronized (this.entries) {
+            for (CacheEntry entry : this.entries.values()) {
+                this.discard(entry);
+            }
+            this.entries.clear();
+        }
+        this.recordStore.destroy();
+    }
+
+    /**
+     * The key of a cached range, where the columns are compared as a set. The table name is kept as given, as the
+     * record stores may not normalize it, while the invalidations match the normalized table names.
+     */
+    private static class RangeKey {
+
+        private String tableName;
+
+        private String normalizedTableName;
+
+        private int numPartitionsHint;
+
+        private Set<String> columns;
+
+        private long timeFrom;
+
+        private long timeTo;
+
+        private int recordsFrom;
+
+        private int recordsCount;
+
+        RangeKey(String tableName, int numPartitionsHint, List<String> columns, long timeFrom, long timeTo,
+                 int recordsFrom, int recordsCount) {
+            this.tableName = tableName;
+            this.normalizedTableName = AnalyticsCommonUtils.normalizeTableName(tableName);
+            this.numPartitionsHint = numPartitionsHint;
+            this.columns = columns == null || columns.isEmpty() ? null : new HashSet<>(columns);
+            this.timeFrom = timeFrom;
+            this.timeTo = timeTo;
+            this.recordsFrom = recordsFrom;
+            this.recordsCount = recordsCount;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof RangeKey)) {
+                return false;
+            }
+            RangeKey rhs = (RangeKey) obj;
+            return this.tableName.equals(rhs.tableName) && this.numPartitionsHint == rhs.numPartitionsHint &&
+                    (this.columns == null ? rhs.columns == null : this.columns.equals(rhs.columns)) &&
+                    this.timeFrom == rhs.timeFrom && this.timeTo == rhs.timeTo &&
+                    this.recordsFrom == rhs.recordsFrom && this.recordsCount == rhs.recordsCount;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.tableName.hashCode();
+            result = 31 * result + this.numPartitionsHint;
+            result = 31 * result + (this.columns == null ? 0 : this.columns.hashCode());
+            result = 31 * result + Long.hashCode(this.timeFrom);
+            result = 31 * result + Long.hashCode(this.timeTo);
+            result = 31 * result + this.recordsFrom;
+            result = 31 * result + this.recordsCount;
+            return result;
+        }
+    }
+
+    /**
+     * A cached range, with the record groups of the record store, and the records of the groups that are read. The
+     * records and the state of an entry are guarded by the lock of the entries.
+     */
+    private static class CacheEntry {
+
+        private RangeKey key;
+
+        private RecordGroup[] recordGroups;
+
+        private List<Record>[] records;
+
+        private Set<String>[] ids;
+
+        private int cachedRecords;
+
+        private boolean valid = true;
+
+        @SuppressWarnings("unchecked")
+        CacheEntry(RangeKey key, RecordGroup[] recordGroups) {
+            this.key = key;
+            this.recordGroups = recordGroups;
+            this.records = new List[recordGroups.length];
+            this.ids = new Set[recordGroups.length];
+        }
+
+        boolean isFullyRead() {
+            for (List<Record> groupRecords : this.records) {
+                if (groupRecords == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean overlaps(long timeFrom, long timeTo) {
+            return timeFrom < timeTo && timeFrom < this.key.timeTo && this.key.timeFrom < timeTo;
+        }
+
+        boolean containsAny(Collection<String> recordIds) {
+            if (recordIds == null) {
+                return false;
+            }
+            for (Set<String> groupIds : this.ids) {
+                for (String id : recordIds) {
+                    if (groupIds.contains(id)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A record group of the record store, with the cached range it belongs to, which is not kept when serialized.
+     */
+    private static class CachedRecordGroup implements RecordGroup {
+
+        private static final long serialVersionUID = 4297436258925405478L;
+
+        private transient CacheEntry entry;
+
+        private int index;
+
+        private RecordGroup recordGroup;
+
+        CachedRecordGroup(CacheEntry entry, int index) {
+            this.entry = entry;
+            this.index = index;
+            this.recordGroup = entry.recordGroups[index];
+        }
+
+        @Override
+        public String[] getLocations() throws AnalyticsException {
+            return this.recordGroup.getLocations();
+        }
+    }
+
+    /**
+     * Iterates over the cached records of a group, handing out copies, so that the cached ones are not changed.
+     */
+    private static class CachedRecordIterator implements AnalyticsIterator<Record> {
+
+        private Iterator<Record> iterator;
+
+        CachedRecordIterator(List<Record> records) {
+            this.iterator = records.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.iterator.hasNext();
+        }
+
+        @Override
+        public Record next() {
+            return copyOf(this.iterator.next());
+        }
+
+        @Override
+        public void remove() {
+            /* this is a read-only iterator, nothing will be removed */
+        }
+
+        @Override
+        public void close() throws IOException {
+            /* nothing to close */
+        }
+    }
+
+    /**
+     * Reads the records of a group from the record store, keeping copies of them, which are cached when the group is
+     * read to the end, unless they outgrow the cache.
+     */
+    private class CachingRecordIterator implements AnalyticsIterator<Record> {
+
+        private CacheEntry entry;
+
+        private int index;
+
+        private AnalyticsIterator<Record> iterator;
+
+        private List<Record> records = new ArrayList<>();
+
+        CachingRecordIterator(CacheEntry entry, int index, AnalyticsIterator<Record> iterator) {
+            this.entry = entry;
+            this.index = index;
+            this.iterator = iterator;
+        }
+
+        private void collect(Record record) {
+            if (this.records == null) {
+                return;
+            }
+            if (this.records.size() >= maxCachedRecords) {
+                this.records = null;
+                return;
+            }
+            this.records.add(copyOf(record));
+        }
+
+        private void complete() {
+            if (this.records != null) {
+                cacheRecords(this.entry, this.index, this.records);
+                this.records = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean result = this.iterator.hasNext();
+            if (!result) {
+                this.complete();
+            }
+            return result;
+        }
+
+        @Override
+        public Record next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No further elements exist in iterator");
+            }
+            Record record = this.iterator.next();
+            this.collect(record);
+            return record;
+        }
+
+        @Override
+        public List<Record> nextBatch(int max) {
+            List<Record> result = this.iterator.nextBatch(max);
+            for (Record record : result) {
+                this.collect(record);
+            }
+            if (result.size() < max) {
+                this.complete();
+            }
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            /* this is a read-only iterator, nothing will be removed */
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.records = null;
+            this.iterator.close();
+        }
+    }
+
+}
@@ -0,0 +1,412 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.utils;
+
+import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the record groups of a record store in parallel, with a bounded worker pool shared by all the reads, where
+ * the groups beyond the number of threads wait for a free thread. The records are either listed in the order of the
+ * groups, as when read one group after the other, or streamed in the order they are read, so that the consumer
+ * processes the records of the groups read first while the rest are being read. A streamed read never waits for its
+ * consumer on a thread of the pool, so a slow consumer does not hold up the other reads.
+ */
+public class ParallelRecordGroupReader {
+
+    public static final int DEFAULT_READ_THREADS = 4;
+
+    private static final int READ_PAGE_SIZE = 1000;
+
+    /* the pages of each thread that can be read ahead of the consumer of a stream */
+    private static final int QUEUED_PAGES_PER_THREAD = 2;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+
+    private int threads;
+
+    private ThreadPoolExecutor executor;
+
+    public ParallelRecordGroupReader() {
+        this(DEFAULT_READ_THREADS);
+    }
+
+    public ParallelRecordGroupReader(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The read threads should be at least 1: " + threads);
+        }
+        this.threads = threads;
+        int poolNumber = POOL_NUMBER.getAndIncrement();
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "RecordGroupReader-pool-" + poolNumber + "-thread-" +
+                            threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Reads all the records of the given record groups, returning them in the order of the groups, after all of
+     * them are read. If any of the groups failed, the first failure is thrown after the rest are done.
+     */
+    public List<Record> listRecords(AnalyticsRecordStore recordStore, RecordGroup[] recordGroups)
+            throws AnalyticsException {
+        List<Future<List<Record>>> futures = new ArrayList<>(recordGroups.length);
+        AnalyticsException error = null;
+        for (RecordGroup recordGroup : recordGroups) {
+            try {
+                futures.add(this.executor.submit(() -> readGroup(recordStore, recordGroup)));
+            } catch (RejectedExecutionException e) {
+                error = new AnalyticsException("The record group reader is shutdown", e);
+                break;
+            }
+        }
+        List<Record> result = new ArrayList<>();
+        boolean interrupted = false;
+        for (Future<List<Record>> future : futures) {
+            while (true) {
+                try {
+                    List<Record> records = future.get();
+                    if (error == null) {
+                        result.addAll(records);
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    /* the groups in flight are still waited for, so none is left being read after the call */
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = toAnalyticsException(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    private static List<Record> readGroup(AnalyticsRecordStore recordStore, RecordGroup recordGroup)
+            throws AnalyticsException {
+        List<Record> result = new ArrayList<>();
+        AnalyticsIterator<Record> iterator = recordStore.readRecords(recordGroup);
+        try {
+            while (true) {
+                List<Record> page = iterator.nextBatch(READ_PAGE_SIZE);
+                result.addAll(page);
+                if (page.size() < READ_PAGE_SIZE) {
+                    return result;
+                }
+            }
+        } finally {
+            AnalyticsCommonUtils.closeQuietly(iterator);
+        }
+    }
+
+    private static AnalyticsException toAnalyticsException(Throwable e) {
+        if (e instanceof AnalyticsException) {
+            return (AnalyticsException) e;
+        }
+        return new AnalyticsException("Error in reading record groups: " + e.getMessage(), e);
+    }
+
+    /**
+     * Streams the records of the given record groups in the order they are read, where each group is read a page at
+     * a time, and a page is only read when there is room for it ahead of the consumer, so that a stream, whose
+     * consumer falls behind, holds no threads of the pool from the other reads. At most a read thread count of groups
+     * are open at a time. The iterator must be closed, which waits for the pages being read, and closes the groups
+     * that are open.
+     */
+    public AnalyticsIterator<Record> readRecords(AnalyticsRecordStore recordStore, RecordGroup[] recordGroups)
+            throws AnalyticsException {
+        if (this.executor.isShutdown()) {
+            throw new AnalyticsException("The record group reader is shutdown");
+        }
+        StreamingRecordIterator iterator = new StreamingRecordIterator(this.executor, recordStore, recordGroups,
+                this.threads, this.threads * QUEUED_PAGES_PER_THREAD);
+        iterator.schedule();
+        return iterator;
+    }
+
+    public void destroy() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * A page of records of a group, or the failure of the read of a group, where the last page of a group ends it.
+     */
+    private static class Page {
+
+        private List<Record> records;
+
+        private Throwable error;
+
+        private boolean last;
+
+        Page(List<Record> records, Throwable error, boolean last) {
+            this.records = records;
+            this.error = error;
+            this.last = last;
+        }
+    }
+
+    /**
+     * A group being streamed, with its iterator kept open between the reads of its pages.
+     */
+    private static class GroupRead {
+
+        private RecordGroup recordGroup;
+
+        private AnalyticsIterator<Record> iterator;
+
+        GroupRead(RecordGroup recordGroup) {
+            this.recordGroup = recordGroup;
+        }
+    }
+
+    private static class StreamingRecordIterator implements AnalyticsIterator<Record> {
+
+        private ThreadPoolExecutor executor;
+
+        private AnalyticsRecordStore recordStore;
+
+        private RecordGroup[] recordGroups;
+
+        private int maxReads;
+
+        private BlockingQueue<Page> pages;
+
+        /* the rest are guarded by this iterator, where a page read takes one of the free slots of the queue */
+
+        private int nextGroup;
+
+        private Deque<GroupRead> openGroups = new ArrayDeque<>();
+
+        private int openGroupCount;
+
+        private int runningReads;
+
+        private int freeSlots;
+
+        private int remainingGroups;
+
+        private Iterator<Record> currentPage = Collections.emptyIterator();
+
+        private volatile boolean closed;
+
+        StreamingRecordIterator(ThreadPoolExecutor executor, AnalyticsRecordStore recordStore,
+                                RecordGroup[] recordGroups, int maxReads, int queueCapacity) {
+            this.executor = executor;
+            this.recordStore = recordStore;
+            this.recordGroups = recordGroups;
+            this.maxReads = maxReads;
+            this.remainingGroups = recordGroups.length;
+            this.freeSlots = queueCapacity;
+            this.pages = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        /* submits the page reads there is room for, preferring the open groups to the ones not started */
+        private void schedule() {
+            List<GroupRead> reads = new ArrayList<>();
+            synchronized (this) {
+                while (!this.closed && this.freeSlots > 0 && this.runningReads < this.maxReads) {
+                    GroupRead groupRead = this.openGroups.poll();
+                    if (groupRead == null) {
+                        if (this.nextGroup == this.recordGroups.length || this.openGroupCount == this.maxReads) {
+                            break;
+                        }
+                        groupRead = new GroupRead(this.recordGroups[this.nextGroup++]);
+                        this.openGroupCount++;
+                    }
+                    this.freeSlots--;
+                    this.runningReads++;
+                    reads.add(groupRead);
+                }
+            }
+            for (GroupRead groupRead : reads) {
+                try {
+                    this.executor.execute(() -> this.readPage(groupRead));
+                } catch (RejectedExecutionException e) {
+                    /* the slot taken for the page read is used for the failure instead */
+                    this.pages.offer(new Page(null, new AnalyticsException("The record group reader is shutdown",
+                            e), true));
+                    this.endRead(groupRead, false);
+                }
+            }
+        }
+
+        private void readPage(GroupRead groupRead) {
+            Page page = null;
+            if (!this.closed) {
+                try {
+                    if (groupRead.iterator == null) {
+                        groupRead.iterator = this.recordStore.readRecords(groupRead.recordGroup);
+                    }
+                    List<Record> records = groupRead.iterator.nextBatch(READ_PAGE_SIZE);
+                    page = new Page(records, null, records.size() < READ_PAGE_SIZE);
+                } catch (Throwable e) {
+                    page = new Page(null, e, true);
+                }
+            }
+            boolean ended = page != null && page.last;
+            if (ended) {
+                AnalyticsCommonUtils.closeQuietly(groupRead.iterator);
+            }
+            if (page != null) {
+                /* the page is queued before the group is open for its next page, which keeps the pages in order */
+                this.pages.offer(page);
+            }
+            this.endRead(groupRead, ended);
+            this.schedule();
+        }
+
+        private synchronized void endRead(GroupRead groupRead, boolean ended) {
+            this.runningReads--;
+            if (ended) {
+                this.openGroupCount--;
+            } else {
+                /* the groups open when the iterator is closed are closed by it */
+                this.openGroups.add(groupRead);
+            }
+            this.notifyAll();
+        }
+
+        private Page takePage() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        Page page = this.pages.take();
+                        synchronized (this) {
+                            this.freeSlots++;
+                        }
+                        this.schedule();
+                        return page;
+                    } catch (InterruptedException e) {
+                        /* the page reads in flight will still hand over their pages */
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.currentPage.hasNext()) {
+                if (this.closed || this.remainingGroups == 0) {
+                    return false;
+                }
+                Page page = this.takePage();
+                if (page.error != null) {
+                    if (page.error instanceof RuntimeException) {
+                        throw (RuntimeException) page.error;
+                    }
+                    throw new RuntimeException("Error in reading record groups: " + page.error.getMessage(),
+                            page.error);
+                }
+                if (page.last) {
+                    this.remainingGroups--;
+                }
+                this.currentPage = page.records.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Record next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No further elements exist in iterator");
+            }
+            return this.currentPage.next();
+        }
+
+        @Override
+        public void remove() {
+            /* this is a read-only iterator, nothing will be removed */
+        }
+
+        @Override
+        public void close() throws IOException {
+            List<GroupRead> groupReads;
+            boolean interrupted = false;
+            synchronized (this) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                while (this.runningReads > 0) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        /* the page reads are still waited for, so no group is left being read on return */
+                        interrupted = true;
+                    }
+                }
+                groupReads = new ArrayList<>(this.openGroups);
+                this.openGroups.clear();
+            }
+            for (GroupRead groupRead : groupReads) {
+                AnalyticsCommonUtils.closeQuietly(groupRead.iterator);
+            }
+            this.currentPage = Collections.emptyIterator();
+            this.pages.clear();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.utils;
+
+import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Puts the table batches of records, as generated by {@link AnalyticsCommonUtils#generateRecordBatches(List)}, to
+ * their record stores in parallel. Each record store has its own bounded worker pool, so that a slow record store
+ * does not hold up the puts to the others, and when its queue is full the calling thread puts the batch itself.
+ * A put call returns only after all its batches are done, and fails if any of them failed, where the batches that
+ * succeeded are not rolled back, as with the sequential puts.
+ */
+public class ParallelRecordPutter {
+
+    public static final int DEFAULT_PUT_THREADS = 4;
+
+    private static final int QUEUED_BATCHES_PER_THREAD = 4;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+
+    private Map<String, RecordStoreWorkers> recordStoreWorkers = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the record store of a table, i.e. AnalyticsDataService#getRecordStoreNameByTable.
+     */
+    public interface RecordStoreResolver {
+
+        String getRecordStoreNameByTable(String tableName) throws AnalyticsException;
+
+    }
+
+    /**
+     * Adds a record store with its worker pool sized with the record store property
+     * {@link AnalyticsCommonConstants#RECORD_STORE_PUT_THREADS}, or {@link #DEFAULT_PUT_THREADS} if not set.
+     */
+    public void addRecordStore(String recordStoreName, AnalyticsRecordStore recordStore,
+                               Map<String, String> properties) throws AnalyticsException {
+        int threads = AnalyticsCommonUtils.getIntProperty(properties,
+                AnalyticsCommonConstants.RECORD_STORE_PUT_THREADS, DEFAULT_PUT_THREADS);
+        this.addRecordStore(recordStoreName, recordStore, threads);
+    }
+
+    public void addRecordStore(String recordStoreName, AnalyticsRecordStore recordStore, int threads)
+            throws AnalyticsException {
+        if (threads < 1) {
+            throw new AnalyticsException("The put threads of the record store '" + recordStoreName +
+                    "' should be at least 1: " + threads);
+        }
+        RecordStoreWorkers previous = this.recordStoreWorkers.put(recordStoreName,
+                new RecordStoreWorkers(recordStoreName, recordStore, threads));
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Puts the given table batches, where the caller thread puts one of the batches itself instead of waiting idle.
+     * If only one batch failed, its exception is thrown as is, or else the first exception is thrown with the
+     * tables of all the failed batches, and the rest of the exceptions as suppressed.
+     */
+    public void put(Collection<List<Record>> recordBatches, RecordStoreResolver resolver) throws AnalyticsException {
+        if (recordBatches.isEmpty()) {
+            return;
+        }
+        if (recordBatches.size() == 1) {
+            List<Record> recordBatch = recordBatches.iterator().next();
+            this.lookupWorkers(recordBatch, resolver).recordStore.put(recordBatch);
+            return;
+        }
+        /* all the record stores are resolved before any batch is put, so that a table with no record store fails the
+         * call as a whole */
+        List<List<Record>> batches = new ArrayList<>(recordBatches);
+        List<RecordStoreWorkers> batchWorkers = new ArrayList<>(batches.size());
+        for (List<Record> recordBatch : batches) {
+            batchWorkers.add(this.lookupWorkers(recordBatch, resolver));
+        }
+        List<Future<?>> futures = new ArrayList<>(batches.size());
+        List<String> tables = new ArrayList<>(batches.size());
+        List<Throwable> errors = new ArrayList<>();
+        List<String> failedTables = new ArrayList<>();
+        for (int i = 1; i < batches.size(); i++) {
+            List<Record> recordBatch = batches.get(i);
+            RecordStoreWorkers workers = batchWorkers.get(i);
+            try {
+                futures.add(workers.executor.submit(() -> {
+                    workers.recordStore.put(recordBatch);
+                    return null;
+                }));
+                tables.add(recordBatch.get(0).getTableName());
+            } catch (RejectedExecutionException e) {
+                errors.add(new AnalyticsException("The record store '" + workers.name + "' is shutdown", e));
+                failedTables.add(recordBatch.get(0).getTableName());
+            }
+        }
+        try {
+            batchWorkers.get(0).recordStore.put(batches.get(0));
+        } catch (AnalyticsException | RuntimeException e) {
+            errors.add(e);
+            failedTables.add(batches.get(0).get(0).getTableName());
+        }
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            while (true) {
+                try {
+                    futures.get(i).get();
+                    break;
+                } catch (InterruptedException e) {
+                    /* the batches in flight are still waited for, so none is left running after the call */
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    errors.add(e.getCause());
+                    failedTables.add(tables.get(i));
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (errors.isEmpty()) {
+            return;
+        }
+        Throwable first = errors.get(0);
+        if (errors.size() == 1 && first instanceof AnalyticsException) {
+            throw (AnalyticsException) first;
+        }
+        AnalyticsException exception = new AnalyticsException("Error in putting records to the tables " +
+                failedTables + ": " + first.getMessage(), first);
+        for (int i = 1; i < errors.size(); i++) {
+            exception.addSuppressed(errors.get(i));
+        }
+        throw exception;
+    }
+
+    private RecordStoreWorkers lookupWorkers(List<Record> recordBatch, RecordStoreResolver resolver)
+            throws AnalyticsException {
+        String tableName = recordBatch.get(0).getTableName();
+        String recordStoreName = resolver.getRecordStoreNameByTable(tableName);
+        RecordStoreWorkers workers = this.recordStoreWorkers.get(recordStoreName);
+        if (workers == null) {
+            throw new AnalyticsException("The record store '" + recordStoreName + "' of the table '" + tableName +
+                    "' is not added to the record putter");
+        }
+        return workers;
+    }
+
+    public void destroy() {
+        for (RecordStoreWorkers workers : this.recordStoreWorkers.values()) {
+            workers.shutdown();
+        }
+        this.recordStoreWorkers.clear();
+    }
+
+    /**
+     * The worker pool of a record store, with a bounded queue of batches, beyond which the submitting thread puts
+     * the batch itself, which throttles the callers to the rate the record store takes the records in.
+     */
+    private static class RecordStoreWorkers {
+
+        private String name;
+
+        private AnalyticsRecordStore recordStore;
+
+        private ThreadPoolExecutor executor;
+
+        RecordStoreWorkers(String name, AnalyticsRecordStore recordStore, int threads) {
+            this.name = name;
+            this.recordStore = recordStore;
+            this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(threads * QUEUED_BATCHES_PER_THREAD), new PutThreadFactory(name),
+                    (task, executor) -> {
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("The record store '" + name + "' is shutdown");
+                        }
+                        task.run();
+                    });
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        void shutdown() {
+            this.executor.shutdown();
+        }
+    }
+
+    private static class PutThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private final String namePrefix;
+
+        PutThreadFactory(String recordStoreName) {
+            this.namePrefix = "RecordPutter-" + recordStoreName + "-pool-" + POOL_NUMBER.getAndIncrement() +
+                    "-thread-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, this.namePrefix + this.threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.utils;
+
+import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordAggregate;
+import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes an {@link AggregateFunction} over the values of a column, grouped by time buckets, which the record
+ * stores feed with the timestamp and the column value of each record, without keeping the records. The buckets are
+ * aligned to the multiples of the bucket size from the epoch, and the buckets with no values are not in the result.
+ */
+public class RecordAggregator {
+
+    private static final int READ_BATCH_SIZE = 1000;
+
+    private AggregateFunction function;
+
+    private String column;
+
+    private long timeFrom;
+
+    private long bucketSize;
+
+    private Map<Long, Bucket> buckets = new TreeMap<>();
+
+    /**
+     * @param function The aggregate function
+     * @param column The column aggregated, where null or {@link AnalyticsCommonConstants#TIMESTAMP_FIELD} is the
+     * record timestamp
+     * @param timeFrom The start of the time range, which is the bucket start when the records are not grouped
+     * @param bucketSize The size of the time buckets, or a non-positive value to not group the records
+     */
+    public RecordAggregator(AggregateFunction function, String column, long timeFrom, long bucketSize) {
+        this.function = function;
+        this.column = column;
+        this.timeFrom = timeFrom;
+        this.bucketSize = bucketSize;
+    }
+
+    public static boolean isTimestampColumn(String column) {
+        return column == null || AnalyticsCommonConstants.TIMESTAMP_FIELD.equals(column);
+    }
+
+    /**
+     * Aggregates the records read from the given record store, which is the generic implementation for the record
+     * stores that cannot compute the aggregate themselves. Only the aggregated column of the records is read.
+     */
+    public static List<RecordAggregate> aggregate(AnalyticsRecordStore recordStore, String tableName,
+                                                  AggregateFunction function, String column, long timeFrom,
+                                                  long timeTo, long bucketSize) throws AnalyticsException {
+        RecordAggregator aggregator = new RecordAggregator(function, column, timeFrom, bucketSize);
+        /* the timestamp is not a stored column, so projecting to it reads none of the record values */
+        List<String> columns = Collections.singletonList(isTimestampColumn(column) ?
+                AnalyticsCommonConstants.TIMESTAMP_FIELD : column);
+        for (RecordGroup recordGroup : recordStore.get(tableName, 1, columns, timeFrom, timeTo, 0, -1)) {
+            AnalyticsIterator<Record> iterator = recordStore.readRecords(recordGroup);
+            try {
+                while (true) {
+                    List<Record> records = iterator.nextBatch(READ_BATCH_SIZE);
+                    for (Record record : records) {
+                        aggregator.add(record);
+                    }
+                    if (records.size() < READ_BATCH_SIZE) {
+                        break;
+                    }
+                }
+            } finally {
+                AnalyticsCommonUtils.closeQuietly(iterator);
+            }
+        }
+        return aggregator.getResult();
+    }
+
+    public void add(Record record) throws AnalyticsException {
+        this.add(record.getTimestamp(), isTimestampColumn(this.column) ? record.getTimestamp() :
+                record.getValue(this.column));
+    }
+
+    /**
+     * Adds the value of a record, where null values are skipped, and the values other than counted should be
+     * numbers.
+     */
+    public void add(long timestamp, Object value) throws AnalyticsException {
+        if (value == null) {
+            return;
+        }
+        double number = 0;
+        if (this.function != AggregateFunction.COUNT) {
+            if (!(value instanceof Number)) {
+                throw new AnalyticsException("The value of the column '" + this.column + "' cannot be aggregated " +
+                        "with " + this.function + ", as it is not a number: " + value);
+            }
+            number = ((Number) value).doubleValue();
+        }
+        long bucketStart = this.bucketSize > 0 ? Math.floorDiv(timestamp, this.bucketSize) * this.bucketSize :
+                this.timeFrom;
+        Bucket bucket = this.buckets.get(bucketStart);
+        if (bucket == null) {
+            bucket = new Bucket(number);
+            this.buckets.put(bucketStart, bucket);
+        } else {
+            bucket.add(number);
+        }
+    }
+
+    public List<RecordAggregate> getResult() {
+        List<RecordAggregate> result = new ArrayList<>(this.buckets.size());
+        for (Map.Entry<Long, Bucket> entry : this.buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            double value;
+            switch (this.function) {
+                case COUNT:
+                    value = bucket.count;
+                    break;
+                case SUM:
+                    value = bucket.sum;
+                    break;
+                case MIN:
+                    value = bucket.min;
+                    break;
+                default:
+                    value = bucket.max;
+            }
+            result.add(new RecordAggregate(entry.getKey(), bucket.count, value));
+        }
+        return result;
+    }
+
+    /**
+     * The running aggregates of a time bucket.
+     */
+    private static class Bucket {
+
+        private long count;
+
+        private double sum;
+
+        private double min;
+
+        private double max;
+
+        Bucket(double value) {
+            this.count = 1;
+            this.sum = value;
+            this.min = value;
+            this.max = value;
+        }
+
+        void add(double value) {
+            this.count++;
+            this.sum += value;
+            this.min = Math.min(this.min, value);
+            this.max = Math.max(this.max, value);
+        }
+    }
+
+}
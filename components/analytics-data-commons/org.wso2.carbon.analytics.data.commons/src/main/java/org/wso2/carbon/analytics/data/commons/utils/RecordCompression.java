@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.utils;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compressions of the encoded record values. {@link #LZ4} is for the tables where the put and get throughput
+ * matter, and {@link #DEFLATE} is for the tables where the storage matters, which also takes a preset dictionary of
+ * records similar to the compressed one, as a single record is usually too small to be compressed well on its own.
+ * The id of a compression is written with the compressed values, hence must not be changed.
+ */
+public enum RecordCompression {
+
+    NONE((byte) 0) {
+        @Override
+        byte[] compress(byte[] data, byte[] dictionary) {
+            return data;
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int decompressedLength, byte[] dictionary) {
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+    },
+
+    LZ4((byte) 1) {
+        @Override
+        byte[] compress(byte[] data, byte[] dictionary) {
+            LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+            byte[] result = new byte[compressor.maxCompressedLength(data.length)];
+            int length = compressor.compress(data, 0, data.length, result, 0, result.length);
+            return Arrays.copyOf(result, length);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int decompressedLength, byte[] dictionary)
+                throws AnalyticsException {
+            LZ4FastDecompressor decompressor = LZ4_FACTORY.fastDecompressor();
+            byte[] result = new byte[decompressedLength];
+            try {
+                if (decompressor.decompress(data, offset, result, 0, decompressedLength) != length) {
+                    throw new AnalyticsException("Truncated LZ4 compressed record values");
+                }
+            } catch (LZ4Exception e) {
+                throw new AnalyticsException("Invalid LZ4 compressed record values: " + e.getMessage(), e);
+            }
+            return result;
+        }
+    },
+
+    DEFLATE((byte) 2) {
+        @Override
+        byte[] compress(byte[] data, byte[] dictionary) {
+            Deflater deflater = DEFLATER_TL.get();
+            deflater.reset();
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data);
+            deflater.finish();
+            /* the output is grown only for the values that do not compress */
+            byte[] result = new byte[data.length / 2 + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                length += deflater.deflate(result, length, result.length - length);
+            }
+            return Arrays.copyOf(result, length);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int decompressedLength, byte[] dictionary)
+                throws AnalyticsException {
+            Inflater inflater = INFLATER_TL.get();
+            inflater.reset();
+            inflater.setInput(data, offset, length);
+            byte[] result = new byte[decompressedLength];
+            try {
+                int position = 0;
+                while (position < decompressedLength && !inflater.finished()) {
+                    int count = inflater.inflate(result, position, decompressedLength - position);
+                    if (count == 0 && inflater.needsDictionary() && dictionary != null) {
+                        inflater.setDictionary(dictionary);
+                        dictionary = null;
+                    } else if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    position += count;
+                }
+                if (position != decompressedLength) {
+                    throw new AnalyticsException("Truncated deflate compressed record values");
+                }
+            } catch (DataFormatException e) {
+                throw new AnalyticsException("Invalid deflate compressed record values: " + e.getMessage(), e);
+            }
+            return result;
+        }
+
+        @Override
+        boolean supportsDictionary() {
+            return true;
+        }
+    };
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    private static final ThreadLocal<Deflater> DEFLATER_TL = new ThreadLocal<Deflater>() {
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION);
+        }
+    };
+
+    private static final ThreadLocal<Inflater> INFLATER_TL = new ThreadLocal<Inflater>() {
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    private byte id;
+
+    RecordCompression(byte id) {
+        this.id = id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    abstract byte[] compress(byte[] data, byte[] dictionary);
+
+    abstract byte[] decompress(byte[] data, int offset, int length, int decompressedLength, byte[] dictionary)
+            throws AnalyticsException;
+
+    boolean supportsDictionary() {
+        return false;
+    }
+
+    public static RecordCompression forId(byte id) throws AnalyticsException {
+        for (RecordCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new AnalyticsException("Unknown record values compression: " + id);
+    }
+
+    public static RecordCompression forName(String name) throws AnalyticsException {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new AnalyticsException("Unknown record values compression '" + name + "', expected one of: " +
+                    Arrays.toString(values()));
+        }
+    }
+
+}
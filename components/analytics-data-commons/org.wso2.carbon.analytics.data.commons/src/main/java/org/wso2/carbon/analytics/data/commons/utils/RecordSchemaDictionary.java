@@ -0,0 +1,423 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.data.commons.utils;
+
+import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
+import org.wso2.carbon.analytics.data.commons.sources.CompactRecord;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordSchema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class encodes and decodes the record values of a record store. In the indexed format, the records only
+ * carry the fingerprint of their {@link RecordSchema}, and the schemas are kept by this dictionary in a table of the
+ * record store itself, which is written in the self-describing format. The encoded values are then compressed with
+ * the {@link RecordCompression} of their table, where the compressions that take a preset dictionary use one
+ * sampled from the first large enough batch of records put to the table, which is kept in the same table. The
+ * values in both formats, compressed or not, are decoded transparently, so the records written before the format or
+ * the compression is changed are still read without a migration.
+ */
+public class RecordSchemaDictionary {
+
+    public static final String DICTIONARY_TABLE = "__RECORD_SCHEMA_DICTIONARY__";
+
+    private static final String COLUMNS = "columns";
+
+    private static final String COLUMN_SEPARATOR = "\u0000";
+
+    private static final String DATA = "data";
+
+    private static final String COMPRESSION_DICTIONARY_ID_PREFIX = "compression-";
+
+    private static final String TABLE_COMPRESSION_DICTIONARY_ID_PREFIX = "compression-table-";
+
+    private static final int MAX_CACHED_SCHEMAS = 1024;
+
+    /* a larger dictionary compresses a little better, but it is processed again for each compressed record */
+    private static final int MAX_COMPRESSION_DICTIONARY_SIZE = 4 * 1024;
+
+    private static final int MIN_RECORDS_TO_SAMPLE = 32;
+
+    private static final int MAX_RECORDS_TO_SAMPLE = 256;
+
+    private AnalyticsRecordStore recordStore;
+
+    private boolean indexedFormat;
+
+    private RecordCompression compression;
+
+    private Map<String, RecordCompression> tableCompressions = new HashMap<>();
+
+    private volatile boolean tableCreated;
+
+    private ConcurrentMap<Long, RecordSchema> schemas = new ConcurrentHashMap<>();
+
+    private ConcurrentMap<List<String>, RecordSchema> schemasByColumns = new ConcurrentHashMap<>();
+
+    private ConcurrentMap<Integer, byte[]> compressionDictionaries = new ConcurrentHashMap<>();
+
+    /* normalized table name -> id of the compression dictionary of the table */
+    private ConcurrentMap<String, Integer> tableCompressionDictionaryIds = new ConcurrentHashMap<>();
+
+    /* the tables, whose compression dictionary is already looked up in the dictionary table */
+    private Set<String> lookedUpTables = ConcurrentHashMap.newKeySet();
+
+    private EntryStore recordStoreEntries = new RecordStoreEntries();
+
+    /**
+     * Reads and writes the entries of the dictionary table. A record store, which holds a connection while it reads
+     * or writes records, passes one that works on that connection, as going through the record store would take
+     * another connection, and the connection pool could run out with the concurrent reads and writes.
+     */
+    public interface EntryStore {
+
+        /**
+         * @return The entry with the given id, or null if it is not there, or the dictionary table is not there
+         */
+        Record readEntry(String id) throws AnalyticsException;
+
+        /**
+         * Writes the entry, which must be committed on return, as the records referring to it may be written by
+         * another transaction.
+         */
+        void writeEntry(Record entry) throws AnalyticsException;
+
+    }
+
+    /**
+     * @param recordStore The record store, which keeps the dictionary table
+     * @param properties The properties of the record store, which select the format with
+     *                   {@link AnalyticsCommonConstants#RECORD_BLOB_FORMAT}, and the compressions with
+     *                   {@link AnalyticsCommonConstants#RECORD_COMPRESSION}
+     * @throws AnalyticsException If a compression is not known
+     */
+    public RecordSchemaDictionary(AnalyticsRecordStore recordStore, Map<String, String> properties)
+            throws AnalyticsException {
+        this.recordStore = recordStore;
+        this.indexedFormat = AnalyticsCommonConstants.RECORD_BLOB_FORMAT_INDEXED.equals(
+                properties.get(AnalyticsCommonConstants.RECORD_BLOB_FORMAT));
+        this.compression = RecordCompression.NONE;
+        String tablePrefix = AnalyticsCommonConstants.RECORD_COMPRESSION + ".";
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            if (entry.getKey().equals(AnalyticsCommonConstants.RECORD_COMPRESSION)) {
+                this.compression = RecordCompression.forName(entry.getValue());
+            } else if (entry.getKey().startsWith(tablePrefix)) {
+                this.tableCompressions.put(AnalyticsCommonUtils.normalizeTableName(
+                        entry.getKey().substring(tablePrefix.length())), RecordCompression.forName(entry.getValue()));
+            }
+        }
+    }
+
+    public boolean isIndexedFormat() {
+        return indexedFormat;
+    }
+
+    /**
+     * @return Whether the dictionary table is written to, which is when the indexed format is enabled, or a
+     * compression takes a preset dictionary
+     */
+    public boolean isTableRequired() {
+        if (this.indexedFormat || this.compression.supportsDictionary()) {
+            return true;
+        }
+        for (RecordCompression tableCompression : this.tableCompressions.values()) {
+            if (tableCompression.supportsDictionary()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the dictionary table, if it is not already there. This is done with the first schema written, but a
+     * record store can create it beforehand, not to create it while its own transaction is open.
+     */
+    public void createTable() throws AnalyticsException {
+        if (!this.tableCreated) {
+            this.recordStore.createTable(DICTIONARY_TABLE);
+            this.tableCreated = true;
+        }
+    }
+
+    public RecordCompression getCompression(String tableName) {
+        RecordCompression tableCompression = this.tableCompressions.get(
+                AnalyticsCommonUtils.normalizeTableName(tableName));
+        return tableCompression == null ? this.compression : tableCompression;
+    }
+
+    public void prepareBatch(List<Record> records) throws AnalyticsException {
+        this.prepareBatch(records, this.recordStoreEntries);
+    }
+
+    /**
+     * Prepares the encoding of a batch of records of the same table, where the schemas of the records are written
+     * to the dictionary table if they are not there, and the compression dictionary of the table is looked up, or
+     * sampled from the batch if the table does not have one yet. A record store should call this before it starts
+     * writing the records of a batch, so that the dictionary table is not read or written in the middle of it.
+     */
+    public void prepareBatch(List<Record> records, EntryStore entryStore) throws AnalyticsException {
+        if (records.isEmpty()) {
+            return;
+        }
+        String tableName = AnalyticsCommonUtils.normalizeTableName(records.get(0).getTableName());
+        if (this.indexedFormat && !DICTIONARY_TABLE.equals(tableName)) {
+            RecordSchema lastSchema = null;
+            for (Record record : records) {
+                if (record.getValues().isEmpty()) {
+                    continue;
+                }
+                RecordSchema schema = this.lookupSchema(record);
+                if (!schema.equals(lastSchema)) {
+                    this.register(schema, entryStore);
+                    lastSchema = schema;
+                }
+            }
+        }
+        if (!this.getCompression(tableName).supportsDictionary() || DICTIONARY_TABLE.equals(tableName) ||
+                this.tableCompressionDictionaryIds.containsKey(tableName)) {
+            return;
+        }
+        if (this.lookedUpTables.add(tableName)) {
+            Record entry = this.readEntry(entryStore, TABLE_COMPRESSION_DICTIONARY_ID_PREFIX + tableName);
+            if (entry != null) {
+                /* the dictionary is loaded here too, the encoding of the records should not read it */
+                Integer dictionaryId = (Integer) entry.getValue(DATA);
+                this.lookupCompressionDictionary(dictionaryId, entryStore);
+                this.tableCompressionDictionaryIds.put(tableName, dictionaryId);
+                return;
+            }
+        }
+        if (records.size() >= MIN_RECORDS_TO_SAMPLE) {
+            byte[] dictionary = this.sampleCompressionDictionary(records, entryStore);
+            int dictionaryId = AnalyticsCommonUtils.fingerprint(dictionary);
+            Record entry = this.readEntry(entryStore,
+                    COMPRESSION_DICTIONARY_ID_PREFIX + Integer.toHexString(dictionaryId));
+            if (entry != null && !Arrays.equals((byte[]) entry.getValue(DATA), dictionary)) {
+                /* the id is taken by another dictionary, the table is compressed without one for now */
+                return;
+            }
+            this.writeEntry(entryStore, COMPRESSION_DICTIONARY_ID_PREFIX + Integer.toHexString(dictionaryId),
+                    dictionary);
+            this.writeEntry(entryStore, TABLE_COMPRESSION_DICTIONARY_ID_PREFIX + tableName, dictionaryId);
+            this.compressionDictionaries.put(dictionaryId, dictionary);
+            this.tableCompressionDictionaryIds.put(tableName, dictionaryId);
+        }
+    }
+
+    /* concatenates the values of records spread across the batch */
+    private byte[] sampleCompressionDictionary(List<Record> records, EntryStore entryStore)
+            throws AnalyticsException {
+        int sampleCount = Math.min(records.size(), MAX_RECORDS_TO_SAMPLE);
+        List<byte[]> samples = new ArrayList<>(sampleCount);
+        int size = 0;
+        for (int i = 0; i < sampleCount && size < MAX_COMPRESSION_DICTIONARY_SIZE; i++) {
+            byte[] sample = this.encodeUncompressedRecordValues(records.get(i * records.size() / sampleCount),
+                    entryStore);
+            samples.add(sample);
+            size += sample.length;
+        }
+        byte[] dictionary = new byte[Math.min(size, MAX_COMPRESSION_DICTIONARY_SIZE)];
+        int position = 0;
+        for (byte[] sample : samples) {
+            int length = Math.min(sample.length, dictionary.length - position);
+            System.arraycopy(sample, 0, dictionary, position, length);
+            position += length;
+        }
+        return dictionary;
+    }
+
+    public byte[] encodeRecordValues(Record record) throws AnalyticsException {
+        return this.encodeRecordValues(record, this.recordStoreEntries);
+    }
+
+    public byte[] encodeRecordValues(Record record, EntryStore entryStore) throws AnalyticsException {
+        byte[] data = this.encodeUncompressedRecordValues(record, entryStore);
+        RecordCompression tableCompression = this.getCompression(record.getTableName());
+        Integer dictionaryId = null;
+        if (tableCompression.supportsDictionary()) {
+            dictionaryId = this.tableCompressionDictionaryIds.get(
+                    AnalyticsCommonUtils.normalizeTableName(record.getTableName()));
+        }
+        if (dictionaryId == null) {
+            return AnalyticsCommonUtils.compressRecordValues(data, tableCompression);
+        }
+        return AnalyticsCommonUtils.compressRecordValues(data, tableCompression, dictionaryId,
+                this.lookupCompressionDictionary(dictionaryId, entryStore));
+    }
+
+    private byte[] encodeUncompressedRecordValues(Record record, EntryStore entryStore) throws AnalyticsException {
+        Map<String, Object> values = record.getValues();
+        if (!this.indexedFormat || values.isEmpty() || DICTIONARY_TABLE.equalsIgnoreCase(record.getTableName())) {
+            return AnalyticsCommonUtils.encodeRecordValues(values);
+        }
+        RecordSchema schema = this.lookupSchema(record);
+        if (!this.register(schema, entryStore)) {
+            /* another schema has the same fingerprint, so this one cannot be referred by it */
+            return AnalyticsCommonUtils.encodeRecordValues(values);
+        }
+        return AnalyticsCommonUtils.encodeIndexedRecordValues(schema, values);
+    }
+
+    public Map<String, Object> decodeRecordValues(byte[] data, Set<String> columns) throws AnalyticsException {
+        return this.decodeRecordValues(data, columns, this.recordStoreEntries);
+    }
+
+    public Map<String, Object> decodeRecordValues(byte[] data, Set<String> columns, EntryStore entryStore)
+            throws AnalyticsException {
+        if (AnalyticsCommonUtils.isCompressedRecordValues(data)) {
+            Integer dictionaryId = AnalyticsCommonUtils.decodeCompressionDictionaryId(data);
+            data = AnalyticsCommonUtils.decompressRecordValues(data,
+                    dictionaryId == null ? null : this.lookupCompressionDictionary(dictionaryId, entryStore));
+        }
+        if (!AnalyticsCommonUtils.isIndexedRecordValues(data)) {
+            return AnalyticsCommonUtils.decodeRecordValues(data, columns);
+        }
+        long fingerprint = AnalyticsCommonUtils.decodeRecordSchemaFingerprint(data);
+        RecordSchema schema = this.schemas.get(fingerprint);
+        if (schema == null) {
+            schema = this.load(fingerprint, entryStore);
+            if (schema == null) {
+                throw new AnalyticsException("The record schema with the fingerprint '" +
+                        Long.toHexString(fingerprint) + "' is not in the record schema dictionary");
+            }
+        }
+        return AnalyticsCommonUtils.decodeIndexedRecordValues(data, schema, columns);
+    }
+
+    private byte[] lookupCompressionDictionary(int dictionaryId, EntryStore entryStore) throws AnalyticsException {
+        byte[] dictionary = this.compressionDictionaries.get(dictionaryId);
+        if (dictionary == null) {
+            Record entry = this.readEntry(entryStore,
+                    COMPRESSION_DICTIONARY_ID_PREFIX + Integer.toHexString(dictionaryId));
+            if (entry == null) {
+                throw new AnalyticsException("The compression dictionary with the id '" +
+                        Integer.toHexString(dictionaryId) + "' is not in the record schema dictionary");
+            }
+            dictionary = (byte[]) entry.getValue(DATA);
+            this.compressionDictionaries.put(dictionaryId, dictionary);
+        }
+        return dictionary;
+    }
+
+    private RecordSchema lookupSchema(Record record) {
+        if (record instanceof CompactRecord) {
+            return ((CompactRecord) record).getSchema();
+        }
+        List<String> key = new ArrayList<>(record.getValues().keySet());
+        RecordSchema schema = this.schemasByColumns.get(key);
+        if (schema == null) {
+            if (this.schemasByColumns.size() >= MAX_CACHED_SCHEMAS) {
+                this.schemasByColumns.clear();
+            }
+            schema = new RecordSchema(key);
+            this.schemasByColumns.put(key, schema);
+        }
+        return schema;
+    }
+
+    /* writes the schema to the dictionary table if it is not there, and returns false if the fingerprint of the
+     * schema is already taken by another schema */
+    private boolean register(RecordSchema schema, EntryStore entryStore) throws AnalyticsException {
+        long fingerprint = schema.getFingerprint();
+        RecordSchema existingSchema = this.schemas.get(fingerprint);
+        if (existingSchema == null) {
+            existingSchema = this.load(fingerprint, entryStore);
+        }
+        if (existingSchema == null) {
+            Map<String, Object> values = new HashMap<>(2);
+            values.put(COLUMNS, String.join(COLUMN_SEPARATOR, schema.getColumns()));
+            this.writeEntry(entryStore, Long.toHexString(fingerprint), values);
+            this.cache(schema);
+            return true;
+        }
+        return existingSchema.equals(schema);
+    }
+
+    private RecordSchema load(long fingerprint, EntryStore entryStore) throws AnalyticsException {
+        Record entry = this.readEntry(entryStore, Long.toHexString(fingerprint));
+        if (entry == null) {
+            return null;
+        }
+        String columns = (String) entry.getValue(COLUMNS);
+        return this.cache(new RecordSchema(Arrays.asList(columns.split(COLUMN_SEPARATOR, -1))));
+    }
+
+    private void writeEntry(EntryStore entryStore, String id, Object data) throws AnalyticsException {
+        Map<String, Object> values = new HashMap<>(2);
+        values.put(DATA, data);
+        this.writeEntry(entryStore, id, values);
+    }
+
+    private void writeEntry(EntryStore entryStore, String id, Map<String, Object> values) throws AnalyticsException {
+        this.createTable();
+        entryStore.writeEntry(new Record(id, DICTIONARY_TABLE, values, System.currentTimeMillis()));
+    }
+
+    private Record readEntry(EntryStore entryStore, String id) throws AnalyticsException {
+        Record entry = entryStore.readEntry(id);
+        if (entry != null) {
+            this.tableCreated = true;
+        }
+        return entry;
+    }
+
+    /**
+     * Reads and writes the entries through the record store API.
+     */
+    private class RecordStoreEntries implements EntryStore {
+
+        @Override
+        public Record readEntry(String id) throws AnalyticsException {
+            List<Record> records;
+            try {
+                records = AnalyticsCommonUtils.listRecords(recordStore, recordStore.get(DICTIONARY_TABLE, 1,
+                        null, Collections.singletonList(id)));
+            } catch (AnalyticsTableNotAvailableException e) {
+                return null;
+            }
+            return records.isEmpty() ? null : records.get(0);
+        }
+
+        @Override
+        public void writeEntry(Record entry) throws AnalyticsException {
+            recordStore.put(Collections.singletonList(entry));
+        }
+    }
+
+    private RecordSchema cache(RecordSchema schema) {
+        if (this.schemas.size() >= MAX_CACHED_SCHEMAS) {
+            this.schemas.clear();
+        }
+        this.schemas.put(schema.getFingerprint(), schema);
+        return schema;
+    }
+
+}
@@ -32,18 +32,28 @@ import org.wso2.carbon.analytics.datasource.hbase.rg.HBaseTimestampRecordGroup;
 import org.wso2.carbon.analytics.datasource.hbase.util.HBaseAnalyticsDSConstants;
 import org.wso2.carbon.analytics.datasource.hbase.util.HBaseUtils;
 import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
 import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.BufferedRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.PrefetchingAnalyticsIterator;
 import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordAggregate;
 import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordAggregator;
+import org.wso2.carbon.analytics.data.commons.utils.RecordSchemaDictionary;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -55,11 +65,16 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
 
     private HBaseAnalyticsConfigurationEntry queryConfig;
 
+    private RecordSchemaDictionary recordSchemaDictionary;
+
+    private int readPrefetchPageSize;
+
     private static final Log log = LogFactory.getLog(HBaseAnalyticsRecordStore.class);
 
     public HBaseAnalyticsRecordStore(Connection conn, HBaseAnalyticsConfigurationEntry entry) throws IOException, AnalyticsException {
         this.conn = conn;
         this.queryConfig = entry;
+        this.recordSchemaDictionary = new RecordSchemaDictionary(this, Collections.<String, String>emptyMap());
     }
 
     public HBaseAnalyticsRecordStore() {
@@ -70,6 +85,9 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
     @Override
     public void init(Map<String, String> properties) throws AnalyticsException {
         this.queryConfig = HBaseUtils.lookupConfiguration();
+        this.recordSchemaDictionary = new RecordSchemaDictionary(this, properties);
+        this.readPrefetchPageSize = AnalyticsCommonUtils.getIntProperty(properties,
+                AnalyticsCommonConstants.READ_PREFETCH_PAGE_SIZE, 0);
         String dsName = properties.get(HBaseAnalyticsDSConstants.DATASOURCE_NAME);
         if (dsName == null) {
             throw new AnalyticsException("The property '" + HBaseAnalyticsDSConstants.DATASOURCE_NAME +
@@ -193,6 +211,7 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
                 indexTable = this.conn.getTable(TableName.valueOf(HBaseUtils.generateTableName(tableName,
                         HBaseAnalyticsDSConstants.TableType.INDEX)));
                 /* Populating batched Put instances from records in a single batch */
+                this.recordSchemaDictionary.prepareBatch(entry.getValue());
                 List<List<Put>> allPuts = this.populatePuts(recordBatches.get(entry.getKey()));
                 /* Using Table.put(List<Put>) method to minimise network calls per table */
                 try {
@@ -211,6 +230,11 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
         }
     }
 
+    @Override
+    public AnalyticsRecordWriter openBulkWriter(String tableName) throws AnalyticsException {
+        return new BufferedRecordWriter(tableName, this.queryConfig.getBatchSize(), new HBaseBatchWriter(tableName));
+    }
+
     private List<List<Put>> populatePuts(List<Record> records) throws AnalyticsException {
         byte[] data;
         List<Put> puts = new ArrayList<>();
@@ -225,7 +249,7 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
             if ((columns == null) || columns.isEmpty()) {
                 data = new byte[]{};
             } else {
-                data = AnalyticsCommonUtils.encodeRecordValues(columns);
+                data = this.recordSchemaDictionary.encodeRecordValues(record);
             }
             Put put = new Put(Bytes.toBytes(recordId));
             put.addColumn(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
@@ -294,6 +318,10 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
 
     @Override
     public AnalyticsIterator<Record> readRecords(RecordGroup recordGroup) throws AnalyticsException {
+        return PrefetchingAnalyticsIterator.wrap(this.readRecordGroup(recordGroup), this.readPrefetchPageSize);
+    }
+
+    private AnalyticsIterator<Record> readRecordGroup(RecordGroup recordGroup) throws AnalyticsException {
         if (recordGroup instanceof HBaseIDRecordGroup) {
             HBaseIDRecordGroup idRecordGroup = (HBaseIDRecordGroup) recordGroup;
             return this.getRecords(idRecordGroup.getTableName(),
@@ -317,19 +345,21 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
     private AnalyticsIterator<Record> getRecords(String tableName, List<String> columns, List<String> ids)
             throws AnalyticsException {
         int batchSize = this.queryConfig.getBatchSize();
-        return new HBaseRecordIterator(tableName, columns, ids, this.conn, batchSize);
+        return new HBaseRecordIterator(tableName, columns, ids, this.conn, batchSize, this.recordSchemaDictionary);
     }
 
     private AnalyticsIterator<Record> getRecords(String tableName, List<String> columns, long startTime,
                                                  long endTime, int recordsCount)
             throws AnalyticsException {
         int batchSize = this.queryConfig.getBatchSize();
-        return new HBaseTimestampIterator(tableName, columns, startTime, endTime, recordsCount, this.conn, batchSize);
+        return new HBaseTimestampIterator(tableName, columns, startTime, endTime, recordsCount, this.conn, batchSize,
+                this.recordSchemaDictionary);
     }
 
     private AnalyticsIterator<Record> getRecords(String tableName, List<String> columns, int recordsCount, byte[] startRow, byte[] endRow)
             throws AnalyticsException {
-        return new HBaseRegionSplitIterator(tableName, columns, recordsCount, this.conn, startRow, endRow);
+        return new HBaseRegionSplitIterator(tableName, columns, recordsCount, this.conn, startRow, endRow,
+                this.recordSchemaDictionary);
     }
 
     private RecordGroup[] computeRegionSplits(String tableName, List<String> columns, int recordsCount) throws AnalyticsException {
@@ -351,6 +381,157 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
         return regionalGroups.toArray(new RecordGroup[regionalGroups.size()]);
     }
 
+    @Override
+    public List<RecordAggregate> aggregate(String tableName, AggregateFunction function, String column,
+                                           long timeFrom, long timeTo, long bucketSize) throws AnalyticsException {
+        if (!this.tableExists(tableName)) {
+            throw new AnalyticsTableNotAvailableException(tableName);
+        }
+        /* only the timestamp cell, and the data cell if a record value is aggregated, of the rows in range are
+         * shipped back and aggregated here as they are read, without constructing the records */
+        boolean timestampColumn = RecordAggregator.isTimestampColumn(column);
+        Set<String> colSet = timestampColumn ? null : Collections.singleton(column);
+        RecordAggregator aggregator = new RecordAggregator(function, column, timeFrom, bucketSize);
+        Table table = null;
+        try {
+            table = this.conn.getTable(TableName.valueOf(HBaseUtils.generateTableName(tableName,
+                    HBaseAnalyticsDSConstants.TableType.DATA)));
+            if ((timeFrom < 0) && (timeTo >= Long.MAX_VALUE - 1)) {
+                this.aggregateAll(table, column, colSet, aggregator);
+            } else {
+                this.aggregateIndexed(tableName, table, timeFrom, timeTo, column, colSet, aggregator);
+            }
+        } catch (TableNotFoundException | RetriesExhaustedException e) {
+            throw new AnalyticsTableNotAvailableException(tableName);
+        } catch (IOException e) {
+            throw new AnalyticsException("Error aggregating records of table [" + tableName + "]: " +
+                    e.getMessage(), e);
+        } finally {
+            AnalyticsCommonUtils.closeQuietly(table);
+        }
+        return aggregator.getResult();
+    }
+
+    /* the whole data table is scanned, as all the rows are in range */
+    private void aggregateAll(Table table, String column, Set<String> colSet, RecordAggregator aggregator)
+            throws IOException, AnalyticsException {
+        Scan scan = new Scan();
+        this.addAggregatedColumns(scan, colSet);
+        scan.setCaching(this.queryConfig.getBatchSize());
+        ResultScanner scanner = null;
+        try {
+            scanner = table.getScanner(scan);
+            for (Result result : scanner) {
+                byte[] tsValue = result.getValue(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                        HBaseAnalyticsDSConstants.ANALYTICS_TS_QUALIFIER_NAME);
+                if (tsValue != null && tsValue.length > 0) {
+                    this.aggregate(result, Bytes.toLong(tsValue), column, colSet, aggregator);
+                }
+            }
+        } finally {
+            AnalyticsCommonUtils.closeQuietly(scanner);
+        }
+    }
+
+    /* the rows in range are looked up in the timestamp index table, as the timestamp iterator does, and fetched
+     * from the data table a batch at a time */
+    private void aggregateIndexed(String tableName, Table table, long timeFrom, long timeTo, String column,
+                                  Set<String> colSet, RecordAggregator aggregator)
+            throws IOException, AnalyticsException {
+        int batchSize = this.queryConfig.getBatchSize();
+        Scan indexScan = new Scan();
+        if (timeFrom >= 0L) {
+            indexScan.setStartRow(HBaseUtils.encodeLong(timeFrom));
+        }
+        if (!(timeTo >= Long.MAX_VALUE - 1)) {
+            indexScan.setStopRow(HBaseUtils.encodeLong(timeTo));
+        }
+        indexScan.addFamily(HBaseAnalyticsDSConstants.ANALYTICS_INDEX_COLUMN_FAMILY_NAME);
+        indexScan.setCaching(batchSize);
+        ListMultimap<String, Long> batch = ArrayListMultimap.create();
+        Table indexTable = null;
+        ResultScanner scanner = null;
+        try {
+            indexTable = this.conn.getTable(TableName.valueOf(HBaseUtils.generateTableName(tableName,
+                    HBaseAnalyticsDSConstants.TableType.INDEX)));
+            scanner = indexTable.getScanner(indexScan);
+            for (Result rowResult : scanner) {
+                long timestamp = Bytes.toLong(rowResult.getRow());
+                for (Cell cell : rowResult.rawCells()) {
+                    batch.put(Bytes.toString(CellUtil.cloneValue(cell)), timestamp);
+                }
+                if (batch.size() >= batchSize) {
+                    this.aggregateIndexedBatch(table, batch, column, colSet, aggregator);
+                    batch.clear();
+                }
+            }
+            this.aggregateIndexedBatch(table, batch, column, colSet, aggregator);
+        } finally {
+            AnalyticsCommonUtils.closeQuietly(scanner);
+            AnalyticsCommonUtils.closeQuietly(indexTable);
+        }
+    }
+
+    private void aggregateIndexedBatch(Table table, ListMultimap<String, Long> batch, String column,
+                                       Set<String> colSet, RecordAggregator aggregator)
+            throws IOException, AnalyticsException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Get> gets = new ArrayList<>(batch.keySet().size());
+        for (String recordId : batch.keySet()) {
+            Get get = new Get(Bytes.toBytes(recordId));
+            this.addAggregatedColumns(get, colSet);
+            gets.add(get);
+        }
+        for (Result result : table.get(gets)) {
+            if (result.isEmpty()) {
+                continue;
+            }
+            byte[] tsValue = result.getValue(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                    HBaseAnalyticsDSConstants.ANALYTICS_TS_QUALIFIER_NAME);
+            if (tsValue == null || tsValue.length == 0) {
+                continue;
+            }
+            long timestamp = Bytes.toLong(tsValue);
+            /* the index entries left behind by the updates of the records do not count */
+            if (batch.get(Bytes.toString(result.getRow())).contains(timestamp)) {
+                this.aggregate(result, timestamp, column, colSet, aggregator);
+            }
+        }
+    }
+
+    private void addAggregatedColumns(Scan scan, Set<String> colSet) {
+        scan.addColumn(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                HBaseAnalyticsDSConstants.ANALYTICS_TS_QUALIFIER_NAME);
+        if (colSet != null) {
+            scan.addColumn(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                    HBaseAnalyticsDSConstants.ANALYTICS_ROWDATA_QUALIFIER_NAME);
+        }
+    }
+
+    private void addAggregatedColumns(Get get, Set<String> colSet) {
+        get.addColumn(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                HBaseAnalyticsDSConstants.ANALYTICS_TS_QUALIFIER_NAME);
+        if (colSet != null) {
+            get.addColumn(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                    HBaseAnalyticsDSConstants.ANALYTICS_ROWDATA_QUALIFIER_NAME);
+        }
+    }
+
+    private void aggregate(Result result, long timestamp, String column, Set<String> colSet,
+                           RecordAggregator aggregator) throws AnalyticsException {
+        if (colSet == null) {
+            aggregator.add(timestamp, timestamp);
+            return;
+        }
+        byte[] data = result.getValue(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
+                HBaseAnalyticsDSConstants.ANALYTICS_ROWDATA_QUALIFIER_NAME);
+        if (data != null && data.length > 0) {
+            aggregator.add(timestamp, this.recordSchemaDictionary.decodeRecordValues(data, colSet).get(column));
+        }
+    }
+
     @Override
     public void delete(String tableName, long timeFrom, long timeTo) throws AnalyticsException {
         int batchSize = this.queryConfig.getBatchSize();
@@ -546,4 +727,47 @@ public class HBaseAnalyticsRecordStore implements AnalyticsRecordStore {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Writes the batches of a bulk writer to the data and the index tables held open until the writer is closed.
+     * The index entries of a batch are written before its records as with the puts, which rules out buffered
+     * mutators, as they flush the two tables independently.
+     */
+    private class HBaseBatchWriter implements BufferedRecordWriter.BatchWriter {
+
+        private String tableName;
+
+        private Table table, indexTable;
+
+        HBaseBatchWriter(String tableName) {
+            this.tableName = tableName;
+        }
+
+        @Override
+        public void writeBatch(List<Record> records) throws AnalyticsException {
+            try {
+                if (this.table == null) {
+                    this.indexTable = conn.getTable(TableName.valueOf(HBaseUtils.generateTableName(this.tableName,
+                            HBaseAnalyticsDSConstants.TableType.INDEX)));
+                    this.table = conn.getTable(TableName.valueOf(HBaseUtils.generateTableName(this.tableName,
+                            HBaseAnalyticsDSConstants.TableType.DATA)));
+                }
+                recordSchemaDictionary.prepareBatch(records);
+                List<List<Put>> allPuts = populatePuts(records);
+                this.indexTable.put(allPuts.get(0));
+                this.table.put(allPuts.get(1));
+                log.debug("Processed " + records.size() + " bulk PUT operations for [" + this.tableName + "]");
+            } catch (TableNotFoundException | RetriesExhaustedException e) {
+                throw new AnalyticsTableNotAvailableException(this.tableName);
+            } catch (IOException e) {
+                throw new AnalyticsException("Error adding new records to table [" + this.tableName + "]: " +
+                        e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() {
+            AnalyticsCommonUtils.closeQuietly(this.table);
+            AnalyticsCommonUtils.closeQuietly(this.indexTable);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.wso2.carbon.analytics.datasource.hbase.util.HBaseAnalyticsDSConstants
 import org.wso2.carbon.analytics.datasource.hbase.util.HBaseRuntimeException;
 import org.wso2.carbon.analytics.datasource.hbase.util.HBaseUtils;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordSchemaDictionary;
 
 import java.io.IOException;
 import java.util.*;
@@ -47,9 +48,12 @@ public class HBaseRecordIterator implements AnalyticsIterator<Record> {
     private String tableName;
     private Table table;
     private Iterator<Record> subIterator = Collections.emptyIterator();
+    private RecordSchemaDictionary recordSchemaDictionary;
 
     public HBaseRecordIterator(String tableName, List<String> columns, List<String> recordIds,
-                               Connection conn, int batchSize) throws AnalyticsException, AnalyticsTableNotAvailableException {
+                               Connection conn, int batchSize, RecordSchemaDictionary recordSchemaDictionary)
+            throws AnalyticsException, AnalyticsTableNotAvailableException {
+        this.recordSchemaDictionary = recordSchemaDictionary;
         this.init(conn, tableName, columns);
         if (batchSize <= 0) {
             throw new AnalyticsException("Error batching records: the batch size should be a positive integer");
@@ -83,6 +87,18 @@ public class HBaseRecordIterator implements AnalyticsIterator<Record> {
         }
     }
 
+    @Override
+    public List<Record> nextBatch(int max) {
+        /* the fetched records are handed over a page at a time, fetching the next page when one runs out */
+        List<Record> result = new ArrayList<>(Math.min(max, 1024));
+        while (result.size() < max && this.hasNext()) {
+            while (result.size() < max && this.subIterator.hasNext()) {
+                result.add(this.subIterator.next());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void remove() {
             /* nothing to do here, since this is a read-only iterator */
@@ -111,7 +127,8 @@ public class HBaseRecordIterator implements AnalyticsIterator<Record> {
             Result[] results = this.table.get(gets);
             for (Result currentResult : results) {
                 if (!currentResult.isEmpty()) {
-                    Record record = HBaseUtils.constructRecord(currentResult, tableName, colSet);
+                    Record record = HBaseUtils.constructRecord(currentResult, tableName, colSet,
+                            this.recordSchemaDictionary);
                     if (record != null) {
                         fetchedRecords.add(record);
                     }
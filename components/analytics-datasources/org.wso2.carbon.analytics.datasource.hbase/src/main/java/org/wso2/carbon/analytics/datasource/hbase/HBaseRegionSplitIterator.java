@@ -29,6 +29,7 @@ import org.wso2.carbon.analytics.data.commons.sources.Record;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordSchemaDictionary;
 
 import java.io.IOException;
 import java.util.*;
@@ -41,13 +42,18 @@ public class HBaseRegionSplitIterator implements AnalyticsIterator<Record> {
 
     private String tableName;
     private Table table;
-    private Iterator<Result> resultIterator = Collections.emptyIterator();
+    private ResultScanner scanner;
+    private Result nextResult;
+    private boolean fullyFetched;
 
     private Set<String> colSet = null;
+    private RecordSchemaDictionary recordSchemaDictionary;
 
     public HBaseRegionSplitIterator(String tableName, List<String> columns, int recordsCount, Connection conn,
-                                    byte[] startRow, byte[] endRow) throws AnalyticsException, AnalyticsTableNotAvailableException {
+                                    byte[] startRow, byte[] endRow, RecordSchemaDictionary recordSchemaDictionary)
+            throws AnalyticsException, AnalyticsTableNotAvailableException {
         this.tableName = tableName;
+        this.recordSchemaDictionary = recordSchemaDictionary;
         Admin admin = null;
         TableName finalName = TableName.valueOf(
                 HBaseUtils.generateTableName(tableName, HBaseAnalyticsDSConstants.TableType.DATA));
@@ -75,9 +81,9 @@ public class HBaseRegionSplitIterator implements AnalyticsIterator<Record> {
         splitScan.addFamily(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME);
 
         try {
-            ResultScanner scanner = table.getScanner(splitScan);
-            this.resultIterator = scanner.iterator();
+            this.scanner = table.getScanner(splitScan);
         } catch (IOException e) {
+            this.cleanup();
             if (e instanceof RetriesExhaustedException) {
                 throw new AnalyticsTableNotAvailableException(tableName);
             }
@@ -87,22 +93,63 @@ public class HBaseRegionSplitIterator implements AnalyticsIterator<Record> {
 
     @Override
     public boolean hasNext() {
-        return this.resultIterator.hasNext();
+        if (this.nextResult == null && !this.fullyFetched) {
+            try {
+                this.nextResult = this.scanner.next();
+            } catch (IOException e) {
+                this.cleanup();
+                throw new HBaseRuntimeException("Error reading data from table [" + this.tableName + "]", e);
+            }
+            if (this.nextResult == null) {
+                this.cleanup();
+            }
+        }
+        return this.nextResult != null;
     }
 
     @Override
     public Record next() {
         if (!this.hasNext()) {
-            this.cleanup();
+            throw new NoSuchElementException("No further elements exist in iterator");
+        }
+        Result currentResult = this.nextResult;
+        this.nextResult = null;
+        return this.constructRecord(currentResult);
+    }
+
+    @Override
+    public List<Record> nextBatch(int max) {
+        List<Record> result = new ArrayList<>(Math.min(max, 1024));
+        if (this.nextResult != null) {
+            result.add(this.next());
+        }
+        /* the scanner hands over the rows it has cached from the last RPC, and fetches the next ones as needed */
+        while (result.size() < max && !this.fullyFetched) {
+            Result[] results;
+            try {
+                results = this.scanner.next(max - result.size());
+            } catch (IOException e) {
+                this.cleanup();
+                throw new HBaseRuntimeException("Error reading data from table [" + this.tableName + "]", e);
+            }
+            if (results.length == 0) {
+                this.cleanup();
+                break;
+            }
+            for (Result currentResult : results) {
+                result.add(this.constructRecord(currentResult));
+            }
         }
+        return result;
+    }
+
+    private Record constructRecord(Result currentResult) {
         try {
-            Result currentResult = this.resultIterator.next();
-            byte[] rowId = currentResult.getRow();
-            Record record = HBaseUtils.constructRecord(currentResult, tableName, colSet);
+            Record record = HBaseUtils.constructRecord(currentResult, tableName, colSet, this.recordSchemaDictionary);
             if (record != null) {
                 return record;
             } else {
-                throw new HBaseRuntimeException("Invalid data found on row " + Bytes.toString(rowId));
+                throw new HBaseRuntimeException("Invalid data found on row " + Bytes.toString(currentResult.getRow()));
             }
         } catch (AnalyticsException e) {
             this.cleanup();
@@ -116,6 +163,10 @@ public class HBaseRegionSplitIterator implements AnalyticsIterator<Record> {
     }
 
     private void cleanup() {
+        this.fullyFetched = true;
+        if (this.scanner != null) {
+            this.scanner.close();
+        }
         AnalyticsCommonUtils.closeQuietly(this.table);
     }
 
@@ -32,6 +32,7 @@ import org.wso2.carbon.analytics.data.commons.sources.Record;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordSchemaDictionary;
 
 import java.io.IOException;
 import java.util.*;
@@ -60,9 +61,12 @@ class HBaseTimestampIterator implements AnalyticsIterator<Record> {
     private Iterator<Record> subIterator = Collections.emptyIterator();
 
     private Connection connection;
+    private RecordSchemaDictionary recordSchemaDictionary;
 
     HBaseTimestampIterator(String tableName, List<String> columns, long timeFrom, long timeTo, int recordsCount,
-                           Connection conn, int batchSize) throws AnalyticsException {
+                           Connection conn, int batchSize, RecordSchemaDictionary recordSchemaDictionary)
+            throws AnalyticsException {
+        this.recordSchemaDictionary = recordSchemaDictionary;
         if ((timeFrom > timeTo) || (batchSize <= 0)) {
             throw new AnalyticsException("Invalid parameters specified for reading data from table [" + tableName + "]");
         } else {
@@ -107,6 +111,18 @@ class HBaseTimestampIterator implements AnalyticsIterator<Record> {
         }
     }
 
+    @Override
+    public List<Record> nextBatch(int max) {
+        /* the fetched records are handed over a page at a time, fetching the next page when one runs out */
+        List<Record> result = new ArrayList<>(Math.min(max, 1024));
+        while (result.size() < max && this.hasNext()) {
+            while (result.size() < max && this.subIterator.hasNext()) {
+                result.add(this.subIterator.next());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void remove() {
         /* nothing to do here, since this is a read-only iterator */
@@ -139,7 +155,8 @@ class HBaseTimestampIterator implements AnalyticsIterator<Record> {
             Result[] results = this.table.get(gets);
             for (Result currentResult : results) {
                 if (!currentResult.isEmpty()) {
-                    Record record = HBaseUtils.constructRecord(currentResult, tableName, colSet);
+                    Record record = HBaseUtils.constructRecord(currentResult, tableName, colSet,
+                            this.recordSchemaDictionary);
                     if (record != null) {
                         byte[] currentRecordId = currentResult.getRow();
                         List<Long> indexEntries = batchedResults.get(Bytes.toString(currentRecordId));
@@ -24,7 +24,7 @@ import org.apache.hadoop.hbase.util.Bytes;
 import org.wso2.carbon.analytics.data.commons.service.AnalyticsDataHolder;
 import org.wso2.carbon.analytics.data.commons.sources.Record;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
-import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordSchemaDictionary;
 import org.wso2.carbon.analytics.datasource.hbase.HBaseAnalyticsConfigurationEntry;
 
 import javax.xml.bind.JAXBContext;
@@ -70,8 +70,8 @@ public class HBaseUtils {
         return Bytes.toLong(arr);
     }
 
-    public static Record constructRecord(Result currentResult, String tableName, Set<String> colSet)
-            throws AnalyticsException {
+    public static Record constructRecord(Result currentResult, String tableName, Set<String> colSet,
+                                         RecordSchemaDictionary recordSchemaDictionary) throws AnalyticsException {
         byte[] rowId = currentResult.getRow();
         Map<String, Object> values;
         if (currentResult.containsColumn(HBaseAnalyticsDSConstants.ANALYTICS_DATA_COLUMN_FAMILY_NAME,
@@ -81,7 +81,7 @@ public class HBaseUtils {
                             HBaseAnalyticsDSConstants.ANALYTICS_ROWDATA_QUALIFIER_NAME);
             byte[] data = CellUtil.cloneValue(dataCell);
             if (data.length > 0) {
-                values = AnalyticsCommonUtils.decodeRecordValues(data, colSet);
+                values = recordSchemaDictionary.decodeRecordValues(data, colSet);
             } else {
                 values = new HashMap<>();
             }
@@ -18,22 +18,36 @@
 package org.wso2.carbon.analytics.datasource.hbase;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Table;
 import org.junit.AfterClass;
+import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
 import org.wso2.carbon.analytics.data.commons.test.AnalyticsRecordStoreTest;
+import org.wso2.carbon.analytics.datasource.hbase.util.HBaseAnalyticsDSConstants;
+import org.wso2.carbon.analytics.datasource.hbase.util.HBaseUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class HBaseAnalyticsRecordStoreTest extends AnalyticsRecordStoreTest {
 
     private HBaseAnalyticsRecordStore store;
 
+    private Connection conn;
+
     @BeforeClass
     public void setup() throws AnalyticsException, IOException {
-        this.store = new HBaseAnalyticsRecordStore(this.init(), this.createConfig());
+        this.conn = this.init();
+        this.store = new HBaseAnalyticsRecordStore(this.conn, this.createConfig());
         super.init("HBaseAnalyticsRecordStore", store);
     }
 
@@ -49,6 +63,32 @@ public class HBaseAnalyticsRecordStoreTest extends AnalyticsRecordStoreTest {
         return entry;
     }
 
+    @Test
+    public void testBoundedAggregationThroughTimestampIndex() throws AnalyticsException, IOException {
+        this.store.deleteTable("T_AGGREGATE");
+        this.store.createTable("T_AGGREGATE");
+        List<Record> records = generateRecords("T_AGGREGATE", 1, 100, 10000, 10);
+        this.store.put(records);
+        /* the index entries of half of the records are removed behind the store, so that only the aggregation
+         * through the index does not see them */
+        List<Delete> deletes = new ArrayList<>();
+        for (Record record : records.subList(0, 50)) {
+            deletes.add(new Delete(HBaseUtils.encodeLong(record.getTimestamp())));
+        }
+        try (Table indexTable = this.conn.getTable(TableName.valueOf(HBaseUtils.generateTableName("T_AGGREGATE",
+                HBaseAnalyticsDSConstants.TableType.INDEX)))) {
+            indexTable.delete(deletes);
+        }
+        Assert.assertEquals(this.store.aggregate("T_AGGREGATE", AggregateFunction.COUNT, null, 10000, 11000, 0)
+                .get(0).getCount(), 50);
+        Assert.assertEquals(this.store.aggregate("T_AGGREGATE", AggregateFunction.COUNT, "tenant", 0, 11000, 0)
+                .get(0).getCount(), 50);
+        /* the unbounded aggregation scans the data table */
+        Assert.assertEquals(this.store.aggregate("T_AGGREGATE", AggregateFunction.COUNT, null, Long.MIN_VALUE,
+                Long.MAX_VALUE, 0).get(0).getCount(), 100);
+        this.store.deleteTable("T_AGGREGATE");
+    }
+
     @AfterClass
     public void destroy() throws AnalyticsException {
         if (this.store != null) {
@@ -24,10 +24,18 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsTableNotAvailableException;
+import org.wso2.carbon.analytics.data.commons.sources.AggregateFunction;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
 import org.wso2.carbon.analytics.data.commons.sources.AnalyticsIterator;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.BufferedRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.PrefetchingAnalyticsIterator;
 import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordAggregate;
 import org.wso2.carbon.analytics.data.commons.sources.RecordGroup;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordAggregator;
+import org.wso2.carbon.analytics.data.commons.utils.RecordSchemaDictionary;
 
 import javax.sql.DataSource;
 import java.io.ByteArrayInputStream;
@@ -47,6 +55,12 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
 
     private static final String TABLE_NAME_PLACEHOLDER = "{{TABLE_NAME}}";
 
+    private static final String AGGREGATE_FUNCTION_PLACEHOLDER = "{{AGGREGATE_FUNCTION}}";
+
+    private static final String BUCKET_BASE_PLACEHOLDER = "{{BUCKET_BASE}}";
+
+    private static final String BUCKET_SIZE_PLACEHOLDER = "{{BUCKET_SIZE}}";
+
     private DataSource dataSource;
 
     private Map<String, String> properties;
@@ -55,8 +69,13 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
 
     private int partitionCount = RDBMSAnalyticsDSConstants.DEFAULT_PARTITION_COUNT;
 
+    private RecordSchemaDictionary recordSchemaDictionary;
+
+    private int readPrefetchPageSize;
+
     public RDBMSAnalyticsRecordStore() throws AnalyticsException {
         this.rdbmsQueryConfigurationEntry = null;
+        this.recordSchemaDictionary = new RecordSchemaDictionary(this, Collections.<String, String>emptyMap());
     }
 
     @Override
@@ -99,7 +118,13 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
             this.rdbmsQueryConfigurationEntry =
                     RDBMSUtils.lookupCurrentQueryConfigurationEntry(this.dataSource, category);
         }
-
+        this.recordSchemaDictionary = new RecordSchemaDictionary(this, properties);
+        if (this.recordSchemaDictionary.isTableRequired()) {
+            /* the dictionary is written on the connections of the puts, the table must be there before */
+            this.recordSchemaDictionary.createTable();
+        }
+        this.readPrefetchPageSize = AnalyticsCommonUtils.getIntProperty(properties,
+                AnalyticsCommonConstants.READ_PREFETCH_PAGE_SIZE, 0);
     }
 
     public RDBMSQueryConfigurationEntry getQueryConfiguration() {
@@ -150,10 +175,7 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         Connection conn = null;
         try {
             conn = this.getConnection(false);
-            Collection<List<Record>> recordBatches = AnalyticsCommonUtils.generateRecordBatches(records);
-            for (List<Record> batch : recordBatches) {
-                this.addRecordsSimilar(conn, batch);
-            }
+            this.addRecords(conn, AnalyticsCommonUtils.generateRecordBatches(records));
             conn.commit();
         } catch (SQLException e) {
             RDBMSUtils.rollbackConnection(conn);
@@ -166,20 +188,40 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         }
     }
 
-    private void addRecordsSimilar(Connection conn, List<Record> records) throws SQLException, AnalyticsException {
+    @Override
+    public AnalyticsRecordWriter openBulkWriter(String tableName) throws AnalyticsException {
+        return new BufferedRecordWriter(tableName, AnalyticsCommonConstants.RECORDS_BATCH_SIZE,
+                new RDBMSBatchWriter(this));
+    }
+
+    /* the record schema dictionary entries of all the batches are written, and committed, before any of the
+     * records, and on the same connection, not to take another connection from the pool while this one is held */
+    private void addRecords(Connection conn, Collection<List<Record>> recordBatches)
+            throws SQLException, AnalyticsException {
+        RDBMSDictionaryEntries dictionaryEntries = new RDBMSDictionaryEntries(conn);
+        for (List<Record> batch : recordBatches) {
+            this.recordSchemaDictionary.prepareBatch(batch, dictionaryEntries);
+        }
+        for (List<Record> batch : recordBatches) {
+            this.addRecordsSimilar(conn, batch, dictionaryEntries);
+        }
+    }
+
+    private void addRecordsSimilar(Connection conn, List<Record> records,
+                                   RDBMSDictionaryEntries dictionaryEntries) throws SQLException, AnalyticsException {
         Record firstRecord = records.get(0);
         String tableName = firstRecord.getTableName();
         String mergeSQL = this.getRecordMergeSQL(tableName);
         if (mergeSQL != null) {
             try {
-                this.mergeRecordsSimilar(conn, records, tableName, mergeSQL);
+                this.mergeRecordsSimilar(conn, records, tableName, mergeSQL, dictionaryEntries);
             } catch (SQLException e) {
                 /* merge has failed, maybe because one of some constraint violations,
                 * lets try to sequentially insert/update */
-                this.insertAndUpdateRecordsSimilar(conn, records, tableName);
+                this.insertAndUpdateRecordsSimilar(conn, records, tableName, dictionaryEntries);
             }
         } else {
-            this.insertAndUpdateRecordsSimilar(conn, records, tableName);
+            this.insertAndUpdateRecordsSimilar(conn, records, tableName, dictionaryEntries);
         }
     }
 
@@ -195,11 +237,12 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         return this.abs(id.hashCode()) % this.getPartitionCount();
     }
 
-    private void populateStatementForAdd(PreparedStatement stmt,
-                                         Record record) throws SQLException, AnalyticsException {
+    private void populateStatementForAdd(PreparedStatement stmt, Record record,
+                                         RDBMSDictionaryEntries dictionaryEntries)
+            throws SQLException, AnalyticsException {
         stmt.setInt(1, this.generatePartitionKey(record.getId()));
         stmt.setLong(2, record.getTimestamp());
-        byte[] bytes = AnalyticsCommonUtils.encodeRecordValues(record.getValues());
+        byte[] bytes = this.recordSchemaDictionary.encodeRecordValues(record, dictionaryEntries);
         if (!this.rdbmsQueryConfigurationEntry.isBlobLengthRequired()) {
             stmt.setBinaryStream(3, new ByteArrayInputStream(bytes));
         } else {
@@ -208,13 +251,14 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         stmt.setString(4, record.getId());
     }
 
-    private void mergeRecordsSimilar(Connection conn, List<Record> records, String tableName, String query)
+    private void mergeRecordsSimilar(Connection conn, List<Record> records, String tableName, String query,
+                                     RDBMSDictionaryEntries dictionaryEntries)
             throws SQLException, AnalyticsException {
         PreparedStatement stmt = null;
         try {
             stmt = conn.prepareStatement(query);
             for (Record record : records) {
-                this.populateStatementForAdd(stmt, record);
+                this.populateStatementForAdd(stmt, record, dictionaryEntries);
                 stmt.addBatch();
             }
             stmt.executeBatch();
@@ -231,20 +275,22 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         }
     }
 
-    private void insertAndUpdateRecordsSimilar(Connection conn, List<Record> records, String tableName)
+    private void insertAndUpdateRecordsSimilar(Connection conn, List<Record> records, String tableName,
+                                               RDBMSDictionaryEntries dictionaryEntries)
             throws SQLException, AnalyticsException {
         try {
-            this.insertBatchRecordsSimilar(conn, records, tableName);
+            this.insertBatchRecordsSimilar(conn, records, tableName, dictionaryEntries);
         } catch (SQLException e) {
             /* batch insert failed, maybe because one of the records were already there,
              * lets try to sequentially insert/update */
-            this.insertAndUpdateRecordsSimilarSequentially(conn, records, tableName);
+            this.insertAndUpdateRecordsSimilarSequentially(conn, records, tableName, dictionaryEntries);
         }
     }
 
 
-    private void insertAndUpdateRecordsSimilarSequentially(Connection conn, List<Record> records,
-                                                           String tableName) throws SQLException, AnalyticsException {
+    private void insertAndUpdateRecordsSimilarSequentially(Connection conn, List<Record> records, String tableName,
+                                                           RDBMSDictionaryEntries dictionaryEntries)
+            throws SQLException, AnalyticsException {
         PreparedStatement insertStatement = null;
         PreparedStatement updateStatement = null;
         try {
@@ -252,14 +298,14 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
             updateStatement = conn.prepareStatement(this.getRecordUpdateSQL(tableName));
             for (Record record : records) {
                 try {
-                    this.populateStatementForAdd(insertStatement, record);
+                    this.populateStatementForAdd(insertStatement, record, dictionaryEntries);
                     insertStatement.executeUpdate();
                     conn.commit();
                 } catch (SQLException e) {
                 /* maybe the record is already there, lets try to update */
                     RDBMSUtils.rollbackConnection(conn);
                     try {
-                        this.populateStatementForAdd(updateStatement, record);
+                        this.populateStatementForAdd(updateStatement, record, dictionaryEntries);
                         updateStatement.executeUpdate();
                         conn.commit();
                     } catch (SQLException e1) {
@@ -274,10 +320,11 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         }
     }
 
-    private void insertBatchRecordsSimilar(Connection conn, List<Record> records, String tableName) throws SQLException,
-            AnalyticsException {
+    private void insertBatchRecordsSimilar(Connection conn, List<Record> records, String tableName,
+                                           RDBMSDictionaryEntries dictionaryEntries)
+            throws SQLException, AnalyticsException {
         String query = this.getRecordInsertSQL(tableName);
-        this.mergeRecordsSimilar(conn, records, tableName, query);
+        this.mergeRecordsSimilar(conn, records, tableName, query, dictionaryEntries);
     }
 
     private String getRecordMergeSQL(String tableName) {
@@ -348,14 +395,15 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
     public AnalyticsIterator<Record> readRecords(RecordGroup recordGroup) throws AnalyticsException {
         if (recordGroup instanceof RDBMSRangeRecordGroup) {
             RDBMSRangeRecordGroup recordRangeGroup = (RDBMSRangeRecordGroup) recordGroup;
-            return this.getRecords(recordRangeGroup.getTableName(),
+            return PrefetchingAnalyticsIterator.wrap(this.getRecords(recordRangeGroup.getTableName(),
                     recordRangeGroup.getColumns(), recordRangeGroup.getTimeFrom(),
                     recordRangeGroup.getTimeTo(), recordRangeGroup.getRecordsFrom(), recordRangeGroup.getRecordsCount(),
-                    recordRangeGroup.getPartitionStart(), recordRangeGroup.getPartitionEnd());
+                    recordRangeGroup.getPartitionStart(), recordRangeGroup.getPartitionEnd()),
+                    this.readPrefetchPageSize);
         } else if (recordGroup instanceof RDBMSIDsRecordGroup) {
             RDBMSIDsRecordGroup recordIdGroup = (RDBMSIDsRecordGroup) recordGroup;
-            return this.getRecords(recordIdGroup.getTableName(),
-                    recordIdGroup.getColumns(), recordIdGroup.getIds());
+            return PrefetchingAnalyticsIterator.wrap(this.getRecords(recordIdGroup.getTableName(),
+                    recordIdGroup.getColumns(), recordIdGroup.getIds()), this.readPrefetchPageSize);
         } else {
             throw new AnalyticsException("Invalid RDBMS RecordGroup implementation: " + recordGroup.getClass());
         }
@@ -368,11 +416,15 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs;
+        RDBMSDictionaryEntries dictionaryEntries = null;
         try {
             conn = this.getConnection(false);
             if (!this.rdbmsQueryConfigurationEntry.isForwardOnlyReadEnabled()) {
                 stmt = conn.prepareStatement(this.getRecordRetrievalQuery(tableName));
+                dictionaryEntries = new RDBMSDictionaryEntries(conn);
             } else {
+                /* a streamed result set does not let another statement run on its connection, so the record schema
+                 * dictionary is read through the record store */
                 stmt = conn.prepareStatement(this.getRecordRetrievalQuery(tableName),
                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
                 stmt.setFetchSize(this.rdbmsQueryConfigurationEntry.getFetchSize());
@@ -388,7 +440,8 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
             stmt.setInt(5, paginationIndices[0]);
             stmt.setInt(6, paginationIndices[1]);
             rs = stmt.executeQuery();
-            return new RDBMSResultSetIterator(tableName, columns, conn, stmt, rs);
+            return new RDBMSResultSetIterator(tableName, columns, conn, stmt, rs, this.recordSchemaDictionary,
+                    dictionaryEntries);
         } catch (SQLException e) {
             if (conn != null && !this.tableExists(conn, tableName)) {
                 RDBMSUtils.cleanupConnection(null, stmt, conn);
@@ -445,7 +498,8 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
                 stmt.setString(i + 1, ids.get(i));
             }
             rs = stmt.executeQuery();
-            return new RDBMSResultSetIterator(tableName, columns, conn, stmt, rs);
+            return new RDBMSResultSetIterator(tableName, columns, conn, stmt, rs, this.recordSchemaDictionary,
+                    new RDBMSDictionaryEntries(conn));
         } catch (SQLException e) {
             if (conn != null && !this.tableExists(conn, tableName)) {
                 RDBMSUtils.cleanupConnection(null, stmt, conn);
@@ -500,6 +554,65 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
         }
     }
 
+    @Override
+    public List<RecordAggregate> aggregate(String tableName, AggregateFunction function, String column,
+                                           long timeFrom, long timeTo, long bucketSize) throws AnalyticsException {
+        String query = bucketSize > 0 ? this.getQueryConfiguration().getRecordBucketAggregationQuery() :
+                this.getQueryConfiguration().getRecordAggregationQuery();
+        if (!RecordAggregator.isTimestampColumn(column) || query == null) {
+            /* the record values are in the data blobs, so only the aggregates of the timestamp are computed by the
+             * database, and the rest are computed by reading the column from the blobs */
+            return AnalyticsRecordStore.super.aggregate(tableName, function, column, timeFrom, timeTo, bucketSize);
+        }
+        if (bucketSize > 0) {
+            /* the buckets are computed from a base below all the timestamps in the range, so the database does not
+             * have to take the modulo of a negative number, or to subtract past the range of long values */
+            long bucketBase = timeFrom;
+            if (timeFrom == Long.MIN_VALUE) {
+                List<RecordAggregate> min = this.aggregate(tableName, AggregateFunction.MIN, null, timeFrom, timeTo,
+                        0);
+                if (min.isEmpty()) {
+                    return min;
+                }
+                bucketBase = (long) min.get(0).getValue();
+            }
+            query = query.replace(BUCKET_BASE_PLACEHOLDER, Long.toString(Math.floorDiv(bucketBase, bucketSize) *
+                    bucketSize)).replace(BUCKET_SIZE_PLACEHOLDER, Long.toString(bucketSize));
+        }
+        query = this.translateQueryWithTableInfo(query, tableName).replace(AGGREGATE_FUNCTION_PLACEHOLDER,
+                function.name());
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getConnection();
+            stmt = conn.prepareStatement(query);
+            stmt.setLong(1, timeFrom);
+            stmt.setLong(2, timeTo);
+            rs = stmt.executeQuery();
+            List<RecordAggregate> result = new ArrayList<>();
+            while (rs.next()) {
+                int index = 1;
+                long bucketStart = bucketSize > 0 ? rs.getLong(index++) : timeFrom;
+                long count = rs.getLong(index++);
+                if (count > 0) {
+                    result.add(new RecordAggregate(bucketStart, count,
+                            function == AggregateFunction.COUNT ? count : rs.getDouble(index)));
+                }
+            }
+            result.sort(Comparator.comparingLong(RecordAggregate::getBucketStart));
+            return result;
+        } catch (SQLException e) {
+            if (conn != null && !this.tableExists(conn, tableName)) {
+                throw new AnalyticsTableNotAvailableException(tableName);
+            } else {
+                throw new AnalyticsException("Error in aggregating records: " + e.getMessage(), e);
+            }
+        } finally {
+            RDBMSUtils.cleanupConnection(rs, stmt, conn);
+        }
+    }
+
     @Override
     public void destroy() throws AnalyticsException {
         /* do nothing */
@@ -641,20 +754,29 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
     private static class RDBMSResultSetIterator implements AnalyticsIterator<Record> {
 
         private String tableName;
-        private List<String> columns;
+        private Set<String> colSet;
         private Connection conn;
         private Statement stmt;
         private ResultSet rs;
         private Record nextValue;
         private boolean prefetched;
 
-        public RDBMSResultSetIterator(String tableName, List<String> columns,
-                                      Connection conn, Statement stmt, ResultSet rs) {
+        private RecordSchemaDictionary recordSchemaDictionary;
+
+        private RecordSchemaDictionary.EntryStore dictionaryEntries;
+
+        public RDBMSResultSetIterator(String tableName, List<String> columns, Connection conn, Statement stmt,
+                                      ResultSet rs, RecordSchemaDictionary recordSchemaDictionary,
+                                      RecordSchemaDictionary.EntryStore dictionaryEntries) {
             this.tableName = tableName;
-            this.columns = columns;
+            if (columns != null && columns.size() > 0) {
+                this.colSet = new HashSet<>(columns);
+            }
             this.conn = conn;
             this.stmt = stmt;
             this.rs = rs;
+            this.recordSchemaDictionary = recordSchemaDictionary;
+            this.dictionaryEntries = dictionaryEntries;
         }
 
         @Override
@@ -674,26 +796,12 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
                 this.nextValue = null;
                 return result;
             }
-            Set<String> colSet = null;
-            if (this.columns != null && this.columns.size() > 0) {
-                colSet = new HashSet<>(this.columns);
-            }
             try {
-                if (this.rs.next()) {
-                    byte[] bytes = this.rs.getBytes(3);
-                    Map<String, Object> values;
-                    if (bytes != null) {
-                        values = AnalyticsCommonUtils.decodeRecordValues(bytes, colSet);
-                    } else {
-                        values = new HashMap<>(0);
-                    }
-                    return new Record(this.rs.getString(1), this.tableName, values, this.rs.getLong(2));
+                if (this.rs != null && this.rs.next()) {
+                    return this.readRecord();
                 } else {
                     /* end of the result set, time to clean up.. */
-                    RDBMSUtils.cleanupConnection(this.rs, this.stmt, this.conn);
-                    this.rs = null;
-                    this.stmt = null;
-                    this.conn = null;
+                    this.cleanup();
                     return null;
                 }
             } catch (Exception e) {
@@ -702,6 +810,51 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
             }
         }
 
+        @Override
+        public List<Record> nextBatch(int max) {
+            List<Record> result = new ArrayList<>(Math.min(max, 1024));
+            if (this.prefetched) {
+                if (this.nextValue == null) {
+                    return result;
+                }
+                result.add(this.next());
+            }
+            try {
+                while (result.size() < max) {
+                    if (this.rs != null && this.rs.next()) {
+                        result.add(this.readRecord());
+                    } else {
+                        this.cleanup();
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                RDBMSUtils.cleanupConnection(this.rs, this.stmt, this.conn);
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            return result;
+        }
+
+        private Record readRecord() throws SQLException, AnalyticsException {
+            byte[] bytes = this.rs.getBytes(3);
+            Map<String, Object> values;
+            if (bytes == null) {
+                values = new HashMap<>(0);
+            } else if (this.dictionaryEntries == null) {
+                values = this.recordSchemaDictionary.decodeRecordValues(bytes, this.colSet);
+            } else {
+                values = this.recordSchemaDictionary.decodeRecordValues(bytes, this.colSet, this.dictionaryEntries);
+            }
+            return new Record(this.rs.getString(1), this.tableName, values, this.rs.getLong(2));
+        }
+
+        private void cleanup() {
+            RDBMSUtils.cleanupConnection(this.rs, this.stmt, this.conn);
+            this.rs = null;
+            this.stmt = null;
+            this.conn = null;
+        }
+
         @Override
         public void remove() {
             /* this is a read-only iterator, nothing will be removed */
@@ -717,9 +870,98 @@ public class RDBMSAnalyticsRecordStore implements AnalyticsRecordStore {
 
         @Override
         public void close() throws IOException {
-            RDBMSUtils.cleanupConnection(this.rs, this.stmt, this.conn);
-            this.rs = null;
-            this.stmt = null;
+            this.cleanup();
+        }
+    }
+
+    /**
+     * Reads and writes the record schema dictionary entries on a connection already held by a put or a read, where
+     * the entries written are committed right away.
+     */
+    private class RDBMSDictionaryEntries implements RecordSchemaDictionary.EntryStore {
+
+        private Connection conn;
+
+        public RDBMSDictionaryEntries(Connection conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        public Record readEntry(String id) throws AnalyticsException {
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                stmt = this.conn.prepareStatement(generateGetRecordRetrievalWithIdQuery(
+                        RecordSchemaDictionary.DICTIONARY_TABLE, 1));
+                stmt.setString(1, id);
+                rs = stmt.executeQuery();
+                if (!rs.next()) {
+                    return null;
+                }
+                byte[] bytes = rs.getBytes(3);
+                Map<String, Object> values;
+                if (bytes != null) {
+                    values = recordSchemaDictionary.decodeRecordValues(bytes, null, this);
+                } else {
+                    values = new HashMap<>(0);
+                }
+                return new Record(rs.getString(1), RecordSchemaDictionary.DICTIONARY_TABLE, values, rs.getLong(2));
+            } catch (SQLException e) {
+                if (!tableExists(this.conn, RecordSchemaDictionary.DICTIONARY_TABLE)) {
+                    return null;
+                }
+                throw new AnalyticsException("Error in reading the record schema dictionary: " + e.getMessage(), e);
+            } finally {
+                RDBMSUtils.cleanupConnection(rs, stmt, null);
+            }
+        }
+
+        @Override
+        public void writeEntry(Record entry) throws AnalyticsException {
+            try {
+                /* the merge and the inserts commit the connection themselves */
+                addRecordsSimilar(this.conn, Collections.singletonList(entry), this);
+            } catch (SQLException e) {
+                RDBMSUtils.rollbackConnection(this.conn);
+                throw new AnalyticsException("Error in writing the record schema dictionary: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes the batches of a bulk writer on a connection held until the writer is closed, committing each batch in
+     * its own transaction, so that a large load does not build up a single transaction.
+     */
+    private static class RDBMSBatchWriter implements BufferedRecordWriter.BatchWriter {
+
+        private RDBMSAnalyticsRecordStore store;
+
+        private Connection conn;
+
+        public RDBMSBatchWriter(RDBMSAnalyticsRecordStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void writeBatch(List<Record> records) throws AnalyticsException {
+            try {
+                if (this.conn == null) {
+                    this.conn = this.store.getConnection(false);
+                }
+                this.store.addRecords(this.conn, Collections.singletonList(records));
+                this.conn.commit();
+            } catch (SQLException e) {
+                RDBMSUtils.rollbackConnection(this.conn);
+                throw new AnalyticsException("Error in adding records: " + e.getMessage(), e);
+            } catch (AnalyticsException e) {
+                RDBMSUtils.rollbackConnection(this.conn);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws AnalyticsException {
+            RDBMSUtils.cleanupConnection(null, null, this.conn);
             this.conn = null;
         }
     }
@@ -43,6 +43,8 @@ public class RDBMSQueryConfigurationEntry {
     private String recordDeletionQuery;
     private String recordRetrievalWithIdsQuery;
     private String recordDeletionWithIdsQuery;
+    private String recordAggregationQuery;
+    private String recordBucketAggregationQuery;
     private int recordBatchSize = RDBMSAnalyticsDSConstants.RECORD_BATCH_SIZE;
     private PaginationMode paginationMode;
     private boolean blobLengthRequired;
@@ -169,6 +171,22 @@ public class RDBMSQueryConfigurationEntry {
         this.recordDeletionWithIdsQuery = recordDeletionWithIdsQuery;
     }
     
+    public String getRecordAggregationQuery() {
+        return recordAggregationQuery;
+    }
+
+    public void setRecordAggregationQuery(String recordAggregationQuery) {
+        this.recordAggregationQuery = recordAggregationQuery;
+    }
+
+    public String getRecordBucketAggregationQuery() {
+        return recordBucketAggregationQuery;
+    }
+
+    public void setRecordBucketAggregationQuery(String recordBucketAggregationQuery) {
+        this.recordBucketAggregationQuery = recordBucketAggregationQuery;
+    }
+    
     public int getRecordBatchSize() {
         return recordBatchSize;
     }
@@ -22,6 +22,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
 import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
 import org.wso2.carbon.analytics.data.commons.test.AnalyticsRecordStoreTest;
 import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
 import org.wso2.carbon.analytics.datasource.rdbms.RDBMSAnalyticsRecordStore;
@@ -44,6 +45,10 @@ public class H2FileDBAnalyticsRecordStoreTest extends AnalyticsRecordStoreTest {
         props.put("datasource", "WSO2_ANALYTICS_EVENT_STORE_DB");
         ars.init(props);
         this.init("H2FileDBAnalyticsDataSource", ars);
+        AnalyticsRecordStore indexedARS = new RDBMSAnalyticsRecordStore();
+        props.put(AnalyticsCommonConstants.RECORD_BLOB_FORMAT, AnalyticsCommonConstants.RECORD_BLOB_FORMAT_INDEXED);
+        indexedARS.init(props);
+        this.initOtherBlobFormat(indexedARS);
     }
     
     @AfterClass
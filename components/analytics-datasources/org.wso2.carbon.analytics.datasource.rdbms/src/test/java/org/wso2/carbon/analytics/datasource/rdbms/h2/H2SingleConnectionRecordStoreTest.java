@@ -0,0 +1,136 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.analytics.datasource.rdbms.h2;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.analytics.data.commons.AnalyticsRecordStore;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsCommonConstants;
+import org.wso2.carbon.analytics.data.commons.sources.AnalyticsRecordWriter;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.test.AnalyticsRecordStoreTest;
+import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+import org.wso2.carbon.analytics.data.commons.utils.RecordCompression;
+import org.wso2.carbon.analytics.datasource.rdbms.RDBMSAnalyticsRecordStore;
+
+import javax.naming.NamingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * H2 tests of a record store with a connection pool of a single connection, where the record schemas and the
+ * compression dictionaries must not take another connection while a put or a read holds the only one.
+ */
+public class H2SingleConnectionRecordStoreTest {
+
+    private Map<String, String> props;
+
+    private AnalyticsRecordStore analyticsRS;
+
+    @BeforeClass
+    public void setup() throws NamingException, AnalyticsException {
+        System.setProperty(AnalyticsCommonUtils.WSO2_CARBON_CONF_DIR_SYS_PROP, "src/test/resources/conf_h2a");
+        this.props = new HashMap<>();
+        this.props.put("datasource", "WSO2_ANALYTICS_SINGLE_CONNECTION_STORE_DB");
+        this.props.put(AnalyticsCommonConstants.RECORD_BLOB_FORMAT,
+                AnalyticsCommonConstants.RECORD_BLOB_FORMAT_INDEXED);
+        this.props.put(AnalyticsCommonConstants.RECORD_COMPRESSION, RecordCompression.DEFLATE.name());
+        this.analyticsRS = this.createRecordStore();
+    }
+
+    @AfterClass
+    public void destroy() throws AnalyticsException {
+        this.analyticsRS.deleteTable("T1");
+        this.analyticsRS.deleteTable("T2");
+        this.analyticsRS.destroy();
+    }
+
+    private AnalyticsRecordStore createRecordStore() throws AnalyticsException {
+        AnalyticsRecordStore ars = new RDBMSAnalyticsRecordStore();
+        ars.init(new HashMap<>(this.props));
+        return ars;
+    }
+
+    /* the records of the tables, with schemas, which are not in the dictionary of an earlier run, and enough of
+     * them to sample a compression dictionary, if the table does not have one yet */
+    private List<Record> generateRecords(String tableName, int count) {
+        String column = "c" + Long.toHexString(System.nanoTime());
+        List<Record> result = new ArrayList<>();
+        for (Record record : AnalyticsRecordStoreTest.generateRecords(tableName, 1, count, 10000, 1)) {
+            Map<String, Object> values = new HashMap<>(record.getValues());
+            values.put(column + (result.size() % 3), result.size());
+            result.add(new Record(record.getId(), tableName, values, record.getTimestamp()));
+        }
+        return result;
+    }
+
+    private void checkRecords(AnalyticsRecordStore ars, List<Record> records) throws AnalyticsException {
+        List<String> idsT2 = new ArrayList<>();
+        for (Record record : records) {
+            if (record.getTableName().equals("T2")) {
+                idsT2.add(record.getId());
+            }
+        }
+        List<Record> recordsIn = AnalyticsCommonUtils.listRecords(ars, ars.get("T1", 1, null, Long.MIN_VALUE,
+                Long.MAX_VALUE, 0, -1));
+        recordsIn.addAll(AnalyticsCommonUtils.listRecords(ars, ars.get("T2", 1, null, idsT2)));
+        Assert.assertEquals(recordsIn.size(), records.size());
+        Assert.assertEquals(new HashSet<>(recordsIn), new HashSet<>(records));
+    }
+
+    @Test
+    public void testPutAndReadWithNewSchemas() throws AnalyticsException {
+        this.analyticsRS.deleteTable("T1");
+        this.analyticsRS.deleteTable("T2");
+        this.analyticsRS.createTable("T1");
+        this.analyticsRS.createTable("T2");
+        List<Record> records = this.generateRecords("T1", 100);
+        records.addAll(this.generateRecords("T2", 100));
+        this.analyticsRS.put(records);
+        this.checkRecords(this.analyticsRS, records);
+        /* a new record store reads the schemas from the dictionary table while reading the records */
+        AnalyticsRecordStore ars = this.createRecordStore();
+        this.checkRecords(ars, records);
+        ars.destroy();
+    }
+
+    @Test
+    public void testBulkWriterWithNewSchemas() throws AnalyticsException {
+        this.analyticsRS.deleteTable("T1");
+        this.analyticsRS.deleteTable("T2");
+        this.analyticsRS.createTable("T1");
+        this.analyticsRS.createTable("T2");
+        List<Record> records = this.generateRecords("T1", 1000);
+        try (AnalyticsRecordWriter writer = this.analyticsRS.openBulkWriter("T1")) {
+            for (Record record : records) {
+                writer.write(record);
+            }
+        }
+        AnalyticsRecordStore ars = this.createRecordStore();
+        this.checkRecords(ars, records);
+        ars.destroy();
+    }
+
+}
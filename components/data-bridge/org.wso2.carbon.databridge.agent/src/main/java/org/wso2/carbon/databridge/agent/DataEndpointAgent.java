@@ -64,6 +64,8 @@ public class DataEndpointAgent {
                             getConstructor(String.class, String.class).newInstance(
                             agentConfiguration.getTrustStorePath(),
                             agentConfiguration.getTrustStorePassword()));
+            clientPoolFactory.setHeartbeatInterval(agentConfiguration.getHeartbeatInterval());
+            secureClientPoolFactory.setHeartbeatInterval(agentConfiguration.getHeartbeatInterval());
             ClientPool clientPool = new ClientPool();
             this.transportPool = clientPool.getClientPool(
                     clientPoolFactory,
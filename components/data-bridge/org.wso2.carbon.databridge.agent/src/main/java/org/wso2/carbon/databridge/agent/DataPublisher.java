@@ -22,17 +22,23 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.databridge.agent.conf.DataEndpointConfiguration;
 import org.wso2.carbon.databridge.agent.endpoint.DataEndpoint;
 import org.wso2.carbon.databridge.agent.endpoint.DataEndpointGroup;
+import org.wso2.carbon.databridge.agent.endpoint.EventSlotTranslator;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
 import org.wso2.carbon.databridge.agent.exception.EventQueueFullException;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointGroupMetricsSnapshot;
+import org.wso2.carbon.databridge.agent.metrics.DataPublisherMetrics;
+import org.wso2.carbon.databridge.agent.metrics.DataPublisherMetricsSnapshot;
 import org.wso2.carbon.databridge.agent.util.DataPublisherUtil;
 import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.exception.TransportException;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * API Used to communicate with Data Receivers WSO2 BAM/CEP. It can be used to send events to
@@ -67,6 +73,11 @@ public class DataPublisher {
      */
     private long failedEventCount;
 
+    /**
+     * The publishing metrics of this data publisher, which are exposed through JMX.
+     */
+    private final DataPublisherMetrics metrics = new DataPublisherMetrics(this::getMetrics);
+
     /**
      * Creates the DataPublisher instance for a specific user, and the it creates
      * connection asynchronously to receiver endpoint.
@@ -182,13 +193,15 @@ public class DataPublisher {
                                 getAgentConfiguration().getBatchSize(),
                                 dataEndpointAgent.getAgentConfiguration().getCorePoolSize(),
                                 dataEndpointAgent.getAgentConfiguration().getMaxPoolSize(),
-                                dataEndpointAgent.getAgentConfiguration().getKeepAliveTimeInPool());
+                                dataEndpointAgent.getAgentConfiguration().getKeepAliveTimeInPool(),
+                                dataEndpointAgent.getAgentConfiguration().isPinnedConnections());
                 DataEndpoint dataEndpoint = dataEndpointAgent.getNewDataEndpoint();
                 dataEndpoint.initialize(endpointConfiguration);
                 endpointGroup.addDataEndpoint(dataEndpoint);
             }
             endpointGroups.add(endpointGroup);
         }
+        metrics.register(receiverURLSet);
     }
 
     /**
@@ -208,6 +221,28 @@ public class DataPublisher {
         }
     }
 
+    /**
+     * Publish an event for all receiver groups which has been specified in the DataPublisher,
+     * and get notified once the event has been delivered. This blocks in the same way as
+     * {@link #publish(Event)} until the event can be inserted in to the internal queue.
+     * The returned future is completed when the batch containing the event has been acknowledged by
+     * a receiver of every receiver group, and it is completed exceptionally if the event couldn't be sent to
+     * any of the receiver groups after the configured number of retries.
+     *
+     * @param event The Event that needs to sent for the receiver groups
+     * @return future which is completed when the event has been acknowledged by the receivers.
+     */
+    public CompletableFuture<Void> publishAsync(Event event) {
+        if (endpointGroups.size() == 1) {
+            return endpointGroups.get(0).publishAsync(event);
+        }
+        CompletableFuture[] publishFutures = new CompletableFuture[endpointGroups.size()];
+        for (int i = 0; i < endpointGroups.size(); i++) {
+            publishFutures[i] = endpointGroups.get(i).publishAsync(event);
+        }
+        return CompletableFuture.allOf(publishFutures);
+    }
+
     /**
      * Publish an event based on the event properties that are passed
      * for all receiver groups which has been specified in the DataPublisher.
@@ -293,8 +328,46 @@ public class DataPublisher {
         publish(new Event(streamId, timeStamp, metaDataArray, correlationDataArray,
                 payloadDataArray, arbitraryDataMap));
     }
-    
-    private void onEventQueueFull(DataEndpointGroup endpointGroup, Event event) {
+
+    /**
+     * Publish an event for all receiver groups which has been specified in the DataPublisher, by writing
+     * its attributes straight into a pre-allocated slot of the internal queue of each receiver group, so that
+     * neither the event nor its attribute arrays need to be created by the caller. This blocks in the same
+     * way as {@link #publish(Event)} until a slot of the internal queue can be claimed.
+     * For example, publisher.publish(streamId, slot -> slot.setString(0, symbol).setDouble(1, price)).
+     *
+     * @param streamId   StreamId for which the event belongs to.
+     * @param translator Writes the attributes of the event into the slot, which is called once per receiver group.
+     */
+    public void publish(String streamId, EventSlotTranslator translator) {
+        for (DataEndpointGroup endpointGroup : endpointGroups) {
+            endpointGroup.publish(streamId, translator);
+        }
+    }
+
+    /**
+     * Publish an event for all receiver groups which has been specified in the DataPublisher, by writing
+     * its attributes straight into a pre-allocated slot of the internal queue of each receiver group.
+     * This is a non-blocking invocation and if the queue is full then it will simply drop the event.
+     *
+     * @param streamId   StreamId for which the event belongs to.
+     * @param translator Writes the attributes of the event into the slot, which is called once per receiver group.
+     * @return the success/failure of the event that has been published/dropped.
+     */
+    public boolean tryPublish(String streamId, EventSlotTranslator translator) {
+        boolean sent = true;
+        for (DataEndpointGroup endpointGroup : endpointGroups) {
+            try {
+                endpointGroup.tryPublish(streamId, translator);
+            } catch (EventQueueFullException e) {
+                this.onEventQueueFull(endpointGroup, streamId);
+                sent = false;
+            }
+        }
+        return sent;
+    }
+
+    private void onEventQueueFull(DataEndpointGroup endpointGroup, Object event) {
         this.failedEventCount++;
         long currentTime = System.currentTimeMillis();
         if (currentTime - this.lastFailedEventTime > FAILED_EVENT_LOG_INTERVAL) {
@@ -537,9 +610,26 @@ public class DataPublisher {
         for (DataEndpointGroup dataEndpointGroup : endpointGroups) {
             dataEndpointGroup.shutdown();
         }
+        metrics.unregister();
         dataEndpointAgent.shutDown(this);
     }
 
+    /**
+     * Returns a snapshot of the publishing metrics of all the receiver groups of this data publisher, such as
+     * the queue occupancy, the number of events published, sent and dropped, and the send latency and batch
+     * size distribution of each endpoint. The same metrics are exposed through JMX under
+     * {@value DataPublisherMetrics#JMX_DOMAIN}:type=DataPublisher.
+     *
+     * @return the publishing metrics snapshot.
+     */
+    public DataPublisherMetricsSnapshot getMetrics() {
+        List<DataEndpointGroupMetricsSnapshot> endpointGroupSnapshots = new ArrayList<>(endpointGroups.size());
+        for (DataEndpointGroup endpointGroup : endpointGroups) {
+            endpointGroupSnapshots.add(endpointGroup.getMetricsSnapshot());
+        }
+        return new DataPublisherMetricsSnapshot(endpointGroupSnapshots);
+    }
+
     /**
      * Graceful shutdown of all the operations of the data publisher, and also
      * if there is no other data publishers registered with the associated then
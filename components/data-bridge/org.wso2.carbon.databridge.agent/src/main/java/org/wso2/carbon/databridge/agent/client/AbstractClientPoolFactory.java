@@ -24,6 +24,9 @@ import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointSecurityException;
 import org.wso2.carbon.databridge.agent.util.DataPublisherUtil;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * The abstract class that needs to be implemented when supporting a new non-secure transport
  * to mainly create, validate and terminate  the client to the endpoint.
@@ -31,12 +34,28 @@ import org.wso2.carbon.databridge.agent.util.DataPublisherUtil;
 
 public abstract class AbstractClientPoolFactory extends BaseKeyedPoolableObjectFactory {
 
+    private final Map<Object, Long> lastUsedTimes = new ConcurrentHashMap<>();
+
+    private volatile long heartbeatInterval;
+
     @Override
     public Object makeObject(Object key)
             throws DataEndpointException, DataEndpointSecurityException, DataEndpointAgentConfigurationException,
             DataEndpointConfigurationException {
        Object[] urlParams = DataPublisherUtil.getProtocolHostPort(key.toString());
-        return createClient(urlParams[0].toString(),urlParams[1].toString(), Integer.parseInt(urlParams[2].toString()));
+        Object client = createClient(urlParams[0].toString(), urlParams[1].toString(),
+                Integer.parseInt(urlParams[2].toString()));
+        lastUsedTimes.put(client, System.currentTimeMillis());
+        return client;
+    }
+
+    /**
+     * Sets the minimum idle time of a client after which it will be pinged before being validated as usable.
+     *
+     * @param heartbeatInterval Idle time in milliseconds, or zero or less to disable heartbeats.
+     */
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
     }
 
     /**
@@ -55,7 +74,25 @@ public abstract class AbstractClientPoolFactory extends BaseKeyedPoolableObjectF
 
     @Override
     public boolean validateObject(Object key, Object obj) {
-        return validateClient(obj);
+        if (!validateClient(obj)) {
+            return false;
+        }
+        if (heartbeatInterval > 0) {
+            Long lastUsedTime = lastUsedTimes.get(obj);
+            long currentTime = System.currentTimeMillis();
+            if (lastUsedTime != null && currentTime - lastUsedTime >= heartbeatInterval) {
+                if (!pingClient(obj)) {
+                    return false;
+                }
+                lastUsedTimes.put(obj, currentTime);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void passivateObject(Object key, Object obj) {
+        lastUsedTimes.put(obj, System.currentTimeMillis());
     }
 
     /**
@@ -67,7 +104,21 @@ public abstract class AbstractClientPoolFactory extends BaseKeyedPoolableObjectF
      */
     public abstract boolean validateClient(Object client);
 
+    /**
+     * Send a heartbeat through the client, to check whether the connection to the endpoint is still usable.
+     * This is used to validate the clients which were idle in the pool for longer than the heartbeat interval.
+     * By default it falls back to {@link #validateClient(Object)}, transports which support heartbeats
+     * should override this.
+     *
+     * @param client Client object which needs to be checked.
+     * @return Returns true if the endpoint acknowledged the heartbeat.
+     */
+    public boolean pingClient(Object client) {
+        return validateClient(client);
+    }
+
     public void destroyObject(Object key, Object obj) {
+        lastUsedTimes.remove(obj);
         terminateClient(obj);
     }
 
@@ -41,6 +41,7 @@ public class ClientPool {
                     socketPool.setFactory(factory);
                     socketPool.setMaxActive(maxActive);
                     socketPool.setTestOnBorrow(testOnBorrow);
+                    socketPool.setTestWhileIdle(true);
                     socketPool.setTimeBetweenEvictionRunsMillis(timeBetweenEvictionRunsMillis);
                     socketPool.setMinEvictableIdleTimeMillis(minEvictableIdleTimeMillis);
                     socketPool.setMaxIdle(maxIdle);
@@ -64,6 +65,7 @@ public class ClientPool {
                     secureSocketPool.setFactory(factory);
                     secureSocketPool.setMaxActive(maxActive);
                     secureSocketPool.setTestOnBorrow(testOnBorrow);
+                    secureSocketPool.setTestWhileIdle(true);
                     secureSocketPool.setTimeBetweenEvictionRunsMillis(timeBetweenEvictionRunsMillis);
                     secureSocketPool.setMinEvictableIdleTimeMillis(minEvictableIdleTimeMillis);
                     secureSocketPool.setMaxIdle(maxIdle);
@@ -37,6 +37,9 @@ public class AgentConfiguration {
     @Element(description = "Data publisher strategy", required = false)
     private String publishingStrategy ="async";
 
+    @Element(description = "Load balancing strategy", required = false)
+    private String loadBalancingStrategy = "roundRobin";
+
     @Element(description = "Trust store path", required = false)
     private String trustStorePath = "";
 
@@ -64,6 +67,18 @@ public class AgentConfiguration {
     @Element(description = "Reconnection interval", required = false)
     private int reconnectionInterval = 30;
 
+    @Element(description = "Initial reconnection interval in milliseconds", required = false)
+    private int initialReconnectionInterval = 500;
+
+    @Element(description = "Heartbeat interval in milliseconds", required = false)
+    private int heartbeatInterval = 5000;
+
+    @Element(description = "Max number of retries for events published asynchronously", required = false)
+    private int maxPublishRetries = 3;
+
+    @Element(description = "Pin a long-lived connection to each publisher worker", required = false)
+    private boolean pinnedConnections = false;
+
     @Element(description = "Max transport pool size", required = false)
     private int maxTransportPoolSize = 250;
 
@@ -138,6 +153,22 @@ public class AgentConfiguration {
         return reconnectionInterval;
     }
 
+    public int getInitialReconnectionInterval() {
+        return initialReconnectionInterval;
+    }
+
+    public int getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public int getMaxPublishRetries() {
+        return maxPublishRetries;
+    }
+
+    public boolean isPinnedConnections() {
+        return pinnedConnections;
+    }
+
     public int getMaxTransportPoolSize() {
         return maxTransportPoolSize;
     }
@@ -182,6 +213,10 @@ public class AgentConfiguration {
         return publishingStrategy;
     }
 
+    public String getLoadBalancingStrategy() {
+        return loadBalancingStrategy;
+    }
+
     public void setTrustStorePath(String trustStorePath) {
         this.trustStorePath = trustStorePath;
     }
@@ -202,6 +237,10 @@ public class AgentConfiguration {
         this.publishingStrategy = publishingStrategy;
     }
 
+    public void setLoadBalancingStrategy(String loadBalancingStrategy) {
+        this.loadBalancingStrategy = loadBalancingStrategy;
+    }
+
     public void setQueueSize(int queueSize) {
         this.queueSize = queueSize;
     }
@@ -230,6 +269,22 @@ public class AgentConfiguration {
         this.reconnectionInterval = reconnectionInterval;
     }
 
+    public void setInitialReconnectionInterval(int initialReconnectionInterval) {
+        this.initialReconnectionInterval = initialReconnectionInterval;
+    }
+
+    public void setHeartbeatInterval(int heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public void setMaxPublishRetries(int maxPublishRetries) {
+        this.maxPublishRetries = maxPublishRetries;
+    }
+
+    public void setPinnedConnections(boolean pinnedConnections) {
+        this.pinnedConnections = pinnedConnections;
+    }
+
     public void setMaxTransportPoolSize(int maxTransportPoolSize) {
         this.maxTransportPoolSize = maxTransportPoolSize;
     }
@@ -275,6 +330,7 @@ public class AgentConfiguration {
         return ", Name : " + name +
                "DataEndpointClass : " + dataEndpointClass +
                "PublishingStrategy : "+ publishingStrategy+
+               "LoadBalancingStrategy : " + loadBalancingStrategy +
                "TrustSorePath" + trustStorePath +
                "TrustSorePassword" + trustStorePassword +
                "QueueSize" + queueSize +
@@ -284,6 +340,10 @@ public class AgentConfiguration {
                "MaxPoolSize" + maxPoolSize +
                "KeepAliveTimeInPool" + keepAliveTimeInPool +
                "ReconnectionInterval" + reconnectionInterval +
+               "InitialReconnectionInterval" + initialReconnectionInterval +
+               "HeartbeatInterval" + heartbeatInterval +
+               "MaxPublishRetries" + maxPublishRetries +
+               "PinnedConnections" + pinnedConnections +
                "MaxTransportPoolSize" + maxTransportPoolSize +
                "MaxIdleConnections" + maxIdleConnections +
                "EvictionTimePeriod" + evictionTimePeriod +
@@ -68,6 +68,11 @@ public class DataAgentConfigurationFileResolver {
                             DataAgentConstants.PUBLISHING_STRATEGY).toString().trim());
                 }
 
+                if (agentConfigurationHashMap.get(DataAgentConstants.LOAD_BALANCING_STRATEGY) != null) {
+                    agentConfiguration.setLoadBalancingStrategy(agentConfigurationHashMap.get(
+                            DataAgentConstants.LOAD_BALANCING_STRATEGY).toString().trim());
+                }
+
                 if (agentConfigurationHashMap.get(DataAgentConstants.TRUST_STORE_PATH) != null) {
                     agentConfiguration.setTrustStorePath(agentConfigurationHashMap.get(
                             DataAgentConstants.TRUST_STORE_PATH).toString().trim());
@@ -114,6 +119,26 @@ public class DataAgentConfigurationFileResolver {
                             DataAgentConstants.RECONNETION_INTERVAL).toString().trim()));
                 }
 
+                if(agentConfigurationHashMap.get(DataAgentConstants.INITIAL_RECONNECTION_INTERVAL) != null){
+                    agentConfiguration.setInitialReconnectionInterval(Integer.parseInt(agentConfigurationHashMap.get(
+                            DataAgentConstants.INITIAL_RECONNECTION_INTERVAL).toString().trim()));
+                }
+
+                if(agentConfigurationHashMap.get(DataAgentConstants.HEARTBEAT_INTERVAL) != null){
+                    agentConfiguration.setHeartbeatInterval(Integer.parseInt(agentConfigurationHashMap.get(
+                            DataAgentConstants.HEARTBEAT_INTERVAL).toString().trim()));
+                }
+
+                if(agentConfigurationHashMap.get(DataAgentConstants.MAX_PUBLISH_RETRIES) != null){
+                    agentConfiguration.setMaxPublishRetries(Integer.parseInt(agentConfigurationHashMap.get(
+                            DataAgentConstants.MAX_PUBLISH_RETRIES).toString().trim()));
+                }
+
+                if(agentConfigurationHashMap.get(DataAgentConstants.PINNED_CONNECTIONS) != null){
+                    agentConfiguration.setPinnedConnections(Boolean.parseBoolean(agentConfigurationHashMap.get(
+                            DataAgentConstants.PINNED_CONNECTIONS).toString().trim()));
+                }
+
                 if(agentConfigurationHashMap.get(DataAgentConstants.MAX_TRANSPORT_POOL_SIZE) != null){
                     agentConfiguration.setMaxTransportPoolSize(Integer.parseInt(agentConfigurationHashMap.get(
                             DataAgentConstants.MAX_TRANSPORT_POOL_SIZE).toString().trim()));
@@ -51,6 +51,8 @@ public class DataEndpointConfiguration {
 
     private int keepAliveTimeInPool;
 
+    private boolean pinnedConnections;
+
     public enum Protocol {
         TCP, SSL;
 
@@ -63,7 +65,8 @@ public class DataEndpointConfiguration {
     public DataEndpointConfiguration(String receiverURL, String authURL, String username, String password,
                                      GenericKeyedObjectPool transportPool,
                                      GenericKeyedObjectPool securedTransportPool,
-                                     int batchSize, int corePoolSize, int maxPoolSize, int keepAliveTimeInPool) {
+                                     int batchSize, int corePoolSize, int maxPoolSize, int keepAliveTimeInPool,
+                                     boolean pinnedConnections) {
         this.receiverURL = receiverURL;
         this.authURL = authURL;
         this.username = username;
@@ -76,6 +79,7 @@ public class DataEndpointConfiguration {
         this.corePoolSize = corePoolSize;
         this.maxPoolSize = maxPoolSize;
         this.keepAliveTimeInPool = keepAliveTimeInPool;
+        this.pinnedConnections = pinnedConnections;
     }
 
     public String getReceiverURL() {
@@ -139,5 +143,9 @@ public class DataEndpointConfiguration {
     public int getBatchSize() {
         return batchSize;
     }
+
+    public boolean isPinnedConnections() {
+        return pinnedConnections;
+    }
 }
 
@@ -23,6 +23,8 @@ import org.apache.commons.pool.impl.GenericKeyedObjectPool;
 import org.wso2.carbon.databridge.agent.conf.DataEndpointConfiguration;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointMetrics;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointMetricsSnapshot;
 import org.wso2.carbon.databridge.agent.util.DataEndpointConstants;
 import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.exception.SessionTimeoutException;
@@ -32,10 +34,14 @@ import org.wso2.carbon.databridge.commons.utils.DataBridgeThreadFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Abstract class for DataEndpoint, and this is a main class that needs to be implemented
@@ -57,16 +63,59 @@ public abstract class DataEndpoint {
 
     private DataEndpointFailureCallback dataEndpointFailureCallback;
 
+    private DataEndpointStateListener dataEndpointStateListener;
+
     private ExecutorService connectionService;
 
     private int maxPoolSize;
 
     private List<Event> events;
 
-    private State state;
+    /**
+     * Futures of the asynchronously published events in the current batch, in the same order as the events.
+     * This is null as long as the batch only contains fire-and-forget events.
+     */
+    private List<EventPublishFuture> publishFutures;
+
+    private volatile State state;
 
     private Semaphore immediateDispatchSemaphore;
 
+    private boolean isPinnedConnections;
+
+    /**
+     * Long-lived clients owned by the publisher worker threads when the pinned connections mode is enabled.
+     * These are borrowed from the transport pool once and only given back when the worker or the endpoint
+     * terminates, or discarded when the connection breaks.
+     */
+    private final Map<Thread, PinnedClient> pinnedClients = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented whenever the receiver is found unreachable, so that the workers renew the pinned clients
+     * which were connected before that, instead of failing a batch each on the stale connections.
+     */
+    private final AtomicInteger pinnedClientsGeneration = new AtomicInteger();
+
+    /**
+     * Number of event batches handed over to the publisher threads, which are not yet acknowledged by the receiver.
+     */
+    private final AtomicInteger outstandingBatches = new AtomicInteger();
+
+    /**
+     * Exponentially weighted moving average of the batch send latency in nanoseconds, zero until the first
+     * batch is sent successfully.
+     */
+    private final AtomicLong ewmaLatency = new AtomicLong();
+
+    private static final double EWMA_LATENCY_SMOOTHING_FACTOR = 0.3;
+
+    /**
+     * Last time in milliseconds the endpoint was known to be reachable, either by a successful publish or a heartbeat.
+     */
+    private volatile long lastActiveTime = System.currentTimeMillis();
+
+    private final DataEndpointMetrics metrics = new DataEndpointMetrics();
+
     public enum State {
         ACTIVE, UNAVAILABLE, BUSY, INITIALIZING
     }
@@ -78,26 +127,55 @@ public abstract class DataEndpoint {
     }
 
     void collectAndSend(Event event) {
+        collectAndSend(event, null);
+    }
+
+    void collectAndSend(Event event, EventPublishFuture publishFuture) {
+        if (publishFuture != null && publishFutures == null) {
+            publishFutures = new ArrayList<>(batchSize);
+            for (int i = 0; i < events.size(); i++) {
+                publishFutures.add(null);
+            }
+        }
         events.add(event);
+        if (publishFutures != null) {
+            publishFutures.add(publishFuture);
+        }
         if (events.size() >= batchSize) {
-            threadPoolExecutor.submitJobAndSetState(new Thread(new EventPublisher(events)), this);
+            outstandingBatches.incrementAndGet();
+            threadPoolExecutor.submitJobAndSetState(new Thread(new EventPublisher(events, publishFutures,
+                    isPinnedConnections)), this);
             events = new ArrayList<>();
+            publishFutures = null;
         }
     }
 
     void flushEvents() {
         if (events.size() != 0) {
-            threadPoolExecutor.submitJobAndSetState(new Thread(new EventPublisher(events)), this);
+            outstandingBatches.incrementAndGet();
+            threadPoolExecutor.submitJobAndSetState(new Thread(new EventPublisher(events, publishFutures,
+                    isPinnedConnections)), this);
             events = new ArrayList<>();
+            publishFutures = null;
         }
     }
 
     void syncSend(Event event) {
+        syncSend(event, null);
+    }
+
+    void syncSend(Event event, EventPublishFuture publishFuture) {
         List<Event> events = new ArrayList<>(1);
         events.add(event);
-        EventPublisher eventPublisher = new EventPublisher(events);
+        List<EventPublishFuture> publishFutures = null;
+        if (publishFuture != null) {
+            publishFutures = new ArrayList<>(1);
+            publishFutures.add(publishFuture);
+        }
+        EventPublisher eventPublisher = new EventPublisher(events, publishFutures, false);
         setStateBusy();
         acquireImmediateDispatchSemaphore();
+        outstandingBatches.incrementAndGet();
         try {
             eventPublisher.run();
         } finally {
@@ -131,6 +209,9 @@ public abstract class DataEndpoint {
     void setState(State state) {
         if (!this.state.equals(state)) {
             this.state = state;
+            if (dataEndpointStateListener != null) {
+                dataEndpointStateListener.onDataEndpointStateChange(this);
+            }
         }
     }
 
@@ -161,9 +242,15 @@ public abstract class DataEndpoint {
         this.batchSize = dataEndpointConfiguration.getBatchSize();
         this.connectionWorker = new DataEndpointConnectionWorker();
         this.connectionWorker.initialize(this, dataEndpointConfiguration);
+        this.isPinnedConnections = dataEndpointConfiguration.isPinnedConnections();
         this.threadPoolExecutor = new EventPublisherThreadPoolExecutor(dataEndpointConfiguration.getCorePoolSize(),
                 dataEndpointConfiguration.getMaxPoolSize(), dataEndpointConfiguration.getKeepAliveTimeInPool(),
-                dataEndpointConfiguration.getReceiverURL());
+                dataEndpointConfiguration.getReceiverURL(), new Runnable() {
+                    @Override
+                    public void run() {
+                        releasePinnedClient(Thread.currentThread());
+                    }
+                });
         this.connectionService = Executors.newSingleThreadExecutor(new DataBridgeThreadFactory("ConnectionService-" +
                 dataEndpointConfiguration.getReceiverURL()));
         this.maxPoolSize = dataEndpointConfiguration.getMaxPoolSize();
@@ -218,6 +305,53 @@ public abstract class DataEndpoint {
     protected abstract void send(Object client, List<Event> events) throws
             DataEndpointException, SessionTimeoutException, UndefinedEventTypeException;
 
+    /**
+     * Send a lightweight heartbeat message to the endpoint and wait for its acknowledgement.
+     * The default implementation does nothing, transports which support heartbeats should override this.
+     *
+     * @param client The client that can be used to send the heartbeat.
+     * @throws DataEndpointException if the endpoint did not acknowledge the heartbeat.
+     */
+    protected void ping(Object client) throws DataEndpointException {
+    }
+
+    /**
+     * Checks whether the endpoint is reachable by sending a heartbeat over a pooled connection.
+     *
+     * @return true if the endpoint acknowledged the heartbeat.
+     */
+    boolean sendHeartbeat() {
+        Object client = null;
+        try {
+            client = getClient();
+            ping(client);
+            lastActiveTime = System.currentTimeMillis();
+            returnClient(client);
+            return true;
+        } catch (DataEndpointException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Heartbeat failed for endpoint " + getDataEndpointConfiguration().getReceiverURL(), e);
+            }
+            discardClient(client);
+            pinnedClientsGeneration.incrementAndGet();
+            metrics.onHeartbeatFailure();
+            return false;
+        }
+    }
+
+    long getLastActiveTime() {
+        return lastActiveTime;
+    }
+
+    DataEndpointMetrics getMetrics() {
+        return metrics;
+    }
+
+    DataEndpointMetricsSnapshot getMetricsSnapshot() {
+        return metrics.getSnapshot(getDataEndpointConfiguration().getReceiverURL(), getState().toString(),
+                getOutstandingBatches());
+    }
+
     protected DataEndpointConfiguration getDataEndpointConfiguration() {
         return this.connectionWorker.getDataEndpointConfiguration();
     }
@@ -250,18 +384,104 @@ public abstract class DataEndpoint {
         }
     }
 
+    /**
+     * Returns the client owned by the current publisher worker thread, and borrows one from the
+     * transport pool if the worker doesn't own a client yet or its previous client became stale.
+     */
+    private Object getPinnedClient() throws DataEndpointException {
+        Thread currentThread = Thread.currentThread();
+        PinnedClient pinnedClient = pinnedClients.get(currentThread);
+        int generation = pinnedClientsGeneration.get();
+        if (pinnedClient != null && pinnedClient.generation != generation) {
+            pinnedClients.remove(currentThread);
+            discardClient(pinnedClient.client);
+            pinnedClient = null;
+        }
+        if (pinnedClient == null) {
+            pinnedClient = new PinnedClient(getClient(), generation);
+            pinnedClients.put(currentThread, pinnedClient);
+        }
+        return pinnedClient.client;
+    }
+
+    private void discardPinnedClient(Object client) {
+        pinnedClientsGeneration.incrementAndGet();
+        pinnedClients.remove(Thread.currentThread());
+        discardClient(client);
+    }
+
+    private void releasePinnedClient(Thread thread) {
+        PinnedClient pinnedClient = pinnedClients.remove(thread);
+        if (pinnedClient != null) {
+            returnClient(pinnedClient.client);
+        }
+    }
+
     void registerDataEndpointFailureCallback(DataEndpointFailureCallback callback) {
         dataEndpointFailureCallback = callback;
     }
 
+    void registerDataEndpointStateListener(DataEndpointStateListener listener) {
+        dataEndpointStateListener = listener;
+    }
+
+    /**
+     * Returns the number of event batches which are currently being published or waiting to be published
+     * to this endpoint.
+     *
+     * @return Number of outstanding batches.
+     */
+    int getOutstandingBatches() {
+        return outstandingBatches.get();
+    }
+
+    /**
+     * Returns the exponentially weighted moving average of the time taken to send a batch to this endpoint.
+     *
+     * @return Average batch send latency in nanoseconds, or zero if no batch has been sent yet.
+     */
+    long getEwmaLatency() {
+        return ewmaLatency.get();
+    }
+
+    private void updateEwmaLatency(long latency) {
+        long current;
+        long updated;
+        do {
+            current = ewmaLatency.get();
+            if (current == 0) {
+                updated = latency;
+            } else {
+                updated = current + (long) (EWMA_LATENCY_SMOOTHING_FACTOR * (latency - current));
+            }
+        } while (!ewmaLatency.compareAndSet(current, updated));
+    }
+
+    /**
+     * A client held by a publisher thread, with the generation of the pinned clients it was borrowed in.
+     */
+    private static class PinnedClient {
+        private final Object client;
+        private final int generation;
+
+        private PinnedClient(Object client, int generation) {
+            this.client = client;
+            this.generation = generation;
+        }
+    }
+
     /**
      * Event Publisher worker thread to actually sends the events to the endpoint.
      */
     class EventPublisher implements Runnable {
         List<Event> events;
+        List<EventPublishFuture> publishFutures;
+        boolean isPinnedClient;
 
-        public EventPublisher(List<Event> events) {
+        public EventPublisher(List<Event> events, List<EventPublishFuture> publishFutures, boolean isPinnedClient) {
             this.events = events;
+            this.publishFutures = publishFutures;
+            this.isPinnedClient = isPinnedClient;
         }
 
         @Override
@@ -277,6 +497,8 @@ public abstract class DataEndpoint {
                     publish();
                 } catch (UndefinedEventTypeException ex) {
                     log.error("Unable to process this event.", ex);
+                    EventPublishFuture.completeAllExceptionally(publishFutures, ex);
+                    RecycledEvent.recycle(events);
                 } catch (Exception ex) {
                     log.error("Unexpected error occurred while sending the event. ", ex);
                     handleFailedEvents();
@@ -286,6 +508,8 @@ public abstract class DataEndpoint {
                 handleFailedEvents();
             } catch (UndefinedEventTypeException e) {
                 log.error("Unable to process this event.", e);
+                EventPublishFuture.completeAllExceptionally(publishFutures, e);
+                RecycledEvent.recycle(events);
             } catch (Exception ex) {
                 log.error("Unexpected error occurred while sending the event. ", ex);
                 handleFailedEvents();
@@ -293,10 +517,14 @@ public abstract class DataEndpoint {
                 //There can be situations where runtime exceptions/class not found exceptions occur, This block help to catch those exceptions.
                 //No need to retry send events. Deactivating the state would be enough.
                 log.error("Unexpected error occurred while sending events. ", t);
+                metrics.onBatchFailed();
                 deactivate();
+                EventPublishFuture.completeAllExceptionally(publishFutures, t);
+                RecycledEvent.recycle(events);
             } finally {
                 //If any processing error occurred the state will be changed to unavailable,
                 // Hence the state switch should be happening only in busy state where the publishing was success.
+                outstandingBatches.decrementAndGet();
                 if (state.equals(State.BUSY)) {
                     activate();
                 }
@@ -308,16 +536,36 @@ public abstract class DataEndpoint {
         }
 
         private void handleFailedEvents() {
+            metrics.onBatchFailed();
             deactivate();
-            dataEndpointFailureCallback.tryResendEvents(events);
+            dataEndpointFailureCallback.tryResendEvents(events, publishFutures);
         }
 
         private void publish() throws DataEndpointException, SessionTimeoutException, UndefinedEventTypeException {
-            Object client = getClient();
+            Object client = isPinnedClient ? getPinnedClient() : getClient();
+            boolean isConnectionBroken = false;
             try {
+                long startTime = System.nanoTime();
                 send(client, this.events);
+                long latency = System.nanoTime() - startTime;
+                updateEwmaLatency(latency);
+                metrics.onBatchSent(this.events.size(), latency);
+                lastActiveTime = System.currentTimeMillis();
+                EventPublishFuture.completeAll(publishFutures);
+                RecycledEvent.recycle(this.events);
+            } catch (DataEndpointException e) {
+                isConnectionBroken = true;
+                throw e;
             } finally {
-                returnClient(client);
+                if (isPinnedClient) {
+                    if (isConnectionBroken) {
+                        discardPinnedClient(client);
+                    }
+                } else if (isConnectionBroken) {
+                    discardClient(client);
+                } else {
+                    returnClient(client);
+                }
             }
         }
     }
@@ -341,6 +589,9 @@ public abstract class DataEndpoint {
             } catch (InterruptedException ignored) {
             }
         }
+        for (Thread thread : pinnedClients.keySet()) {
+            releasePinnedClient(thread);
+        }
         connectionWorker.disconnect(getDataEndpointConfiguration());
         connectionService.shutdownNow();
         threadPoolExecutor.shutdownNow();
@@ -97,12 +97,23 @@ public class DataEndpointConnectionWorker implements Runnable {
             dataEndpointConfiguration.setSessionId(sessionId);
         } catch (Throwable e) {
             log.error(e.getMessage(), e);
+            if (client != null) {
+                // The connection might be broken, hence it should not be reused for the next login attempt.
+                try {
+                    this.dataEndpointConfiguration.getSecuredTransportPool().invalidateObject(
+                            dataEndpointConfiguration.getAuthKey(), client);
+                } catch (Exception ignored) {
+                }
+                client = null;
+            }
             throw new DataEndpointAuthenticationException("Cannot borrow client for " + dataEndpointConfiguration.getAuthURL(), e);
         } finally {
-            try {
-                this.dataEndpointConfiguration.getSecuredTransportPool().returnObject(dataEndpointConfiguration.getAuthKey(), client);
-            } catch (Exception e) {
-                this.dataEndpointConfiguration.getSecuredTransportPool().clear(dataEndpointConfiguration.getAuthKey());
+            if (client != null) {
+                try {
+                    this.dataEndpointConfiguration.getSecuredTransportPool().returnObject(dataEndpointConfiguration.getAuthKey(), client);
+                } catch (Exception e) {
+                    this.dataEndpointConfiguration.getSecuredTransportPool().clear(dataEndpointConfiguration.getAuthKey());
+                }
             }
         }
 
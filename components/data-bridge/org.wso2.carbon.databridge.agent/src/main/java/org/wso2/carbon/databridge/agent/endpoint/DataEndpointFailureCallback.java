@@ -30,9 +30,10 @@ public interface DataEndpointFailureCallback {
      * Notifies the The failed events, and should try to send the events again successfully.
      * In case if this couldn't send the events, then the unsuccessful events list needs to be returned back.
      *
-     * @param events List failed events
-     *
+     * @param events         List failed events
+     * @param publishFutures Futures of the failed events in the same order, or null if none of the events
+     *                       were published asynchronously
      */
-    public void tryResendEvents(List<Event> events);
+    public void tryResendEvents(List<Event> events, List<EventPublishFuture> publishFutures);
 
 }
@@ -27,30 +27,39 @@ import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.databridge.agent.DataEndpointAgent;
-import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
 import org.wso2.carbon.databridge.agent.exception.EventQueueFullException;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointGroupMetricsSnapshot;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointMetricsSnapshot;
 import org.wso2.carbon.databridge.agent.util.DataEndpointConstants;
-import org.wso2.carbon.databridge.agent.util.DataPublisherUtil;
 import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.utils.DataBridgeThreadFactory;
 
-import java.io.IOException;
-import java.net.Socket;
-import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This class holds the endpoints associated within a group. Also it has a queue
  * to hold the list of events that needs to be processed by the endpoints with
  * provided the load balancing, or failover configuration.
  */
-public class DataEndpointGroup implements DataEndpointFailureCallback {
+public class DataEndpointGroup implements DataEndpointFailureCallback, DataEndpointStateListener {
     private static final Log log = LogFactory.getLog(DataEndpointGroup.class);
 
     private List<DataEndpoint> dataEndpoints;
@@ -61,6 +70,12 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
 
     private int reconnectionInterval;
 
+    private final long initialReconnectionInterval;
+
+    private final long heartbeatInterval;
+
+    private final int maxPublishRetries;
+
     private final Integer START_INDEX = 0;
 
     private AtomicInteger currentDataPublisherIndex = new AtomicInteger(START_INDEX);
@@ -71,106 +86,280 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
 
     private final String publishingStrategy;
 
+    private final LoadBalancingStrategy loadBalancingStrategy;
+
+    /**
+     * Incremented on every endpoint state change, so that a publisher can detect whether
+     * any endpoint changed its state since it last looked for an available endpoint.
+     */
+    private final AtomicLong endpointStateVersion = new AtomicLong();
+
+    private final ConcurrentLinkedQueue<Thread> waitingPublishers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Upper bound for a single wait for an endpoint state change, as a safeguard against missed notifications.
+     */
+    private static final long MAX_ENDPOINT_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private boolean isShutdown = false;
 
+    private final LongAdder eventsPublished = new LongAdder();
+
+    private final LongAdder eventsDropped = new LongAdder();
+
+    /**
+     * Events copied out of the event slots which have been sent, and can be reused for the later slot events.
+     */
+    private final BlockingQueue<RecycledEvent> recycledEvents;
+
+    /**
+     * Slot into which the events published by a translator are written for the sync publishing strategy.
+     */
+    private static final ThreadLocal<EventSlot> SYNC_PUBLISH_SLOT = ThreadLocal.withInitial(EventSlot::new);
+
     public enum HAType {
         FAILOVER, LOADBALANCE
     }
 
+    public enum LoadBalancingStrategy {
+        ROUND_ROBIN, LEAST_OUTSTANDING, EWMA_LATENCY, POWER_OF_TWO_CHOICES
+    }
+
     public DataEndpointGroup(HAType haType, DataEndpointAgent agent) {
         this.dataEndpoints = new ArrayList<>();
         this.haType = haType;
         this.reconnectionService = Executors.newScheduledThreadPool(1, new DataBridgeThreadFactory("ReconnectionService"));
         this.reconnectionInterval = agent.getAgentConfiguration().getReconnectionInterval();
+        this.initialReconnectionInterval = agent.getAgentConfiguration().getInitialReconnectionInterval();
+        this.heartbeatInterval = agent.getAgentConfiguration().getHeartbeatInterval();
+        this.maxPublishRetries = agent.getAgentConfiguration().getMaxPublishRetries();
         this.publishingStrategy = agent.getAgentConfiguration().getPublishingStrategy();
+        this.loadBalancingStrategy = getLoadBalancingStrategy(agent.getAgentConfiguration().
+                getLoadBalancingStrategy());
+        this.recycledEvents = new ArrayBlockingQueue<>(agent.getAgentConfiguration().getQueueSize());
         if (!publishingStrategy.equalsIgnoreCase(DataEndpointConstants.SYNC_STRATEGY)) {
             this.eventQueue = new EventQueue(agent.getAgentConfiguration().getQueueSize());
         }
-        this.reconnectionService.scheduleAtFixedRate(new ReconnectionTask(), reconnectionInterval,
-                reconnectionInterval, TimeUnit.SECONDS);
+        this.reconnectionService.schedule(new ReconnectionTask(), initialReconnectionInterval, TimeUnit.MILLISECONDS);
         currentDataPublisherIndex.set(START_INDEX);
     }
 
     public void addDataEndpoint(DataEndpoint dataEndpoint) {
         dataEndpoints.add(dataEndpoint);
         dataEndpoint.registerDataEndpointFailureCallback(this);
+        dataEndpoint.registerDataEndpointStateListener(this);
         maximumDataPublisherIndex.incrementAndGet();
     }
 
+    private static LoadBalancingStrategy getLoadBalancingStrategy(String strategy) {
+        if (strategy == null || strategy.isEmpty() ||
+                strategy.equalsIgnoreCase(DataEndpointConstants.ROUND_ROBIN_LB_STRATEGY)) {
+            return LoadBalancingStrategy.ROUND_ROBIN;
+        } else if (strategy.equalsIgnoreCase(DataEndpointConstants.LEAST_OUTSTANDING_LB_STRATEGY)) {
+            return LoadBalancingStrategy.LEAST_OUTSTANDING;
+        } else if (strategy.equalsIgnoreCase(DataEndpointConstants.EWMA_LATENCY_LB_STRATEGY)) {
+            return LoadBalancingStrategy.EWMA_LATENCY;
+        } else if (strategy.equalsIgnoreCase(DataEndpointConstants.POWER_OF_TWO_CHOICES_LB_STRATEGY)) {
+            return LoadBalancingStrategy.POWER_OF_TWO_CHOICES;
+        } else {
+            log.warn("Unknown load balancing strategy : " + strategy + ", hence using "
+                    + DataEndpointConstants.ROUND_ROBIN_LB_STRATEGY + " strategy.");
+            return LoadBalancingStrategy.ROUND_ROBIN;
+        }
+    }
+
     public void tryPublish(Event event) throws EventQueueFullException {
         if (eventQueue != null) {
-            eventQueue.tryPut(event);
-        } else if (!isShutdown) {
-            trySyncPublish(event);
+            try {
+                eventQueue.tryPut(event, null);
+            } catch (EventQueueFullException e) {
+                eventsDropped.increment();
+                throw e;
+            }
+            eventsPublished.increment();
+        } else if (!isShutdown && trySyncPublish(event, null)) {
+            eventsPublished.increment();
         }
     }
 
     public void tryPublish(Event event, long timeoutMS) throws EventQueueFullException {
         if (eventQueue != null) {
-            eventQueue.tryPut(event, timeoutMS);
-        } else if (!isShutdown) {
-            trySyncPublish(event, timeoutMS);
+            try {
+                eventQueue.tryPut(event, timeoutMS);
+            } catch (EventQueueFullException e) {
+                eventsDropped.increment();
+                throw e;
+            }
+            eventsPublished.increment();
+        } else if (!isShutdown && trySyncPublish(event, timeoutMS)) {
+            eventsPublished.increment();
         }
     }
 
     public void publish(Event event) {
         if (eventQueue != null) {
-            eventQueue.put(event);
-        } else if (!isShutdown) {
-            syncPublish(event);
+            if (eventQueue.put(event, null)) {
+                eventsPublished.increment();
+            } else {
+                eventsDropped.increment();
+            }
+        } else if (!isShutdown && syncPublish(event, null)) {
+            eventsPublished.increment();
+        }
+    }
+
+    /**
+     * Publish an event of the given stream by writing its attributes straight into a claimed slot of the event
+     * queue, instead of handing over an event object. This blocks in the same way as {@link #publish(Event)}.
+     *
+     * @param streamId   StreamId for which the event belongs to.
+     * @param translator Writes the attributes of the event into the slot.
+     */
+    public void publish(String streamId, EventSlotTranslator translator) {
+        if (eventQueue != null) {
+            if (eventQueue.put(streamId, translator)) {
+                eventsPublished.increment();
+            } else {
+                eventsDropped.increment();
+            }
+        } else if (!isShutdown && syncPublish(translateToEvent(streamId, translator), null)) {
+            eventsPublished.increment();
+        }
+    }
+
+    /**
+     * Publish an event of the given stream by writing its attributes straight into a claimed slot of the event
+     * queue, and fails without calling the translator if the queue is full.
+     *
+     * @param streamId   StreamId for which the event belongs to.
+     * @param translator Writes the attributes of the event into the slot.
+     * @throws EventQueueFullException if the event queue is full.
+     */
+    public void tryPublish(String streamId, EventSlotTranslator translator) throws EventQueueFullException {
+        if (eventQueue != null) {
+            try {
+                eventQueue.tryPut(streamId, translator);
+            } catch (EventQueueFullException e) {
+                eventsDropped.increment();
+                throw e;
+            }
+            eventsPublished.increment();
+        } else if (!isShutdown && trySyncPublish(translateToEvent(streamId, translator), null)) {
+            eventsPublished.increment();
+        }
+    }
+
+    /**
+     * Builds the event in the slot of the publishing thread for the sync publishing strategy, which has no event
+     * queue.
+     */
+    private Event translateToEvent(String streamId, EventSlotTranslator translator) {
+        EventSlot slot = SYNC_PUBLISH_SLOT.get();
+        slot.reset(streamId);
+        translator.translateTo(slot);
+        return RecycledEvent.copyOf(slot, recycledEvents);
+    }
+
+    /**
+     * Publish the event in the same way as {@link #publish(Event)}, and returns a future which is completed
+     * once the batch containing the event is acknowledged by a receiver of this group, or completed exceptionally
+     * if the event could not be published after the configured number of retries.
+     *
+     * @param event The event which needs to be published.
+     * @return Future which is completed when the event is acknowledged.
+     */
+    public CompletableFuture<Void> publishAsync(Event event) {
+        EventPublishFuture publishFuture = new EventPublishFuture();
+        if (isShutdown) {
+            publishFuture.completeExceptionally(new DataEndpointException("Data endpoint group is shutting down, "
+                    + "hence the event cannot be published."));
+        } else if (eventQueue != null) {
+            if (eventQueue.put(event, publishFuture)) {
+                eventsPublished.increment();
+            } else {
+                eventsDropped.increment();
+                publishFuture.completeExceptionally(new EventQueueFullException("Cannot send events because the "
+                        + "event queue is full and no data endpoint is available"));
+            }
+        } else if (syncPublish(event, publishFuture)) {
+            eventsPublished.increment();
         }
+        return publishFuture;
     }
 
-    private void trySyncPublish(Event event) {
+    /**
+     * @return true if the event was handed over to an endpoint, and false if it was dropped.
+     */
+    private boolean trySyncPublish(Event event, EventPublishFuture publishFuture) {
         try {
             DataEndpoint endpoint = getDataEndpoint(false);
             if (endpoint != null) {
-                endpoint.syncSend(event);
+                endpoint.syncSend(event, publishFuture);
+                return true;
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug("DataEndpoint not available, dropping event : " + event);
                 }
+                eventsDropped.increment();
+                if (publishFuture != null) {
+                    publishFuture.completeExceptionally(new DataEndpointException("Data endpoint not available, "
+                            + "hence the event was dropped."));
+                }
             }
         } catch (Throwable t) {
             log.error("Unexpected error: " + t.getMessage(), t);
+            if (publishFuture != null) {
+                publishFuture.completeExceptionally(t);
+            }
         }
+        return false;
     }
 
-    private void trySyncPublish(Event event, long timeoutMS) {
+    private boolean trySyncPublish(Event event, long timeoutMS) {
         long stopTime = System.currentTimeMillis() + timeoutMS;
         while (true) {
+            long stateVersion = endpointStateVersion.get();
             DataEndpoint endpoint = getDataEndpoint(false);
             if (endpoint != null) {
                 endpoint.syncSend(event);
-                break;
+                return true;
             }
-            if (stopTime <= System.currentTimeMillis()) {
+            long remainingTime = stopTime - System.currentTimeMillis();
+            if (remainingTime <= 0) {
                 if (log.isDebugEnabled()) {
                     log.debug("DataEndpoint not available for  last " + timeoutMS + " ms, dropping event : " + event);
                 }
-                break;
-            }
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException ignored) {
+                eventsDropped.increment();
+                return false;
             }
+            awaitEndpointStateChange(stateVersion, TimeUnit.MILLISECONDS.toNanos(remainingTime));
         }
     }
 
-    private void syncPublish(Event event) {
+    private boolean syncPublish(Event event, EventPublishFuture publishFuture) {
         try {
             DataEndpoint endpoint = getDataEndpoint(true);
             if (endpoint != null) {
-                endpoint.syncSend(event);
+                endpoint.syncSend(event, publishFuture);
+                return true;
             } else {
                 log.error("Dropping event as DataPublisher is shutting down.");
                 if (log.isDebugEnabled()) {
                     log.debug("Data publisher is shutting down, dropping event : " + event);
                 }
+                eventsDropped.increment();
+                if (publishFuture != null) {
+                    publishFuture.completeExceptionally(new DataEndpointException("Data publisher is shutting down, "
+                            + "hence the event was dropped."));
+                }
             }
         } catch (Throwable t) {
             log.error("Unexpected error: " + t.getMessage(), t);
+            if (publishFuture != null) {
+                publishFuture.completeExceptionally(t);
+            }
         }
+        return false;
     }
 
     class EventQueue {
@@ -185,13 +374,14 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
             this.ringBuffer = eventQueueDisruptor.start();
         }
 
-        private void tryPut(Event event) throws EventQueueFullException {
+        private void tryPut(Event event, EventPublishFuture publishFuture) throws EventQueueFullException {
 
             long sequence;
             try {
                 sequence = this.ringBuffer.tryNext(1);
                 WrappedEventFactory.WrappedEvent bufferedEvent = this.ringBuffer.get(sequence);
                 bufferedEvent.setEvent(event);
+                bufferedEvent.setPublishFuture(publishFuture);
                 this.ringBuffer.publish(sequence);
             } catch (InsufficientCapacityException e) {
                 throw new EventQueueFullException("Cannot send events because the event queue is full", e);
@@ -206,6 +396,7 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
                     sequence = this.ringBuffer.tryNext(1);
                     WrappedEventFactory.WrappedEvent bufferedEvent = this.ringBuffer.get(sequence);
                     bufferedEvent.setEvent(event);
+                    bufferedEvent.setPublishFuture(null);
                     this.ringBuffer.publish(sequence);
                     break;
                 } catch (InsufficientCapacityException ex) {
@@ -221,21 +412,77 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
         }
 
         //Endless wait if at-least once endpoint is available.
-        private void put(Event event) {
+        private boolean put(Event event, EventPublishFuture publishFuture) {
             do {
                 try {
                     long sequence = this.ringBuffer.tryNext(1);
                     WrappedEventFactory.WrappedEvent bufferedEvent = this.ringBuffer.get(sequence);
                     bufferedEvent.setEvent(event);
+                    bufferedEvent.setPublishFuture(publishFuture);
                     this.ringBuffer.publish(sequence);
-                    return;
+                    return true;
+                } catch (InsufficientCapacityException ex) {
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            } while (isActiveDataEndpointExists());
+            return false;
+        }
+
+        private void tryPut(String streamId, EventSlotTranslator translator) throws EventQueueFullException {
+            long sequence;
+            try {
+                sequence = this.ringBuffer.tryNext(1);
+            } catch (InsufficientCapacityException e) {
+                throw new EventQueueFullException("Cannot send events because the event queue is full", e);
+            }
+            translateAndPublish(sequence, streamId, translator);
+        }
+
+        //Endless wait if at-least once endpoint is available.
+        private boolean put(String streamId, EventSlotTranslator translator) {
+            do {
+                long sequence;
+                try {
+                    sequence = this.ringBuffer.tryNext(1);
                 } catch (InsufficientCapacityException ex) {
                     try {
                         Thread.sleep(2);
                     } catch (InterruptedException ignored) {
                     }
+                    continue;
                 }
+                translateAndPublish(sequence, streamId, translator);
+                return true;
             } while (isActiveDataEndpointExists());
+            return false;
+        }
+
+        private void translateAndPublish(long sequence, String streamId, EventSlotTranslator translator) {
+            WrappedEventFactory.WrappedEvent bufferedEvent = this.ringBuffer.get(sequence);
+            bufferedEvent.setEvent(null);
+            bufferedEvent.setPublishFuture(null);
+            EventSlot slot = bufferedEvent.getSlot();
+            try {
+                slot.reset(streamId);
+                translator.translateTo(slot);
+            } catch (RuntimeException e) {
+                // A claimed sequence has to be published regardless, hence the partially written event is discarded.
+                slot.reset(null);
+                throw e;
+            } finally {
+                this.ringBuffer.publish(sequence);
+            }
+        }
+
+        private int getCapacity() {
+            return ringBuffer.getBufferSize();
+        }
+
+        private long getOccupancy() {
+            return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
         }
 
         private void shutdown() {
@@ -249,11 +496,23 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
         boolean isLastEventDropped =false;
         @Override
         public void onEvent(WrappedEventFactory.WrappedEvent wrappedEvent, long sequence, boolean endOfBatch) {
-            DataEndpoint endpoint = getDataEndpoint(true);
             Event event = wrappedEvent.getEvent();
+            if (event == null) {
+                EventSlot slot = wrappedEvent.getSlot();
+                if (slot.getStreamId() == null) {
+                    // The translator of this slot failed, hence there is no event to send.
+                    if (endOfBatch) {
+                        flushAllDataEndpoints();
+                    }
+                    return;
+                }
+                event = RecycledEvent.copyOf(slot, recycledEvents);
+            }
+            DataEndpoint endpoint = getDataEndpoint(true);
+            EventPublishFuture publishFuture = wrappedEvent.getPublishFuture();
             if (endpoint != null) {
                 isLastEventDropped =false;
-                endpoint.collectAndSend(event);
+                endpoint.collectAndSend(event, publishFuture);
                 if (endOfBatch) {
                     flushAllDataEndpoints();
                 }
@@ -265,6 +524,11 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
                     log.debug("Data publisher is shutting down, dropping event : " + event);
                 }
                 isLastEventDropped =true;
+                eventsDropped.increment();
+                if (publishFuture != null) {
+                    publishFuture.completeExceptionally(new DataEndpointException("Data publisher is shutting down, "
+                            + "hence the event was dropped."));
+                }
             }
         }
     }
@@ -287,59 +551,206 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
      * @return DataEndpoint which can accept and send the events.
      */
     private DataEndpoint getDataEndpoint(boolean isBusyWait) {
-        int startIndex;
-        if (haType.equals(HAType.LOADBALANCE)) {
-            startIndex = getDataPublisherIndex();
-        } else {
-            startIndex = START_INDEX;
+        while (true) {
+            long stateVersion = endpointStateVersion.get();
+            if (haType.equals(HAType.FAILOVER)) {
+                DataEndpoint dataEndpoint = getFailoverDataEndpoint();
+                if (dataEndpoint != null) {
+                    if (dataEndpoint.getState().equals(DataEndpoint.State.ACTIVE)) {
+                        return dataEndpoint;
+                    }
+                    /**
+                     * Wait until the failover endpoint finish publishing
+                     */
+                    awaitEndpointStateChange(stateVersion, MAX_ENDPOINT_WAIT_NANOS);
+                    continue;
+                }
+            } else {
+                DataEndpoint dataEndpoint = getLoadBalancedDataEndpoint();
+                if (dataEndpoint != null) {
+                    return dataEndpoint;
+                }
+            }
+            if (!isBusyWait) {
+                return null;
+            }
+            if (reconnectionService.isShutdown() && !isActiveDataEndpointExists()) {
+                return null;
+            }
+            /**
+             * Have fully iterated the data publisher list,
+             * and wait until a data publisher becomes available
+             */
+            awaitEndpointStateChange(stateVersion, MAX_ENDPOINT_WAIT_NANOS);
         }
-        int index = startIndex;
+    }
 
-        while (true) {
+    /**
+     * Returns the first endpoint in the failover order which is not UNAVAILABLE.
+     *
+     * @return ACTIVE, BUSY or INITIALIZING endpoint with highest priority, or null if all are unavailable.
+     */
+    private DataEndpoint getFailoverDataEndpoint() {
+        for (int index = START_INDEX; index < maximumDataPublisherIndex.get(); index++) {
             DataEndpoint dataEndpoint = dataEndpoints.get(index);
-            if (dataEndpoint.getState().equals(DataEndpoint.State.ACTIVE)) {
+            if (dataEndpoint.getState() != DataEndpoint.State.UNAVAILABLE) {
                 return dataEndpoint;
-            } else if (haType.equals(HAType.FAILOVER) && (dataEndpoint.getState().equals(DataEndpoint.State.BUSY) ||
-                    dataEndpoint.getState().equals(DataEndpoint.State.INITIALIZING))) {
-                /**
-                 * Wait for some time until the failover endpoint finish publishing
-                 *
-                 */
-                busyWait(1);
-            } else {
-                index++;
-                if (index > maximumDataPublisherIndex.get() - 1) {
-                    index = START_INDEX;
-                }
-                if (index == startIndex) {
-                    if (isBusyWait) {
-                        if (!reconnectionService.isShutdown()) {
-
-                            /**
-                             * Have fully iterated the data publisher list,
-                             * and busy wait until data publisher
-                             * becomes available
-                             */
-                            busyWait(1);
-                        } else {
-                            if (!isActiveDataEndpointExists()) {
-                                return null;
-                            } else {
-                                busyWait(1);
-                            }
-                        }
-                    } else {
-                        return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Selects an ACTIVE endpoint based on the configured load balancing strategy.
+     *
+     * @return ACTIVE endpoint, or null if none of the endpoints are ACTIVE at the moment.
+     */
+    private DataEndpoint getLoadBalancedDataEndpoint() {
+        switch (loadBalancingStrategy) {
+            case LEAST_OUTSTANDING:
+                return getLeastOutstandingDataEndpoint();
+            case EWMA_LATENCY:
+                return getEwmaLatencyWeightedDataEndpoint();
+            case POWER_OF_TWO_CHOICES:
+                return getPowerOfTwoChoicesDataEndpoint();
+            default:
+                return getRoundRobinDataEndpoint();
+        }
+    }
+
+    private DataEndpoint getRoundRobinDataEndpoint() {
+        int size = maximumDataPublisherIndex.get();
+        int startIndex = getDataPublisherIndex();
+        for (int i = 0; i < size; i++) {
+            DataEndpoint dataEndpoint = dataEndpoints.get((startIndex + i) % size);
+            if (dataEndpoint.getState() == DataEndpoint.State.ACTIVE) {
+                return dataEndpoint;
+            }
+        }
+        return null;
+    }
+
+    private DataEndpoint getLeastOutstandingDataEndpoint() {
+        int size = maximumDataPublisherIndex.get();
+        int startIndex = getDataPublisherIndex();
+        DataEndpoint selectedEndpoint = null;
+        int minOutstandingBatches = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            DataEndpoint dataEndpoint = dataEndpoints.get((startIndex + i) % size);
+            if (dataEndpoint.getState() == DataEndpoint.State.ACTIVE) {
+                int outstandingBatches = dataEndpoint.getOutstandingBatches();
+                if (outstandingBatches < minOutstandingBatches) {
+                    minOutstandingBatches = outstandingBatches;
+                    selectedEndpoint = dataEndpoint;
+                    if (outstandingBatches == 0) {
+                        break;
                     }
                 }
             }
         }
+        return selectedEndpoint;
+    }
+
+    /**
+     * Picks an ACTIVE endpoint randomly, where the probability of an endpoint being picked is inversely
+     * proportional to its average send latency multiplied by its outstanding batches.
+     */
+    private DataEndpoint getEwmaLatencyWeightedDataEndpoint() {
+        int size = maximumDataPublisherIndex.get();
+        double totalWeight = 0;
+        for (int i = 0; i < size; i++) {
+            DataEndpoint dataEndpoint = dataEndpoints.get(i);
+            if (dataEndpoint.getState() == DataEndpoint.State.ACTIVE) {
+                totalWeight += getEwmaLatencyWeight(dataEndpoint);
+            }
+        }
+        if (totalWeight == 0) {
+            return null;
+        }
+        double selectedWeight = ThreadLocalRandom.current().nextDouble(totalWeight);
+        DataEndpoint selectedEndpoint = null;
+        for (int i = 0; i < size; i++) {
+            DataEndpoint dataEndpoint = dataEndpoints.get(i);
+            if (dataEndpoint.getState() == DataEndpoint.State.ACTIVE) {
+                selectedEndpoint = dataEndpoint;
+                selectedWeight -= getEwmaLatencyWeight(dataEndpoint);
+                if (selectedWeight < 0) {
+                    break;
+                }
+            }
+        }
+        return selectedEndpoint;
+    }
+
+    private double getEwmaLatencyWeight(DataEndpoint dataEndpoint) {
+        // Endpoints without a latency sample yet are treated optimistically to let them warm up.
+        long latency = Math.max(dataEndpoint.getEwmaLatency(), 1);
+        return 1.0 / ((double) latency * (dataEndpoint.getOutstandingBatches() + 1));
     }
 
-    private void busyWait(long timeInMilliSec) {
+    /**
+     * Picks two endpoints randomly and selects the less loaded one out of them.
+     */
+    private DataEndpoint getPowerOfTwoChoicesDataEndpoint() {
+        int size = maximumDataPublisherIndex.get();
+        if (size == 1) {
+            return getRoundRobinDataEndpoint();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int firstIndex = random.nextInt(size);
+        int secondIndex = random.nextInt(size - 1);
+        if (secondIndex >= firstIndex) {
+            secondIndex++;
+        }
+        DataEndpoint firstEndpoint = dataEndpoints.get(firstIndex);
+        DataEndpoint secondEndpoint = dataEndpoints.get(secondIndex);
+        boolean isFirstActive = firstEndpoint.getState() == DataEndpoint.State.ACTIVE;
+        boolean isSecondActive = secondEndpoint.getState() == DataEndpoint.State.ACTIVE;
+        if (isFirstActive && isSecondActive) {
+            return isLessLoaded(secondEndpoint, firstEndpoint) ? secondEndpoint : firstEndpoint;
+        } else if (isFirstActive) {
+            return firstEndpoint;
+        } else if (isSecondActive) {
+            return secondEndpoint;
+        }
+        return getLeastOutstandingDataEndpoint();
+    }
+
+    private boolean isLessLoaded(DataEndpoint dataEndpoint, DataEndpoint otherDataEndpoint) {
+        int outstandingBatches = dataEndpoint.getOutstandingBatches();
+        int otherOutstandingBatches = otherDataEndpoint.getOutstandingBatches();
+        if (outstandingBatches != otherOutstandingBatches) {
+            return outstandingBatches < otherOutstandingBatches;
+        }
+        return dataEndpoint.getEwmaLatency() < otherDataEndpoint.getEwmaLatency();
+    }
+
+    /**
+     * Parks the calling thread until any of the endpoints changes its state after the given state version
+     * was observed, or until the given timeout elapses.
+     *
+     * @param observedStateVersion The endpoint state version observed before looking for an endpoint.
+     * @param timeoutNanos         Maximum time to wait in nanoseconds.
+     */
+    private void awaitEndpointStateChange(long observedStateVersion, long timeoutNanos) {
+        Thread currentThread = Thread.currentThread();
+        waitingPublishers.add(currentThread);
         try {
-            Thread.sleep(timeInMilliSec);
-        } catch (InterruptedException ignored) {
+            if (endpointStateVersion.get() == observedStateVersion && !isShutdown) {
+                LockSupport.parkNanos(this, Math.min(timeoutNanos, MAX_ENDPOINT_WAIT_NANOS));
+            }
+        } finally {
+            waitingPublishers.remove(currentThread);
+        }
+    }
+
+    @Override
+    public void onDataEndpointStateChange(DataEndpoint dataEndpoint) {
+        endpointStateVersion.incrementAndGet();
+        if (!waitingPublishers.isEmpty()) {
+            for (Thread waitingPublisher : waitingPublishers) {
+                LockSupport.unpark(waitingPublisher);
+            }
         }
     }
 
@@ -358,89 +769,171 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
         return false;
     }
 
-    private synchronized int getDataPublisherIndex() {
-        int index = currentDataPublisherIndex.getAndIncrement();
-        if (index == maximumDataPublisherIndex.get() - 1) {
-            currentDataPublisherIndex.set(START_INDEX);
-        }
-        return index;
+    private int getDataPublisherIndex() {
+        return (currentDataPublisherIndex.getAndIncrement() & Integer.MAX_VALUE) % maximumDataPublisherIndex.get();
     }
 
-    public void tryResendEvents(List<Event> events) {
-        List<Event> unsuccessfulEvents = trySendActiveEndpoints(events);
-        for (Event event : unsuccessfulEvents) {
+    @Override
+    public void tryResendEvents(List<Event> events, List<EventPublishFuture> publishFutures) {
+        List<Event> unsuccessfulEvents = new ArrayList<>();
+        List<EventPublishFuture> unsuccessfulPublishFutures = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            EventPublishFuture publishFuture = publishFutures == null ? null : publishFutures.get(i);
+            if (publishFuture != null && publishFuture.incrementRetryCount() > maxPublishRetries) {
+                eventsDropped.increment();
+                publishFuture.completeExceptionally(new DataEndpointException("Unable to publish the event after "
+                        + maxPublishRetries + " retries."));
+                continue;
+            }
+            DataEndpoint endpoint = getDataEndpoint(false);
+            if (endpoint != null) {
+                endpoint.collectAndSend(event, publishFuture);
+            } else {
+                unsuccessfulEvents.add(event);
+                unsuccessfulPublishFutures.add(publishFuture);
+            }
+        }
+        flushAllDataEndpoints();
+        for (int i = 0; i < unsuccessfulEvents.size(); i++) {
+            Event event = unsuccessfulEvents.get(i);
+            EventPublishFuture publishFuture = unsuccessfulPublishFutures.get(i);
             try {
                 if (eventQueue != null) {
-                    eventQueue.tryPut(event);
+                    eventQueue.tryPut(event, publishFuture);
                 } else {
-                    trySyncPublish(event);
+                    trySyncPublish(event, publishFuture);
                 }
             } catch (EventQueueFullException e) {
                 log.error("Unable to put the event :" + event, e);
+                eventsDropped.increment();
+                if (publishFuture != null) {
+                    publishFuture.completeExceptionally(e);
+                }
             }
         }
     }
 
-    private List<Event> trySendActiveEndpoints(List<Event> events) {
-        ArrayList<Event> unsuccessfulEvents = new ArrayList<>();
-        for (Event event : events) {
-            DataEndpoint endpoint = getDataEndpoint(false);
-            if (endpoint != null) {
-                endpoint.collectAndSend(event);
-            } else {
-                unsuccessfulEvents.add(event);
+    /**
+     * Reconnects the unavailable endpoints with jittered exponential backoff, and sends heartbeats
+     * to the connected endpoints which have been idle for longer than the heartbeat interval.
+     * The task reschedules itself based on the earliest time an endpoint needs to be checked.
+     */
+    private class ReconnectionTask implements Runnable {
+
+        private final Map<DataEndpoint, ReconnectionBackoff> reconnectionBackoffs = new HashMap<>();
+
+        private boolean isNoReceiverReachableLogged = false;
+
+        public void run() {
+            long nextRunTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(reconnectionInterval);
+            try {
+                nextRunTime = checkDataEndpoints();
+            } catch (Throwable t) {
+                log.error("Unexpected error occurred while checking the data endpoints. ", t);
+            } finally {
+                if (!isShutdown && !reconnectionService.isShutdown()) {
+                    try {
+                        reconnectionService.schedule(this, Math.max(nextRunTime - System.currentTimeMillis(), 0),
+                                TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException ignored) {
+                        // Reconnection service has been shutdown in the meantime.
+                    }
+                }
             }
         }
-        flushAllDataEndpoints();
-        return unsuccessfulEvents;
-    }
 
-    private class ReconnectionTask implements Runnable {
-        public void run() {
+        private long checkDataEndpoints() {
             boolean isOneReceiverConnected = false;
+            long currentTime = System.currentTimeMillis();
+            long nextRunTime = currentTime + TimeUnit.SECONDS.toMillis(reconnectionInterval);
             for (int i = START_INDEX; i < maximumDataPublisherIndex.get(); i++) {
                 DataEndpoint dataEndpoint = dataEndpoints.get(i);
-                if (!dataEndpoint.isConnected()) {
-                    try {
-                        dataEndpoint.connect();
-                    } catch (Exception ex) {
-                        dataEndpoint.deactivate();
-                    }
-                } else {
-                    try {
-                        String[] urlElements = DataPublisherUtil.getProtocolHostPort(
-                                dataEndpoint.getDataEndpointConfiguration().getReceiverURL());
-                        if (!isServerExists(urlElements[1], Integer.parseInt(urlElements[2]))) {
+                ReconnectionBackoff backoff = reconnectionBackoffs.get(dataEndpoint);
+                if (backoff == null) {
+                    backoff = new ReconnectionBackoff();
+                    reconnectionBackoffs.put(dataEndpoint, backoff);
+                }
+                if (currentTime >= backoff.nextCheckTime) {
+                    if (!dataEndpoint.isConnected()) {
+                        dataEndpoint.getMetrics().onReconnectionAttempt();
+                        try {
+                            dataEndpoint.connect();
+                        } catch (Exception ex) {
                             dataEndpoint.deactivate();
                         }
-                    } catch (DataEndpointConfigurationException exception) {
-                        log.warn("Data Endpoint with receiver URL:" + dataEndpoint.getDataEndpointConfiguration().getReceiverURL()
-                                + " could not be deactivated", exception);
+                        backoff.nextCheckTime = currentTime + backoff.nextInterval();
+                    } else if (currentTime - dataEndpoint.getLastActiveTime() >= heartbeatInterval
+                            && !dataEndpoint.sendHeartbeat()) {
+                        log.warn("Data Endpoint with receiver URL:" + dataEndpoint.getDataEndpointConfiguration().
+                                getReceiverURL() + " did not respond to the heartbeat, hence deactivating it.");
+                        dataEndpoint.deactivate();
+                        backoff.reset();
+                        backoff.nextCheckTime = currentTime + backoff.nextInterval();
+                    } else {
+                        backoff.reset();
+                        backoff.nextCheckTime = Math.max(currentTime, dataEndpoint.getLastActiveTime())
+                                + heartbeatInterval;
                     }
                 }
                 if (dataEndpoint.isConnected()) {
                     isOneReceiverConnected = true;
                 }
+                nextRunTime = Math.min(nextRunTime, backoff.nextCheckTime);
             }
             if (!isOneReceiverConnected) {
-                log.warn("No receiver is reachable at reconnection, will try to reconnect every " + reconnectionInterval + " sec");
+                if (!isNoReceiverReachableLogged) {
+                    log.warn("No receiver is reachable at reconnection, will try to reconnect with backoff up to every "
+                            + reconnectionInterval + " sec");
+                    isNoReceiverReachableLogged = true;
+                }
+            } else {
+                isNoReceiverReachableLogged = false;
             }
+            return nextRunTime;
         }
+    }
 
-        private boolean isServerExists(String ip, int port) {
-            try {
-                Socket socket = new Socket(ip, port);
-                socket.close();
-                return true;
-            } catch (UnknownHostException e) {
-                return false;
-            } catch (IOException e) {
-                return false;
-            } catch (Exception e) {
-                return false;
-            }
+    /**
+     * Exponential backoff between reconnection attempts of an endpoint, where the interval doubles after each
+     * failed attempt starting from the initial reconnection interval, up to the reconnection interval.
+     * A random jitter of up to half the interval avoids all publishers reconnecting to a revived receiver at once.
+     */
+    private class ReconnectionBackoff {
+
+        private long currentInterval = initialReconnectionInterval;
+
+        private long nextCheckTime;
+
+        private long nextInterval() {
+            long interval = Math.max(currentInterval, 1);
+            currentInterval = Math.min(interval * 2, TimeUnit.SECONDS.toMillis(reconnectionInterval));
+            return interval / 2 + ThreadLocalRandom.current().nextLong(interval / 2 + 1);
         }
 
+        private void reset() {
+            currentInterval = initialReconnectionInterval;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the publishing metrics of this group and its endpoints.
+     *
+     * @return metrics snapshot, which is only approximately consistent while events are being published.
+     */
+    public DataEndpointGroupMetricsSnapshot getMetricsSnapshot() {
+        List<DataEndpointMetricsSnapshot> dataEndpointSnapshots = new ArrayList<>(dataEndpoints.size());
+        for (DataEndpoint dataEndpoint : dataEndpoints) {
+            dataEndpointSnapshots.add(dataEndpoint.getMetricsSnapshot());
+        }
+        int queueCapacity = 0;
+        long queueOccupancy = 0;
+        if (eventQueue != null) {
+            queueCapacity = eventQueue.getCapacity();
+            queueOccupancy = eventQueue.getOccupancy();
+        }
+        return new DataEndpointGroupMetricsSnapshot(toString(), queueCapacity, queueOccupancy,
+                eventsPublished.sum(), eventsDropped.sum(), dataEndpointSnapshots);
     }
 
     public String toString() {
@@ -469,6 +962,9 @@ public class DataEndpointGroup implements DataEndpointFailureCallback {
             eventQueue.shutdown();
         }
         isShutdown = true;
+        for (Thread waitingPublisher : waitingPublishers) {
+            LockSupport.unpark(waitingPublisher);
+        }
         for (DataEndpoint dataEndpoint : dataEndpoints) {
             dataEndpoint.shutdown();
         }
@@ -0,0 +1,33 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.endpoint;
+
+/**
+ * This interface is used to get notified when a data endpoint changes its state, so that the publishers
+ * which are waiting for an endpoint to become ACTIVE can be woken up without polling.
+ */
+public interface DataEndpointStateListener {
+
+    /**
+     * Notifies that the state of the given data endpoint has been changed.
+     *
+     * @param dataEndpoint The data endpoint which changed the state.
+     */
+    void onDataEndpointStateChange(DataEndpoint dataEndpoint);
+
+}
@@ -0,0 +1,54 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.endpoint;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future of an event published asynchronously, which is completed when the batch containing the event
+ * is acknowledged by the receiver. It also keeps track of the number of times the event was resent.
+ */
+public class EventPublishFuture extends CompletableFuture<Void> {
+
+    private int retryCount;
+
+    int incrementRetryCount() {
+        return ++retryCount;
+    }
+
+    static void completeAll(List<EventPublishFuture> publishFutures) {
+        if (publishFutures != null) {
+            for (EventPublishFuture publishFuture : publishFutures) {
+                if (publishFuture != null) {
+                    publishFuture.complete(null);
+                }
+            }
+        }
+    }
+
+    static void completeAllExceptionally(List<EventPublishFuture> publishFutures, Throwable cause) {
+        if (publishFutures != null) {
+            for (EventPublishFuture publishFuture : publishFutures) {
+                if (publishFuture != null) {
+                    publishFuture.completeExceptionally(cause);
+                }
+            }
+        }
+    }
+}
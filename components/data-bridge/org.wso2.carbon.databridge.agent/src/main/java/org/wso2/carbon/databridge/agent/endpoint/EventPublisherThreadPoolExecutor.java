@@ -21,6 +21,7 @@ import org.wso2.carbon.databridge.commons.utils.DataBridgeThreadFactory;
 
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -34,6 +35,17 @@ public class EventPublisherThreadPoolExecutor extends ThreadPoolExecutor {
         semaphore = new Semaphore(maxPoolSize);
     }
 
+    /**
+     * Creates the executor with a task which is run by each worker thread just before it terminates,
+     * to release any resources held by the worker.
+     */
+    public EventPublisherThreadPoolExecutor(int corePoolSize, int maxPoolSize, long keepAliveTimeInPool,
+                                            String receiverURL, Runnable workerExitTask) {
+        super(corePoolSize, maxPoolSize, keepAliveTimeInPool, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new WorkerExitAwareThreadFactory(new DataBridgeThreadFactory(receiverURL), workerExitTask));
+        semaphore = new Semaphore(maxPoolSize);
+    }
+
     @Override
     public void execute(final Runnable task) {
         boolean acquired = false;
@@ -61,4 +73,30 @@ public class EventPublisherThreadPoolExecutor extends ThreadPoolExecutor {
         super.afterExecute(r, t);
         semaphore.release();
     }
+
+    private static class WorkerExitAwareThreadFactory implements ThreadFactory {
+
+        private final ThreadFactory threadFactory;
+
+        private final Runnable workerExitTask;
+
+        WorkerExitAwareThreadFactory(ThreadFactory threadFactory, Runnable workerExitTask) {
+            this.threadFactory = threadFactory;
+            this.workerExitTask = workerExitTask;
+        }
+
+        @Override
+        public Thread newThread(final Runnable worker) {
+            return threadFactory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        worker.run();
+                    } finally {
+                        workerExitTask.run();
+                    }
+                }
+            });
+        }
+    }
 }
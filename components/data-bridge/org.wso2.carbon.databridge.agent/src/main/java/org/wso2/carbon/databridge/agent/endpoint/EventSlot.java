@@ -0,0 +1,275 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.endpoint;
+
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.Arrays;
+
+/**
+ * Pre-allocated slot of the event queue, into which the attribute values of an event are written in place by an
+ * {@link EventSlotTranslator}. The attribute arrays grow to fit the largest event written into the slot, and are
+ * reused for the events written in the later laps of the queue. The primitive setters keep their values unboxed
+ * in the slot, and the queue consumer copies the slot into a {@link RecycledEvent}, where an attribute is boxed
+ * only if it differs from the value the recycled event held at the same position.
+ */
+public class EventSlot {
+
+    private String streamId;
+
+    private long timeStamp;
+
+    private final Attributes metaData = new Attributes();
+
+    private final Attributes correlationData = new Attributes();
+
+    private final Attributes payloadData = new Attributes();
+
+    EventSlot() {
+    }
+
+    /**
+     * Clears the attributes written by the previous event, and prepares the slot for an event of the given stream
+     * with the current time as its timestamp.
+     */
+    void reset(String streamId) {
+        metaData.clear();
+        correlationData.clear();
+        payloadData.clear();
+        this.streamId = streamId;
+        this.timeStamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Copies the attributes of the slot in to the given event, since the slot is reused once it has been consumed
+     * while the event is still waiting in a batch to be sent. The attribute arrays of the event are reused when
+     * they are of the same length.
+     */
+    void copyTo(Event event) {
+        event.setStreamId(streamId);
+        event.setTimeStamp(timeStamp);
+        event.setMetaData(metaData.copyTo(event.getMetaData()));
+        event.setCorrelationData(correlationData.copyTo(event.getCorrelationData()));
+        event.setPayloadData(payloadData.copyTo(event.getPayloadData()));
+        event.setArbitraryDataMap(null);
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public EventSlot setTimeStamp(long timeStamp) {
+        this.timeStamp = timeStamp;
+        return this;
+    }
+
+    public EventSlot setMetaData(int index, Object value) {
+        metaData.setObject(index, value);
+        return this;
+    }
+
+    public EventSlot setCorrelationData(int index, Object value) {
+        correlationData.setObject(index, value);
+        return this;
+    }
+
+    public EventSlot setPayloadData(int index, Object value) {
+        payloadData.setObject(index, value);
+        return this;
+    }
+
+    public EventSlot setInt(int index, int value) {
+        payloadData.setPrimitive(index, Attributes.INT, value);
+        return this;
+    }
+
+    public EventSlot setLong(int index, long value) {
+        payloadData.setPrimitive(index, Attributes.LONG, value);
+        return this;
+    }
+
+    public EventSlot setFloat(int index, float value) {
+        payloadData.setPrimitive(index, Attributes.FLOAT, Float.floatToRawIntBits(value));
+        return this;
+    }
+
+    public EventSlot setDouble(int index, double value) {
+        payloadData.setPrimitive(index, Attributes.DOUBLE, Double.doubleToRawLongBits(value));
+        return this;
+    }
+
+    public EventSlot setBoolean(int index, boolean value) {
+        payloadData.setPrimitive(index, Attributes.BOOLEAN, value ? 1 : 0);
+        return this;
+    }
+
+    public EventSlot setString(int index, String value) {
+        return setPayloadData(index, value);
+    }
+
+    public EventSlot setMetaInt(int index, int value) {
+        metaData.setPrimitive(index, Attributes.INT, value);
+        return this;
+    }
+
+    public EventSlot setMetaLong(int index, long value) {
+        metaData.setPrimitive(index, Attributes.LONG, value);
+        return this;
+    }
+
+    public EventSlot setMetaFloat(int index, float value) {
+        metaData.setPrimitive(index, Attributes.FLOAT, Float.floatToRawIntBits(value));
+        return this;
+    }
+
+    public EventSlot setMetaDouble(int index, double value) {
+        metaData.setPrimitive(index, Attributes.DOUBLE, Double.doubleToRawLongBits(value));
+        return this;
+    }
+
+    public EventSlot setMetaBoolean(int index, boolean value) {
+        metaData.setPrimitive(index, Attributes.BOOLEAN, value ? 1 : 0);
+        return this;
+    }
+
+    public EventSlot setCorrelationInt(int index, int value) {
+        correlationData.setPrimitive(index, Attributes.INT, value);
+        return this;
+    }
+
+    public EventSlot setCorrelationLong(int index, long value) {
+        correlationData.setPrimitive(index, Attributes.LONG, value);
+        return this;
+    }
+
+    public EventSlot setCorrelationFloat(int index, float value) {
+        correlationData.setPrimitive(index, Attributes.FLOAT, Float.floatToRawIntBits(value));
+        return this;
+    }
+
+    public EventSlot setCorrelationDouble(int index, double value) {
+        correlationData.setPrimitive(index, Attributes.DOUBLE, Double.doubleToRawLongBits(value));
+        return this;
+    }
+
+    public EventSlot setCorrelationBoolean(int index, boolean value) {
+        correlationData.setPrimitive(index, Attributes.BOOLEAN, value ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * Attribute values of one of the data sections, where the primitive values are kept as their raw bits along
+     * with their types, and the other values as objects.
+     */
+    private static class Attributes {
+
+        private static final byte OBJECT = 0;
+        private static final byte INT = 1;
+        private static final byte LONG = 2;
+        private static final byte FLOAT = 3;
+        private static final byte DOUBLE = 4;
+        private static final byte BOOLEAN = 5;
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private Object[] objects = new Object[INITIAL_CAPACITY];
+
+        private long[] primitives = new long[INITIAL_CAPACITY];
+
+        private byte[] types = new byte[INITIAL_CAPACITY];
+
+        private int length;
+
+        private void clear() {
+            Arrays.fill(objects, 0, length, null);
+            Arrays.fill(types, 0, length, OBJECT);
+            length = 0;
+        }
+
+        private void ensureCapacity(int index) {
+            if (index < objects.length) {
+                return;
+            }
+            int capacity = Math.max(index + 1, objects.length * 2);
+            objects = Arrays.copyOf(objects, capacity);
+            primitives = Arrays.copyOf(primitives, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+
+        private void setObject(int index, Object value) {
+            ensureCapacity(index);
+            objects[index] = value;
+            types[index] = OBJECT;
+            length = Math.max(length, index + 1);
+        }
+
+        private void setPrimitive(int index, byte type, long bits) {
+            ensureCapacity(index);
+            objects[index] = null;
+            primitives[index] = bits;
+            types[index] = type;
+            length = Math.max(length, index + 1);
+        }
+
+        /**
+         * @return the given array with the attribute values, or a new one if it is not of the same length.
+         */
+        private Object[] copyTo(Object[] target) {
+            if (length == 0) {
+                return null;
+            }
+            if (target == null || target.length != length) {
+                target = new Object[length];
+            }
+            for (int i = 0; i < length; i++) {
+                target[i] = types[i] == OBJECT ? objects[i] : box(types[i], primitives[i], target[i]);
+            }
+            return target;
+        }
+
+        /**
+         * Boxes the primitive value, unless the previous value is already the same value of the same type.
+         */
+        private static Object box(byte type, long bits, Object previous) {
+            switch (type) {
+                case INT:
+                    if (previous instanceof Integer && (Integer) previous == (int) bits) {
+                        return previous;
+                    }
+                    return (int) bits;
+                case LONG:
+                    if (previous instanceof Long && (Long) previous == bits) {
+                        return previous;
+                    }
+                    return bits;
+                case FLOAT:
+                    if (previous instanceof Float && Float.floatToRawIntBits((Float) previous) == (int) bits) {
+                        return previous;
+                    }
+                    return Float.intBitsToFloat((int) bits);
+                case DOUBLE:
+                    if (previous instanceof Double && Double.doubleToRawLongBits((Double) previous) == bits) {
+                        return previous;
+                    }
+                    return Double.longBitsToDouble(bits);
+                default:
+                    return bits != 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.endpoint;
+
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Event copied out of an {@link EventSlot}, which is handed back to the pool of its endpoint group once the batch
+ * holding it has been sent, so that the event and its attribute arrays are reused for a later event of the same
+ * shape instead of being allocated per event. An event which is dropped instead is simply not recycled.
+ */
+class RecycledEvent extends Event {
+
+    private final BlockingQueue<RecycledEvent> pool;
+
+    private boolean recycled;
+
+    private RecycledEvent(BlockingQueue<RecycledEvent> pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Copies the slot in to an event taken from the pool, or in to a new event if the pool is empty.
+     */
+    static Event copyOf(EventSlot slot, BlockingQueue<RecycledEvent> pool) {
+        RecycledEvent event = pool.poll();
+        if (event == null) {
+            event = new RecycledEvent(pool);
+        }
+        event.recycled = false;
+        slot.copyTo(event);
+        return event;
+    }
+
+    /**
+     * Hands the recycled events of a batch back to their pools, once the batch is not referred to anymore.
+     */
+    static void recycle(List<Event> events) {
+        for (Event event : events) {
+            if (event instanceof RecycledEvent) {
+                RecycledEvent recycledEvent = (RecycledEvent) event;
+                if (!recycledEvent.recycled) {
+                    recycledEvent.recycled = true;
+                    recycledEvent.pool.offer(recycledEvent);
+                }
+            }
+        }
+    }
+}
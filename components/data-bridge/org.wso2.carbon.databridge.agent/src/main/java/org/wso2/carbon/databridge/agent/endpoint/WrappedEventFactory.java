@@ -31,6 +31,10 @@ public class WrappedEventFactory implements EventFactory<WrappedEventFactory.Wra
 
         private Event event;
 
+        private EventPublishFuture publishFuture;
+
+        private EventSlot slot;
+
         public Event getEvent() {
             return event;
         }
@@ -39,6 +43,26 @@ public class WrappedEventFactory implements EventFactory<WrappedEventFactory.Wra
             this.event = event;
         }
 
+        public EventPublishFuture getPublishFuture() {
+            return publishFuture;
+        }
+
+        public void setPublishFuture(EventPublishFuture publishFuture) {
+            this.publishFuture = publishFuture;
+        }
+
+        /**
+         * Returns the slot into which the event is written, when the event is published without an event object. The
+         * slot is created by the first such publish into this entry, and it is visible to the event handler through
+         * the publish of the sequence, hence the entries of publishers, which only publish event objects, carry none.
+         */
+        public EventSlot getSlot() {
+            if (slot == null) {
+                slot = new EventSlot();
+            }
+            return slot;
+        }
+
         @Override
         public String toString() {
             return "WrappedEvent{" +
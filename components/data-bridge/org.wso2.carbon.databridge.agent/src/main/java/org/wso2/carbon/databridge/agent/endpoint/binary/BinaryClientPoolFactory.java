@@ -45,6 +45,8 @@ public class BinaryClientPoolFactory extends AbstractClientPoolFactory {
             try {
                 Socket socket =  new Socket(hostName, port);
                 socket.setSoTimeout(timeout);
+                // Batches span multiple segments, hence don't let Nagle hold back the last one until the ack.
+                socket.setTcpNoDelay(true);
                 return socket;
             } catch (IOException e) {
                 throw new DataEndpointException("Error while opening socket to " + hostName + ":" + port + ". " +
@@ -61,6 +63,21 @@ public class BinaryClientPoolFactory extends AbstractClientPoolFactory {
         return ((Socket) client).isConnected();
     }
 
+    @Override
+    public boolean pingClient(Object client) {
+        Socket socket = (Socket) client;
+        try {
+            BinaryEventSender.sendBinaryPingMessage(socket);
+            BinaryEventSender.processPingResponse(socket);
+            return true;
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Heartbeat failed for the connection to " + socket.getRemoteSocketAddress(), e);
+            }
+            return false;
+        }
+    }
+
     @Override
     public void terminateClient(Object client) {
         Socket socket = null;
@@ -88,6 +88,18 @@ public class BinaryDataEndpoint extends DataEndpoint {
         }
     }
 
+    @Override
+    protected void ping(Object client) throws DataEndpointException {
+        Socket socket = (Socket) client;
+        try {
+            sendBinaryPingMessage(socket);
+            processPingResponse(socket);
+        } catch (Exception e) {
+            throw new DataEndpointException("Error while trying to ping data receiver :"
+                    + socket.getRemoteSocketAddress().toString(), e);
+        }
+    }
+
     @Override
     public String getClientPoolFactoryClass() {
         return BinaryClientPoolFactory.class.getCanonicalName();
@@ -59,6 +59,16 @@ public class BinaryEventSender {
         outputStream.flush();
     }
 
+    public static void sendBinaryPingMessage(Socket socket) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(5);
+        buf.put((byte) 3);
+        buf.putInt(0);
+
+        OutputStream outputStream = new BufferedOutputStream(socket.getOutputStream());
+        outputStream.write(buf.array());
+        outputStream.flush();
+    }
+
     public static void sendBinaryPublishMessage(Socket socket, List<Event> events, String sessionId) throws IOException {
         int messageSize = 8 + sessionId.length();
         List<byte[]> bytes = new ArrayList<byte[]>();
@@ -152,15 +162,7 @@ public class BinaryEventSender {
                 break;
             case 1:
                 //Error Message
-                bbuf = ByteBuffer.wrap(loadData(bufferedInputStream, new byte[8]));
-                int errorClassNameLength = bbuf.getInt();
-                int errorMsgLength = bbuf.getInt();
-
-                String className = new String(ByteBuffer.wrap(loadData(bufferedInputStream, new byte[errorClassNameLength])).array());
-                String errorMsg = new String(ByteBuffer.wrap(loadData(bufferedInputStream, new byte[errorMsgLength])).array());
-
-                throw (Exception) (BinaryDataEndpoint.class.getClassLoader().
-                        loadClass(className).getConstructor(String.class).newInstance(errorMsg));
+                throw readErrorResponse(bufferedInputStream);
             case 2:
                 //Logging OK response
                 bbuf = ByteBuffer.wrap(loadData(bufferedInputStream, new byte[4]));
@@ -170,4 +172,38 @@ public class BinaryEventSender {
         return null;
     }
 
+    /**
+     * Reads the response to a ping, which must be an OK message, as a closed connection or any other response
+     * means the receiver cannot take events on this connection.
+     */
+    public static void processPingResponse(Socket socket) throws Exception {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(socket.getInputStream());
+        int messageType = bufferedInputStream.read();
+        switch (messageType) {
+            case 0:
+                //OK message
+                return;
+            case -1:
+                throw new EOFException("Connection closed by the data receiver " + socket.getRemoteSocketAddress());
+            case 1:
+                //Error Message
+                throw readErrorResponse(bufferedInputStream);
+            default:
+                throw new IOException("Unexpected response of type " + messageType + " to the ping from " +
+                        socket.getRemoteSocketAddress());
+        }
+    }
+
+    private static Exception readErrorResponse(BufferedInputStream bufferedInputStream) throws Exception {
+        ByteBuffer bbuf = ByteBuffer.wrap(loadData(bufferedInputStream, new byte[8]));
+        int errorClassNameLength = bbuf.getInt();
+        int errorMsgLength = bbuf.getInt();
+
+        String className = new String(ByteBuffer.wrap(loadData(bufferedInputStream, new byte[errorClassNameLength])).array());
+        String errorMsg = new String(ByteBuffer.wrap(loadData(bufferedInputStream, new byte[errorMsgLength])).array());
+
+        return (Exception) (BinaryDataEndpoint.class.getClassLoader().
+                loadClass(className).getConstructor(String.class).newInstance(errorMsg));
+    }
+
 }
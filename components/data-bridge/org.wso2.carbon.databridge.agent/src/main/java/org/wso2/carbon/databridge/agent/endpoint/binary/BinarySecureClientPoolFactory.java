@@ -57,6 +57,7 @@ public class BinarySecureClientPoolFactory extends AbstractSecureClientPoolFacto
                 SSLSocketFactory sslsocketfactory = (SSLSocketFactory) SSLSocketFactory.getDefault();
                 SSLSocket sslSocket = (SSLSocket) sslsocketfactory.createSocket(hostName, port);
                 sslSocket.setSoTimeout(timeout);
+                sslSocket.setTcpNoDelay(true);
 
                 if (sslProtocols != null && sslProtocols.length() != 0) {
                     String [] sslProtocolsArray = sslProtocols.split(",");
@@ -86,6 +87,21 @@ public class BinarySecureClientPoolFactory extends AbstractSecureClientPoolFacto
         return socket.isConnected();
     }
 
+    @Override
+    public boolean pingClient(Object client) {
+        Socket socket = (Socket) client;
+        try {
+            BinaryEventSender.sendBinaryPingMessage(socket);
+            BinaryEventSender.processPingResponse(socket);
+            return true;
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Heartbeat failed for the connection to " + socket.getRemoteSocketAddress(), e);
+            }
+            return false;
+        }
+    }
+
     @Override
     public void terminateClient(Object client) {
         Socket socket = null;
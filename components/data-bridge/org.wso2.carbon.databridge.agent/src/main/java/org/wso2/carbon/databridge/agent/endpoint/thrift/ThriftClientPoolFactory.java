@@ -17,6 +17,7 @@
 */
 package org.wso2.carbon.databridge.agent.endpoint.thrift;
 
+import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.*;
@@ -60,6 +61,17 @@ public class ThriftClientPoolFactory extends AbstractClientPoolFactory {
         return thriftClient.getOutputProtocol().getTransport().isOpen();
     }
 
+    @Override
+    public boolean pingClient(Object client) {
+        ThriftEventTransmissionService.Client thriftClient = (ThriftEventTransmissionService.Client) client;
+        try {
+            thriftClient.ping();
+            return true;
+        } catch (TException e) {
+            return false;
+        }
+    }
+
     @Override
     public void terminateClient(Object client) {
         ThriftEventTransmissionService.Client thriftClient = (ThriftEventTransmissionService.Client) client;
@@ -83,6 +83,19 @@ public class ThriftDataEndpoint extends DataEndpoint {
         }
     }
 
+    @Override
+    protected void ping(Object client) throws DataEndpointException {
+        try {
+            if (client instanceof ThriftSecureEventTransmissionService.Client) {
+                ((ThriftSecureEventTransmissionService.Client) client).ping();
+            } else {
+                ((ThriftEventTransmissionService.Client) client).ping();
+            }
+        } catch (TException e) {
+            throw new DataEndpointException("Cannot ping the endpoint", e);
+        }
+    }
+
     @Override
     public String getClientPoolFactoryClass() {
         return ThriftClientPoolFactory.class.getCanonicalName();
@@ -17,6 +17,7 @@
 */
 package org.wso2.carbon.databridge.agent.endpoint.thrift;
 
+import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.TSSLTransportFactory;
@@ -93,6 +94,17 @@ public class ThriftSecureClientPoolFactory extends AbstractSecureClientPoolFacto
         return thriftClient.getOutputProtocol().getTransport().isOpen();
     }
 
+    @Override
+    public boolean pingClient(Object client) {
+        ThriftSecureEventTransmissionService.Client thriftClient = (ThriftSecureEventTransmissionService.Client) client;
+        try {
+            thriftClient.ping();
+            return true;
+        } catch (TException e) {
+            return false;
+        }
+    }
+
     @Override
     public void terminateClient(Object client) {
         ThriftSecureEventTransmissionService.Client thriftClient = (ThriftSecureEventTransmissionService.Client) client;
@@ -0,0 +1,85 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.List;
+
+/**
+ * Point in time view of the publishing metrics of a data endpoint group, and of its endpoints.
+ * The queue capacity and occupancy are zero when the group publishes synchronously.
+ */
+public class DataEndpointGroupMetricsSnapshot {
+
+    private final String endpointGroup;
+    private final int queueCapacity;
+    private final long queueOccupancy;
+    private final long eventsPublished;
+    private final long eventsDropped;
+    private final List<DataEndpointMetricsSnapshot> dataEndpoints;
+
+    @ConstructorProperties({"endpointGroup", "queueCapacity", "queueOccupancy", "eventsPublished",
+            "eventsDropped", "dataEndpoints"})
+    public DataEndpointGroupMetricsSnapshot(String endpointGroup, int queueCapacity, long queueOccupancy,
+                                            long eventsPublished, long eventsDropped,
+                                            List<DataEndpointMetricsSnapshot> dataEndpoints) {
+        this.endpointGroup = endpointGroup;
+        this.queueCapacity = queueCapacity;
+        this.queueOccupancy = queueOccupancy;
+        this.eventsPublished = eventsPublished;
+        this.eventsDropped = eventsDropped;
+        this.dataEndpoints = dataEndpoints;
+    }
+
+    public String getEndpointGroup() {
+        return endpointGroup;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getQueueOccupancy() {
+        return queueOccupancy;
+    }
+
+    /**
+     * @return number of events accepted by the group, either in to the queue or sent synchronously.
+     */
+    public long getEventsPublished() {
+        return eventsPublished;
+    }
+
+    /**
+     * @return number of events dropped by the group, due to a full queue or no endpoint being available.
+     */
+    public long getEventsDropped() {
+        return eventsDropped;
+    }
+
+    public List<DataEndpointMetricsSnapshot> getDataEndpoints() {
+        return dataEndpoints;
+    }
+
+    @Override
+    public String toString() {
+        return "{endpointGroup=" + endpointGroup + ", queueCapacity=" + queueCapacity + ", queueOccupancy=" +
+                queueOccupancy + ", eventsPublished=" + eventsPublished + ", eventsDropped=" + eventsDropped +
+                ", dataEndpoints=" + dataEndpoints + "}";
+    }
+}
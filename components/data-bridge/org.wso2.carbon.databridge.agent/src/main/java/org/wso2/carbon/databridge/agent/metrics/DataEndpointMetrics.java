@@ -0,0 +1,61 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishing counters and histograms of a single data endpoint. All the operations are lock-free, so that
+ * they can be updated from the publisher threads without contention.
+ */
+public class DataEndpointMetrics {
+
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder reconnectionAttempts = new LongAdder();
+    private final LongAdder heartbeatFailures = new LongAdder();
+    private final Histogram sendLatency = new Histogram();
+    private final Histogram batchSize = new Histogram();
+
+    public void onBatchSent(int numberOfEvents, long latencyNanos) {
+        eventsSent.add(numberOfEvents);
+        batchesSent.increment();
+        batchSize.record(numberOfEvents);
+        sendLatency.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    public void onBatchFailed() {
+        failedBatches.increment();
+    }
+
+    public void onReconnectionAttempt() {
+        reconnectionAttempts.increment();
+    }
+
+    public void onHeartbeatFailure() {
+        heartbeatFailures.increment();
+    }
+
+    public DataEndpointMetricsSnapshot getSnapshot(String receiverURL, String state, int outstandingBatches) {
+        return new DataEndpointMetricsSnapshot(receiverURL, state, outstandingBatches, eventsSent.sum(),
+                batchesSent.sum(), failedBatches.sum(), reconnectionAttempts.sum(), heartbeatFailures.sum(),
+                sendLatency.getSnapshot(), batchSize.getSnapshot());
+    }
+}
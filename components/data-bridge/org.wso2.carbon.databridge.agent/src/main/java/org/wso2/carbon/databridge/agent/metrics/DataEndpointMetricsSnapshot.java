@@ -0,0 +1,104 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point in time view of the publishing metrics of a data endpoint. The send latency is in microseconds,
+ * and the batch size is in number of events.
+ */
+public class DataEndpointMetricsSnapshot {
+
+    private final String receiverURL;
+    private final String state;
+    private final int outstandingBatches;
+    private final long eventsSent;
+    private final long batchesSent;
+    private final long failedBatches;
+    private final long reconnectionAttempts;
+    private final long heartbeatFailures;
+    private final HistogramSnapshot sendLatency;
+    private final HistogramSnapshot batchSize;
+
+    @ConstructorProperties({"receiverURL", "state", "outstandingBatches", "eventsSent", "batchesSent",
+            "failedBatches", "reconnectionAttempts", "heartbeatFailures", "sendLatency", "batchSize"})
+    public DataEndpointMetricsSnapshot(String receiverURL, String state, int outstandingBatches, long eventsSent,
+                                       long batchesSent, long failedBatches, long reconnectionAttempts,
+                                       long heartbeatFailures, HistogramSnapshot sendLatency,
+                                       HistogramSnapshot batchSize) {
+        this.receiverURL = receiverURL;
+        this.state = state;
+        this.outstandingBatches = outstandingBatches;
+        this.eventsSent = eventsSent;
+        this.batchesSent = batchesSent;
+        this.failedBatches = failedBatches;
+        this.reconnectionAttempts = reconnectionAttempts;
+        this.heartbeatFailures = heartbeatFailures;
+        this.sendLatency = sendLatency;
+        this.batchSize = batchSize;
+    }
+
+    public String getReceiverURL() {
+        return receiverURL;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public int getOutstandingBatches() {
+        return outstandingBatches;
+    }
+
+    public long getEventsSent() {
+        return eventsSent;
+    }
+
+    public long getBatchesSent() {
+        return batchesSent;
+    }
+
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    public long getReconnectionAttempts() {
+        return reconnectionAttempts;
+    }
+
+    public long getHeartbeatFailures() {
+        return heartbeatFailures;
+    }
+
+    public HistogramSnapshot getSendLatency() {
+        return sendLatency;
+    }
+
+    public HistogramSnapshot getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "{receiverURL=" + receiverURL + ", state=" + state + ", outstandingBatches=" + outstandingBatches +
+                ", eventsSent=" + eventsSent + ", batchesSent=" + batchesSent + ", failedBatches=" + failedBatches +
+                ", reconnectionAttempts=" + reconnectionAttempts + ", heartbeatFailures=" + heartbeatFailures +
+                ", sendLatency=" + sendLatency + ", batchSize=" + batchSize + "}";
+    }
+}
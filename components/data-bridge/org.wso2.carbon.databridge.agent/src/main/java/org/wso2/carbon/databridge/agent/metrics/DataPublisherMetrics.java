@@ -0,0 +1,124 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Exposes the publishing metrics of a data publisher through JMX. Every attribute read takes a new snapshot
+ * from the data publisher.
+ */
+public class DataPublisherMetrics implements DataPublisherMetricsMXBean {
+    private static final Log log = LogFactory.getLog(DataPublisherMetrics.class);
+
+    public static final String JMX_DOMAIN = "org.wso2.carbon.databridge.agent";
+
+    private static final AtomicInteger publisherCount = new AtomicInteger();
+
+    private final Supplier<DataPublisherMetricsSnapshot> snapshotSupplier;
+
+    private ObjectName objectName;
+
+    public DataPublisherMetrics(Supplier<DataPublisherMetricsSnapshot> snapshotSupplier) {
+        this.snapshotSupplier = snapshotSupplier;
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, with the receiver URL set and a sequence number
+     * as the keys of the object name, since the same receivers can be used by multiple data publishers.
+     * Failing to register is logged, and does not prevent publishing.
+     *
+     * @param receiverURLSet The receiver URL set of the data publisher.
+     */
+    public void register(String receiverURLSet) {
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=DataPublisher,receivers=" +
+                    ObjectName.quote(receiverURLSet) + ",id=" + publisherCount.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (Exception e) {
+            log.warn("Unable to register the JMX metrics of the data publisher for " + receiverURLSet, e);
+        }
+    }
+
+    public void unregister() {
+        if (objectName != null) {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            try {
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            } catch (Exception e) {
+                log.warn("Unable to unregister the JMX metrics " + objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public long getEventsPublished() {
+        return snapshotSupplier.get().getEventsPublished();
+    }
+
+    @Override
+    public long getEventsDropped() {
+        return snapshotSupplier.get().getEventsDropped();
+    }
+
+    @Override
+    public long getEventsSent() {
+        return snapshotSupplier.get().getEventsSent();
+    }
+
+    @Override
+    public long getBatchesSent() {
+        return snapshotSupplier.get().getBatchesSent();
+    }
+
+    @Override
+    public long getFailedBatches() {
+        return snapshotSupplier.get().getFailedBatches();
+    }
+
+    @Override
+    public long getReconnectionAttempts() {
+        return snapshotSupplier.get().getReconnectionAttempts();
+    }
+
+    @Override
+    public long getQueueOccupancy() {
+        return snapshotSupplier.get().getQueueOccupancy();
+    }
+
+    @Override
+    public List<DataEndpointGroupMetricsSnapshot> getEndpointGroups() {
+        return snapshotSupplier.get().getEndpointGroups();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of the publishing metrics of a data publisher. It is registered under the
+ * {@value DataPublisherMetrics#JMX_DOMAIN} domain with type DataPublisher.
+ */
+public interface DataPublisherMetricsMXBean {
+
+    long getEventsPublished();
+
+    long getEventsDropped();
+
+    long getEventsSent();
+
+    long getBatchesSent();
+
+    long getFailedBatches();
+
+    long getReconnectionAttempts();
+
+    long getQueueOccupancy();
+
+    List<DataEndpointGroupMetricsSnapshot> getEndpointGroups();
+}
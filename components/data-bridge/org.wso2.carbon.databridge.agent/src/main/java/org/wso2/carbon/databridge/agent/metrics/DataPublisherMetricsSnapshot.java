@@ -0,0 +1,108 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.util.List;
+
+/**
+ * Point in time view of the publishing metrics of a data publisher, with the totals of all its endpoint groups.
+ * The counters are read one after the other without locking, hence a snapshot taken while events are
+ * being published is only approximately consistent.
+ */
+public class DataPublisherMetricsSnapshot {
+
+    private final List<DataEndpointGroupMetricsSnapshot> endpointGroups;
+
+    public DataPublisherMetricsSnapshot(List<DataEndpointGroupMetricsSnapshot> endpointGroups) {
+        this.endpointGroups = endpointGroups;
+    }
+
+    public List<DataEndpointGroupMetricsSnapshot> getEndpointGroups() {
+        return endpointGroups;
+    }
+
+    public long getEventsPublished() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            total += endpointGroup.getEventsPublished();
+        }
+        return total;
+    }
+
+    public long getEventsDropped() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            total += endpointGroup.getEventsDropped();
+        }
+        return total;
+    }
+
+    public long getQueueOccupancy() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            total += endpointGroup.getQueueOccupancy();
+        }
+        return total;
+    }
+
+    public long getEventsSent() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            for (DataEndpointMetricsSnapshot dataEndpoint : endpointGroup.getDataEndpoints()) {
+                total += dataEndpoint.getEventsSent();
+            }
+        }
+        return total;
+    }
+
+    public long getBatchesSent() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            for (DataEndpointMetricsSnapshot dataEndpoint : endpointGroup.getDataEndpoints()) {
+                total += dataEndpoint.getBatchesSent();
+            }
+        }
+        return total;
+    }
+
+    public long getFailedBatches() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            for (DataEndpointMetricsSnapshot dataEndpoint : endpointGroup.getDataEndpoints()) {
+                total += dataEndpoint.getFailedBatches();
+            }
+        }
+        return total;
+    }
+
+    public long getReconnectionAttempts() {
+        long total = 0;
+        for (DataEndpointGroupMetricsSnapshot endpointGroup : endpointGroups) {
+            for (DataEndpointMetricsSnapshot dataEndpoint : endpointGroup.getDataEndpoints()) {
+                total += dataEndpoint.getReconnectionAttempts();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "{eventsPublished=" + getEventsPublished() + ", eventsDropped=" + getEventsDropped() +
+                ", eventsSent=" + getEventsSent() + ", endpointGroups=" + endpointGroups + "}";
+    }
+}
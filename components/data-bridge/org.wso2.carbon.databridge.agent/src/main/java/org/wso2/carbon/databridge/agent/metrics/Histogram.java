@@ -0,0 +1,98 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values. Values below 16 are counted exactly, and larger values
+ * are counted in 8 linear sub buckets per power of two, hence the reported percentiles are within
+ * 12.5% of the recorded values.
+ */
+public class Histogram {
+
+    private static final int EXACT_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = EXACT_BUCKETS + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(getBucketIndex(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns a snapshot of the histogram. The histogram is not locked while it is read, hence the
+     * snapshot may not contain values which are recorded concurrently.
+     */
+    public HistogramSnapshot getSnapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long maxValue = max.get();
+        return new HistogramSnapshot(total, sum.sum(), maxValue, getPercentile(counts, total, 0.5, maxValue),
+                getPercentile(counts, total, 0.9, maxValue), getPercentile(counts, total, 0.99, maxValue));
+    }
+
+    private static long getPercentile(long[] counts, long total, double percentile, long maxValue) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < EXACT_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    static long getBucketUpperBound(int index) {
+        if (index < EXACT_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - EXACT_BUCKETS) / SUB_BUCKETS + 4;
+        long subBucket = (index - EXACT_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
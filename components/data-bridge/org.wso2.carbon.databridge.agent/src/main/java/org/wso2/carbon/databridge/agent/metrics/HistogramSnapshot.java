@@ -0,0 +1,77 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point in time view of a {@link Histogram}.
+ */
+public class HistogramSnapshot {
+
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+
+    @ConstructorProperties({"count", "sum", "max", "p50", "p90", "p99"})
+    public HistogramSnapshot(long count, long sum, long max, long p50, long p90, long p99) {
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    @Override
+    public String toString() {
+        return "{count=" + count + ", mean=" + getMean() + ", p50=" + p50 + ", p90=" + p90 + ", p99=" + p99 +
+                ", max=" + max + "}";
+    }
+}
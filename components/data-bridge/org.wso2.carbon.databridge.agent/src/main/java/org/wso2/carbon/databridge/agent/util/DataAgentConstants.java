@@ -31,6 +31,7 @@ public class DataAgentConstants {
     public static final String NAME = "name";
     public static final String DATA_ENDPOINT_CLASS = "dataEndpointClass";
     public static final String PUBLISHING_STRATEGY = "publishingStrategy";
+    public static final String LOAD_BALANCING_STRATEGY = "loadBalancingStrategy";
     public static final String TRUST_STORE_PATH = "trustStorePath";
     public static final String TRUST_STORE_PASSWORD = "trustStorePassword";
     public static final String QUEUE_SIZE = "queueSize";
@@ -40,6 +41,10 @@ public class DataAgentConstants {
     public static final String MAX_POOL_SIZE = "maxPoolSize";
     public static final String KEEP_ALIVE_TIME_INTERVAL_IN_POOL = "keepAliveTimeInPool";
     public static final String RECONNETION_INTERVAL = "reconnectionInterval";
+    public static final String INITIAL_RECONNECTION_INTERVAL = "initialReconnectionInterval";
+    public static final String HEARTBEAT_INTERVAL = "heartbeatInterval";
+    public static final String MAX_PUBLISH_RETRIES = "maxPublishRetries";
+    public static final String PINNED_CONNECTIONS = "pinnedConnections";
     public static final String MAX_TRANSPORT_POOL_SIZE = "maxTransportPoolSize";
     public static final String MAX_IDLE_CONNECTIONS = "maxIdleConnections";
     public static final String EVICTION_TIME_PERIOD = "evictionTimePeriod";
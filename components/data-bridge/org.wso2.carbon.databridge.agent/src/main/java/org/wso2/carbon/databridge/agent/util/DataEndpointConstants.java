@@ -43,6 +43,11 @@ public class DataEndpointConstants {
     public static final String SYNC_STRATEGY = "sync";
     public static final String ASYNC_STRATEGY = "async";
 
+    public static final String ROUND_ROBIN_LB_STRATEGY = "roundRobin";
+    public static final String LEAST_OUTSTANDING_LB_STRATEGY = "leastOutstanding";
+    public static final String EWMA_LATENCY_LB_STRATEGY = "ewmaLatency";
+    public static final String POWER_OF_TWO_CHOICES_LB_STRATEGY = "powerOfTwoChoices";
+
     public static final String DATA_AGENT_CONFIG_NAMESPACE = "data.agent.config";
 
 }
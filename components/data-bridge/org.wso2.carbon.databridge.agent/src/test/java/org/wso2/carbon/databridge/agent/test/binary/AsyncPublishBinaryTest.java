@@ -0,0 +1,148 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncPublishBinaryTest {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9665;
+    private static final int SERVER_SECURE_PORT = 9765;
+    private static final int OFFLINE_SERVER_PORT = 9666;
+    private static final int OFFLINE_SERVER_SECURE_PORT = 9766;
+    private BinaryTestServer binaryTestServer;
+    private String agentConfigFileName = "data.agent.config.yaml";
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    @BeforeClass
+    public void init() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException {
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath(agentConfigFileName));
+        binaryTestServer = new BinaryTestServer();
+        binaryTestServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        binaryTestServer.addStreamDefinition(STREAM_DEFN);
+    }
+
+    @AfterClass
+    public void stop() throws DataEndpointAuthenticationException, DataEndpointAgentConfigurationException,
+            TransportException, DataEndpointException, DataEndpointConfigurationException {
+        binaryTestServer.stop();
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+    }
+
+    private Event createEvent() {
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+        return event;
+    }
+
+    @Test
+    public void testAsyncPublishCompletedOnAcknowledgement() throws Exception {
+        binaryTestServer.resetReceivedEvents();
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        Event event = createEvent();
+
+        int numberOfEventsSent = 1000;
+        List<CompletableFuture<Void>> publishFutures = new ArrayList<>();
+        for (int i = 0; i < numberOfEventsSent; i++) {
+            // Mix the fire-and-forget events with the acknowledged ones within the same batches.
+            if (i % 2 == 0) {
+                publishFutures.add(dataPublisher.publishAsync(event));
+            } else {
+                dataPublisher.publish(event);
+            }
+        }
+        CompletableFuture.allOf(publishFutures.toArray(new CompletableFuture[publishFutures.size()]))
+                .get(30, TimeUnit.SECONDS);
+        for (CompletableFuture<Void> publishFuture : publishFutures) {
+            Assert.assertTrue(publishFuture.isDone());
+            Assert.assertFalse(publishFuture.isCompletedExceptionally());
+        }
+        Assert.assertTrue(binaryTestServer.getNumberOfEventsReceived() >= numberOfEventsSent / 2);
+        dataPublisher.shutdown();
+        Assert.assertEquals(binaryTestServer.getNumberOfEventsReceived(), numberOfEventsSent);
+    }
+
+    @Test
+    public void testAsyncPublishFailedWhenEventDropped() throws Exception {
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + OFFLINE_SERVER_PORT,
+                "ssl://" + hostName + ":" + OFFLINE_SERVER_SECURE_PORT, "admin", "admin");
+        CompletableFuture<Void> publishFuture = dataPublisher.publishAsync(createEvent());
+        Thread.sleep(1000);
+        Assert.assertFalse(publishFuture.isDone(), "Event should be kept until a receiver becomes available");
+
+        dataPublisher.shutdown();
+        try {
+            publishFuture.get(10, TimeUnit.SECONDS);
+            Assert.fail("Event which was dropped at shutdown was acknowledged");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(publishFuture.isCompletedExceptionally());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.conf.AgentConfiguration;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the round trip latency of a single batch against a loopback binary receiver, with the pooled
+ * connections and with the pinned connections modes. This is not part of the test suite, run it with the
+ * test classpath as,
+ * java org.wso2.carbon.databridge.agent.test.binary.BatchLatencyBenchmark [batches]
+ */
+public class BatchLatencyBenchmark {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9669;
+    private static final int SERVER_SECURE_PORT = 9769;
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    public static void main(String[] args) throws Exception {
+        int numberOfBatches = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath("data.agent.config.yaml"));
+        BinaryTestServer binaryTestServer = new BinaryTestServer();
+        binaryTestServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        binaryTestServer.addStreamDefinition(STREAM_DEFN);
+
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+
+        AgentConfiguration agentConfiguration = AgentHolder.getInstance().getDataEndpointAgent("Binary").
+                getAgentConfiguration();
+        for (boolean isPinned : new boolean[]{false, true, false, true}) {
+            agentConfiguration.setPinnedConnections(isPinned);
+            String hostName = DataPublisherTestUtil.LOCAL_HOST;
+            DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                    "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+            Thread.sleep(1000);
+            // Warm up before measuring.
+            measure(dataPublisher, event, binaryTestServer, agentConfiguration.getBatchSize(), numberOfBatches / 5);
+            long[] latencies = measure(dataPublisher, event, binaryTestServer, agentConfiguration.getBatchSize(),
+                    numberOfBatches);
+            dataPublisher.shutdown();
+            Arrays.sort(latencies);
+            long total = 0;
+            for (long latency : latencies) {
+                total += latency;
+            }
+            System.out.println((isPinned ? "Pinned" : "Pooled") + " connections : mean "
+                    + TimeUnit.NANOSECONDS.toMicros(total / latencies.length) + " us, p50 "
+                    + TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]) + " us, p99 "
+                    + TimeUnit.NANOSECONDS.toMicros(latencies[(int) (latencies.length * 0.99)]) + " us");
+        }
+
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+        binaryTestServer.stop();
+    }
+
+    /**
+     * Publishes one batch at a time and waits until the receiver has received the whole batch.
+     */
+    private static long[] measure(DataPublisher dataPublisher, Event event, BinaryTestServer server, int batchSize,
+                                  int numberOfBatches) {
+        long[] latencies = new long[numberOfBatches];
+        server.resetReceivedEvents();
+        for (int i = 0; i < numberOfBatches; i++) {
+            int expectedEvents = (i + 1) * batchSize;
+            long startTime = System.nanoTime();
+            for (int j = 0; j < batchSize; j++) {
+                dataPublisher.publish(event);
+            }
+            while (server.getNumberOfEventsReceived() < expectedEvents) {
+                LockSupport.parkNanos(10000);
+            }
+            latencies[i] = System.nanoTime() - startTime;
+        }
+        return latencies;
+    }
+}
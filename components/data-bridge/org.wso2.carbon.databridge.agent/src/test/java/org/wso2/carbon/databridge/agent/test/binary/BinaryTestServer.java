@@ -46,6 +46,8 @@ public class BinaryTestServer {
     InMemoryStreamDefinitionStore streamDefinitionStore;
     AtomicInteger numberOfEventsReceived;
     RestarterThread restarterThread;
+    volatile long publishDelayMS;
+    volatile List<Event> receivedEvents;
 
     public void startTestServer() throws DataBridgeException, InterruptedException, IOException {
         BinaryTestServer testServer = new BinaryTestServer();
@@ -85,7 +87,13 @@ public class BinaryTestServer {
 
             @Override
             public void initContext(AgentSession agentSession) {
-                //To change body of implemented methods use File | Settings | File Templates.
+                if (publishDelayMS > 0) {
+                    try {
+                        Thread.sleep(publishDelayMS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
             }
 
             @Override
@@ -111,6 +119,10 @@ public class BinaryTestServer {
 
             @Override
             public void receive(List<Event> eventList, Credentials credentials) {
+                List<Event> receivedEvents = BinaryTestServer.this.receivedEvents;
+                if (receivedEvents != null) {
+                    receivedEvents.addAll(eventList);
+                }
                 numberOfEventsReceived.addAndGet(eventList.size());
                 log.info("Received events : " + numberOfEventsReceived);
 //                log.info("eventListSize=" + eventList.size() + " eventList " + eventList + " for username " + credentials.getUsername());
@@ -133,6 +145,24 @@ public class BinaryTestServer {
         numberOfEventsReceived.set(0);
     }
 
+    /**
+     * Collects the events received from now on in to the given list, which should be thread safe.
+     *
+     * @param receivedEvents List to which the received events are added, or null to stop collecting them.
+     */
+    public void collectReceivedEvents(List<Event> receivedEvents) {
+        this.receivedEvents = receivedEvents;
+    }
+
+    /**
+     * Makes the server slow by delaying the processing of each received event batch.
+     *
+     * @param publishDelayMS Delay per event batch in milliseconds.
+     */
+    public void setPublishDelay(long publishDelayMS) {
+        this.publishDelayMS = publishDelayMS;
+    }
+
     public void stop() {
         binaryDataReceiver.stop();
         log.info("Test Server Stopped");
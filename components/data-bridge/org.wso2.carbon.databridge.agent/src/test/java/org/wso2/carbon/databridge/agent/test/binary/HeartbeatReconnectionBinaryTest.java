@@ -0,0 +1,179 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.endpoint.binary.BinaryClientPoolFactory;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Kills and revives one of two load balanced receivers, and verifies that the heartbeats take the dead
+ * receiver out of the rotation and the reconnection backoff brings the revived receiver back quickly.
+ */
+public class HeartbeatReconnectionBinaryTest {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int STABLE_SERVER_PORT = 9663;
+    private static final int STABLE_SERVER_SECURE_PORT = 9763;
+    private static final int FLAKY_SERVER_PORT = 9664;
+    private static final int FLAKY_SERVER_SECURE_PORT = 9764;
+    private static final int NUMBER_OF_EVENTS = 1000;
+    private BinaryTestServer stableServer;
+    private BinaryTestServer flakyServer;
+    private String agentConfigFileName = "heartbeat.data.agent.config.yaml";
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    @BeforeClass
+    public void init() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException {
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath(agentConfigFileName));
+        stableServer = startServer(STABLE_SERVER_PORT, STABLE_SERVER_SECURE_PORT);
+        flakyServer = startServer(FLAKY_SERVER_PORT, FLAKY_SERVER_SECURE_PORT);
+    }
+
+    @AfterClass
+    public void stop() throws DataEndpointAuthenticationException, DataEndpointAgentConfigurationException,
+            TransportException, DataEndpointException, DataEndpointConfigurationException {
+        stableServer.stop();
+        flakyServer.stop();
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+    }
+
+    private BinaryTestServer startServer(int port, int securePort) throws DataBridgeException,
+            StreamDefinitionStoreException, MalformedStreamDefinitionException, IOException {
+        BinaryTestServer testServer = new BinaryTestServer();
+        testServer.start(port, securePort);
+        testServer.addStreamDefinition(STREAM_DEFN);
+        return testServer;
+    }
+
+    @Test
+    public void testReceiverKilledAndRevived() throws Exception {
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary",
+                "{tcp://" + hostName + ":" + STABLE_SERVER_PORT + ",tcp://" + hostName + ":" + FLAKY_SERVER_PORT + "}",
+                "{ssl://" + hostName + ":" + STABLE_SERVER_SECURE_PORT + ",ssl://" + hostName + ":"
+                        + FLAKY_SERVER_SECURE_PORT + "}", "admin", "admin");
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+
+        // Wait until both the endpoints are connected, so that the events are load balanced among them.
+        Thread.sleep(1000);
+        publishAndWait(dataPublisher, event);
+        Assert.assertEquals(stableServer.getNumberOfEventsReceived() + flakyServer.getNumberOfEventsReceived(),
+                NUMBER_OF_EVENTS);
+        Assert.assertTrue(flakyServer.getNumberOfEventsReceived() > 0);
+
+        flakyServer.stop();
+        // Heartbeats on the idle connections detect the killed receiver.
+        Thread.sleep(2000);
+        stableServer.resetReceivedEvents();
+        publishAndWait(dataPublisher, event);
+        Assert.assertEquals(stableServer.getNumberOfEventsReceived(), NUMBER_OF_EVENTS);
+
+        flakyServer = startServer(FLAKY_SERVER_PORT, FLAKY_SERVER_SECURE_PORT);
+        // Reconnection attempts are backed off up to the configured reconnection interval of one second.
+        Thread.sleep(3000);
+        stableServer.resetReceivedEvents();
+        publishAndWait(dataPublisher, event);
+        Assert.assertEquals(stableServer.getNumberOfEventsReceived() + flakyServer.getNumberOfEventsReceived(),
+                NUMBER_OF_EVENTS);
+        Assert.assertTrue(flakyServer.getNumberOfEventsReceived() > 0, "Revived receiver did not receive any events");
+        dataPublisher.shutdown();
+    }
+
+    @Test
+    public void testPingToClosedReceiverFails() throws Exception {
+        BinaryClientPoolFactory clientPoolFactory = new BinaryClientPoolFactory();
+        InetAddress localHost = InetAddress.getByName(DataPublisherTestUtil.LOCAL_HOST);
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, localHost)) {
+            // The receiver goes away without answering, which leaves the client reading the end of the stream.
+            try (Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+                socket.setSoTimeout(5000);
+                serverSocket.accept().close();
+                Assert.assertFalse(clientPoolFactory.pingClient(socket), "Ping to a closed receiver succeeded");
+            }
+            // A receiver answering the ping with anything but an OK message is not healthy either.
+            try (Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+                socket.setSoTimeout(5000);
+                try (Socket accepted = serverSocket.accept()) {
+                    accepted.getOutputStream().write(2);
+                    accepted.getOutputStream().flush();
+                    Assert.assertFalse(clientPoolFactory.pingClient(socket), "Ping with an unexpected response " +
+                            "succeeded");
+                }
+            }
+        }
+    }
+
+    private void publishAndWait(DataPublisher dataPublisher, Event event) throws InterruptedException {
+        int receivedBefore = stableServer.getNumberOfEventsReceived() + flakyServer.getNumberOfEventsReceived();
+        for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+            dataPublisher.publish(event);
+        }
+        long stopTime = System.currentTimeMillis() + 20000;
+        while (stableServer.getNumberOfEventsReceived() + flakyServer.getNumberOfEventsReceived()
+                < receivedBefore + NUMBER_OF_EVENTS && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+
+import java.io.IOException;
+
+/**
+ * Publishes to a fast and an artificially slow receiver, and verifies that the latency aware load balancing
+ * strategies send most of the events to the fast receiver.
+ */
+public class LoadBalancingStrategyBinaryTest {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int FAST_SERVER_PORT = 9661;
+    private static final int FAST_SERVER_SECURE_PORT = 9761;
+    private static final int SLOW_SERVER_PORT = 9662;
+    private static final int SLOW_SERVER_SECURE_PORT = 9762;
+    private static final long SLOW_SERVER_DELAY_MS = 500;
+    private static final int NUMBER_OF_EVENTS = 20000;
+    private BinaryTestServer fastServer;
+    private BinaryTestServer slowServer;
+    private String agentConfigFileName = "lb.data.agent.config.yaml";
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    @BeforeClass
+    public void init() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException {
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath(agentConfigFileName));
+        fastServer = startServer(FAST_SERVER_PORT, FAST_SERVER_SECURE_PORT);
+        slowServer = startServer(SLOW_SERVER_PORT, SLOW_SERVER_SECURE_PORT);
+        slowServer.setPublishDelay(SLOW_SERVER_DELAY_MS);
+    }
+
+    @AfterClass
+    public void stop() throws DataEndpointAuthenticationException, DataEndpointAgentConfigurationException,
+            TransportException, DataEndpointException, DataEndpointConfigurationException {
+        fastServer.stop();
+        slowServer.stop();
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+    }
+
+    private BinaryTestServer startServer(int port, int securePort) throws DataBridgeException,
+            StreamDefinitionStoreException, MalformedStreamDefinitionException, IOException {
+        BinaryTestServer testServer = new BinaryTestServer();
+        testServer.start(port, securePort);
+        testServer.addStreamDefinition(STREAM_DEFN);
+        return testServer;
+    }
+
+    @Test
+    public void testLeastOutstandingStrategy() throws Exception {
+        testSlowEndpointAvoided("BinaryLeastOutstanding");
+    }
+
+    @Test
+    public void testEwmaLatencyStrategy() throws Exception {
+        testSlowEndpointAvoided("BinaryEwmaLatency");
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesStrategy() throws Exception {
+        testSlowEndpointAvoided("BinaryPowerOfTwoChoices");
+    }
+
+    private void testSlowEndpointAvoided(String agentName) throws Exception {
+        fastServer.resetReceivedEvents();
+        slowServer.resetReceivedEvents();
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher(agentName,
+                "{tcp://" + hostName + ":" + FAST_SERVER_PORT + ",tcp://" + hostName + ":" + SLOW_SERVER_PORT + "}",
+                "{ssl://" + hostName + ":" + FAST_SERVER_SECURE_PORT + ",ssl://" + hostName + ":"
+                        + SLOW_SERVER_SECURE_PORT + "}", "admin", "admin");
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+
+        for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+            dataPublisher.publish(event);
+        }
+
+        long stopTime = System.currentTimeMillis() + 60000;
+        while (fastServer.getNumberOfEventsReceived() + slowServer.getNumberOfEventsReceived() < NUMBER_OF_EVENTS
+                && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+        dataPublisher.shutdown();
+
+        int fastServerEvents = fastServer.getNumberOfEventsReceived();
+        int slowServerEvents = slowServer.getNumberOfEventsReceived();
+        Assert.assertEquals(fastServerEvents + slowServerEvents, NUMBER_OF_EVENTS);
+        Assert.assertTrue(slowServerEvents * 4 < fastServerEvents, agentName + " sent " + slowServerEvents
+                + " events to the slow receiver and " + fastServerEvents + " events to the fast receiver");
+    }
+}
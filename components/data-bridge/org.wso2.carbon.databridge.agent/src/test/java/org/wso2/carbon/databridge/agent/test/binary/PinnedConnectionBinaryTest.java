@@ -0,0 +1,133 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+
+import java.io.IOException;
+
+/**
+ * Publishes events with the pinned connections mode, where each publisher worker keeps its own connection,
+ * and verifies that the workers reconnect after the receiver is restarted.
+ */
+public class PinnedConnectionBinaryTest {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9668;
+    private static final int SERVER_SECURE_PORT = 9768;
+    private static final int NUMBER_OF_EVENTS = 5000;
+    private BinaryTestServer binaryTestServer;
+    private String agentConfigFileName = "heartbeat.data.agent.config.yaml";
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    @BeforeClass
+    public void init() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException, DataEndpointAgentConfigurationException {
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath(agentConfigFileName));
+        AgentHolder.getInstance().getDataEndpointAgent("Binary").getAgentConfiguration().setPinnedConnections(true);
+        binaryTestServer = startServer();
+    }
+
+    @AfterClass
+    public void stop() throws DataEndpointAuthenticationException, DataEndpointAgentConfigurationException,
+            TransportException, DataEndpointException, DataEndpointConfigurationException {
+        binaryTestServer.stop();
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+    }
+
+    private BinaryTestServer startServer() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException {
+        BinaryTestServer testServer = new BinaryTestServer();
+        testServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        testServer.addStreamDefinition(STREAM_DEFN);
+        return testServer;
+    }
+
+    @Test
+    public void testPublishingWithPinnedConnections() throws Exception {
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+
+        publishAndWait(dataPublisher, event);
+        Assert.assertEquals(binaryTestServer.getNumberOfEventsReceived(), NUMBER_OF_EVENTS);
+
+        // The pinned connections are broken by the restart, hence the workers have to reconnect.
+        binaryTestServer.stop();
+        Thread.sleep(1000);
+        binaryTestServer = startServer();
+        Thread.sleep(3000);
+
+        publishAndWait(dataPublisher, event);
+        Assert.assertEquals(binaryTestServer.getNumberOfEventsReceived(), NUMBER_OF_EVENTS);
+        dataPublisher.shutdown();
+    }
+
+    private void publishAndWait(DataPublisher dataPublisher, Event event) throws InterruptedException {
+        for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+            dataPublisher.publish(event);
+        }
+        long stopTime = System.currentTimeMillis() + 20000;
+        while (binaryTestServer.getNumberOfEventsReceived() < NUMBER_OF_EVENTS
+                && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+    }
+}
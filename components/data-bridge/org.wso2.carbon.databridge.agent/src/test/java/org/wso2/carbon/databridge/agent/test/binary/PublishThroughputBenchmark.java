@@ -0,0 +1,127 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the publishing throughput of the fire-and-forget and the acknowledged publish APIs against a
+ * loopback binary receiver. This is not part of the test suite, run it with the test classpath as,
+ * java org.wso2.carbon.databridge.agent.test.binary.PublishThroughputBenchmark [events] [iterations]
+ */
+public class PublishThroughputBenchmark {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9667;
+    private static final int SERVER_SECURE_PORT = 9767;
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    public static void main(String[] args) throws Exception {
+        int numberOfEvents = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath("data.agent.config.yaml"));
+        BinaryTestServer binaryTestServer = new BinaryTestServer();
+        binaryTestServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        binaryTestServer.addStreamDefinition(STREAM_DEFN);
+
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+
+        // Warm up the connections and the JIT before measuring.
+        runFireAndForget(dataPublisher, event, binaryTestServer, numberOfEvents);
+        runAcknowledged(dataPublisher, event, binaryTestServer, numberOfEvents);
+
+        for (int i = 0; i < iterations; i++) {
+            long fireAndForgetTime = runFireAndForget(dataPublisher, event, binaryTestServer, numberOfEvents);
+            long acknowledgedTime = runAcknowledged(dataPublisher, event, binaryTestServer, numberOfEvents);
+            System.out.println("Iteration " + i + " : fire-and-forget " + getThroughput(numberOfEvents,
+                    fireAndForgetTime) + " events/sec, acknowledged " + getThroughput(numberOfEvents,
+                    acknowledgedTime) + " events/sec");
+        }
+
+        dataPublisher.shutdownWithAgent();
+        binaryTestServer.stop();
+    }
+
+    private static long runFireAndForget(DataPublisher dataPublisher, Event event, BinaryTestServer server,
+                                         int numberOfEvents) throws InterruptedException {
+        server.resetReceivedEvents();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < numberOfEvents; i++) {
+            dataPublisher.publish(event);
+        }
+        while (server.getNumberOfEventsReceived() < numberOfEvents) {
+            Thread.sleep(1);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private static long runAcknowledged(DataPublisher dataPublisher, Event event, BinaryTestServer server,
+                                        int numberOfEvents) throws Exception {
+        server.resetReceivedEvents();
+        long startTime = System.nanoTime();
+        CompletableFuture<Void> lastPublishFuture = null;
+        for (int i = 0; i < numberOfEvents; i++) {
+            lastPublishFuture = dataPublisher.publishAsync(event);
+        }
+        if (lastPublishFuture != null) {
+            lastPublishFuture.get(60, TimeUnit.SECONDS);
+        }
+        while (server.getNumberOfEventsReceived() < numberOfEvents) {
+            Thread.sleep(1);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private static long getThroughput(int numberOfEvents, long timeNanos) {
+        return numberOfEvents * TimeUnit.SECONDS.toNanos(1) / Math.max(timeNanos, 1);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointGroupMetricsSnapshot;
+import org.wso2.carbon.databridge.agent.metrics.DataEndpointMetricsSnapshot;
+import org.wso2.carbon.databridge.agent.metrics.DataPublisherMetrics;
+import org.wso2.carbon.databridge.agent.metrics.DataPublisherMetricsSnapshot;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+public class PublishingMetricsBinaryTest {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9670;
+    private static final int SERVER_SECURE_PORT = 9770;
+    private static final int OFFLINE_SERVER_PORT = 9671;
+    private static final int OFFLINE_SERVER_SECURE_PORT = 9771;
+    private static final int BATCH_SIZE = 200;
+    private static final int QUEUE_SIZE = 32768;
+    private BinaryTestServer binaryTestServer;
+    private String agentConfigFileName = "data.agent.config.yaml";
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    @BeforeClass
+    public void init() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException {
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath(agentConfigFileName));
+        binaryTestServer = new BinaryTestServer();
+        binaryTestServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        binaryTestServer.addStreamDefinition(STREAM_DEFN);
+    }
+
+    @AfterClass
+    public void stop() throws DataEndpointAuthenticationException, DataEndpointAgentConfigurationException,
+            TransportException, DataEndpointException, DataEndpointConfigurationException {
+        binaryTestServer.stop();
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+    }
+
+    private Event createEvent() {
+        Event event = new Event();
+        event.setStreamId(DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION));
+        event.setMetaData(new Object[]{"127.0.0.1"});
+        event.setCorrelationData(null);
+        event.setPayloadData(new Object[]{"WSO2", 123.4, 2, 12.4, 1.3});
+        return event;
+    }
+
+    private ObjectName getMetricsObjectName(MBeanServer mBeanServer, String receiverURLSet) throws Exception {
+        Set<ObjectName> objectNames = mBeanServer.queryNames(new ObjectName(DataPublisherMetrics.JMX_DOMAIN +
+                ":type=DataPublisher,receivers=" + ObjectName.quote(receiverURLSet) + ",*"), null);
+        Assert.assertEquals(objectNames.size(), 1);
+        return objectNames.iterator().next();
+    }
+
+    @Test
+    public void testMetricsOfPublishedEvents() throws Exception {
+        binaryTestServer.resetReceivedEvents();
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        String receiverURLSet = "tcp://" + hostName + ":" + SERVER_PORT;
+        DataPublisher dataPublisher = new DataPublisher("Binary", receiverURLSet,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        Event event = createEvent();
+
+        int numberOfEventsSent = 1000;
+        for (int i = 0; i < numberOfEventsSent; i++) {
+            dataPublisher.publish(event);
+        }
+        long stopTime = System.currentTimeMillis() + 20000;
+        while (dataPublisher.getMetrics().getEventsSent() < numberOfEventsSent
+                && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+
+        DataPublisherMetricsSnapshot metrics = dataPublisher.getMetrics();
+        Assert.assertEquals(binaryTestServer.getNumberOfEventsReceived(), numberOfEventsSent);
+        Assert.assertEquals(metrics.getEventsPublished(), numberOfEventsSent);
+        Assert.assertEquals(metrics.getEventsSent(), numberOfEventsSent);
+        Assert.assertEquals(metrics.getEventsDropped(), 0);
+        Assert.assertEquals(metrics.getFailedBatches(), 0);
+        Assert.assertEquals(metrics.getQueueOccupancy(), 0);
+        Assert.assertEquals(metrics.getEndpointGroups().size(), 1);
+
+        DataEndpointGroupMetricsSnapshot endpointGroup = metrics.getEndpointGroups().get(0);
+        Assert.assertEquals(endpointGroup.getQueueCapacity(), QUEUE_SIZE);
+        Assert.assertEquals(endpointGroup.getDataEndpoints().size(), 1);
+        DataEndpointMetricsSnapshot dataEndpoint = endpointGroup.getDataEndpoints().get(0);
+        Assert.assertEquals(dataEndpoint.getReceiverURL(), receiverURLSet);
+        Assert.assertEquals(dataEndpoint.getOutstandingBatches(), 0);
+        // Batches are flushed when the queue drains, hence they can be smaller than the batch size.
+        Assert.assertTrue(dataEndpoint.getBatchesSent() >= numberOfEventsSent / BATCH_SIZE);
+        Assert.assertEquals(dataEndpoint.getBatchSize().getCount(), dataEndpoint.getBatchesSent());
+        Assert.assertEquals(dataEndpoint.getBatchSize().getSum(), numberOfEventsSent);
+        Assert.assertTrue(dataEndpoint.getBatchSize().getMax() <= BATCH_SIZE);
+        Assert.assertEquals(dataEndpoint.getSendLatency().getCount(), dataEndpoint.getBatchesSent());
+        Assert.assertTrue(dataEndpoint.getSendLatency().getP50() <= dataEndpoint.getSendLatency().getP99());
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = getMetricsObjectName(mBeanServer, receiverURLSet);
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "EventsPublished"), (long) numberOfEventsSent);
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "EventsSent"), (long) numberOfEventsSent);
+        Assert.assertEquals(mBeanServer.getAttribute(objectName, "BatchesSent"), dataEndpoint.getBatchesSent());
+        CompositeData[] endpointGroups = (CompositeData[]) mBeanServer.getAttribute(objectName, "EndpointGroups");
+        Assert.assertEquals(endpointGroups.length, 1);
+        Assert.assertEquals(endpointGroups[0].get("queueCapacity"), QUEUE_SIZE);
+
+        dataPublisher.shutdown();
+        Assert.assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    @Test
+    public void testMetricsOfDroppedEvents() throws Exception {
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + OFFLINE_SERVER_PORT,
+                "ssl://" + hostName + ":" + OFFLINE_SERVER_SECURE_PORT, "admin", "admin");
+        Event event = createEvent();
+
+        // No receiver is available, hence the queue is filled up and the rest of the events are dropped.
+        int numberOfEventsDropped = 100;
+        int numberOfFailedPublishes = 0;
+        for (int i = 0; i < QUEUE_SIZE + numberOfEventsDropped; i++) {
+            if (!dataPublisher.tryPublish(event)) {
+                numberOfFailedPublishes++;
+            }
+        }
+        long stopTime = System.currentTimeMillis() + 10000;
+        while (dataPublisher.getMetrics().getReconnectionAttempts() == 0 && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+
+        DataPublisherMetricsSnapshot metrics = dataPublisher.getMetrics();
+        Assert.assertEquals(numberOfFailedPublishes, numberOfEventsDropped);
+        Assert.assertEquals(metrics.getEventsPublished(), QUEUE_SIZE);
+        Assert.assertEquals(metrics.getEventsDropped(), numberOfEventsDropped);
+        Assert.assertEquals(metrics.getQueueOccupancy(), QUEUE_SIZE);
+        Assert.assertEquals(metrics.getEventsSent(), 0);
+        Assert.assertTrue(metrics.getReconnectionAttempts() > 0);
+        Assert.assertEquals(metrics.getEndpointGroups().get(0).getDataEndpoints().get(0).getState(), "UNAVAILABLE");
+        dataPublisher.shutdown();
+    }
+}
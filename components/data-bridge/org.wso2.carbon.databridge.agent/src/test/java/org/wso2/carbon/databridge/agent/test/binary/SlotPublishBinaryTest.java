@@ -0,0 +1,236 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.endpoint.EventSlot;
+import org.wso2.carbon.databridge.agent.endpoint.EventSlotTranslator;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
+import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SlotPublishBinaryTest {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9672;
+    private static final int SERVER_SECURE_PORT = 9772;
+    private static final int OFFLINE_SERVER_PORT = 9673;
+    private static final int OFFLINE_SERVER_SECURE_PORT = 9773;
+    private static final int QUEUE_SIZE = 32768;
+    private BinaryTestServer binaryTestServer;
+    private String agentConfigFileName = "data.agent.config.yaml";
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    private static final String TYPED_STREAM_NAME = "org.wso2.esb.TypedStatistics";
+
+    private static final String TYPED_STREAM_DEFN = "{" +
+            "  'name':'" + TYPED_STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'metaData':[" +
+            "          {'name':'hostId','type':'INT'}," +
+            "          {'name':'online','type':'BOOL'}" +
+            "  ]," +
+            "  'correlationData':[" +
+            "          {'name':'traceId','type':'LONG'}," +
+            "          {'name':'weight','type':'FLOAT'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'total','type':'LONG'}," +
+            "          {'name':'ratio','type':'FLOAT'}," +
+            "          {'name':'active','type':'BOOL'}" +
+            "  ]" +
+            "}";
+
+    private static final EventSlotTranslator TRANSLATOR = new EventSlotTranslator() {
+        @Override
+        public void translateTo(EventSlot slot) {
+            slot.setMetaData(0, "127.0.0.1")
+                    .setString(0, "WSO2").setDouble(1, 123.4).setInt(2, 2).setDouble(3, 12.4).setDouble(4, 1.3);
+        }
+    };
+
+    @BeforeClass
+    public void init() throws DataBridgeException, StreamDefinitionStoreException,
+            MalformedStreamDefinitionException, IOException {
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath(agentConfigFileName));
+        binaryTestServer = new BinaryTestServer();
+        binaryTestServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        binaryTestServer.addStreamDefinition(STREAM_DEFN);
+        binaryTestServer.addStreamDefinition(TYPED_STREAM_DEFN);
+    }
+
+    @AfterClass
+    public void stop() throws DataEndpointAuthenticationException, DataEndpointAgentConfigurationException,
+            TransportException, DataEndpointException, DataEndpointConfigurationException {
+        binaryTestServer.stop();
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://localhost:9687",
+                "ssl://localhost:9787", "admin", "admin");
+        dataPublisher.shutdownWithAgent();
+    }
+
+    @Test
+    public void testSlotPublish() throws Exception {
+        binaryTestServer.resetReceivedEvents();
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        String streamId = DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION);
+
+        // More events than the queue size, so that the slots are reused in the later laps.
+        int numberOfEventsSent = QUEUE_SIZE * 2;
+        for (int i = 0; i < numberOfEventsSent; i++) {
+            dataPublisher.publish(streamId, TRANSLATOR);
+        }
+        long stopTime = System.currentTimeMillis() + 30000;
+        while (binaryTestServer.getNumberOfEventsReceived() < numberOfEventsSent
+                && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(binaryTestServer.getNumberOfEventsReceived(), numberOfEventsSent);
+        dataPublisher.shutdown();
+    }
+
+    @Test
+    public void testSlotPublishWithPrimitiveAttributes() throws Exception {
+        binaryTestServer.resetReceivedEvents();
+        List<Event> receivedEvents = Collections.synchronizedList(new ArrayList<Event>());
+        binaryTestServer.collectReceivedEvents(receivedEvents);
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        String streamId = DataBridgeCommonsUtils.generateStreamId(TYPED_STREAM_NAME, VERSION);
+
+        // More events than the queue size, so that both the slots and the recycled events are reused.
+        int numberOfEventsSent = QUEUE_SIZE * 2;
+        for (int i = 0; i < numberOfEventsSent; i++) {
+            final int sequence = i;
+            dataPublisher.publish(streamId, new EventSlotTranslator() {
+                @Override
+                public void translateTo(EventSlot slot) {
+                    slot.setMetaInt(0, sequence % 16).setMetaBoolean(1, sequence % 3 == 0)
+                            .setCorrelationLong(0, sequence * 1000L).setCorrelationFloat(1, 0.5f)
+                            .setString(0, "WSO2").setDouble(1, sequence / 4.0).setInt(2, sequence)
+                            .setLong(3, Long.MAX_VALUE - sequence).setFloat(4, 1.5f).setBoolean(5, sequence % 2 == 0);
+                }
+            });
+        }
+        long stopTime = System.currentTimeMillis() + 30000;
+        while (binaryTestServer.getNumberOfEventsReceived() < numberOfEventsSent
+                && System.currentTimeMillis() < stopTime) {
+            Thread.sleep(100);
+        }
+        binaryTestServer.collectReceivedEvents(null);
+        dataPublisher.shutdown();
+        Assert.assertEquals(receivedEvents.size(), numberOfEventsSent);
+        boolean[] received = new boolean[numberOfEventsSent];
+        for (Event event : receivedEvents) {
+            int sequence = (Integer) event.getPayloadData()[2];
+            Assert.assertFalse(received[sequence], "Event " + sequence + " was received twice");
+            received[sequence] = true;
+            Assert.assertEquals(event.getMetaData(), new Object[]{sequence % 16, sequence % 3 == 0});
+            Assert.assertEquals(event.getCorrelationData(), new Object[]{sequence * 1000L, 0.5f});
+            Assert.assertEquals(event.getPayloadData(), new Object[]{"WSO2", sequence / 4.0, sequence,
+                    Long.MAX_VALUE - sequence, 1.5f, sequence % 2 == 0});
+        }
+    }
+
+    @Test
+    public void testSlotPublishWithFailingTranslator() throws Exception {
+        binaryTestServer.resetReceivedEvents();
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        String streamId = DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION);
+
+        dataPublisher.publish(streamId, TRANSLATOR);
+        try {
+            dataPublisher.publish(streamId, new EventSlotTranslator() {
+                @Override
+                public void translateTo(EventSlot slot) {
+                    slot.setMetaData(0, "127.0.0.1");
+                    throw new IllegalStateException("Unable to read the attribute values");
+                }
+            });
+            Assert.fail("Translator failure was not propagated to the publisher");
+        } catch (IllegalStateException ignored) {
+        }
+        dataPublisher.publish(streamId, TRANSLATOR);
+        dataPublisher.shutdown();
+        Assert.assertEquals(binaryTestServer.getNumberOfEventsReceived(), 2);
+        Assert.assertEquals(dataPublisher.getMetrics().getEventsPublished(), 2);
+    }
+
+    @Test
+    public void testSlotTryPublishWhenQueueFull() throws Exception {
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + OFFLINE_SERVER_PORT,
+                "ssl://" + hostName + ":" + OFFLINE_SERVER_SECURE_PORT, "admin", "admin");
+        String streamId = DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION);
+
+        int numberOfEventsDropped = 100;
+        int numberOfFailedPublishes = 0;
+        for (int i = 0; i < QUEUE_SIZE + numberOfEventsDropped; i++) {
+            if (!dataPublisher.tryPublish(streamId, TRANSLATOR)) {
+                numberOfFailedPublishes++;
+            }
+        }
+        Assert.assertEquals(numberOfFailedPublishes, numberOfEventsDropped);
+        Assert.assertEquals(dataPublisher.getMetrics().getEventsDropped(), numberOfEventsDropped);
+        dataPublisher.shutdown();
+    }
+}
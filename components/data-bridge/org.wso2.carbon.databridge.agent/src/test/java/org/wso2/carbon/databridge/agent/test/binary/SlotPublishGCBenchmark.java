@@ -0,0 +1,210 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.agent.test.binary;
+
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.agent.endpoint.EventSlot;
+import org.wso2.carbon.databridge.agent.endpoint.EventSlotTranslator;
+import org.wso2.carbon.databridge.agent.test.DataPublisherTestUtil;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the GC pressure of publishing events built by the caller against publishing them by writing the
+ * attributes into the slots of the event queue, by measuring the bytes allocated by the publishing thread, the
+ * event queue consumer, the endpoint threads sending the batches, and all the threads of the JVM including the
+ * in-process receiver, along with the collections of the whole JVM. The allocations of the threads which
+ * terminate during a run are not counted. This is not part of the test suite, run it with the test classpath as,
+ * java org.wso2.carbon.databridge.agent.test.binary.SlotPublishGCBenchmark [events] [iterations]
+ */
+public class SlotPublishGCBenchmark {
+    private static final String STREAM_NAME = "org.wso2.esb.MediatorStatistics";
+    private static final String VERSION = "1.0.0";
+    private static final int SERVER_PORT = 9674;
+    private static final int SERVER_SECURE_PORT = 9774;
+
+    private static final String STREAM_DEFN = "{" +
+            "  'name':'" + STREAM_NAME + "'," +
+            "  'version':'" + VERSION + "'," +
+            "  'nickName': 'Stock Quote Information'," +
+            "  'description': 'Some Desc'," +
+            "  'tags':['foo', 'bar']," +
+            "  'metaData':[" +
+            "          {'name':'ipAdd','type':'STRING'}" +
+            "  ]," +
+            "  'payloadData':[" +
+            "          {'name':'symbol','type':'STRING'}," +
+            "          {'name':'price','type':'DOUBLE'}," +
+            "          {'name':'volume','type':'INT'}," +
+            "          {'name':'max','type':'DOUBLE'}," +
+            "          {'name':'min','type':'Double'}" +
+            "  ]" +
+            "}";
+
+    public static void main(String[] args) throws Exception {
+        int numberOfEvents = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        DataPublisherTestUtil.setKeyStoreParams();
+        DataPublisherTestUtil.setTrustStoreParams();
+        AgentHolder.setConfigPath(DataPublisherTestUtil.getDataAgentConfigPath("data.agent.config.yaml"));
+        BinaryTestServer binaryTestServer = new BinaryTestServer();
+        binaryTestServer.start(SERVER_PORT, SERVER_SECURE_PORT);
+        binaryTestServer.addStreamDefinition(STREAM_DEFN);
+
+        String hostName = DataPublisherTestUtil.LOCAL_HOST;
+        DataPublisher dataPublisher = new DataPublisher("Binary", "tcp://" + hostName + ":" + SERVER_PORT,
+                "ssl://" + hostName + ":" + SERVER_SECURE_PORT, "admin", "admin");
+        String streamId = DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION);
+
+        // Warm up the connections and the JIT before measuring.
+        runEventPublish(dataPublisher, streamId, binaryTestServer, numberOfEvents);
+        runSlotPublish(dataPublisher, streamId, binaryTestServer, numberOfEvents);
+
+        for (int i = 0; i < iterations; i++) {
+            System.out.println("Iteration " + i + " : event "
+                    + runEventPublish(dataPublisher, streamId, binaryTestServer, numberOfEvents) + ", slot "
+                    + runSlotPublish(dataPublisher, streamId, binaryTestServer, numberOfEvents));
+        }
+
+        dataPublisher.shutdownWithAgent();
+        binaryTestServer.stop();
+    }
+
+    private static String runEventPublish(DataPublisher dataPublisher, String streamId, BinaryTestServer server,
+                                          int numberOfEvents) throws InterruptedException {
+        GCPressure gcPressure = new GCPressure(server);
+        for (int i = 0; i < numberOfEvents; i++) {
+            dataPublisher.publish(streamId, new Object[]{"127.0.0.1"}, null,
+                    new Object[]{"WSO2", 100.0 + i, i, 12.4, 1.3});
+        }
+        return gcPressure.await(numberOfEvents);
+    }
+
+    private static String runSlotPublish(DataPublisher dataPublisher, String streamId, BinaryTestServer server,
+                                         int numberOfEvents) throws InterruptedException {
+        GCPressure gcPressure = new GCPressure(server);
+        PriceTranslator translator = new PriceTranslator();
+        for (int i = 0; i < numberOfEvents; i++) {
+            translator.sequence = i;
+            dataPublisher.publish(streamId, translator);
+        }
+        return gcPressure.await(numberOfEvents);
+    }
+
+    /**
+     * Reusable translator, so that the slot path does not allocate a capturing lambda per event.
+     */
+    private static class PriceTranslator implements EventSlotTranslator {
+        private int sequence;
+
+        @Override
+        public void translateTo(EventSlot slot) {
+            slot.setMetaData(0, "127.0.0.1")
+                    .setString(0, "WSO2").setDouble(1, 100.0 + sequence).setInt(2, sequence)
+                    .setDouble(3, 12.4).setDouble(4, 1.3);
+        }
+    }
+
+    /**
+     * Measures the bytes allocated by the threads, and the collections of the JVM until all the events are received.
+     */
+    private static class GCPressure {
+        private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final BinaryTestServer server;
+        private final long startTime = System.nanoTime();
+        private final Map<Long, Long> startAllocatedBytes = getAllocatedBytes();
+        private final long startCollectionCount = getCollectionCount();
+        private final long startCollectionTime = getCollectionTime();
+
+        private GCPressure(BinaryTestServer server) {
+            server.resetReceivedEvents();
+            this.server = server;
+        }
+
+        private String await(int numberOfEvents) throws InterruptedException {
+            long publisherBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId())
+                    - startAllocatedBytes.get(Thread.currentThread().getId());
+            while (server.getNumberOfEventsReceived() < numberOfEvents) {
+                Thread.sleep(1);
+            }
+            long time = System.nanoTime() - startTime;
+            long consumerBytes = 0;
+            long senderBytes = 0;
+            long totalBytes = 0;
+            Map<Long, Long> allocatedBytes = getAllocatedBytes();
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                Long endBytes = allocatedBytes.get(thread.getId());
+                if (endBytes == null) {
+                    continue;
+                }
+                Long startBytes = startAllocatedBytes.get(thread.getId());
+                long bytes = endBytes - (startBytes == null ? 0 : startBytes);
+                if (thread.getName().startsWith("DataBridge-EventQueue-")) {
+                    consumerBytes += bytes;
+                } else if (thread.getName().startsWith("DataBridge-tcp://")
+                        || thread.getName().startsWith("DataBridge-ssl://")) {
+                    senderBytes += bytes;
+                }
+                totalBytes += bytes;
+            }
+            return "[" + numberOfEvents * TimeUnit.SECONDS.toNanos(1) / Math.max(time, 1) + " events/sec, "
+                    + "bytes/event allocated by the publisher " + publisherBytes / numberOfEvents
+                    + ", the queue consumer " + consumerBytes / numberOfEvents
+                    + ", the endpoint senders " + senderBytes / numberOfEvents
+                    + ", the whole JVM " + totalBytes / numberOfEvents + ", "
+                    + (getCollectionCount() - startCollectionCount) + " GCs taking "
+                    + (getCollectionTime() - startCollectionTime) + " ms]";
+        }
+
+        private static Map<Long, Long> getAllocatedBytes() {
+            long[] threadIds = THREAD_MX_BEAN.getAllThreadIds();
+            long[] allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadIds);
+            Map<Long, Long> result = new HashMap<>();
+            for (int i = 0; i < threadIds.length; i++) {
+                if (allocatedBytes[i] >= 0) {
+                    result.put(threadIds[i], allocatedBytes[i]);
+                }
+            }
+            return result;
+        }
+
+        private static long getCollectionCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(garbageCollector.getCollectionCount(), 0);
+            }
+            return count;
+        }
+
+        private static long getCollectionTime() {
+            long time = 0;
+            for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                time += Math.max(garbageCollector.getCollectionTime(), 0);
+            }
+            return time;
+        }
+    }
+}
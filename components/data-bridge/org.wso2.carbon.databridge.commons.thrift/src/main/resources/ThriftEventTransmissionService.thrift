@@ -8,5 +8,6 @@ service ThriftEventTransmissionService {
     string findStreamId (1: string sessionId, 2: string streamName, 3: string streamVersion) throws (1:Exception.ThriftNoStreamDefinitionExistException tnde,2:Exception.ThriftSessionExpiredException se ),
     void publish(1:Data.ThriftEventBundle eventBundle) throws (1:Exception.ThriftUndefinedEventTypeException ue,2:Exception.ThriftSessionExpiredException se),
     bool deleteStreamById(1: string sessionId, 2: string streamId) throws (1:Exception.ThriftSessionExpiredException se ),
-    bool deleteStreamByNameVersion(1: string sessionId, 2: string streamName, 3: string streamVersion) throws (1:Exception.ThriftSessionExpiredException se )
+    bool deleteStreamByNameVersion(1: string sessionId, 2: string streamName, 3: string streamVersion) throws (1:Exception.ThriftSessionExpiredException se ),
+    void ping()
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.json.JSONArray;
@@ -31,11 +33,16 @@ import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.StreamDefinition;
 import org.wso2.carbon.databridge.commons.exception.MalformedEventException;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Event Converter Utils
@@ -192,6 +199,180 @@ public class EventConverterUtils {
         return eventList;
     }
 
+    /**
+     * Converts a JSON array of events of the given stream in the same format as
+     * {@link #convertFromJson(String, String, StreamDefinition)}, but reads it with a pull parser instead of
+     * building a tree of the whole array.
+     *
+     * @param reader           Reader of the JSON array of events.
+     * @param streamId         StreamId for which the events belong to.
+     * @param streamDefinition Stream definition, whose attribute types are used to decode the attribute values.
+     * @return the converted events.
+     */
+    public static List<Event> convertFromJson(Reader reader, String streamId, StreamDefinition streamDefinition) {
+        final List<Event> eventList = new ArrayList<Event>();
+        convertFromJson(reader, streamId, streamDefinition, new Consumer<Event>() {
+            @Override
+            public void accept(Event event) {
+                eventList.add(event);
+            }
+        });
+        return eventList;
+    }
+
+    /**
+     * Converts a JSON array of events of the given stream with a pull parser, and hands over each event as soon as
+     * it is read, hence the memory used is bounded by a single event rather than by the size of the JSON.
+     * The attribute values are decoded straight into the types of the stream attributes, and the timeStamp and
+     * arbitraryDataMap of the events are read as well. Any error is reported with the line, column and JSON path
+     * at which it occurred.
+     *
+     * @param reader           Reader of the JSON array of events.
+     * @param streamId         StreamId for which the events belong to.
+     * @param streamDefinition Stream definition, whose attribute types are used to decode the attribute values.
+     * @param eventConsumer    Consumer of the converted events, which is called in the order of the events.
+     */
+    public static void convertFromJson(Reader reader, String streamId, StreamDefinition streamDefinition,
+                                       Consumer<Event> eventConsumer) {
+        if ((streamId == null || streamId.equals(""))) {
+            String errorMsg = "Stream name cannot be null or empty";
+            MalformedEventException malformedEventException = new MalformedEventException();
+            if (log.isDebugEnabled()) {
+                log.error(errorMsg, malformedEventException);
+            } else {
+                log.error(errorMsg);
+            }
+            throw malformedEventException;
+        }
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                eventConsumer.accept(readEvent(jsonReader, streamId, streamDefinition));
+            }
+            jsonReader.endArray();
+            if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                throw createMalformedEventException("Unexpected content after the event array", jsonReader, null);
+            }
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw createMalformedEventException(e.getMessage(), jsonReader, e);
+        }
+    }
+
+    private static Event readEvent(JsonReader jsonReader, String streamId, StreamDefinition streamDefinition)
+            throws IOException {
+        Event event = new Event();
+        event.setStreamId(streamId);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String key = jsonReader.nextName();
+            JsonToken token = jsonReader.peek();
+            List<Attribute> attributeList = streamDefinition.getAttributeListForKey(key);
+            if (attributeList != null && token == JsonToken.BEGIN_ARRAY) {
+                event.setData(key, readAttributeValues(jsonReader, attributeList));
+            } else if (key.equals("timeStamp") && token == JsonToken.NUMBER) {
+                event.setTimeStamp(jsonReader.nextLong());
+            } else if (key.equals("arbitraryDataMap") && token == JsonToken.BEGIN_OBJECT) {
+                Map<String, String> arbitraryDataMap = new HashMap<String, String>();
+                jsonReader.beginObject();
+                while (jsonReader.hasNext()) {
+                    String name = jsonReader.nextName();
+                    if (jsonReader.peek() == JsonToken.NULL) {
+                        jsonReader.nextNull();
+                        arbitraryDataMap.put(name, null);
+                    } else {
+                        arbitraryDataMap.put(name, jsonReader.nextString());
+                    }
+                }
+                jsonReader.endObject();
+                event.setArbitraryDataMap(arbitraryDataMap);
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return event;
+    }
+
+    private static Object[] readAttributeValues(JsonReader jsonReader, List<Attribute> attributeList)
+            throws IOException {
+        Object[] values = new Object[attributeList.size()];
+        int pos = 0;
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            if (pos == values.length) {
+                throw createMalformedEventException("More values than the " + values.length
+                        + " attributes defined in the stream", jsonReader, null);
+            }
+            values[pos] = readValue(jsonReader, attributeList.get(pos));
+            pos++;
+        }
+        jsonReader.endArray();
+        return pos == values.length ? values : Arrays.copyOf(values, pos);
+    }
+
+    private static Object readValue(JsonReader jsonReader, Attribute attribute) throws IOException {
+        JsonToken token = jsonReader.peek();
+        if (token == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        try {
+            switch (attribute.getType()) {
+                case BOOL: {
+                    if (token == JsonToken.BOOLEAN) {
+                        return jsonReader.nextBoolean();
+                    }
+                    return Boolean.parseBoolean(jsonReader.nextString());
+                }
+                case INT: {
+                    return jsonReader.nextInt();
+                }
+                case DOUBLE: {
+                    return jsonReader.nextDouble();
+                }
+                case FLOAT: {
+                    return (float) jsonReader.nextDouble();
+                }
+                case LONG: {
+                    return jsonReader.nextLong();
+                }
+                case STRING: {
+                    if (token == JsonToken.BOOLEAN) {
+                        return String.valueOf(jsonReader.nextBoolean());
+                    }
+                    return jsonReader.nextString();
+                }
+            }
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw createMalformedEventException("Invalid " + attribute.getType() + " value for attribute '"
+                    + attribute.getName() + "'", jsonReader, e);
+        }
+        jsonReader.skipValue();
+        return "";
+    }
+
+    private static MalformedEventException createMalformedEventException(String message, JsonReader jsonReader,
+                                                                         Exception cause) {
+        String errorMsg = "Error converting JSON to event " + getLocation(jsonReader) + " : " + message;
+        MalformedEventException malformedEventException = new MalformedEventException(errorMsg, cause);
+        if (log.isDebugEnabled()) {
+            log.error(errorMsg, malformedEventException);
+        } else {
+            log.error(errorMsg);
+        }
+        return malformedEventException;
+    }
+
+    /**
+     * @return the line, column and JSON path the reader is positioned at, e.g. at line 3 column 25 path $[0].metaData
+     */
+    private static String getLocation(JsonReader jsonReader) {
+        String location = jsonReader.toString();
+        int index = location.indexOf("at line ");
+        return index < 0 ? "at path " + jsonReader.getPath() : location.substring(index);
+    }
+
     public static Object getValue(String val, AttributeType attributeType) {
         switch (attributeType) {
         case BOOL: {
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.databridge.commons;
+
+import org.wso2.carbon.databridge.commons.utils.EventConverterUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares the peak heap usage and the throughput of converting a JSON event file with the tree based
+ * {@link EventConverterUtils#convertFromJson(String, String, StreamDefinition)} and the streaming
+ * {@link EventConverterUtils#convertFromJson(Reader, String, StreamDefinition, Consumer)}. This is not part of the
+ * test suite, run it with the test classpath and enough heap for the tree based conversion as,
+ * java -Xmx4g org.wso2.carbon.databridge.commons.EventConversionBenchmark [file size in MB] [iterations]
+ */
+public class EventConversionBenchmark {
+    private static final String STREAM_ID = "org.wso2.esb.MediatorStatistics:1.0.0";
+
+    public static void main(String[] args) throws Exception {
+        int fileSizeMB = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        StreamDefinition streamDefinition = new StreamDefinition("org.wso2.esb.MediatorStatistics", "1.0.0");
+        List<Attribute> meta = new ArrayList<Attribute>(1);
+        meta.add(new Attribute("ipAdd", AttributeType.STRING));
+        streamDefinition.setMetaData(meta);
+        List<Attribute> payload = new ArrayList<Attribute>(5);
+        payload.add(new Attribute("symbol", AttributeType.STRING));
+        payload.add(new Attribute("price", AttributeType.DOUBLE));
+        payload.add(new Attribute("volume", AttributeType.INT));
+        payload.add(new Attribute("max", AttributeType.DOUBLE));
+        payload.add(new Attribute("min", AttributeType.DOUBLE));
+        streamDefinition.setPayloadData(payload);
+
+        File eventFile = File.createTempFile("events", ".json");
+        eventFile.deleteOnExit();
+        int numberOfEvents = writeEventFile(eventFile, fileSizeMB * 1024L * 1024L);
+        System.out.println("Converting " + numberOfEvents + " events of " + eventFile.length() / (1024 * 1024)
+                + " MB");
+
+        for (int i = 0; i < iterations; i++) {
+            System.out.println("Iteration " + i + " : tree " + runTreeConversion(eventFile, streamDefinition)
+                    + ", streaming " + runStreamingConversion(eventFile, streamDefinition));
+        }
+    }
+
+    private static int writeEventFile(File eventFile, long fileSize) throws IOException {
+        int numberOfEvents = 0;
+        long size = 0;
+        try (Writer writer = Files.newBufferedWriter(eventFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            while (size < fileSize) {
+                String event = (numberOfEvents == 0 ? "" : ",\n") + "{\"metaData\":[\"10.100.0."
+                        + numberOfEvents % 255 + "\"],\"payloadData\":[\"WSO2-" + numberOfEvents % 1000 + "\","
+                        + (100.0 + numberOfEvents % 97) + "," + numberOfEvents + ",12.4,1.3],\"timeStamp\":"
+                        + (1312345432000L + numberOfEvents) + "}";
+                writer.write(event);
+                size += event.length();
+                numberOfEvents++;
+            }
+            writer.write("\n]");
+        }
+        return numberOfEvents;
+    }
+
+    private static String runTreeConversion(File eventFile, StreamDefinition streamDefinition) throws IOException {
+        Measurement measurement = new Measurement();
+        String json = new String(Files.readAllBytes(eventFile.toPath()), StandardCharsets.UTF_8);
+        List<Event> events = EventConverterUtils.convertFromJson(json, STREAM_ID, streamDefinition);
+        return measurement.finish(events.size());
+    }
+
+    private static String runStreamingConversion(File eventFile, StreamDefinition streamDefinition)
+            throws IOException {
+        Measurement measurement = new Measurement();
+        final long[] count = new long[1];
+        try (Reader reader = Files.newBufferedReader(eventFile.toPath(), StandardCharsets.UTF_8)) {
+            EventConverterUtils.convertFromJson(reader, STREAM_ID, streamDefinition, new Consumer<Event>() {
+                @Override
+                public void accept(Event event) {
+                    count[0]++;
+                }
+            });
+        }
+        return measurement.finish(count[0]);
+    }
+
+    /**
+     * Measures the time and the peak heap usage from its creation, where the peak is the sum of the peaks of the
+     * heap memory pools, hence it is an upper bound of the actual peak.
+     */
+    private static class Measurement {
+        private final long startTime;
+
+        private Measurement() {
+            System.gc();
+            for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (memoryPool.getType() == MemoryType.HEAP) {
+                    memoryPool.resetPeakUsage();
+                }
+            }
+            startTime = System.nanoTime();
+        }
+
+        private String finish(long numberOfEvents) {
+            long time = System.nanoTime() - startTime;
+            long peakHeap = 0;
+            for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (memoryPool.getType() == MemoryType.HEAP) {
+                    peakHeap += memoryPool.getPeakUsage().getUsed();
+                }
+            }
+            return "[" + numberOfEvents * TimeUnit.SECONDS.toNanos(1) / Math.max(time, 1) + " events/sec, peak heap "
+                    + peakHeap / (1024 * 1024) + " MB]";
+        }
+    }
+}
@@ -20,8 +20,10 @@ package org.wso2.carbon.databridge.commons;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.wso2.carbon.databridge.commons.exception.MalformedEventException;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
 import org.wso2.carbon.databridge.commons.utils.EventConverterUtils;
 
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -141,6 +143,75 @@ public class EventConversionTest {
         }*/
     }
 
+    private StreamDefinition createStockStreamDefinition() throws MalformedStreamDefinitionException {
+        StreamDefinition streamDefinition = new StreamDefinition("stock", "1.0.0");
+        List<Attribute> meta = new ArrayList<Attribute>(1);
+        meta.add(new Attribute("ipAdd", AttributeType.STRING));
+        streamDefinition.setMetaData(meta);
+        List<Attribute> payload = new ArrayList<Attribute>(5);
+        payload.add(new Attribute("symbol", AttributeType.STRING));
+        payload.add(new Attribute("price", AttributeType.DOUBLE));
+        payload.add(new Attribute("volume", AttributeType.INT));
+        payload.add(new Attribute("isBuy", AttributeType.BOOL));
+        payload.add(new Attribute("time", AttributeType.LONG));
+        streamDefinition.setPayloadData(payload);
+        return streamDefinition;
+    }
+
+    @Test
+    public void testStreamingConversion() throws MalformedStreamDefinitionException {
+        String json = "[\n"
+                + "  {\"metaData\" : [\"127.0.0.1\"], \"payloadData\" : [\"IBM\", 26.5, 848, true, 1312345432001],\n"
+                + "   \"timeStamp\" : 1312345432, \"arbitraryDataMap\" : {\"source\" : \"rest\"}},\n"
+                + "  {\"streamId\" : \"bar::2.1.0\", \"tags\" : {\"ignored\" : [1, 2]},\n"
+                + "   \"payloadData\" : [\"MSFT\", \"22\", \"233\", \"false\", null]}\n"
+                + "]";
+        String streamId = "stock:1.0.0";
+        List<Event> eventList = EventConverterUtils.convertFromJson(new StringReader(json), streamId,
+                createStockStreamDefinition());
+        Assert.assertEquals(eventList.size(), 2);
+
+        Event event = eventList.get(0);
+        Assert.assertEquals(event.getStreamId(), streamId);
+        Assert.assertEquals(event.getTimeStamp(), 1312345432);
+        Assert.assertEquals(event.getMetaData(), new Object[]{"127.0.0.1"});
+        Assert.assertEquals(event.getPayloadData(), new Object[]{"IBM", 26.5, 848, true, 1312345432001L});
+        Assert.assertEquals(event.getArbitraryDataMap().get("source"), "rest");
+
+        event = eventList.get(1);
+        Assert.assertEquals(event.getStreamId(), streamId);
+        Assert.assertNull(event.getMetaData());
+        Assert.assertEquals(event.getPayloadData(), new Object[]{"MSFT", 22.0, 233, false, null});
+    }
+
+    @Test
+    public void testStreamingConversionErrorPosition() throws MalformedStreamDefinitionException {
+        String json = "[\n"
+                + "  {\"payloadData\" : [\"IBM\", 26.5, 848, true, 1]},\n"
+                + "  {\"payloadData\" : [\"MSFT\", 22.0, \"many\", false, 2]}\n"
+                + "]";
+        try {
+            EventConverterUtils.convertFromJson(new StringReader(json), "stock:1.0.0", createStockStreamDefinition());
+            Assert.fail("Invalid INT value was converted");
+        } catch (MalformedEventException e) {
+            Assert.assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("$[1].payloadData[2]"), e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("volume"), e.getMessage());
+        }
+    }
+
+    @Test(expectedExceptions = MalformedEventException.class)
+    public void testStreamingConversionWithExtraValues() throws MalformedStreamDefinitionException {
+        String json = "[{\"payloadData\" : [\"IBM\", 26.5, 848, true, 1, \"extra\"]}]";
+        EventConverterUtils.convertFromJson(new StringReader(json), "stock:1.0.0", createStockStreamDefinition());
+    }
+
+    @Test(expectedExceptions = MalformedEventException.class)
+    public void testStreamingConversionOfTruncatedJson() throws MalformedStreamDefinitionException {
+        String json = "[{\"payloadData\" : [\"IBM\", 26.5, 848";
+        EventConverterUtils.convertFromJson(new StringReader(json), "stock:1.0.0", createStockStreamDefinition());
+    }
+
     @Test
     public void testEventEquality() {
         Event event1 = new Event();
@@ -0,0 +1,88 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latencies recorded concurrently by the receiver threads into a pre-sized array, from which the exact percentiles
+ * are computed once the run is over. Samples beyond the capacity are counted but not kept, which can only happen
+ * when more events are received than were published.
+ */
+public class LatencySamples {
+    private final long[] samples;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public LatencySamples(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long latencyNanos) {
+        int index = count.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = latencyNanos;
+        }
+    }
+
+    public void reset() {
+        count.set(0);
+    }
+
+    /**
+     * Returns a sorted copy of the recorded samples, which should be taken only after the receivers are idle.
+     */
+    public Snapshot getSnapshot() {
+        long[] sorted = Arrays.copyOf(samples, Math.min(count.get(), samples.length));
+        Arrays.sort(sorted);
+        return new Snapshot(sorted);
+    }
+
+    /**
+     * Sorted latencies of a run.
+     */
+    public static class Snapshot {
+        private final long[] sorted;
+
+        Snapshot(long[] sorted) {
+            this.sorted = sorted;
+        }
+
+        public int size() {
+            return sorted.length;
+        }
+
+        /**
+         * @param percentile percentile between 0 and 100.
+         * @return the smallest latency in nanoseconds which is at least as large as the given percentage of samples,
+         * or 0 if there are no samples.
+         */
+        public long getPercentile(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            // The epsilon keeps a rank which is a whole number in decimal from being rounded up by the binary error.
+            int rank = (int) Math.ceil(percentile * sorted.length / 100 - 1e-9);
+            return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+        }
+
+        public long getMax() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.loadtest;
+
+import org.wso2.carbon.databridge.agent.AgentHolder;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.AttributeType;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.StreamDefinition;
+import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes events from a number of data publishers of each agent type to in-process binary and thrift receivers,
+ * and reports the sustained throughput and the end-to-end latency percentiles. The publishers of a type alternate
+ * between a load balancing and a failover group of all the receivers of the type, and publish as fast as the agent
+ * accepts the events. A warm up run is done before the measured run. It needs no external services, and it is run
+ * by mvn -Pload-test verify, or with the module classpath as,
+ * java -Dloadtest.publishers=4 -Dloadtest.events=250000 org.wso2.carbon.databridge.loadtest.LoadTestHarness
+ * The key stores are read from loadtest.workDir, where the build copies the test key stores of the data bridge
+ * agent. The run fails if the receivers do not receive all the events within loadtest.timeoutSeconds.
+ */
+public class LoadTestHarness {
+    private static final String STREAM_NAME = "org.wso2.loadtest.StockQuote";
+    private static final String VERSION = "1.0.0";
+    private static final String USER_NAME = "admin";
+    private static final int RECEIVERS_PER_TRANSPORT = 2;
+
+    public static void main(String[] args) throws Exception {
+        int publishersPerTransport = Integer.getInteger("loadtest.publishers", 4);
+        int eventsPerPublisher = Integer.getInteger("loadtest.events", 250000);
+        int warmupEventsPerPublisher = Integer.getInteger("loadtest.warmupEvents", 50000);
+        String[] transports = System.getProperty("loadtest.transports", "Binary,Thrift").split(",");
+        long timeoutSeconds = Long.getLong("loadtest.timeoutSeconds", 300);
+        File workDir = new File(System.getProperty("loadtest.workDir",
+                System.getProperty("java.io.tmpdir") + File.separator + "loadtest"));
+
+        String dataBridgeConfigPath = extractResource(workDir, "databridge.config.yaml");
+        System.setProperty("Security.KeyStore.Location", getKeyStore(workDir, "wso2carbon.jks"));
+        System.setProperty("Security.KeyStore.Password", "wso2carbon");
+        System.setProperty("javax.net.ssl.trustStore", getKeyStore(workDir, "client-truststore.jks"));
+        System.setProperty("javax.net.ssl.trustStorePassword", "wso2carbon");
+        AgentHolder.setConfigPath(extractResource(workDir, "data.agent.config.yaml"));
+
+        int numberOfPublishers = publishersPerTransport * transports.length;
+        LoadTestReceivers receivers = new LoadTestReceivers(numberOfPublishers
+                * Math.max(eventsPerPublisher, warmupEventsPerPublisher));
+        receivers.start(dataBridgeConfigPath, RECEIVERS_PER_TRANSPORT);
+        receivers.addStreamDefinition(getStreamDefinition());
+
+        List<DataPublisher> dataPublishers = new ArrayList<>(numberOfPublishers);
+        for (String transport : transports) {
+            for (int i = 0; i < publishersPerTransport; i++) {
+                String[] urlSets = receivers.getURLSets(transport.trim(), i % 2 == 1);
+                dataPublishers.add(new DataPublisher(transport.trim(), urlSets[0], urlSets[1], USER_NAME,
+                        USER_NAME));
+            }
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfPublishers);
+        try {
+            run(dataPublishers, executorService, receivers, warmupEventsPerPublisher, timeoutSeconds);
+            long elapsedNanos = run(dataPublishers, executorService, receivers, eventsPerPublisher, timeoutSeconds);
+            report(transports, publishersPerTransport, (long) numberOfPublishers * eventsPerPublisher, elapsedNanos,
+                    receivers.getLatencySamples().getSnapshot());
+        } finally {
+            executorService.shutdownNow();
+            for (DataPublisher dataPublisher : dataPublishers) {
+                dataPublisher.shutdown();
+            }
+            AgentHolder.shutdown();
+            receivers.stop();
+        }
+    }
+
+    /**
+     * Publishes the events from all the publishers at once, and waits until all of them are received.
+     *
+     * @return the time from the start of publishing until the last event is received, in nanoseconds.
+     */
+    private static long run(List<DataPublisher> dataPublishers, ExecutorService executorService,
+                            LoadTestReceivers receivers, final int eventsPerPublisher, long timeoutSeconds)
+            throws Exception {
+        receivers.reset();
+        final String streamId = DataBridgeCommonsUtils.generateStreamId(STREAM_NAME, VERSION);
+        long expectedEvents = (long) dataPublishers.size() * eventsPerPublisher;
+        long startTimeNanos = System.nanoTime();
+        long deadlineNanos = startTimeNanos + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+
+        List<Future<?>> publishFutures = new ArrayList<>(dataPublishers.size());
+        for (final DataPublisher dataPublisher : dataPublishers) {
+            publishFutures.add(executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < eventsPerPublisher; i++) {
+                        dataPublisher.publish(new Event(streamId, System.currentTimeMillis(),
+                                new Object[]{"127.0.0.1"}, null, new Object[]{System.nanoTime(), "WSO2", 123.4, i}));
+                    }
+                }
+            }));
+        }
+        for (Future<?> publishFuture : publishFutures) {
+            publishFuture.get(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        }
+        while (receivers.getNumberOfEventsReceived() < expectedEvents) {
+            if (System.nanoTime() > deadlineNanos) {
+                throw new TimeoutException("Only " + receivers.getNumberOfEventsReceived() + " of " + expectedEvents
+                        + " events were received within " + timeoutSeconds + " seconds");
+            }
+            Thread.sleep(1);
+        }
+        return receivers.getLastReceiveTimeNanos() - startTimeNanos;
+    }
+
+    private static void report(String[] transports, int publishersPerTransport, long numberOfEvents,
+                               long elapsedNanos, LatencySamples.Snapshot latencies) {
+        System.out.println("Load test of " + publishersPerTransport + " publishers each of "
+                + String.join(",", transports) + " to " + RECEIVERS_PER_TRANSPORT + " receivers each");
+        System.out.println("  events          : " + numberOfEvents);
+        System.out.println("  elapsed (ms)    : " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        System.out.println("  throughput      : " + numberOfEvents * TimeUnit.SECONDS.toNanos(1)
+                / Math.max(elapsedNanos, 1) + " events/sec");
+        System.out.println("  latency p50 (us): " + toMicros(latencies.getPercentile(50)));
+        System.out.println("  latency p99 (us): " + toMicros(latencies.getPercentile(99)));
+        System.out.println("  latency p999(us): " + toMicros(latencies.getPercentile(99.9)));
+        System.out.println("  latency max (us): " + toMicros(latencies.getMax()));
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static StreamDefinition getStreamDefinition() throws Exception {
+        StreamDefinition streamDefinition = new StreamDefinition(STREAM_NAME, VERSION);
+        streamDefinition.addMetaData("ipAdd", AttributeType.STRING);
+        streamDefinition.addPayloadData("sendTimeNanos", AttributeType.LONG);
+        streamDefinition.addPayloadData("symbol", AttributeType.STRING);
+        streamDefinition.addPayloadData("price", AttributeType.DOUBLE);
+        streamDefinition.addPayloadData("sequence", AttributeType.INT);
+        return streamDefinition;
+    }
+
+    private static String getKeyStore(File workDir, String keyStoreName) throws IOException {
+        File file = new File(workDir, keyStoreName);
+        if (!file.isFile()) {
+            throw new IOException("Key store " + file.getAbsolutePath() + " is not found, copy the test key stores "
+                    + "of the data bridge agent into the load test work directory");
+        }
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * Copies a resource of the harness into the work directory, since the agent and the data bridge are configured
+     * with file paths.
+     */
+    private static String extractResource(File workDir, String resourceName) throws IOException {
+        if (!workDir.exists() && !workDir.mkdirs()) {
+            throw new IOException("Cannot create the load test work directory " + workDir.getAbsolutePath());
+        }
+        File file = new File(workDir, resourceName);
+        try (InputStream inputStream = LoadTestHarness.class.getClassLoader().getResourceAsStream(resourceName)) {
+            if (inputStream == null) {
+                throw new IOException("Resource " + resourceName + " is not found in the classpath");
+            }
+            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file.getAbsolutePath();
+    }
+}
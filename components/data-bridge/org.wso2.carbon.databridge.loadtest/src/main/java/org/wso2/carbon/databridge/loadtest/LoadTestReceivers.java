@@ -0,0 +1,186 @@
+/*
+*  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.wso2.carbon.databridge.loadtest;
+
+import org.apache.log4j.Logger;
+import org.wso2.carbon.databridge.commons.Credentials;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.StreamDefinition;
+import org.wso2.carbon.databridge.core.AgentCallback;
+import org.wso2.carbon.databridge.core.DataBridge;
+import org.wso2.carbon.databridge.core.Utils.AgentSession;
+import org.wso2.carbon.databridge.core.definitionstore.InMemoryStreamDefinitionStore;
+import org.wso2.carbon.databridge.core.exception.DataBridgeException;
+import org.wso2.carbon.databridge.core.exception.StreamDefinitionStoreException;
+import org.wso2.carbon.databridge.core.internal.authentication.AuthenticationHandler;
+import org.wso2.carbon.databridge.receiver.binary.conf.BinaryDataReceiverConfiguration;
+import org.wso2.carbon.databridge.receiver.binary.internal.BinaryDataReceiver;
+import org.wso2.carbon.databridge.receiver.thrift.ThriftDataReceiver;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary and thrift receivers of a single data bridge, started on ephemeral ports of the loopback interface. The
+ * receivers count the received events and record the end-to-end latency of each event from the send time in
+ * nanoseconds, which the publishers embed as the first payload attribute. As the publishers and the receivers run
+ * in the same JVM, the send time and the receive time are read from the same clock.
+ */
+public class LoadTestReceivers {
+    public static final String HOST_NAME = "localhost";
+
+    private static final Logger log = Logger.getLogger(LoadTestReceivers.class);
+
+    private final InMemoryStreamDefinitionStore streamDefinitionStore = new InMemoryStreamDefinitionStore();
+    private final List<BinaryDataReceiver> binaryDataReceivers = new ArrayList<>();
+    private final List<ThriftDataReceiver> thriftDataReceivers = new ArrayList<>();
+    private final List<int[]> binaryPorts = new ArrayList<>();
+    private final List<int[]> thriftPorts = new ArrayList<>();
+    private final AtomicLong numberOfEventsReceived = new AtomicLong();
+    private final LatencySamples latencySamples;
+    private volatile long lastReceiveTimeNanos;
+
+    public LoadTestReceivers(int latencySampleCapacity) {
+        this.latencySamples = new LatencySamples(latencySampleCapacity);
+    }
+
+    /**
+     * Starts the given number of binary and thrift receivers, each on a TCP and an SSL port picked by the OS.
+     */
+    public void start(String dataBridgeConfigPath, int receiversPerTransport) throws DataBridgeException, IOException {
+        DataBridge dataBridge = new DataBridge(new AuthenticationHandler() {
+            @Override
+            public boolean authenticate(String userName, String password) {
+                return true;
+            }
+
+            @Override
+            public void initContext(AgentSession agentSession) {
+            }
+
+            @Override
+            public void destroyContext(AgentSession agentSession) {
+            }
+        }, streamDefinitionStore, dataBridgeConfigPath);
+
+        dataBridge.subscribe(new AgentCallback() {
+            @Override
+            public void definedStream(StreamDefinition streamDefinition) {
+            }
+
+            @Override
+            public void removeStream(StreamDefinition streamDefinition) {
+            }
+
+            @Override
+            public void receive(List<Event> eventList, Credentials credentials) {
+                long receiveTimeNanos = System.nanoTime();
+                for (Event event : eventList) {
+                    latencySamples.record(receiveTimeNanos - (Long) event.getPayloadData()[0]);
+                }
+                lastReceiveTimeNanos = receiveTimeNanos;
+                numberOfEventsReceived.addAndGet(eventList.size());
+            }
+        });
+
+        for (int i = 0; i < receiversPerTransport; i++) {
+            int tcpPort = getFreePort();
+            int sslPort = getFreePort();
+            BinaryDataReceiver binaryDataReceiver = new BinaryDataReceiver(
+                    new BinaryDataReceiverConfiguration(sslPort, tcpPort), dataBridge);
+            binaryDataReceiver.start();
+            binaryDataReceivers.add(binaryDataReceiver);
+            binaryPorts.add(new int[]{tcpPort, sslPort});
+            log.info("Binary receiver started on tcp port " + tcpPort + " and ssl port " + sslPort);
+        }
+        for (int i = 0; i < receiversPerTransport; i++) {
+            int tcpPort = getFreePort();
+            int sslPort = getFreePort();
+            ThriftDataReceiver thriftDataReceiver = new ThriftDataReceiver(sslPort, tcpPort, dataBridge);
+            thriftDataReceiver.start(HOST_NAME);
+            thriftDataReceivers.add(thriftDataReceiver);
+            thriftPorts.add(new int[]{tcpPort, sslPort});
+            log.info("Thrift receiver started on tcp port " + tcpPort + " and ssl port " + sslPort);
+        }
+    }
+
+    public void addStreamDefinition(StreamDefinition streamDefinition) throws StreamDefinitionStoreException {
+        streamDefinitionStore.saveStreamDefinitionToStore(streamDefinition);
+    }
+
+    /**
+     * @param type     agent type of the receivers, either Binary or Thrift.
+     * @param failOver whether the receivers are grouped for failover, instead of load balancing.
+     * @return the receiver URL set and the authentication URL set of a group of all the receivers of the type.
+     */
+    public String[] getURLSets(String type, boolean failOver) {
+        List<int[]> ports = "Thrift".equalsIgnoreCase(type) ? thriftPorts : binaryPorts;
+        String separator = failOver ? "|" : ",";
+        StringBuilder receiverURLSet = new StringBuilder("{");
+        StringBuilder authURLSet = new StringBuilder("{");
+        for (int i = 0; i < ports.size(); i++) {
+            if (i > 0) {
+                receiverURLSet.append(separator);
+                authURLSet.append(separator);
+            }
+            receiverURLSet.append("tcp://").append(HOST_NAME).append(':').append(ports.get(i)[0]);
+            authURLSet.append("ssl://").append(HOST_NAME).append(':').append(ports.get(i)[1]);
+        }
+        return new String[]{receiverURLSet.append('}').toString(), authURLSet.append('}').toString()};
+    }
+
+    public long getNumberOfEventsReceived() {
+        return numberOfEventsReceived.get();
+    }
+
+    public long getLastReceiveTimeNanos() {
+        return lastReceiveTimeNanos;
+    }
+
+    public LatencySamples getLatencySamples() {
+        return latencySamples;
+    }
+
+    public void reset() {
+        numberOfEventsReceived.set(0);
+        latencySamples.reset();
+    }
+
+    public void stop() {
+        for (BinaryDataReceiver binaryDataReceiver : binaryDataReceivers) {
+            binaryDataReceiver.stop();
+        }
+        for (ThriftDataReceiver thriftDataReceiver : thriftDataReceivers) {
+            thriftDataReceiver.stop();
+        }
+    }
+
+    /**
+     * Picks a free port by binding to port 0. The port is released before the receiver binds to it, which is
+     * good enough on a host which is not opening other listeners at the same time.
+     */
+    private static int getFreePort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            serverSocket.setReuseAddress(true);
+            return serverSocket.getLocalPort();
+        }
+    }
+}
@@ -37,6 +37,9 @@ import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
 import static org.wso2.carbon.databridge.commons.binary.BinaryMessageConverterUtil.loadData;
@@ -50,26 +53,53 @@ public class BinaryDataReceiver {
     private BinaryDataReceiverConfiguration binaryDataReceiverConfiguration;
     private ExecutorService sslReceiverExecutorService;
     private ExecutorService tcpReceiverExecutorService;
+    private ServerSocket sslServerSocket;
+    private ServerSocket tcpServerSocket;
+    private final Set<Socket> openSockets = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
 
     public BinaryDataReceiver(BinaryDataReceiverConfiguration binaryDataReceiverConfiguration,
                               DataBridgeReceiverService dataBridgeReceiverService) {
         this.dataBridgeReceiverService = dataBridgeReceiverService;
         this.binaryDataReceiverConfiguration = binaryDataReceiverConfiguration;
+    }
+
+    public void start() throws IOException, DataBridgeException {
         this.sslReceiverExecutorService = new BinaryDataReceiverThreadPoolExecutor(binaryDataReceiverConfiguration.
                 getSizeOfSSLThreadPool(), "Receiver-Binary-SSL");
         this.tcpReceiverExecutorService = new BinaryDataReceiverThreadPoolExecutor(binaryDataReceiverConfiguration.
                 getSizeOfTCPThreadPool(), "Receiver-Binary-TCP");
-    }
-
-    public void start() throws IOException, DataBridgeException {
         startSecureTransmission();
         startEventTransmission();
     }
 
     public void stop() {
         log.info("Stopping Binary Server..");
-        sslReceiverExecutorService.shutdown();
-        tcpReceiverExecutorService.shutdown();
+        closeQuietly(sslServerSocket);
+        closeQuietly(tcpServerSocket);
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.warn("Error while closing the connection from " + socket.getRemoteSocketAddress(), e);
+            }
+        }
+        openSockets.clear();
+        if (sslReceiverExecutorService != null) {
+            sslReceiverExecutorService.shutdown();
+        }
+        if (tcpReceiverExecutorService != null) {
+            tcpReceiverExecutorService.shutdown();
+        }
+    }
+
+    private void closeQuietly(ServerSocket serverSocket) {
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                log.warn("Error while closing the server socket on port " + serverSocket.getLocalPort(), e);
+            }
+        }
     }
 
     private void startSecureTransmission() throws IOException, DataBridgeException {
@@ -123,6 +153,7 @@ public class BinaryDataReceiver {
             sslserversocket.setEnabledCipherSuites(sslserversocket.getSupportedCipherSuites());
         }
 
+        sslServerSocket = sslserversocket;
         Thread thread = new Thread(new BinarySecureEventServerAcceptor(sslserversocket));
         thread.start();
         log.info("Started Binary SSL Transport on port : " + binaryDataReceiverConfiguration.getSSLPort());
@@ -131,6 +162,7 @@ public class BinaryDataReceiver {
     private void startEventTransmission() throws IOException {
         ServerSocketFactory serversocketfactory = ServerSocketFactory.getDefault();
         ServerSocket serversocket = serversocketfactory.createServerSocket(binaryDataReceiverConfiguration.getTCPPort());
+        tcpServerSocket = serversocket;
         Thread thread = new Thread(new BinaryEventServerAcceptor(serversocket));
         thread.start();
         log.info("Started Binary TCP Transport on port : " + binaryDataReceiverConfiguration.getTCPPort());
@@ -199,6 +231,14 @@ public class BinaryDataReceiver {
                     }
                 }
                 break;
+            case 3: //Ping
+                try {
+                    outputStream.write((byte) 0);
+                    outputStream.flush();
+                } catch (IOException e) {
+                    log.error("Error while sending response for ping message: " + e.getMessage(), e);
+                }
+                break;
             default:
                 log.error("Message Type " + messageType + " is not supported!");
         }
@@ -230,12 +270,15 @@ public class BinaryDataReceiver {
 
         @Override
         public void run() {
-            while (true) {
+            while (!serverSocket.isClosed()) {
                 try {
                     Socket socket = this.serverSocket.accept();
+                    openSockets.add(socket);
                     sslReceiverExecutorService.submit(new BinaryTransportReceiver(socket));
                 } catch (IOException e) {
-                    log.error("Error while accepting the connection. ", e);
+                    if (!serverSocket.isClosed()) {
+                        log.error("Error while accepting the connection. ", e);
+                    }
                 }
             }
         }
@@ -250,12 +293,15 @@ public class BinaryDataReceiver {
 
         @Override
         public void run() {
-            while (true) {
+            while (!serverSocket.isClosed()) {
                 try {
                     Socket socket = this.serverSocket.accept();
+                    openSockets.add(socket);
                     tcpReceiverExecutorService.submit(new BinaryTransportReceiver(socket));
                 } catch (IOException e) {
-                    log.error("Error while accepting the connection. ", e);
+                    if (!serverSocket.isClosed()) {
+                        log.error("Error while accepting the connection. ", e);
+                    }
                 }
             }
         }
@@ -281,7 +327,11 @@ public class BinaryDataReceiver {
                     messageType = inputstream.read();
                 }
             } catch (IOException ex) {
-                log.error("Error while reading from the socket. ", ex);
+                if (openSockets.contains(socket)) {
+                    log.error("Error while reading from the socket. ", ex);
+                }
+            } finally {
+                openSockets.remove(socket);
             }
         }
     }
@@ -112,4 +112,9 @@ public class ThriftEventTransmissionServiceImpl implements
             throw new ThriftSessionExpiredException(e.getErrorMessage());
         }
     }
+
+    @Override
+    public void ping() throws TException {
+        // Heartbeat from publishers, nothing to process.
+    }
 }
@@ -131,4 +131,9 @@ public class ThriftSecureEventTransmissionServiceImpl
             throw new ThriftSessionExpiredException(e.getErrorMessage());
         }
     }
+
+    @Override
+    public void ping() throws TException {
+        // Heartbeat from publishers, nothing to process.
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.codec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.databridge.agent.endpoint.binary.BinaryEventSender;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.core.StreamTypeHolder;
+import org.wso2.carbon.databridge.receiver.binary.BinaryEventConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding a batch of events into a binary publish message with {@link BinaryEventSender}, and decoding
+ * the message with the {@link BinaryEventConverter} of the binary receiver. The sender writes to the output stream of
+ * a socket, which is captured in memory, so that no network cost is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+    private static final String SESSION_ID = "benchmark-session";
+
+    /**
+     * Type and size of the message, which are read by the receiver before the message is handed to the converter.
+     */
+    private static final int MESSAGE_HEADER_SIZE = 5;
+
+    @Param
+    private StreamShape shape;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private List<Event> events;
+
+    private CapturingSocket socket;
+
+    private byte[] message;
+
+    private StreamTypeHolder streamTypeHolder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        events = shape.createEvents(batchSize);
+        socket = new CapturingSocket();
+        BinaryEventSender.sendBinaryPublishMessage(socket, events, SESSION_ID);
+        byte[] publishMessage = socket.getCapturedBytes();
+        message = Arrays.copyOfRange(publishMessage, MESSAGE_HEADER_SIZE, publishMessage.length);
+        streamTypeHolder = new StreamTypeHolder();
+        streamTypeHolder.putStreamDefinition(shape.getStreamDefinition());
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        BinaryEventSender.sendBinaryPublishMessage(socket, events, SESSION_ID);
+        return socket.getCapturedBytes();
+    }
+
+    @Benchmark
+    public List<Event> decode() {
+        return BinaryEventConverter.getConverter().toEventList(message, streamTypeHolder);
+    }
+
+    /**
+     * Unconnected socket whose output stream writes into a buffer, which is reset whenever the stream is obtained.
+     */
+    private static final class CapturingSocket extends Socket {
+        private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getOutputStream() {
+            outputStream.reset();
+            return outputStream;
+        }
+
+        byte[] getCapturedBytes() {
+            return outputStream.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.codec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.StreamDefinition;
+import org.wso2.carbon.databridge.commons.utils.EventConverterUtils;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks decoding a JSON array of events with the tree based
+ * {@link EventConverterUtils#convertFromJson(String, String, StreamDefinition)} and the streaming
+ * {@link EventConverterUtils#convertFromJson(java.io.Reader, String, StreamDefinition)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param
+    private StreamShape shape;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private String json;
+
+    private StreamDefinition streamDefinition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = StreamShape.toJson(shape.createEvents(batchSize));
+        streamDefinition = shape.getStreamDefinition();
+    }
+
+    @Benchmark
+    public List<Event> decodeTree() {
+        return EventConverterUtils.convertFromJson(json, shape.getStreamId(), streamDefinition);
+    }
+
+    @Benchmark
+    public List<Event> decodeStreaming() {
+        return EventConverterUtils.convertFromJson(new StringReader(json), shape.getStreamId(), streamDefinition);
+    }
+}
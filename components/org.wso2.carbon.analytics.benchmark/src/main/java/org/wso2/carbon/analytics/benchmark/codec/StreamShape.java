@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.codec;
+
+import org.wso2.carbon.databridge.commons.AttributeType;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.StreamDefinition;
+import org.wso2.carbon.databridge.commons.exception.MalformedStreamDefinitionException;
+import org.wso2.carbon.tcp.transport.SiddhiEventComposite;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shapes of the streams the codecs are benchmarked with. The events of a shape are generated deterministically, so
+ * that every codec and every run encodes the same bytes. The tcp-transport carries a flat attribute array without
+ * arbitrary data, hence its events hold the meta, correlation and payload attributes in that order.
+ */
+public enum StreamShape {
+
+    /**
+     * A handful of numeric attributes, where the cost is dominated by the per event overhead of the codec.
+     */
+    NARROW_NUMERIC(new AttributeType[]{AttributeType.LONG},
+            new AttributeType[0],
+            new AttributeType[]{AttributeType.INT, AttributeType.LONG, AttributeType.FLOAT, AttributeType.DOUBLE,
+                    AttributeType.BOOL},
+            0),
+
+    /**
+     * Many string attributes, where the cost is dominated by encoding and decoding the characters.
+     */
+    WIDE_STRING(new AttributeType[]{AttributeType.STRING, AttributeType.STRING},
+            new AttributeType[]{AttributeType.STRING},
+            repeat(AttributeType.STRING, 16),
+            0),
+
+    /**
+     * Mixed attributes along with a map of arbitrary data, which is encoded as string pairs by the codecs.
+     */
+    ARBITRARY_DATA(new AttributeType[]{AttributeType.STRING},
+            new AttributeType[0],
+            new AttributeType[]{AttributeType.STRING, AttributeType.DOUBLE, AttributeType.INT},
+            8);
+
+    private static final String STREAM_VERSION = "1.0.0";
+
+    private static final int STRING_LENGTH = 32;
+
+    private final AttributeType[] metaTypes;
+
+    private final AttributeType[] correlationTypes;
+
+    private final AttributeType[] payloadTypes;
+
+    private final int arbitraryDataSize;
+
+    StreamShape(AttributeType[] metaTypes, AttributeType[] correlationTypes, AttributeType[] payloadTypes,
+                int arbitraryDataSize) {
+        this.metaTypes = metaTypes;
+        this.correlationTypes = correlationTypes;
+        this.payloadTypes = payloadTypes;
+        this.arbitraryDataSize = arbitraryDataSize;
+    }
+
+    public String getStreamName() {
+        return "benchmark." + name().toLowerCase();
+    }
+
+    public String getStreamId() {
+        return getStreamName() + ":" + STREAM_VERSION;
+    }
+
+    public boolean hasArbitraryData() {
+        return arbitraryDataSize > 0;
+    }
+
+    public StreamDefinition getStreamDefinition() {
+        StreamDefinition streamDefinition;
+        try {
+            streamDefinition = new StreamDefinition(getStreamName(), STREAM_VERSION);
+        } catch (MalformedStreamDefinitionException e) {
+            throw new IllegalStateException("Invalid definition of the " + name() + " stream", e);
+        }
+        for (int i = 0; i < metaTypes.length; i++) {
+            streamDefinition.addMetaData("meta" + i, metaTypes[i]);
+        }
+        for (int i = 0; i < correlationTypes.length; i++) {
+            streamDefinition.addCorrelationData("correlation" + i, correlationTypes[i]);
+        }
+        for (int i = 0; i < payloadTypes.length; i++) {
+            streamDefinition.addPayloadData("payload" + i, payloadTypes[i]);
+        }
+        return streamDefinition;
+    }
+
+    /**
+     * @return the Siddhi definition of the stream as defined on the tcp-transport, whose attributes are the meta,
+     * correlation and payload attributes of the databridge definition.
+     */
+    public org.wso2.siddhi.query.api.definition.StreamDefinition getSiddhiStreamDefinition() {
+        org.wso2.siddhi.query.api.definition.StreamDefinition streamDefinition =
+                org.wso2.siddhi.query.api.definition.StreamDefinition.id(getStreamId());
+        for (int i = 0; i < metaTypes.length; i++) {
+            streamDefinition.attribute("meta" + i, toSiddhiType(metaTypes[i]));
+        }
+        for (int i = 0; i < correlationTypes.length; i++) {
+            streamDefinition.attribute("correlation" + i, toSiddhiType(correlationTypes[i]));
+        }
+        for (int i = 0; i < payloadTypes.length; i++) {
+            streamDefinition.attribute("payload" + i, toSiddhiType(payloadTypes[i]));
+        }
+        return streamDefinition;
+    }
+
+    public List<Event> createEvents(int batchSize) {
+        List<Event> events = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Map<String, String> arbitraryDataMap = null;
+            if (hasArbitraryData()) {
+                arbitraryDataMap = new HashMap<>();
+                for (int j = 0; j < arbitraryDataSize; j++) {
+                    arbitraryDataMap.put("key" + j, (String) createValue(AttributeType.STRING, i + j));
+                }
+            }
+            events.add(new Event(getStreamId(), 1500000000000L + i, createValues(metaTypes, i),
+                    createValues(correlationTypes, i), createValues(payloadTypes, i), arbitraryDataMap));
+        }
+        return events;
+    }
+
+    public List<SiddhiEventComposite> createSiddhiEvents(int batchSize) {
+        List<SiddhiEventComposite> events = new ArrayList<>(batchSize);
+        for (Event event : createEvents(batchSize)) {
+            Object[] data = new Object[metaTypes.length + correlationTypes.length + payloadTypes.length];
+            int index = copy(event.getMetaData(), data, 0);
+            index = copy(event.getCorrelationData(), data, index);
+            copy(event.getPayloadData(), data, index);
+            org.wso2.siddhi.core.event.Event siddhiEvent = new org.wso2.siddhi.core.event.Event();
+            siddhiEvent.setTimestamp(event.getTimeStamp());
+            siddhiEvent.setData(data);
+            events.add(new SiddhiEventComposite(siddhiEvent, getStreamId()));
+        }
+        return events;
+    }
+
+    /**
+     * @return the events as a JSON array in the format read by
+     * {@link org.wso2.carbon.databridge.commons.utils.EventConverterUtils#convertFromJson(String, String,
+     * StreamDefinition)}.
+     */
+    public static String toJson(List<Event> events) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"metaData\":");
+            appendArray(json, event.getMetaData());
+            json.append(",\"correlationData\":");
+            appendArray(json, event.getCorrelationData());
+            json.append(",\"payloadData\":");
+            appendArray(json, event.getPayloadData());
+            if (event.getArbitraryDataMap() != null) {
+                json.append(",\"arbitraryDataMap\":{");
+                boolean first = true;
+                for (Map.Entry<String, String> entry : event.getArbitraryDataMap().entrySet()) {
+                    if (!first) {
+                        json.append(',');
+                    }
+                    first = false;
+                    json.append('"').append(entry.getKey()).append("\":\"").append(entry.getValue()).append('"');
+                }
+                json.append('}');
+            }
+            json.append(",\"timeStamp\":").append(event.getTimeStamp()).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private static void appendArray(StringBuilder json, Object[] values) {
+        json.append('[');
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                if (values[i] instanceof String) {
+                    json.append('"').append(values[i]).append('"');
+                } else {
+                    json.append(values[i]);
+                }
+            }
+        }
+        json.append(']');
+    }
+
+    private static Object[] createValues(AttributeType[] types, int seed) {
+        if (types.length == 0) {
+            return null;
+        }
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = createValue(types[i], seed + i);
+        }
+        return values;
+    }
+
+    private static Object createValue(AttributeType type, int seed) {
+        switch (type) {
+            case INT:
+                return seed;
+            case LONG:
+                return 1000000000L * seed;
+            case FLOAT:
+                return seed + 0.5f;
+            case DOUBLE:
+                return seed * 1.25;
+            case BOOL:
+                return seed % 2 == 0;
+            case STRING:
+                StringBuilder value = new StringBuilder(STRING_LENGTH);
+                while (value.length() < STRING_LENGTH) {
+                    value.append((char) ('a' + (seed + value.length()) % 26));
+                }
+                return value.toString();
+            default:
+                throw new IllegalArgumentException("Unsupported attribute type " + type);
+        }
+    }
+
+    private static int copy(Object[] source, Object[] destination, int index) {
+        if (source == null) {
+            return index;
+        }
+        System.arraycopy(source, 0, destination, index, source.length);
+        return index + source.length;
+    }
+
+    private static Attribute.Type toSiddhiType(AttributeType type) {
+        switch (type) {
+            case INT:
+                return Attribute.Type.INT;
+            case LONG:
+                return Attribute.Type.LONG;
+            case FLOAT:
+                return Attribute.Type.FLOAT;
+            case DOUBLE:
+                return Attribute.Type.DOUBLE;
+            case BOOL:
+                return Attribute.Type.BOOL;
+            case STRING:
+                return Attribute.Type.STRING;
+            default:
+                throw new IllegalArgumentException("Unsupported attribute type " + type);
+        }
+    }
+
+    private static AttributeType[] repeat(AttributeType type, int count) {
+        AttributeType[] types = new AttributeType[count];
+        Arrays.fill(types, type);
+        return types;
+    }
+}
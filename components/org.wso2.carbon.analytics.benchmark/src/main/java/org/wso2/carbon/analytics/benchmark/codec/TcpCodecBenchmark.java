@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.tcp.transport.SiddhiEventComposite;
+import org.wso2.carbon.tcp.transport.dto.StreamTypeHolder;
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+import org.wso2.carbon.tcp.transport.util.BinaryMessageConverterUtil;
+import org.wso2.carbon.tcp.transport.util.SiddhiEventConverter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding a batch of events into a message of the tcp-transport with {@link BinaryEventConverter}, and
+ * decoding the events of the message with {@link SiddhiEventConverter}. Both directions reuse a buffer sized for the
+ * message, as the encoder and the frame decoder of the transport do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcpCodecBenchmark {
+    private static final String SESSION_ID = "benchmark-session";
+
+    private static final int TENANT_ID = -1234;
+
+    @Param
+    private StreamShape shape;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private List<SiddhiEventComposite> events;
+
+    private ByteBuf encodeBuffer;
+
+    private ByteBuf message;
+
+    /**
+     * Index of the event count in the message, which is where the frame decoder hands the message to the converter.
+     */
+    private int eventCountIndex;
+
+    private StreamTypeHolder streamTypeHolder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        events = shape.createSiddhiEvents(batchSize);
+        int messageSize = BinaryEventConverter.getMessageSize(events, SESSION_ID);
+        encodeBuffer = Unpooled.buffer(messageSize);
+        message = Unpooled.buffer(messageSize);
+        BinaryEventConverter.convertToBinaryMessage(events, SESSION_ID, message);
+        eventCountIndex = 5 + BinaryMessageConverterUtil.getSize(SESSION_ID);
+        streamTypeHolder = new StreamTypeHolder(TENANT_ID).withStreamDefinition(shape.getSiddhiStreamDefinition());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encodeBuffer.release();
+        message.release();
+    }
+
+    @Benchmark
+    public ByteBuf encode() throws IOException {
+        encodeBuffer.clear();
+        BinaryEventConverter.convertToBinaryMessage(events, SESSION_ID, encodeBuffer);
+        return encodeBuffer;
+    }
+
+    @Benchmark
+    public List<SiddhiEventComposite> decode() {
+        message.readerIndex(eventCountIndex);
+        return SiddhiEventConverter.getConverter().toEventList(message, streamTypeHolder);
+    }
+}
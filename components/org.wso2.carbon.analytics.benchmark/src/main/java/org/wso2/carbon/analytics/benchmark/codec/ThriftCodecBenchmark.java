@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.codec;
+
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.databridge.agent.endpoint.thrift.ThriftEventConverter;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.databridge.commons.thrift.data.ThriftEventBundle;
+import org.wso2.carbon.databridge.core.StreamTypeHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding a batch of events into a {@link ThriftEventBundle} with the {@link ThriftEventConverter} of
+ * the agent, and decoding the bundle with the converter of the thrift receiver. The bundle is serialized with the
+ * binary protocol used by the thrift endpoints, hence both directions include the cost on the wire.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThriftCodecBenchmark {
+    private static final String SESSION_ID = "benchmark-session";
+
+    @Param
+    private StreamShape shape;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    private List<Event> events;
+
+    private TSerializer serializer;
+
+    private TDeserializer deserializer;
+
+    private byte[] message;
+
+    private StreamTypeHolder streamTypeHolder;
+
+    private org.wso2.carbon.databridge.receiver.thrift.converter.ThriftEventConverter receiverConverter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws TException {
+        events = shape.createEvents(batchSize);
+        serializer = new TSerializer(new TBinaryProtocol.Factory());
+        deserializer = new TDeserializer(new TBinaryProtocol.Factory());
+        message = encode();
+        streamTypeHolder = new StreamTypeHolder();
+        streamTypeHolder.putStreamDefinition(shape.getStreamDefinition());
+        receiverConverter = new org.wso2.carbon.databridge.receiver.thrift.converter.ThriftEventConverter();
+    }
+
+    @Benchmark
+    public byte[] encode() throws TException {
+        ThriftEventBundle eventBundle = null;
+        for (Event event : events) {
+            eventBundle = ThriftEventConverter.toThriftEventBundle(event, eventBundle, SESSION_ID);
+        }
+        return serializer.serialize(eventBundle);
+    }
+
+    @Benchmark
+    public List<Event> decode() throws TException {
+        ThriftEventBundle eventBundle = new ThriftEventBundle();
+        deserializer.deserialize(eventBundle, message);
+        return receiverConverter.toEventList(eventBundle, streamTypeHolder);
+    }
+}
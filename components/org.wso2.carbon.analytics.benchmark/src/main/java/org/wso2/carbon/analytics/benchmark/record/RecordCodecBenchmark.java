@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.record;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.analytics.data.commons.exception.AnalyticsException;
+import org.wso2.carbon.analytics.data.commons.sources.RecordSchema;
+import org.wso2.carbon.analytics.data.commons.utils.AnalyticsCommonUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding the values of a record with {@link AnalyticsCommonUtils#encodeRecordValues(Map)}, and decoding
+ * all of them or a projection of them with {@link AnalyticsCommonUtils#decodeRecordValues(byte[], Set)}, against the
+ * same with the indexed format. The columns cycle through string, long, double and integer values, and the projected
+ * columns are spread across the record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordCodecBenchmark {
+
+    @Param({"10", "100"})
+    private int columnCount;
+
+    @Param({"3"})
+    private int projectedColumnCount;
+
+    private Map<String, Object> values;
+
+    private byte[] encodedValues;
+
+    private RecordSchema schema;
+
+    private byte[] indexedValues;
+
+    private Set<String> projectedColumns;
+
+    @Setup(Level.Trial)
+    public void setUp() throws AnalyticsException {
+        values = new LinkedHashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            switch (i % 4) {
+                case 0:
+                    values.put("column_" + i, "value of column " + i);
+                    break;
+                case 1:
+                    values.put("column_" + i, (long) i);
+                    break;
+                case 2:
+                    values.put("column_" + i, i * 1.5);
+                    break;
+                default:
+                    values.put("column_" + i, i);
+                    break;
+            }
+        }
+        encodedValues = AnalyticsCommonUtils.encodeRecordValues(values);
+        schema = new RecordSchema(new ArrayList<>(values.keySet()));
+        indexedValues = AnalyticsCommonUtils.encodeIndexedRecordValues(schema, values);
+        projectedColumns = new HashSet<>();
+        for (int i = 0; i < projectedColumnCount; i++) {
+            projectedColumns.add("column_" + (columnCount - 1) * i / Math.max(projectedColumnCount - 1, 1));
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws AnalyticsException {
+        return AnalyticsCommonUtils.encodeRecordValues(values);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeAll() throws AnalyticsException {
+        return AnalyticsCommonUtils.decodeRecordValues(encodedValues, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeProjected() throws AnalyticsException {
+        return AnalyticsCommonUtils.decodeRecordValues(encodedValues, projectedColumns);
+    }
+
+    @Benchmark
+    public byte[] encodeIndexed() throws AnalyticsException {
+        return AnalyticsCommonUtils.encodeIndexedRecordValues(schema, values);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeAllIndexed() throws AnalyticsException {
+        return AnalyticsCommonUtils.decodeIndexedRecordValues(indexedValues, schema, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeProjectedIndexed() throws AnalyticsException {
+        return AnalyticsCommonUtils.decodeIndexedRecordValues(indexedValues, schema, projectedColumns);
+    }
+}
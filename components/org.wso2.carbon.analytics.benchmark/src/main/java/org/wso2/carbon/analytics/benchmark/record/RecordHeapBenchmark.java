@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.carbon.analytics.benchmark.record;
+
+import org.wso2.carbon.analytics.data.commons.sources.CompactRecord;
+import org.wso2.carbon.analytics.data.commons.sources.Record;
+import org.wso2.carbon.analytics.data.commons.sources.RecordSchema;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the retained heap of map based {@link Record}s and {@link CompactRecord}s of the same values. The values
+ * are interned across the records, as they are when the records of a batch share the decoded strings of the same
+ * column names, hence only the per record overhead is measured. Run it with enough heap for both sets as,
+ * java -Xmx4g -cp target/benchmarks.jar org.wso2.carbon.analytics.benchmark.record.RecordHeapBenchmark [records]
+ */
+public class RecordHeapBenchmark {
+    private static final String TABLE_NAME = "ORG_WSO2_ESB_MEDIATORSTATISTICS";
+
+    private static final List<String> COLUMNS = Arrays.asList("meta_ipAdd", "symbol", "price", "volume", "max",
+            "min", "timestamp", "valid");
+
+    private static final Object[] VALUES = new Object[]{"127.0.0.1", "WSO2", 123.4, 2, 12.4, 1.3, 1500000000000L,
+            true};
+
+    public static void main(String[] args) {
+        int numberOfRecords = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        long mapRecordsHeap = measure(numberOfRecords, false);
+        long compactRecordsHeap = measure(numberOfRecords, true);
+        System.out.println("Records with " + COLUMNS.size() + " columns : " + numberOfRecords);
+        System.out.println("Record        : " + mapRecordsHeap / numberOfRecords + " bytes/record, "
+                + mapRecordsHeap / (1024 * 1024) + " MB");
+        System.out.println("CompactRecord : " + compactRecordsHeap / numberOfRecords + " bytes/record, "
+                + compactRecordsHeap / (1024 * 1024) + " MB");
+    }
+
+    private static long measure(int numberOfRecords, boolean compact) {
+        RecordSchema schema = new RecordSchema(COLUMNS);
+        long heapBefore = getUsedHeap();
+        List<Record> records = new ArrayList<>(numberOfRecords);
+        for (int i = 0; i < numberOfRecords; i++) {
+            if (compact) {
+                records.add(new CompactRecord(TABLE_NAME, schema, VALUES.clone()));
+            } else {
+                Map<String, Object> values = new HashMap<>();
+                for (int j = 0; j < COLUMNS.size(); j++) {
+                    values.put(COLUMNS.get(j), VALUES[j]);
+                }
+                records.add(new Record(TABLE_NAME, values));
+            }
+        }
+        long heapAfter = getUsedHeap();
+        if (records.size() != numberOfRecords) {
+            throw new IllegalStateException("Records were not retained");
+        }
+        return heapAfter - heapBefore;
+    }
+
+    private static long getUsedHeap() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
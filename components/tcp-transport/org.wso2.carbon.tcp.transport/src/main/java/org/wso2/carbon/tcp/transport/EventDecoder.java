@@ -19,28 +19,54 @@ package org.wso2.carbon.tcp.transport;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import org.apache.log4j.Logger;
 import org.wso2.carbon.tcp.transport.dto.StreamTypeHolder;
+import org.wso2.carbon.tcp.transport.exception.MalformedEventException;
+import org.wso2.carbon.tcp.transport.session.SessionManager;
+import org.wso2.carbon.tcp.transport.util.BinaryMessageConverterUtil;
 import org.wso2.carbon.tcp.transport.util.SiddhiEventConverter;
 
 import java.util.List;
 
+/**
+ * Decodes the events of a message framed by the {@link EventFrameDecoder}, using the stream definitions of the
+ * tenant of the session the message was sent with.
+ */
+public class EventDecoder extends MessageToMessageDecoder<ByteBuf> {
+    private static final Logger log = Logger.getLogger(EventDecoder.class);
+    private static final byte EVENT_MESSAGE = 2;
+
+    private final SessionManager sessionManager;
 
-public class EventDecoder extends ByteToMessageDecoder {
+    public EventDecoder(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
-        if (in.readableBytes() < 5){
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) {
+        byte protocol = frame.readByte();
+        frame.skipBytes(4);
+        if (protocol != EVENT_MESSAGE) {
+            log.warn("Dropped message of unsupported type " + protocol + " from " + ctx.channel().remoteAddress());
             return;
         }
-        int protocol = in.readByte();
-        int messageSize = in.readInt();
-        if(protocol != 2 || messageSize > in.readableBytes()) {
-            in.resetReaderIndex();
+        int sessionIdSize = frame.readInt();
+        String sessionId = BinaryMessageConverterUtil.getString(frame, sessionIdSize);
+        Integer tenantId = sessionManager.getTenantId(sessionId);
+        if (tenantId == null) {
+            throw new MalformedEventException("Events received from " + ctx.channel().remoteAddress()
+                    + " for an unknown session " + sessionId);
+        }
+        StreamTypeHolder streamTypeHolder = TransportStreamManager.getInstance().getStreamTypeHolder(tenantId);
+        if (streamTypeHolder == null) {
+            log.warn("Dropped events of tenant " + tenantId + " as it has no stream definitions.");
             return;
         }
-        StreamTypeHolder streamTypeHolder = TransportStreamManager.getInstance().getStreamTypeHolder(-1234);
-        List<SiddhiEventComposite> testList = SiddhiEventConverter.getConverter().toEventList(in, streamTypeHolder);
-        out.add(testList);
+        List<SiddhiEventComposite> eventList = SiddhiEventConverter.getConverter().toEventList(frame,
+                streamTypeHolder);
+        if (!eventList.isEmpty()) {
+            out.add(eventList);
+        }
     }
 }
@@ -24,12 +24,49 @@ import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
 
 import java.util.List;
 
+/**
+ * Encodes a list of events as one binary message. The message is written straight into a buffer allocated from the
+ * allocator of the channel with the exact size of the message, which is a pooled direct buffer for the
+ * {@link TcpNettyClient}. The size of an {@link EventMessage} is the one computed when it was created, while the size
+ * of a plain list of events is computed here.
+ */
+public class EventEncoder extends MessageToByteEncoder<Object> {
+    private final String sessionId;
 
-public class EventEncoder extends MessageToByteEncoder<List<SiddhiEventComposite>> {
+    public EventEncoder(String sessionId) {
+        this.sessionId = sessionId;
+    }
 
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof EventMessage || msg instanceof List;
+    }
 
     @Override
-    protected void encode(ChannelHandlerContext channelHandlerContext, List<SiddhiEventComposite> eventList, ByteBuf byteBuf) throws Exception {
-        BinaryEventConverter.convertToBinaryMessage(eventList, "test", byteBuf);
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Object msg, boolean preferDirect) throws Exception {
+        int messageSize;
+        if (msg instanceof EventMessage) {
+            messageSize = ((EventMessage) msg).getSize();
+        } else {
+            messageSize = BinaryEventConverter.getMessageSize(toEventList(msg), sessionId);
+        }
+        if (preferDirect) {
+            return ctx.alloc().ioBuffer(messageSize, messageSize);
+        } else {
+            return ctx.alloc().heapBuffer(messageSize, messageSize);
+        }
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext channelHandlerContext, Object msg, ByteBuf byteBuf) throws Exception {
+        BinaryEventConverter.convertToBinaryMessage(toEventList(msg), sessionId, byteBuf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SiddhiEventComposite> toEventList(Object msg) {
+        if (msg instanceof EventMessage) {
+            return ((EventMessage) msg).getEvents();
+        }
+        return (List<SiddhiEventComposite>) msg;
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Splits the received bytes into binary messages, using the message size which follows the one byte message type.
+ * A frame covers the whole message including its header.
+ */
+public class EventFrameDecoder extends LengthFieldBasedFrameDecoder {
+    private static final int MESSAGE_SIZE_OFFSET = 1;
+    private static final int MESSAGE_SIZE_LENGTH = 4;
+
+    public EventFrameDecoder(int maxFrameLength) {
+        super(maxFrameLength, MESSAGE_SIZE_OFFSET, MESSAGE_SIZE_LENGTH);
+    }
+
+    /**
+     * Returns a slice of the cumulated bytes instead of copying them to a new buffer. The slice is retained, and it
+     * is released by the {@link EventDecoder} once the events are decoded.
+     */
+    @Override
+    protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length) {
+        return buffer.slice(index, length).retain();
+    }
+}
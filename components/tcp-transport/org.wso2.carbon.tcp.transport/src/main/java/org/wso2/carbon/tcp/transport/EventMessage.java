@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.carbon.tcp.transport;
+
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+
+import java.util.List;
+
+/**
+ * Events to be sent as one binary message, along with the size of the message, which is computed once when the
+ * message is created and then used to account the message against the write buffer and to size its buffer.
+ */
+public class EventMessage {
+    private final List<SiddhiEventComposite> events;
+    private final int size;
+
+    public EventMessage(List<SiddhiEventComposite> events, String sessionId) {
+        this.events = events;
+        this.size = BinaryEventConverter.getMessageSize(events, sessionId);
+    }
+
+    public List<SiddhiEventComposite> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return the size in bytes of the binary message, including the message header.
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -21,15 +21,38 @@ package org.wso2.carbon.tcp.transport;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.group.ChannelGroup;
+import org.wso2.carbon.tcp.transport.callback.StreamListenerManager;
+import org.wso2.carbon.tcp.transport.config.ServerConfig;
 import org.wso2.carbon.tcp.transport.handlers.ServerChannelInboundHandler;
+import org.wso2.carbon.tcp.transport.session.SessionManager;
+import org.wso2.carbon.tcp.transport.util.LatencyRecorder;
 
 public class ServerChannelInitializer extends ChannelInitializer {
+    private final ServerConfig serverConfig;
+    private final ChannelGroup channelGroup;
+    private final StreamListenerManager streamListenerManager;
+    private final SessionManager sessionManager;
+    private final LatencyRecorder latencyRecorder;
+
+    public ServerChannelInitializer(ServerConfig serverConfig, ChannelGroup channelGroup,
+                                    StreamListenerManager streamListenerManager, SessionManager sessionManager,
+                                    LatencyRecorder latencyRecorder) {
+        this.serverConfig = serverConfig;
+        this.channelGroup = channelGroup;
+        this.streamListenerManager = streamListenerManager;
+        this.sessionManager = sessionManager;
+        this.latencyRecorder = latencyRecorder;
+    }
 
     @Override
     protected void initChannel(Channel channel) throws Exception {
+        // The group tracks the open connections so that the server can wait for them to close on shutdown.
+        channelGroup.add(channel);
         ChannelPipeline p = channel.pipeline();
         p.addLast(
-                new EventDecoder(),
-                new ServerChannelInboundHandler());
+                new EventFrameDecoder(serverConfig.getMaxFrameLength()),
+                new EventDecoder(sessionManager),
+                new ServerChannelInboundHandler(streamListenerManager, latencyRecorder));
     }
 }
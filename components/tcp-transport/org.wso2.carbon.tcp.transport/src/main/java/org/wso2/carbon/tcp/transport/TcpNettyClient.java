@@ -18,77 +18,356 @@
 package org.wso2.carbon.tcp.transport;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MessageSizeEstimator;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import org.apache.log4j.Logger;
+import org.wso2.carbon.tcp.transport.callback.PublishCallback;
+import org.wso2.carbon.tcp.transport.config.ClientConfig;
+import org.wso2.carbon.tcp.transport.exception.ConnectionException;
 import org.wso2.siddhi.core.event.Event;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * TCP client which publishes events to the {@link TcpNettyServer} over a small pool of connections.
+ * <p>
+ * The connections stop accepting messages when the bytes pending to be written reach the high water mark, and
+ * accept them again once the pending bytes drop below the low water mark. Publishers are blocked or rejected
+ * meanwhile, so that the memory held by the client stays bounded when the server is slow. Messages written by
+ * publishers are flushed together by a single flush on the event loop of the connection.
+ */
 public class TcpNettyClient {
     private static final Logger log = Logger.getLogger(TcpNettyClient.class);
+    private static final long RECONNECT_DELAY = 1000;
+    private static final long MAX_BACKPRESSURE_WAIT = 100;
 
-    /**
-     * @param args
-     */
-    public static void main(String[] args) {
-
-        EventLoopGroup group = new NioEventLoopGroup();
-        try {
-            Bootstrap b = new Bootstrap();
-            b.group(group)
-                    .channel(NioSocketChannel.class)
-                    .handler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) throws Exception {
-                            ChannelPipeline p = ch.pipeline();
-                            p.addLast(
-                                    new EventEncoder()
-                            );
-                        }
-                    });
-
-
-            // Start the connection attempt.
-            Channel ch = b.connect("localhost", 8080).sync().channel();
+    private final ClientConfig clientConfig;
+    private final Object writabilityMonitor = new Object();
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final AtomicLong pendingWriteBytes = new AtomicLong();
+    private EventLoopGroup group;
+    private Bootstrap bootstrap;
+    private Connection[] connections;
+    private volatile boolean running;
+
+    public TcpNettyClient(ClientConfig clientConfig) {
+        this.clientConfig = clientConfig;
+    }
+
+    public static void main(String[] args) throws Exception {
+        TcpNettyClient tcpNettyClient = new TcpNettyClient(new ClientConfig());
+        tcpNettyClient.connect();
+        final CountDownLatch latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
             List<SiddhiEventComposite> eventList = new ArrayList<SiddhiEventComposite>();
-            ChannelFuture cf;
-            for (int i = 0; i < 1; i++) {
-                for (int j=0; j<5; j++) {
-                    Event event = new Event(System.currentTimeMillis(), new Object[]{"WSO2", i, 10});
-                    eventList.add(new SiddhiEventComposite(event, "StockStream"));
-                    Event event1 = new Event(System.currentTimeMillis(), new Object[]{"IBM", i, 10});
-                    eventList.add(new SiddhiEventComposite(event1, "StockStream"));
+            for (int j = 0; j < 5; j++) {
+                Event event = new Event(System.currentTimeMillis(), new Object[]{"WSO2", i, 10});
+                eventList.add(new SiddhiEventComposite(event, "StockStream"));
+                Event event1 = new Event(System.currentTimeMillis(), new Object[]{"IBM", i, 10});
+                eventList.add(new SiddhiEventComposite(event1, "StockStream"));
+            }
+            tcpNettyClient.send(eventList, new PublishCallback() {
+                @Override
+                public void onSuccess() {
+                    latch.countDown();
                 }
-                cf = ch.write(eventList);
-                    ch.flush();
-                    cf.await();
-                eventList =  new ArrayList<SiddhiEventComposite>();
 
+                @Override
+                public void onFailure(Throwable cause) {
+                    log.error("Error sending events, " + cause.getMessage(), cause);
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        log.info("Done sending " + 10 * 10 + " events..");
+        tcpNettyClient.shutdown();
+    }
+
+    /**
+     * Opens the connections to the server.
+     *
+     * @throws ConnectionException if a connection cannot be established.
+     */
+    public synchronized void connect() throws ConnectionException, InterruptedException {
+        if (running) {
+            throw new IllegalStateException("TCP client is already connected to " + clientConfig.getHost() + ":"
+                    + clientConfig.getPort());
+        }
+        group = new NioEventLoopGroup(clientConfig.getWorkerThreads());
+        bootstrap = new Bootstrap();
+        bootstrap.group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.TCP_NODELAY, clientConfig.isTcpNoDelay())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, clientConfig.getConnectTimeout())
+                .option(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, clientConfig.getWriteBufferHighWaterMark())
+                .option(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, clientConfig.getWriteBufferLowWaterMark())
+                .option(ChannelOption.MESSAGE_SIZE_ESTIMATOR, new EventMessageSizeEstimator())
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) throws Exception {
+                        ch.pipeline().addLast(
+                                new EventEncoder(clientConfig.getSessionId()),
+                                new WritabilityHandler());
+                    }
+                });
+        if (clientConfig.getSendBufferSize() > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, clientConfig.getSendBufferSize());
+        }
+
+        connections = new Connection[clientConfig.getConnections()];
+        running = true;
+        for (int i = 0; i < connections.length; i++) {
+            connections[i] = new Connection();
+            ChannelFuture connectFuture = bootstrap.connect(clientConfig.getHost(), clientConfig.getPort()).await();
+            if (!connectFuture.isSuccess()) {
+                shutdown();
+                throw new ConnectionException("Error connecting to " + clientConfig.getHost() + ":"
+                        + clientConfig.getPort() + ", " + connectFuture.cause().getMessage(), connectFuture.cause());
+            }
+            connections[i].setChannel(connectFuture.channel());
+        }
+    }
+
+    public boolean send(List<SiddhiEventComposite> events) throws InterruptedException {
+        return send(events, null);
+    }
 
-                if (i*10 % 10000 == 0) {
-                    log.info("Done Sending " + i*10 + " events..");
+    /**
+     * Writes the events as one message on the next connection which accepts messages. When none of the connections
+     * accepts messages, the publisher is blocked until one does or the backpressure timeout elapses, or it is
+     * rejected right away if the client is configured not to block.
+     *
+     * @param events   Events to be sent, which should not be modified afterwards.
+     * @param callback Notified once the message is written to the connection, or null.
+     * @return false if the message was rejected due to backpressure, in which case the callback is not notified.
+     */
+    public boolean send(List<SiddhiEventComposite> events, final PublishCallback callback)
+            throws InterruptedException {
+        Connection connection = acquireWritableConnection();
+        if (connection == null) {
+            return false;
+        }
+        Channel channel = connection.channel;
+        EventMessage message = new EventMessage(events, clientConfig.getSessionId());
+        final int messageSize = message.getSize();
+        pendingWriteBytes.addAndGet(messageSize);
+        channel.write(message).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                pendingWriteBytes.addAndGet(-messageSize);
+                if (callback != null) {
+                    if (future.isSuccess()) {
+                        callback.onSuccess();
+                    } else {
+                        callback.onFailure(future.cause());
+                    }
                 }
             }
+        });
+        connection.scheduleFlush(channel);
+        return true;
+    }
 
-            ch.close().sync();
-        } catch (InterruptedException e) {
-            log.error("Error sending messages " + e.getMessage(), e);
-        } finally {
-            group.shutdownGracefully();
+    private Connection acquireWritableConnection() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(clientConfig.getBackpressureTimeout());
+        while (true) {
+            if (!running) {
+                throw new IllegalStateException("TCP client is not connected");
+            }
+            Connection connection = findWritableConnection();
+            if (connection != null) {
+                return connection;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (!clientConfig.isBlockOnBackpressure() || remaining <= 0) {
+                return null;
+            }
+            synchronized (writabilityMonitor) {
+                // Checked again while holding the monitor, as the connections notify it after becoming writable.
+                if (findWritableConnection() == null) {
+                    writabilityMonitor.wait(Math.max(1, Math.min(MAX_BACKPRESSURE_WAIT,
+                            TimeUnit.NANOSECONDS.toMillis(remaining))));
+                }
+            }
         }
+    }
 
+    private Connection findWritableConnection() {
+        for (int i = 0; i < connections.length; i++) {
+            Connection connection = connections[(nextConnection.getAndIncrement() & Integer.MAX_VALUE)
+                    % connections.length];
+            Channel channel = connection.channel;
+            if (channel != null && channel.isWritable()) {
+                return connection;
+            }
+        }
+        return null;
     }
 
+    private void notifyWritabilityChanged() {
+        synchronized (writabilityMonitor) {
+            writabilityMonitor.notifyAll();
+        }
+    }
 
-}
+    /**
+     * @return the size in bytes of the messages which are accepted but not yet written to the connections.
+     */
+    public long getPendingWriteBytes() {
+        return pendingWriteBytes.get();
+    }
+
+    public boolean isConnected() {
+        return running;
+    }
+
+    /**
+     * Closes the connections once the messages accepted so far are written, and stops the event loops.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        notifyWritabilityChanged();
+        List<ChannelFuture> closeFutures = new ArrayList<ChannelFuture>();
+        for (Connection connection : connections) {
+            Channel channel = connection == null ? null : connection.channel;
+            if (channel != null) {
+                channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+                closeFutures.add(channel.closeFuture());
+            }
+        }
+        for (ChannelFuture closeFuture : closeFutures) {
+            closeFuture.awaitUninterruptibly();
+        }
+        group.shutdownGracefully().awaitUninterruptibly();
+    }
+
+    /**
+     * Connection of the pool, which is re-established when it is closed while the client is running.
+     */
+    private class Connection {
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private volatile Channel channel;
+
+        private void setChannel(Channel channel) {
+            this.channel = channel;
+            channel.closeFuture().addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    notifyWritabilityChanged();
+                    if (running) {
+                        log.warn("Connection to " + clientConfig.getHost() + ":" + clientConfig.getPort()
+                                + " closed, reconnecting in " + RECONNECT_DELAY + " ms.");
+                        scheduleReconnect();
+                    }
+                }
+            });
+        }
+
+        private void scheduleReconnect() {
+            group.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!running) {
+                        return;
+                    }
+                    bootstrap.connect(clientConfig.getHost(), clientConfig.getPort())
+                            .addListener(new ChannelFutureListener() {
+                                @Override
+                                public void operationComplete(ChannelFuture future) throws Exception {
+                                    if (future.isSuccess()) {
+                                        setChannel(future.channel());
+                                        notifyWritabilityChanged();
+                                    } else if (running) {
+                                        scheduleReconnect();
+                                    }
+                                }
+                            });
+                }
+            }, RECONNECT_DELAY, TimeUnit.MILLISECONDS);
+        }
 
+        /**
+         * Flushes the connection on its event loop, after the messages written so far. Messages written before the
+         * flush runs share it, hence they are written to the socket together.
+         */
+        private void scheduleFlush(final Channel channel) {
+            if (flushScheduled.compareAndSet(false, true)) {
+                channel.eventLoop().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushScheduled.set(false);
+                        channel.flush();
+                    }
+                });
+            }
+        }
+    }
 
+    /**
+     * Notifies the blocked publishers when a connection starts accepting messages again.
+     */
+    private class WritabilityHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            if (ctx.channel().isWritable()) {
+                notifyWritabilityChanged();
+            }
+            ctx.fireChannelWritabilityChanged();
+        }
 
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.error("Error on connection to " + clientConfig.getHost() + ":" + clientConfig.getPort() + ", "
+                    + cause.getMessage(), cause);
+            ctx.close();
+        }
+    }
+
+    /**
+     * Estimates the size of the event messages before they are encoded, so that the messages waiting to be written
+     * on the event loop are accounted against the write buffer water marks.
+     */
+    private class EventMessageSizeEstimator implements MessageSizeEstimator, MessageSizeEstimator.Handle {
+        @Override
+        public Handle newHandle() {
+            return this;
+        }
+
+        @Override
+        public int size(Object msg) {
+            if (msg instanceof ByteBuf) {
+                return ((ByteBuf) msg).readableBytes();
+            } else if (msg instanceof ByteBufHolder) {
+                return ((ByteBufHolder) msg).content().readableBytes();
+            } else if (msg instanceof EventMessage) {
+                return ((EventMessage) msg).getSize();
+            }
+            return 0;
+        }
+    }
+}
@@ -18,66 +18,200 @@
 package org.wso2.carbon.tcp.transport;
 
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import org.apache.log4j.Logger;
+import org.wso2.carbon.tcp.transport.callback.StreamListener;
+import org.wso2.carbon.tcp.transport.callback.StreamListenerManager;
+import org.wso2.carbon.tcp.transport.config.ServerConfig;
+import org.wso2.carbon.tcp.transport.session.SessionManager;
+import org.wso2.carbon.tcp.transport.util.LatencyRecorder;
+import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * TCP server which decodes the binary event messages, and delivers the events to the stream listeners registered
+ * for their streams.
+ */
 public class TcpNettyServer {
     private static final Logger log = Logger.getLogger(TcpNettyServer.class);
-    private PrintWriter writer = null;
+
+    private final StreamListenerManager streamListenerManager = new StreamListenerManager();
+    private final SessionManager sessionManager = new SessionManager();
+    private ServerConfig serverConfig;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private ChannelGroup allChannels;
+    private LatencyRecorder latencyRecorder;
+    private Channel serverChannel;
 
     public static void main(String[] args) {
         StreamDefinition stockStream = StreamDefinition.id("StockStream").attribute("symbol", Attribute.Type.STRING)
                 .attribute("price", Attribute.Type.INT).attribute("volume", Attribute.Type.INT);
         TransportStreamManager.getInstance().addStreamDefinition(-1234, stockStream);
-        new TcpNettyServer().bootServer();
-    }
+        ServerConfig serverConfig = new ServerConfig();
+        if (args.length > 0) {
+            serverConfig.setPort(Integer.parseInt(args[0]));
+        }
+        final TcpNettyServer tcpNettyServer = new TcpNettyServer();
+        tcpNettyServer.getSessionManager().addSession("test", -1234);
+        tcpNettyServer.addStreamListener(new StreamListener() {
+            @Override
+            public String getStreamId() {
+                return "StockStream";
+            }
 
-    public static void slog(Object msg) {
-        log.info("[Server]:" + msg);
+            @Override
+            public void onEvents(Event[] events) {
+                for (Event event : events) {
+                    log.info(event);
+                }
+            }
+        });
+        tcpNettyServer.start(serverConfig);
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                tcpNettyServer.shutdown();
+            }
+        });
     }
 
-    public void bootServer() {
-        EventLoopGroup bossGroup = new NioEventLoopGroup(5);
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
+    /**
+     * Binds the server to the configured host and port, and returns once it accepts connections.
+     *
+     * @param serverConfig Configuration of the server.
+     */
+    public synchronized void start(ServerConfig serverConfig) {
+        if (serverChannel != null) {
+            throw new IllegalStateException("TCP server is already running on port " + getPort());
+        }
+        this.serverConfig = serverConfig;
+        Class<? extends ServerChannel> serverChannelClass;
+        if (serverConfig.isEpollEnabled() && Epoll.isAvailable()) {
+            bossGroup = new EpollEventLoopGroup(serverConfig.getBossThreads());
+            workerGroup = new EpollEventLoopGroup(serverConfig.getWorkerThreads());
+            serverChannelClass = EpollServerSocketChannel.class;
+        } else {
+            if (serverConfig.isEpollEnabled() && log.isDebugEnabled()) {
+                log.debug("Native epoll transport is not available, hence using NIO transport.",
+                        Epoll.unavailabilityCause());
+            }
+            bossGroup = new NioEventLoopGroup(serverConfig.getBossThreads());
+            workerGroup = new NioEventLoopGroup(serverConfig.getWorkerThreads());
+            serverChannelClass = NioServerSocketChannel.class;
+        }
+        allChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        latencyRecorder = serverConfig.isLatencyTrackingEnabled() ? new LatencyRecorder() : null;
+
+        ServerBootstrap b = new ServerBootstrap();
+        b.group(bossGroup, workerGroup)
+                .channel(serverChannelClass)
+                .option(ChannelOption.SO_BACKLOG, serverConfig.getSoBacklog())
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .childOption(ChannelOption.TCP_NODELAY, serverConfig.isTcpNoDelay())
+                .childOption(ChannelOption.SO_KEEPALIVE, serverConfig.isKeepAlive())
+                .childHandler(new ServerChannelInitializer(serverConfig, allChannels, streamListenerManager,
+                        sessionManager, latencyRecorder));
+        if (serverConfig.getReceiveBufferSize() > 0) {
+            b.childOption(ChannelOption.SO_RCVBUF, serverConfig.getReceiveBufferSize());
+        }
+
         try {
-            // More terse code to setup the server
-            ServerBootstrap b = new ServerBootstrap();
-            b.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new ServerChannelInitializer());
-
-            // Bind and start to accept incoming connections.
-            ChannelFuture f = b.bind(8080).sync();
-            f.channel().closeFuture().sync();
-        } catch (InterruptedException e) {
-            log.error("Error when booting up binary server " + e.getMessage(), e);
-        } finally {
-            workerGroup.shutdownGracefully();
-            bossGroup.shutdownGracefully();
+            serverChannel = b.bind(serverConfig.getHost(), serverConfig.getPort()).sync().channel();
+        } catch (Exception e) {
+            shutdownEventLoops();
+            throw new IllegalStateException("Error when booting up TCP server on " + serverConfig.getHost() + ":"
+                    + serverConfig.getPort() + ", " + e.getMessage(), e);
         }
+        log.info("TCP server started on " + serverChannel.localAddress() + " with "
+                + serverChannelClass.getSimpleName());
     }
 
-    public void writeResult(String data) {
-        try {
-            if (writer == null) {
-                writer = new PrintWriter("results.csv");
+    /**
+     * Stops accepting new connections, and waits until the clients close their connections up to the shutdown
+     * timeout, so that the events which are already sent get delivered. Then the remaining connections are closed,
+     * and the event loops are shutdown after processing their pending events.
+     */
+    public synchronized void shutdown() {
+        if (serverChannel == null) {
+            return;
+        }
+        serverChannel.close().awaitUninterruptibly();
+        long stopTime = System.currentTimeMillis() + serverConfig.getShutdownTimeout();
+        while (!allChannels.isEmpty() && System.currentTimeMillis() < stopTime) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
-        } catch (FileNotFoundException ex) {
-            log.error("File not found......");
         }
+        if (!allChannels.isEmpty()) {
+            log.warn("Closing " + allChannels.size() + " client connections which were not closed within "
+                    + serverConfig.getShutdownTimeout() + " ms.");
+        }
+        allChannels.close().awaitUninterruptibly();
+        shutdownEventLoops();
+        log.info("TCP server on " + serverChannel.localAddress() + " stopped.");
+        serverChannel = null;
+    }
 
-        writer.println(data);
-        writer.flush();
+    private void shutdownEventLoops() {
+        Future<?> workerTermination = workerGroup.shutdownGracefully(serverConfig.getShutdownQuietPeriod(),
+                serverConfig.getShutdownTimeout(), TimeUnit.MILLISECONDS);
+        Future<?> bossTermination = bossGroup.shutdownGracefully(serverConfig.getShutdownQuietPeriod(),
+                serverConfig.getShutdownTimeout(), TimeUnit.MILLISECONDS);
+        workerTermination.awaitUninterruptibly();
+        bossTermination.awaitUninterruptibly();
+    }
+
+    public synchronized boolean isRunning() {
+        return serverChannel != null;
+    }
+
+    /**
+     * @return the port the server is bound to, which is assigned by the operating system when port 0 is configured.
+     */
+    public synchronized int getPort() {
+        return ((InetSocketAddress) serverChannel.localAddress()).getPort();
     }
-}
 
+    public void addStreamListener(StreamListener streamListener) {
+        streamListenerManager.addStreamListener(streamListener);
+    }
 
+    public void removeStreamListener(String streamId) {
+        streamListenerManager.removeStreamListener(streamId);
+    }
 
+    /**
+     * @return the latency of the received events, or null if latency tracking is not enabled.
+     */
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * @return the sessions of the clients, which map the event messages to the tenants of their streams.
+     */
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+}
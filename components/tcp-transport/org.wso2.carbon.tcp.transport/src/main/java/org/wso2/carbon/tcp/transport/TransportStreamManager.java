@@ -21,37 +21,76 @@ package org.wso2.carbon.tcp.transport;
 import org.wso2.carbon.tcp.transport.dto.StreamTypeHolder;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Class to hold information related to transport streams temporally
+ * Registry of the streams of each tenant, which the event decoders read from the event loop threads while the
+ * streams are added and removed by other threads. Each change publishes a new immutable {@link StreamTypeHolder}
+ * snapshot of the tenant, which is swapped in with a compare-and-set, so that the readers are never blocked.
  */
 public class TransportStreamManager {
 
     private static final TransportStreamManager instance = new TransportStreamManager();
-    private Map<Integer, StreamTypeHolder> tenantStreamAttributeMap;
+    private final ConcurrentMap<Integer, StreamTypeHolder> tenantStreamAttributeMap;
 
     private TransportStreamManager() {
-        tenantStreamAttributeMap = new HashMap<Integer, StreamTypeHolder>();
+        tenantStreamAttributeMap = new ConcurrentHashMap<Integer, StreamTypeHolder>();
     }
 
     public static TransportStreamManager getInstance() {
         return instance;
     }
 
+    /**
+     * @return the current snapshot of the streams of the tenant, or null if no stream has been defined for it.
+     */
     public StreamTypeHolder getStreamTypeHolder(int tenantID) {
         return tenantStreamAttributeMap.get(tenantID);
     }
 
-    public void addStreamDefinition(int tenantId, StreamDefinition streamDefinition){
-        StreamTypeHolder streamTypeHolder = tenantStreamAttributeMap.get(tenantId);
-        if (streamTypeHolder == null){
-            streamTypeHolder = new StreamTypeHolder(tenantId);
-            streamTypeHolder.putStreamDefinition(streamDefinition);
-            tenantStreamAttributeMap.put(tenantId, streamTypeHolder);
-        } else {
-            streamTypeHolder.putStreamDefinition(streamDefinition);
+    /**
+     * Adds the stream definition to the tenant, replacing the existing definition of the stream if any.
+     *
+     * @return the handle of the stream.
+     */
+    public int addStreamDefinition(int tenantId, StreamDefinition streamDefinition) {
+        while (true) {
+            StreamTypeHolder streamTypeHolder = tenantStreamAttributeMap.get(tenantId);
+            if (streamTypeHolder == null) {
+                StreamTypeHolder newStreamTypeHolder = new StreamTypeHolder(tenantId)
+                        .withStreamDefinition(streamDefinition);
+                if (tenantStreamAttributeMap.putIfAbsent(tenantId, newStreamTypeHolder) == null) {
+                    return newStreamTypeHolder.getAttributeComposite(streamDefinition.getId()).getStreamHandle();
+                }
+            } else {
+                StreamTypeHolder newStreamTypeHolder = streamTypeHolder.withStreamDefinition(streamDefinition);
+                if (tenantStreamAttributeMap.replace(tenantId, streamTypeHolder, newStreamTypeHolder)) {
+                    return newStreamTypeHolder.getAttributeComposite(streamDefinition.getId()).getStreamHandle();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the stream from the tenant. Messages being decoded against an earlier snapshot may still deliver
+     * events of the stream.
+     *
+     * @return true if the stream was defined.
+     */
+    public boolean removeStreamDefinition(int tenantId, String streamId) {
+        while (true) {
+            StreamTypeHolder streamTypeHolder = tenantStreamAttributeMap.get(tenantId);
+            if (streamTypeHolder == null) {
+                return false;
+            }
+            StreamTypeHolder newStreamTypeHolder = streamTypeHolder.withoutStream(streamId);
+            if (newStreamTypeHolder == streamTypeHolder) {
+                return false;
+            }
+            if (tenantStreamAttributeMap.replace(tenantId, streamTypeHolder, newStreamTypeHolder)) {
+                return true;
+            }
         }
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.callback;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+
+/**
+ * Sends the received events of a stream to the Siddhi input handler of the stream.
+ */
+public class SiddhiStreamListener implements StreamListener {
+    private static final Logger log = Logger.getLogger(SiddhiStreamListener.class);
+
+    private final String streamId;
+    private final InputHandler inputHandler;
+
+    public SiddhiStreamListener(String streamId, InputHandler inputHandler) {
+        this.streamId = streamId;
+        this.inputHandler = inputHandler;
+    }
+
+    @Override
+    public String getStreamId() {
+        return streamId;
+    }
+
+    @Override
+    public void onEvents(Event[] events) {
+        try {
+            inputHandler.send(events);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while sending " + events.length + " events to " + streamId, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.carbon.tcp.transport.callback;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the stream listeners of a TCP server, which are looked up from the event loop threads.
+ */
+public class StreamListenerManager {
+    private final ConcurrentMap<String, StreamListener> streamListenerMap =
+            new ConcurrentHashMap<String, StreamListener>();
+
+    public void addStreamListener(StreamListener streamListener) {
+        streamListenerMap.put(streamListener.getStreamId(), streamListener);
+    }
+
+    public void removeStreamListener(String streamId) {
+        streamListenerMap.remove(streamId);
+    }
+
+    public StreamListener getStreamListener(String streamId) {
+        return streamListenerMap.get(streamId);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.config;
+
+/**
+ * Configuration of the TCP client. The defaults are used for any property which is not set explicitly.
+ */
+public class ClientConfig {
+    public static final int DEFAULT_CONNECTIONS = 2;
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    public static final int DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK = 1024 * 1024;
+    public static final int DEFAULT_WRITE_BUFFER_LOW_WATER_MARK = 512 * 1024;
+    public static final long DEFAULT_BACKPRESSURE_TIMEOUT = 30000;
+
+    private String host = "localhost";
+    private int port = ServerConfig.DEFAULT_PORT;
+    /**
+     * Session the events are sent with, which maps them to the tenant of their streams on the server.
+     */
+    private String sessionId = "test";
+    /**
+     * Number of connections opened to the server, over which the messages are distributed in round robin.
+     */
+    private int connections = DEFAULT_CONNECTIONS;
+    /**
+     * Number of threads encoding and writing the events, where 0 uses twice the number of processors.
+     */
+    private int workerThreads = 0;
+    private boolean tcpNoDelay = true;
+    /**
+     * Socket send buffer size in bytes, where 0 uses the default of the operating system.
+     */
+    private int sendBufferSize = 0;
+    /**
+     * Time in milliseconds to wait for a connection to be established.
+     */
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    /**
+     * Bytes pending to be written on a connection, beyond which it stops accepting messages.
+     */
+    private int writeBufferHighWaterMark = DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK;
+    /**
+     * Bytes pending to be written on a connection, below which it accepts messages again.
+     */
+    private int writeBufferLowWaterMark = DEFAULT_WRITE_BUFFER_LOW_WATER_MARK;
+    /**
+     * Block the publishers until a connection accepts messages, instead of rejecting the messages right away.
+     */
+    private boolean blockOnBackpressure = true;
+    /**
+     * Maximum time in milliseconds a publisher is blocked before its message is rejected.
+     */
+    private long backpressureTimeout = DEFAULT_BACKPRESSURE_TIMEOUT;
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    public boolean isBlockOnBackpressure() {
+        return blockOnBackpressure;
+    }
+
+    public void setBlockOnBackpressure(boolean blockOnBackpressure) {
+        this.blockOnBackpressure = blockOnBackpressure;
+    }
+
+    public long getBackpressureTimeout() {
+        return backpressureTimeout;
+    }
+
+    public void setBackpressureTimeout(long backpressureTimeout) {
+        this.backpressureTimeout = backpressureTimeout;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.carbon.tcp.transport.config;
+
+/**
+ * Configuration of the TCP server. The defaults are used for any property which is not set explicitly.
+ */
+public class ServerConfig {
+    public static final int DEFAULT_PORT = 9892;
+    public static final int DEFAULT_BACKLOG = 1024;
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 10 * 1024 * 1024;
+    public static final long DEFAULT_SHUTDOWN_QUIET_PERIOD = 100;
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT = 10000;
+
+    private String host = "0.0.0.0";
+    private int port = DEFAULT_PORT;
+    /**
+     * Number of threads accepting connections.
+     */
+    private int bossThreads = 1;
+    /**
+     * Number of threads reading and decoding the events, where 0 uses twice the number of processors.
+     */
+    private int workerThreads = 0;
+    /**
+     * Use the native epoll transport when it is available, which is only on Linux.
+     */
+    private boolean epollEnabled = true;
+    private int soBacklog = DEFAULT_BACKLOG;
+    private boolean tcpNoDelay = true;
+    private boolean keepAlive = true;
+    /**
+     * Socket receive buffer size in bytes, where 0 uses the default of the operating system.
+     */
+    private int receiveBufferSize = 0;
+    /**
+     * Maximum size in bytes of an event message, beyond which the connection is closed.
+     */
+    private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+    /**
+     * Record the latency of the received events, from their timestamps to their delivery to the stream listeners.
+     */
+    private boolean latencyTrackingEnabled = false;
+    /**
+     * Time in milliseconds the event loops wait for new tasks before shutting down.
+     */
+    private long shutdownQuietPeriod = DEFAULT_SHUTDOWN_QUIET_PERIOD;
+    /**
+     * Maximum time in milliseconds to wait for the clients to close their connections, and for the event loops
+     * to process the received events during the shutdown.
+     */
+    private long shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getBossThreads() {
+        return bossThreads;
+    }
+
+    public void setBossThreads(int bossThreads) {
+        this.bossThreads = bossThreads;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public boolean isEpollEnabled() {
+        return epollEnabled;
+    }
+
+    public void setEpollEnabled(boolean epollEnabled) {
+        this.epollEnabled = epollEnabled;
+    }
+
+    public int getSoBacklog() {
+        return soBacklog;
+    }
+
+    public void setSoBacklog(int soBacklog) {
+        this.soBacklog = soBacklog;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public void setMaxFrameLength(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public boolean isLatencyTrackingEnabled() {
+        return latencyTrackingEnabled;
+    }
+
+    public void setLatencyTrackingEnabled(boolean latencyTrackingEnabled) {
+        this.latencyTrackingEnabled = latencyTrackingEnabled;
+    }
+
+    public long getShutdownQuietPeriod() {
+        return shutdownQuietPeriod;
+    }
+
+    public void setShutdownQuietPeriod(long shutdownQuietPeriod) {
+        this.shutdownQuietPeriod = shutdownQuietPeriod;
+    }
+
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(long shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
@@ -22,15 +22,17 @@ import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
 /**
- * Class to hold attribute type order array and size of attributes.
+ * Class to hold attribute type order array and size of attributes, along with the handle of the stream.
  */
 
 public class StreamAttributeComposite {
-    private Attribute.Type[] attributeTypes;
-    private StreamDefinition streamDefinition;
-    private int attributeSize;
+    private final int streamHandle;
+    private final Attribute.Type[] attributeTypes;
+    private final StreamDefinition streamDefinition;
+    private final int attributeSize;
 
-    public StreamAttributeComposite(StreamDefinition streamDefinition) {
+    public StreamAttributeComposite(int streamHandle, StreamDefinition streamDefinition) {
+        this.streamHandle = streamHandle;
         this.streamDefinition = streamDefinition;
         this.attributeTypes = EventDefinitionConverterUtils.generateAttributeTypeArray(streamDefinition.getAttributeList());
         this.attributeSize = getSize(attributeTypes);
@@ -45,22 +47,22 @@ public class StreamAttributeComposite {
         return size;
     }
 
-    public int getAttributeSize() {
-        return attributeSize;
+    /**
+     * @return the handle of the stream, which is unique within the streams of the tenant and kept when the stream is
+     * redefined.
+     */
+    public int getStreamHandle() {
+        return streamHandle;
     }
 
-    public void setAttributeSize(int attributeSize) {
-        this.attributeSize = attributeSize;
+    public int getAttributeSize() {
+        return attributeSize;
     }
 
     public Attribute.Type[] getAttributeTypes() {
         return attributeTypes;
     }
 
-    public void setAttributeTypes(Attribute.Type[] attributeTypes) {
-        this.attributeTypes = attributeTypes;
-    }
-
     public StreamDefinition getStreamDefinition() {
         return streamDefinition;
     }
@@ -22,29 +22,42 @@ package org.wso2.carbon.tcp.transport.dto;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Event stream data type holder
+ * Immutable snapshot of the event stream data types of a tenant. Changes to the streams create a new snapshot with
+ * an incremented version, so a message is decoded against a consistent set of streams while they are changed.
  */
 public class StreamTypeHolder {
-    private int tenantId;
-    private Map<String, StreamAttributeComposite> attributeCompositeMap = new ConcurrentHashMap<String, StreamAttributeComposite>();
+    private final int tenantId;
+    private final long version;
+    private final Map<String, StreamAttributeComposite> attributeCompositeMap;
+    private final StreamAttributeComposite[] attributeCompositesByHandle;
 
     public StreamTypeHolder(int tenantId) {
+        this(tenantId, 0, Collections.<String, StreamAttributeComposite>emptyMap(),
+                new StreamAttributeComposite[0]);
+    }
+
+    private StreamTypeHolder(int tenantId, long version, Map<String, StreamAttributeComposite> attributeCompositeMap,
+                             StreamAttributeComposite[] attributeCompositesByHandle) {
         this.tenantId = tenantId;
+        this.version = version;
+        this.attributeCompositeMap = attributeCompositeMap;
+        this.attributeCompositesByHandle = attributeCompositesByHandle;
     }
 
     public int getTenantId() {
         return tenantId;
     }
 
-    public void setTenantId(int tenantId) {
-        this.tenantId = tenantId;
+    public long getVersion() {
+        return version;
     }
 
-
     public Map<String, StreamAttributeComposite> getAttributeCompositeMap() {
         return attributeCompositeMap;
     }
@@ -61,8 +74,55 @@ public class StreamTypeHolder {
         return attributeCompositeMap.get(streamId);
     }
 
-    public void putStreamDefinition(StreamDefinition streamDefinition) {
-        this.attributeCompositeMap.put(streamDefinition.getId(), new StreamAttributeComposite(streamDefinition));
+    /**
+     * @return the stream with the given handle, or null if the stream has been removed.
+     */
+    public StreamAttributeComposite getAttributeComposite(int streamHandle) {
+        if (streamHandle < 0 || streamHandle >= attributeCompositesByHandle.length) {
+            return null;
+        }
+        return attributeCompositesByHandle[streamHandle];
+    }
+
+    /**
+     * @return a new snapshot containing the given stream definition, which keeps the handle of the stream if it is
+     * already defined, and assigns the next handle otherwise.
+     */
+    public StreamTypeHolder withStreamDefinition(StreamDefinition streamDefinition) {
+        StreamAttributeComposite existingComposite = attributeCompositeMap.get(streamDefinition.getId());
+        StreamAttributeComposite[] compositesByHandle;
+        int streamHandle;
+        if (existingComposite != null) {
+            streamHandle = existingComposite.getStreamHandle();
+            compositesByHandle = attributeCompositesByHandle.clone();
+        } else {
+            // Handles of removed streams are not reused, so that a stale handle never resolves to another stream.
+            streamHandle = attributeCompositesByHandle.length;
+            compositesByHandle = Arrays.copyOf(attributeCompositesByHandle, streamHandle + 1);
+        }
+        StreamAttributeComposite composite = new StreamAttributeComposite(streamHandle, streamDefinition);
+        compositesByHandle[streamHandle] = composite;
+        Map<String, StreamAttributeComposite> compositeMap =
+                new HashMap<String, StreamAttributeComposite>(attributeCompositeMap);
+        compositeMap.put(streamDefinition.getId(), composite);
+        return new StreamTypeHolder(tenantId, version + 1, Collections.unmodifiableMap(compositeMap),
+                compositesByHandle);
     }
 
+    /**
+     * @return a new snapshot without the given stream, or this snapshot if the stream is not defined.
+     */
+    public StreamTypeHolder withoutStream(String streamId) {
+        StreamAttributeComposite existingComposite = attributeCompositeMap.get(streamId);
+        if (existingComposite == null) {
+            return this;
+        }
+        StreamAttributeComposite[] compositesByHandle = attributeCompositesByHandle.clone();
+        compositesByHandle[existingComposite.getStreamHandle()] = null;
+        Map<String, StreamAttributeComposite> compositeMap =
+                new HashMap<String, StreamAttributeComposite>(attributeCompositeMap);
+        compositeMap.remove(streamId);
+        return new StreamTypeHolder(tenantId, version + 1, Collections.unmodifiableMap(compositeMap),
+                compositesByHandle);
+    }
 }
@@ -22,100 +22,113 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import org.apache.log4j.Logger;
 import org.wso2.carbon.tcp.transport.SiddhiEventComposite;
+import org.wso2.carbon.tcp.transport.callback.StreamListener;
+import org.wso2.carbon.tcp.transport.callback.StreamListenerManager;
+import org.wso2.carbon.tcp.transport.util.LatencyRecorder;
+import org.wso2.siddhi.core.event.Event;
 
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map;
 
-public class ServerChannelInboundHandler extends SimpleChannelInboundHandler {
+/**
+ * Delivers the events decoded from the messages of a socket read to the listeners of their streams, grouping the
+ * events of each stream so that a listener is called once per stream for the read. The events of the messages are
+ * collected as they are decoded, and delivered once the read completes. The handler is created per connection,
+ * hence the grouping buffers are reused across its reads.
+ */
+public class ServerChannelInboundHandler extends SimpleChannelInboundHandler<List<SiddhiEventComposite>> {
     private static final Logger log = Logger.getLogger(ServerChannelInboundHandler.class);
-    private AtomicLong totalDelay = new AtomicLong(0);
-    private AtomicLong lastIndex = new AtomicLong(0);
-    private AtomicLong lastCounter = new AtomicLong(0);
-    private AtomicLong lastTime = new AtomicLong(System.currentTimeMillis());
-    private AtomicLong maxLatency = new AtomicLong(0);
-    private AtomicLong minLatency = new AtomicLong(Long.MAX_VALUE);
-    private AtomicLong counter = new AtomicLong(0);
-    private AtomicBoolean calcInProgress = new AtomicBoolean(false);
-    private DecimalFormat decimalFormat = new DecimalFormat("#.#####");
-    private int elapsedCount = 100000;
-    private PrintWriter writer  = null;
-
-    private String streamID ="foo";
-
-    @Override
-    protected void channelRead0(ChannelHandlerContext channelHandlerContext, Object msg) throws Exception {
-        List<SiddhiEventComposite> event = (List<SiddhiEventComposite>) msg;
-        for (SiddhiEventComposite eventComposite : event) {
-            log.info(eventComposite.getSiddhiEvent().toString());
-            try {
-                long currentBatchTotalDelay = 0;
-                long currentTime = System.currentTimeMillis();
-                long currentEventLatency = currentTime - eventComposite.getSiddhiEvent().getTimestamp();
 
-                long currentMaxLatency = maxLatency.get();
-                if (currentEventLatency > currentMaxLatency) {
-                    maxLatency.compareAndSet(currentMaxLatency, currentEventLatency);
-                }
-                long currentMinLatency = minLatency.get();
-                if (currentEventLatency < currentMinLatency) {
-                    minLatency.compareAndSet(currentMinLatency, currentEventLatency);
-                }
-                currentBatchTotalDelay = currentBatchTotalDelay + currentEventLatency;
+    private final StreamListenerManager streamListenerManager;
+    private final LatencyRecorder latencyRecorder;
+    private final Map<String, List<Event>> streamEventMap = new LinkedHashMap<String, List<Event>>();
+    private boolean pending;
 
-                long localCounter = counter.incrementAndGet();
-                long localTotalDelay = totalDelay.addAndGet(currentBatchTotalDelay);
+    /**
+     * @param streamListenerManager Listeners of the streams.
+     * @param latencyRecorder       Records the time between the creation and the delivery of each event, or null
+     *                              to not measure the latency.
+     */
+    public ServerChannelInboundHandler(StreamListenerManager streamListenerManager, LatencyRecorder latencyRecorder) {
+        this.streamListenerManager = streamListenerManager;
+        this.latencyRecorder = latencyRecorder;
+    }
 
-                long index = localCounter / elapsedCount;
+    @Override
+    protected void channelRead0(ChannelHandlerContext channelHandlerContext, List<SiddhiEventComposite> events)
+            throws Exception {
+        for (SiddhiEventComposite event : events) {
+            List<Event> streamEvents = streamEventMap.get(event.getStreamID());
+            if (streamEvents == null) {
+                streamEvents = new ArrayList<Event>();
+                streamEventMap.put(event.getStreamID(), streamEvents);
+            }
+            streamEvents.add(event.getSiddhiEvent());
+            pending = true;
+        }
+    }
 
-                if (lastIndex.get() != index) {
-                    if (calcInProgress.compareAndSet(false, true)) {
-                        lastIndex.set(index);
-                        long currentWindowEventsReceived = localCounter - lastCounter.getAndSet(localCounter);
-                        long elapsedTime = currentTime - lastTime.getAndSet(currentTime);
-                        log.info("Received " + currentWindowEventsReceived + " events in " + elapsedTime + " ms; Throughput - Avg : "
-                                + decimalFormat.format((currentWindowEventsReceived * 1000.0) / elapsedTime) + " ; Latency - Avg: "
-                                + decimalFormat.format(localTotalDelay / (double) currentWindowEventsReceived)
-                                + ", Min: " + minLatency.get() + ", Max: " + maxLatency.get());
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        dispatchPendingEvents();
+        ctx.fireChannelReadComplete();
+    }
 
-                        writeResult(localCounter + ","
-                                + decimalFormat.format(localTotalDelay / (double) currentWindowEventsReceived) + ","
-                                + decimalFormat.format((currentWindowEventsReceived * 1000.0) / elapsedTime));
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        dispatchPendingEvents();
+        ctx.fireChannelInactive();
+    }
 
-                        maxLatency.set(0);
-                        minLatency.set(Long.MAX_VALUE);
-                        totalDelay.addAndGet(-localTotalDelay);
-                        calcInProgress.set(false);
+    private void dispatchPendingEvents() {
+        if (!pending) {
+            return;
+        }
+        pending = false;
+        try {
+            for (Map.Entry<String, List<Event>> entry : streamEventMap.entrySet()) {
+                List<Event> streamEvents = entry.getValue();
+                if (!streamEvents.isEmpty()) {
+                    Event[] events = streamEvents.toArray(new Event[streamEvents.size()]);
+                    if (latencyRecorder != null) {
+                        long currentTime = System.currentTimeMillis();
+                        for (Event event : events) {
+                            latencyRecorder.recordValue(currentTime - event.getTimestamp());
+                        }
                     }
+                    dispatch(entry.getKey(), events);
                 }
-            } catch (Exception e) {
-                log.info("Error while consuming event on " + streamID + ", " + e.getMessage());
-            } finally {
-                //channelHandlerContext.close();
+            }
+        } finally {
+            for (List<Event> streamEvents : streamEventMap.values()) {
+                streamEvents.clear();
             }
         }
     }
 
+    private void dispatch(String streamId, Event[] events) {
+        StreamListener streamListener = streamListenerManager.getStreamListener(streamId);
+        if (streamListener == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Dropped " + events.length + " events as no stream listener is registered for "
+                        + streamId);
+            }
+            return;
+        }
+        try {
+            streamListener.onEvents(events);
+        } catch (RuntimeException e) {
+            log.error("Error while consuming " + events.length + " events of " + streamId + ", " + e.getMessage(),
+                    e);
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         // Close the connection when an exception is raised.
         log.error(cause.getMessage(), cause);
         ctx.close();
     }
-
-    public void writeResult(String data){
-        try {
-            if (writer == null) {
-                writer = new PrintWriter("results.csv");
-            }
-        }catch (FileNotFoundException ex){
-            log.error("File not found......");
-        }
-
-        writer.println(data);
-        writer.flush();
-    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.session;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the tenant of each session, which the clients send with every event message.
+ */
+public class SessionManager {
+    private final ConcurrentMap<String, Integer> sessionTenantMap = new ConcurrentHashMap<String, Integer>();
+
+    public void addSession(String sessionId, int tenantId) {
+        sessionTenantMap.put(sessionId, tenantId);
+    }
+
+    public void removeSession(String sessionId) {
+        sessionTenantMap.remove(sessionId);
+    }
+
+    /**
+     * @return the tenant of the session, or null if the session is not known.
+     */
+    public Integer getTenantId(String sessionId) {
+        return sessionTenantMap.get(sessionId);
+    }
+}
@@ -29,11 +29,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.List;
 
-import static io.netty.buffer.Unpooled.buffer;
-
 
 /**
  * This is a Util class which does the Binary message transformation for publish, login, logout operations.
@@ -65,50 +62,47 @@ public class BinaryEventConverter {
         outputStream.flush();
     }
 
+    /**
+     * Writes the events as one binary message straight into the buffer, which should be sized with
+     * {@link #getMessageSize(List, String)} to avoid growing it. The size of each event is filled in after the event
+     * is written, hence the sizes of the attributes are computed only once, by the caller.
+     */
     public static void convertToBinaryMessage(List<SiddhiEventComposite> events, String sessionId, ByteBuf messageBuffer) throws IOException {
-        int messageSize = 8 + sessionId.length();
-        List<ByteBuf> eventBuffers = new ArrayList<ByteBuf>();
+        int messageStartIndex = messageBuffer.writerIndex();
+        messageBuffer.writeByte((byte) 2);  //1
+        messageBuffer.writeInt(0); //4, filled in once the message is written
+        BinaryMessageConverterUtil.assignData(sessionId, messageBuffer); //4 + session ID
+        messageBuffer.writeInt(events.size()); //4
 
         for (SiddhiEventComposite event : events) {
-
-            int eventSize = getEventSize(event);
-            messageSize += eventSize + 4;
+            int eventSizeIndex = messageBuffer.writerIndex();
+            messageBuffer.writeInt(0);
             Event siddhiEvent = event.getSiddhiEvent();
-            ByteBuf eventDataBuffer = buffer(4 + eventSize);
-            //ByteBuffer eventDataBuffer = ByteBuffer.allocate(4 + eventSize);
-            eventDataBuffer.writeInt(eventSize);
-
-            eventDataBuffer.writeLong(siddhiEvent.getTimestamp());
-            eventDataBuffer.writeInt(event.getStreamID().length());
-            eventDataBuffer.writeBytes(event.getStreamID().getBytes(BinaryMessageConstants.DEFAULT_CHARSET));
-
+            messageBuffer.writeLong(siddhiEvent.getTimestamp());
+            BinaryMessageConverterUtil.assignData(event.getStreamID(), messageBuffer);
             if (siddhiEvent.getData() != null && siddhiEvent.getData().length != 0) {
                 for (Object aData : siddhiEvent.getData()) {
-                    BinaryMessageConverterUtil.assignData(aData, eventDataBuffer);
+                    BinaryMessageConverterUtil.assignData(aData, messageBuffer);
                 }
             }
-/*            if (event.getArbitraryDataMap() != null && event.getArbitraryDataMap().size() != 0) {
-                for (Map.Entry<String, String> aArbitraryData : event.getArbitraryDataMap().entrySet()) {
-                    assignData(aArbitraryData.getKey(), eventDataBuffer);
-                    assignData(aArbitraryData.getValue(), eventDataBuffer);
-                }
-            }*/
-            eventBuffers.add(eventDataBuffer);
+            messageBuffer.setInt(eventSizeIndex, messageBuffer.writerIndex() - eventSizeIndex - 4);
         }
+        messageBuffer.setInt(messageStartIndex + 1, messageBuffer.writerIndex() - messageStartIndex - 5);
+    }
 
-        messageBuffer.writeByte((byte) 2);  //1
-        messageBuffer.writeInt(messageSize); //4
-        messageBuffer.writeInt(sessionId.length()); //4
-        messageBuffer.writeBytes(sessionId.getBytes(BinaryMessageConstants.DEFAULT_CHARSET));
-        messageBuffer.writeInt(events.size()); //4
-
-        for (ByteBuf byteBuf : eventBuffers) {
-            messageBuffer.writeBytes(byteBuf);
+    /**
+     * @return the size in bytes of the binary message of the events, including the message header.
+     */
+    public static int getMessageSize(List<SiddhiEventComposite> events, String sessionId) {
+        int messageSize = 9 + BinaryMessageConverterUtil.getSize(sessionId);
+        for (SiddhiEventComposite event : events) {
+            messageSize += getEventSize(event) + 4;
         }
+        return messageSize;
     }
 
     private static int getEventSize(SiddhiEventComposite event) {
-        int eventSize = 4 + event.getStreamID().length() + 8;
+        int eventSize = BinaryMessageConverterUtil.getSize(event.getStreamID()) + 8;
         Object[] data = event.getSiddhiEvent().getData();
         if (data != null) {
             for (Object aData : data) {
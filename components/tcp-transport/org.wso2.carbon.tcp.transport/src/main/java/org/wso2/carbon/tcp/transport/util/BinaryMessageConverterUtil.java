@@ -23,8 +23,10 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 public class BinaryMessageConverterUtil {
+    private static final Charset CHARSET = Charset.forName(BinaryMessageConstants.DEFAULT_CHARSET);
 
     public static byte[] loadData(InputStream in, byte[] dataArray) throws IOException {
 
@@ -49,15 +51,18 @@ public class BinaryMessageConverterUtil {
         return new String(bytes);
     }
 
+    /**
+     * Decodes the string from the readable bytes of the buffer in place, without copying them to an array first.
+     */
     public static String getString(ByteBuf byteBuffer, int size) {
-        byte[] bytes = new byte[size];
-        byteBuffer.readBytes(bytes);
-        return new String(bytes);
+        String value = byteBuffer.toString(byteBuffer.readerIndex(), size, CHARSET);
+        byteBuffer.skipBytes(size);
+        return value;
     }
 
     public static int getSize(Object data) {
         if (data instanceof String) {
-            return 4 + ((String) data).length();
+            return 4 + getUtf8Length((String) data);
         } else if (data instanceof Integer) {
             return 4;
         } else if (data instanceof Long) {
@@ -76,8 +81,10 @@ public class BinaryMessageConverterUtil {
 
     public static void assignData(Object data, ByteBuf eventDataBuffer) throws IOException {
         if (data instanceof String) {
-            eventDataBuffer.writeInt(((String) data).length());
-            eventDataBuffer.writeBytes((((String) data).getBytes(BinaryMessageConstants.DEFAULT_CHARSET)));
+            int sizeIndex = eventDataBuffer.writerIndex();
+            eventDataBuffer.writeInt(0);
+            writeUtf8(eventDataBuffer, (String) data);
+            eventDataBuffer.setInt(sizeIndex, eventDataBuffer.writerIndex() - sizeIndex - 4);
         } else if (data instanceof Integer) {
             eventDataBuffer.writeInt((Integer) data);
         } else if (data instanceof Long) {
@@ -93,4 +100,66 @@ public class BinaryMessageConverterUtil {
         }
 
     }
+
+    /**
+     * @return the number of bytes of the UTF-8 encoding of the string.
+     */
+    public static int getUtf8Length(String value) {
+        int length = value.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                utf8Length += 1;
+            } else if (!isSurrogate(c)) {
+                utf8Length += 2;
+            } else if (isSurrogatePair(value, i)) {
+                // The pair of chars is encoded in 4 bytes.
+                utf8Length += 2;
+                i++;
+            }
+        }
+        return utf8Length;
+    }
+
+    /**
+     * Writes the UTF-8 encoding of the string into the buffer without encoding it into an intermediate array.
+     * Unpaired surrogates are written as '?', as done by {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    public static void writeUtf8(ByteBuf buffer, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.writeByte(c);
+            } else if (c < 0x800) {
+                buffer.writeByte(0xc0 | (c >> 6));
+                buffer.writeByte(0x80 | (c & 0x3f));
+            } else if (!isSurrogate(c)) {
+                buffer.writeByte(0xe0 | (c >> 12));
+                buffer.writeByte(0x80 | ((c >> 6) & 0x3f));
+                buffer.writeByte(0x80 | (c & 0x3f));
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.writeByte(0xf0 | (codePoint >> 18));
+                buffer.writeByte(0x80 | ((codePoint >> 12) & 0x3f));
+                buffer.writeByte(0x80 | ((codePoint >> 6) & 0x3f));
+                buffer.writeByte(0x80 | (codePoint & 0x3f));
+            } else {
+                buffer.writeByte('?');
+            }
+        }
+    }
+
+    private static boolean isSurrogate(char c) {
+        return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE;
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies, in the style of HdrHistogram. Values below 32 are counted exactly, and larger
+ * values in log-linear buckets of 16 per power of two, so the reported values are within about 6% of the recorded
+ * ones. Recording a value is a single atomic increment, hence the recorder can be shared by the event loops.
+ */
+public class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+
+    /**
+     * Records a latency, where negative values caused by clock differences are recorded as 0.
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(getIndex(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalValue.get() / (double) count;
+    }
+
+    /**
+     * @return the highest value equivalent to the recorded values at or below the given percentile, or 0 if no value
+     * has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulativeCount = 0;
+        int lastIndex = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount > 0) {
+                cumulativeCount += bucketCount;
+                lastIndex = i;
+                if (cumulativeCount >= countAtPercentile) {
+                    return getHighestEquivalentValue(i);
+                }
+            }
+        }
+        // The counts may be incremented after the total count was read.
+        return getHighestEquivalentValue(lastIndex);
+    }
+
+    public long getMaxValue() {
+        for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return getHighestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    public long getMinValue() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts.get(i) > 0) {
+                return getLowestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Clears the recorded values. Values recorded concurrently may be partially cleared.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+    }
+
+    static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    static long getLowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        return (long) (index - shift * SUB_BUCKET_HALF_COUNT) << shift;
+    }
+
+    static long getHighestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        return getLowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+}
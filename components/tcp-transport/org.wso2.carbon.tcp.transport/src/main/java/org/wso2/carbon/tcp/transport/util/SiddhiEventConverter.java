@@ -19,6 +19,7 @@ package org.wso2.carbon.tcp.transport.util;
 
 
 import io.netty.buffer.ByteBuf;
+import org.apache.log4j.Logger;
 import org.wso2.carbon.tcp.transport.EventConverter;
 import org.wso2.carbon.tcp.transport.SiddhiEventComposite;
 import org.wso2.carbon.tcp.transport.dto.StreamTypeHolder;
@@ -37,28 +38,37 @@ import java.util.Map;
  * This is used within data bridge to create the event from the row message received.
  */
 public class SiddhiEventConverter implements EventConverter {
+    private static final Logger log = Logger.getLogger(SiddhiEventConverter.class);
     private static SiddhiEventConverter instance = new SiddhiEventConverter();
 
     private SiddhiEventConverter() {
     }
 
+    /**
+     * Decodes the events of a message directly from the buffer, which is positioned at the event count following
+     * the session ID. Events of streams which are not defined for the tenant are skipped.
+     */
     @Override
     public List<SiddhiEventComposite> toEventList(Object eventBundle, StreamTypeHolder streamTypeHolder) {
-
         ByteBuf byteBuffer = (ByteBuf) eventBundle;
-        int sessionIdSize = byteBuffer.readInt();
-        byteBuffer.readBytes(new byte[sessionIdSize]);
         int events = byteBuffer.readInt();
 
-        List<SiddhiEventComposite> eventList = new ArrayList<SiddhiEventComposite>();
+        List<SiddhiEventComposite> eventList = new ArrayList<SiddhiEventComposite>(events);
         for (int i = 0; i < events; i++) {
             int eventSize = byteBuffer.readInt();
-            byte[] bytes= new byte[eventSize];
-            byteBuffer.readBytes(bytes);
-            ByteBuffer eventByteBuffer = ByteBuffer.wrap(bytes);
-            eventList.add(getEvent(eventByteBuffer, streamTypeHolder));
+            int eventEndIndex = byteBuffer.readerIndex() + eventSize;
+            SiddhiEventComposite event = getEvent(byteBuffer, streamTypeHolder);
+            if (event != null) {
+                if (byteBuffer.readerIndex() != eventEndIndex) {
+                    throw new MalformedEventException("Size of the event of stream " + event.getStreamID() + " is "
+                            + eventSize + " bytes, but " + (byteBuffer.readerIndex() + eventSize - eventEndIndex)
+                            + " bytes were read for its attributes");
+                }
+                eventList.add(event);
+            } else {
+                byteBuffer.readerIndex(eventEndIndex);
+            }
         }
-        byteBuffer.markReaderIndex();
         return eventList;
     }
 
@@ -75,28 +85,26 @@ public class SiddhiEventConverter implements EventConverter {
         return byteBuffer.getInt();
     }
 
-    public SiddhiEventComposite getEvent(ByteBuffer byteBuffer, StreamTypeHolder streamTypeHolder) throws MalformedEventException {
-        long timeStamp = byteBuffer.getLong();
-        int streamIdSize = byteBuffer.getInt();
+    /**
+     * @return the event decoded from the buffer, or null if the stream of the event is not defined, in which case
+     * the attributes of the event are not read.
+     */
+    public SiddhiEventComposite getEvent(ByteBuf byteBuffer, StreamTypeHolder streamTypeHolder)
+            throws MalformedEventException {
+        long timeStamp = byteBuffer.readLong();
+        int streamIdSize = byteBuffer.readInt();
         String streamId = BinaryMessageConverterUtil.getString(byteBuffer, streamIdSize);
 
-        Event event = new Event();
-        event.setTimestamp(timeStamp);
-
         Attribute.Type[] attributeTypeOrder = streamTypeHolder.getDataType(streamId);
-        /*if (attributeTypeOrder == null) {
-            PrivilegedCarbonContext privilegedCarbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
-            if (privilegedCarbonContext.getTenantDomain() == null) {
-                privilegedCarbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
-                privilegedCarbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        if (attributeTypeOrder == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Event dropped as no stream definition is present for " + streamId + " of tenant "
+                        + streamTypeHolder.getTenantId());
             }
-            streamTypeHolder.reloadStreamTypeHolder();
-            attributeTypeOrder = streamTypeHolder.getDataType(event.getStreamId());
-            if (attributeTypeOrder == null) {
-                throw new EventConversionException("No StreamDefinition for streamId " + event.getStreamId()
-                        + " present in cache ");
-            }
-        }*/
+            return null;
+        }
+        Event event = new Event();
+        event.setTimestamp(timeStamp);
         event.setData(toObjectArray(byteBuffer, attributeTypeOrder));
         return new SiddhiEventComposite(event, streamId);
     }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import junit.framework.TestCase;
+import org.wso2.carbon.tcp.transport.session.SessionManager;
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class EventDecoderTestCase extends TestCase {
+
+    private static final int TENANT_ID = -1234;
+    private static final String SESSION_ID = "test";
+    private static final String STREAM_ID = "DecoderTestStream";
+
+    private SessionManager sessionManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        StreamDefinition streamDefinition = StreamDefinition.id(STREAM_ID)
+                .attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.DOUBLE)
+                .attribute("volume", Attribute.Type.LONG).attribute("count", Attribute.Type.INT)
+                .attribute("ratio", Attribute.Type.FLOAT).attribute("valid", Attribute.Type.BOOL);
+        TransportStreamManager.getInstance().addStreamDefinition(TENANT_ID, streamDefinition);
+        sessionManager = new SessionManager();
+        sessionManager.addSession(SESSION_ID, TENANT_ID);
+    }
+
+    public void testDecodeSplitAtEveryOffset() throws Exception {
+        List<SiddhiEventComposite> firstMessage = createEvents(0, 3);
+        List<SiddhiEventComposite> secondMessage = createEvents(3, 2);
+        byte[] bytes = toBytes(firstMessage, secondMessage);
+
+        for (int offset = 0; offset <= bytes.length; offset++) {
+            EmbeddedChannel channel = createChannel();
+            channel.writeInbound(Unpooled.wrappedBuffer(bytes, 0, offset));
+            channel.writeInbound(Unpooled.wrappedBuffer(bytes, offset, bytes.length - offset));
+            assertEvents("Split at offset " + offset, concat(firstMessage, secondMessage), readEvents(channel));
+            assertFalse(channel.finish());
+        }
+    }
+
+    public void testDecodeRandomFragments() throws Exception {
+        List<SiddhiEventComposite> firstMessage = createEvents(0, 5);
+        List<SiddhiEventComposite> secondMessage = createEvents(5, 1);
+        List<SiddhiEventComposite> thirdMessage = createEvents(6, 4);
+        byte[] bytes = toBytes(firstMessage, secondMessage, thirdMessage);
+        List<SiddhiEventComposite> expectedEvents = concat(concat(firstMessage, secondMessage), thirdMessage);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            EmbeddedChannel channel = createChannel();
+            StringBuilder fragments = new StringBuilder();
+            int index = 0;
+            while (index < bytes.length) {
+                int length = Math.min(bytes.length - index, random.nextInt(16) + 1);
+                fragments.append(length).append(' ');
+                channel.writeInbound(Unpooled.wrappedBuffer(bytes, index, length));
+                index += length;
+            }
+            assertEvents("Fragments " + fragments, expectedEvents, readEvents(channel));
+            assertFalse(channel.finish());
+        }
+    }
+
+    public void testSkipEventsOfUnknownStream() throws Exception {
+        List<SiddhiEventComposite> events = createEvents(0, 2);
+        Event unknownEvent = new Event(System.currentTimeMillis(), new Object[]{"IBM", 12.5});
+        List<SiddhiEventComposite> message = new ArrayList<SiddhiEventComposite>();
+        message.add(events.get(0));
+        message.add(new SiddhiEventComposite(unknownEvent, "UnknownStream"));
+        message.add(events.get(1));
+
+        EmbeddedChannel channel = createChannel();
+        channel.writeInbound(Unpooled.wrappedBuffer(toBytes(message)));
+        assertEvents("Unknown stream", events, readEvents(channel));
+    }
+
+    public void testRejectUnknownSession() throws Exception {
+        EmbeddedChannel channel = createChannel();
+        sessionManager.removeSession(SESSION_ID);
+        try {
+            channel.writeInbound(Unpooled.wrappedBuffer(toBytes(createEvents(0, 1))));
+            channel.checkException();
+            fail("Events of an unknown session were accepted");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains(SESSION_ID));
+        }
+    }
+
+    public void testRejectTooLongFrame() throws Exception {
+        byte[] bytes = toBytes(createEvents(0, 10));
+        EmbeddedChannel channel = new EmbeddedChannel(new EventFrameDecoder(bytes.length - 1),
+                new EventDecoder(sessionManager));
+        try {
+            channel.writeInbound(Unpooled.wrappedBuffer(bytes));
+            channel.checkException();
+            fail("Frame longer than the maximum was accepted");
+        } catch (TooLongFrameException e) {
+            // expected
+        }
+    }
+
+    private EmbeddedChannel createChannel() {
+        return new EmbeddedChannel(new EventFrameDecoder(1024 * 1024), new EventDecoder(sessionManager));
+    }
+
+    private static List<SiddhiEventComposite> createEvents(int start, int count) {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        for (int i = start; i < start + count; i++) {
+            Event event = new Event(1000L + i, new Object[]{"WSO2-" + i, i * 1.5, i * 100L, i, i / 4f, i % 2 == 0});
+            events.add(new SiddhiEventComposite(event, STREAM_ID));
+        }
+        return events;
+    }
+
+    private static byte[] toBytes(List<SiddhiEventComposite>... messages) throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        for (List<SiddhiEventComposite> message : messages) {
+            BinaryEventConverter.convertToBinaryMessage(message, SESSION_ID, buffer);
+        }
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+
+    private static List<SiddhiEventComposite> concat(List<SiddhiEventComposite> first,
+                                                     List<SiddhiEventComposite> second) {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>(first);
+        events.addAll(second);
+        return events;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SiddhiEventComposite> readEvents(EmbeddedChannel channel) {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        Object message;
+        while ((message = channel.readInbound()) != null) {
+            events.addAll((List<SiddhiEventComposite>) message);
+        }
+        return events;
+    }
+
+    private static void assertEvents(String message, List<SiddhiEventComposite> expectedEvents,
+                                     List<SiddhiEventComposite> actualEvents) {
+        assertEquals(message, expectedEvents.size(), actualEvents.size());
+        for (int i = 0; i < expectedEvents.size(); i++) {
+            Event expectedEvent = expectedEvents.get(i).getSiddhiEvent();
+            Event actualEvent = actualEvents.get(i).getSiddhiEvent();
+            assertEquals(message, expectedEvents.get(i).getStreamID(), actualEvents.get(i).getStreamID());
+            assertEquals(message, expectedEvent.getTimestamp(), actualEvent.getTimestamp());
+            assertTrue(message + ", expected " + Arrays.toString(expectedEvent.getData()) + " but was "
+                    + Arrays.toString(actualEvent.getData()),
+                    Arrays.equals(expectedEvent.getData(), actualEvent.getData()));
+        }
+    }
+}
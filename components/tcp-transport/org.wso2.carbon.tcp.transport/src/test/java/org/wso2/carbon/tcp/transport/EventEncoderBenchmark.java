@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+import org.wso2.siddhi.core.event.Event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the encoding throughput of {@link EventEncoder} and the heap allocated per encoded message, when the
+ * messages are written into pooled direct buffers the way the encoder does. The allocated bytes are read from the
+ * HotSpot thread MXBean, hence they include the per-thread pool caches only while they warm up.
+ * <p>
+ * Usage: EventEncoderBenchmark [messages] [events per message]
+ */
+public class EventEncoderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int eventsPerMessage = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        String sessionId = "benchmark";
+
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>(eventsPerMessage);
+        for (int i = 0; i < eventsPerMessage; i++) {
+            Event event = new Event(System.currentTimeMillis(), new Object[]{"WSO2", 55.6 + i, 100L, i, 1.5f, true});
+            events.add(new SiddhiEventComposite(event, "BenchmarkStream"));
+        }
+
+        for (int round = 0; round < 5; round++) {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            long allocatedBytes = getAllocatedBytes(threadMXBean);
+            long encodedBytes = 0;
+            long startTime = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                int messageSize = BinaryEventConverter.getMessageSize(events, sessionId);
+                ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer(messageSize, messageSize);
+                BinaryEventConverter.convertToBinaryMessage(events, sessionId, buffer);
+                encodedBytes += buffer.readableBytes();
+                buffer.release();
+            }
+            long elapsedTime = System.nanoTime() - startTime;
+            allocatedBytes = getAllocatedBytes(threadMXBean) - allocatedBytes;
+            System.out.println(String.format("Round %d: %,d events/sec, %,d MB/sec, %.1f heap bytes allocated per "
+                    + "message", round, (long) ((double) messages * eventsPerMessage * 1e9 / elapsedTime),
+                    (long) (encodedBytes * 1e9 / elapsedTime / (1024 * 1024)), allocatedBytes / (double) messages));
+        }
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threadMXBean) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
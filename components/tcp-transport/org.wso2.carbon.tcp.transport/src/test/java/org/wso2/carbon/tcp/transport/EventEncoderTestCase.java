@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import junit.framework.TestCase;
+import org.wso2.carbon.tcp.transport.session.SessionManager;
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EventEncoderTestCase extends TestCase {
+
+    private static final int TENANT_ID = -1234;
+    // Non-ASCII session and stream IDs, whose sizes differ in chars and UTF-8 bytes.
+    private static final String SESSION_ID = "s\u00e9ssion";
+    private static final String STREAM_ID = "Encoder\u6d4b\u8bd5Stream";
+
+    private SessionManager sessionManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        StreamDefinition streamDefinition = StreamDefinition.id(STREAM_ID)
+                .attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.DOUBLE)
+                .attribute("volume", Attribute.Type.LONG).attribute("count", Attribute.Type.INT)
+                .attribute("ratio", Attribute.Type.FLOAT).attribute("valid", Attribute.Type.BOOL);
+        TransportStreamManager.getInstance().addStreamDefinition(TENANT_ID, streamDefinition);
+        sessionManager = new SessionManager();
+        sessionManager.addSession(SESSION_ID, TENANT_ID);
+    }
+
+    public void testRoundTrip() throws Exception {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        String[] symbols = {"WSO2", "caf\u00e9", "\u65e5\u672c\u8a9e", "smile \uD83D\uDE00", null, ""};
+        for (int i = 0; i < symbols.length; i++) {
+            Event event = new Event(1000L + i, new Object[]{symbols[i], i * 1.25, Long.MAX_VALUE - i, -i,
+                    i / 3f, i % 2 == 0});
+            events.add(new SiddhiEventComposite(event, STREAM_ID));
+        }
+
+        ByteBuf message = encode(events);
+        List<SiddhiEventComposite> decodedEvents = decode(message);
+
+        assertEquals(events.size(), decodedEvents.size());
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i).getSiddhiEvent();
+            Event decodedEvent = decodedEvents.get(i).getSiddhiEvent();
+            assertEquals(STREAM_ID, decodedEvents.get(i).getStreamID());
+            assertEquals(event.getTimestamp(), decodedEvent.getTimestamp());
+            Object[] expectedData = event.getData().clone();
+            if ("".equals(expectedData[0])) {
+                // Empty strings are sent with size 0, which is decoded as null.
+                expectedData[0] = null;
+            }
+            assertTrue("Expected " + Arrays.toString(expectedData) + " but was "
+                    + Arrays.toString(decodedEvent.getData()), Arrays.equals(expectedData, decodedEvent.getData()));
+        }
+    }
+
+    public void testEncodeIntoExactlySizedBuffer() throws Exception {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        for (int i = 0; i < 1000; i++) {
+            Event event = new Event(i, new Object[]{"symbol-\u00e9-" + i, i * 0.5, (long) i, i, i * 0.25f, true});
+            events.add(new SiddhiEventComposite(event, STREAM_ID));
+        }
+
+        EmbeddedChannel channel = new EmbeddedChannel(new EventEncoder(SESSION_ID));
+        channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+        assertTrue(channel.writeOutbound(events));
+        ByteBuf message = (ByteBuf) channel.readOutbound();
+        // All the events are written into one buffer, which is never grown.
+        assertNull(channel.readOutbound());
+        int messageSize = BinaryEventConverter.getMessageSize(events, SESSION_ID);
+        assertEquals(messageSize, message.readableBytes());
+        assertEquals(messageSize, message.capacity());
+        assertEquals(messageSize - 5, message.getInt(1));
+        assertEquals(1000, decode(message).size());
+        assertFalse(channel.finish());
+    }
+
+    public void testEncodeEventMessageWithItsSize() throws Exception {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new SiddhiEventComposite(new Event(i, new Object[]{"symbol-" + i, i * 0.5, (long) i, i,
+                    i * 0.25f, true}), STREAM_ID));
+        }
+        EventMessage eventMessage = new EventMessage(events, SESSION_ID);
+        assertEquals(BinaryEventConverter.getMessageSize(events, SESSION_ID), eventMessage.getSize());
+
+        EmbeddedChannel channel = new EmbeddedChannel(new EventEncoder(SESSION_ID));
+        assertTrue(channel.writeOutbound(eventMessage));
+        ByteBuf message = (ByteBuf) channel.readOutbound();
+        assertNull(channel.readOutbound());
+        assertEquals(eventMessage.getSize(), message.readableBytes());
+        assertEquals(eventMessage.getSize(), message.capacity());
+        assertEquals(100, decode(message).size());
+        assertFalse(channel.finish());
+    }
+
+    private static ByteBuf encode(List<SiddhiEventComposite> events) {
+        EmbeddedChannel channel = new EmbeddedChannel(new EventEncoder(SESSION_ID));
+        assertTrue(channel.writeOutbound(events));
+        ByteBuf message = (ByteBuf) channel.readOutbound();
+        assertFalse(channel.finish());
+        return message;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SiddhiEventComposite> decode(ByteBuf message) {
+        EmbeddedChannel channel = new EmbeddedChannel(new EventFrameDecoder(16 * 1024 * 1024),
+                new EventDecoder(sessionManager));
+        assertTrue(channel.writeInbound(message));
+        List<SiddhiEventComposite> events = (List<SiddhiEventComposite>) channel.readInbound();
+        assertFalse(channel.finish());
+        return events;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+import org.wso2.carbon.tcp.transport.callback.PublishCallback;
+import org.wso2.carbon.tcp.transport.callback.StreamListener;
+import org.wso2.carbon.tcp.transport.config.ClientConfig;
+import org.wso2.carbon.tcp.transport.config.ServerConfig;
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TcpNettyClientTestCase extends TestCase {
+    private static final Logger log = Logger.getLogger(TcpNettyClientTestCase.class);
+    private static final String SESSION_ID = "client-test";
+    private static final String STREAM_ID = "ClientTestStream";
+    private static final int BATCH_SIZE = 100;
+
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final CountDownLatch serverRelease = new CountDownLatch(1);
+    private TcpNettyServer tcpNettyServer;
+    private TcpNettyClient tcpNettyClient;
+
+    @Override
+    protected void setUp() throws Exception {
+        StreamDefinition streamDefinition = StreamDefinition.id(STREAM_ID).attribute("symbol", Attribute.Type.STRING)
+                .attribute("price", Attribute.Type.DOUBLE).attribute("volume", Attribute.Type.LONG);
+        TransportStreamManager.getInstance().addStreamDefinition(-1234, streamDefinition);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        serverRelease.countDown();
+        if (tcpNettyClient != null) {
+            tcpNettyClient.shutdown();
+        }
+        if (tcpNettyServer != null) {
+            tcpNettyServer.shutdown();
+        }
+    }
+
+    public void testPublishThroughput() throws Exception {
+        int batches = 2000;
+        final long totalEvents = batches * BATCH_SIZE;
+        startServer(new ServerConfig(), false);
+        tcpNettyClient = connectClient(new ClientConfig());
+
+        final CountDownLatch written = new CountDownLatch(batches);
+        final AtomicLong failures = new AtomicLong();
+        PublishCallback callback = new PublishCallback() {
+            @Override
+            public void onSuccess() {
+                written.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                failures.incrementAndGet();
+                written.countDown();
+            }
+        };
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < batches; i++) {
+            assertTrue(tcpNettyClient.send(createEvents(i), callback));
+        }
+        assertTrue("Messages were not written within the timeout", written.await(60, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+        long deadline = System.currentTimeMillis() + 60000;
+        while (receivedEvents.get() < totalEvents && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        assertEquals(totalEvents, receivedEvents.get());
+        assertEquals(0, tcpNettyClient.getPendingWriteBytes());
+        log.info("Published " + totalEvents + " events in " + TimeUnit.NANOSECONDS.toMillis(elapsedTime)
+                + " ms, " + (long) (totalEvents * 1e9 / elapsedTime) + " events/sec.");
+    }
+
+    public void testBackpressure() throws Exception {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setReceiveBufferSize(16 * 1024);
+        startServer(serverConfig, true);
+        int highWaterMark = 64 * 1024;
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setConnections(1);
+        clientConfig.setSendBufferSize(16 * 1024);
+        clientConfig.setWriteBufferHighWaterMark(highWaterMark);
+        clientConfig.setWriteBufferLowWaterMark(highWaterMark / 2);
+        clientConfig.setBlockOnBackpressure(false);
+        tcpNettyClient = connectClient(clientConfig);
+
+        // The server stops reading, hence the messages pile up in the client until they are rejected.
+        long acceptedEvents = 0;
+        long maxPendingWriteBytes = 0;
+        boolean rejected = false;
+        for (int i = 0; i < 20000 && !rejected; i++) {
+            if (tcpNettyClient.send(createEvents(i))) {
+                acceptedEvents += BATCH_SIZE;
+                maxPendingWriteBytes = Math.max(maxPendingWriteBytes, tcpNettyClient.getPendingWriteBytes());
+            } else {
+                rejected = true;
+            }
+        }
+        assertTrue("Messages were not rejected while the server is not reading", rejected);
+        int messageSize = BinaryEventConverter.getMessageSize(createEvents(0), SESSION_ID);
+        assertTrue("Pending bytes " + maxPendingWriteBytes + " exceeded the high water mark",
+                maxPendingWriteBytes <= highWaterMark + 2 * messageSize);
+
+        // A blocked publisher resumes once the server reads again.
+        clientConfig.setBlockOnBackpressure(true);
+        final AtomicBoolean blockedSendResult = new AtomicBoolean();
+        Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blockedSendResult.set(tcpNettyClient.send(createEvents(0)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        publisher.start();
+        publisher.join(500);
+        assertTrue("Publisher was not blocked while the server is not reading", publisher.isAlive());
+        serverRelease.countDown();
+        publisher.join(30000);
+        assertFalse(publisher.isAlive());
+        assertTrue(blockedSendResult.get());
+
+        acceptedEvents += BATCH_SIZE;
+        long deadline = System.currentTimeMillis() + 60000;
+        while (receivedEvents.get() < acceptedEvents && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(acceptedEvents, receivedEvents.get());
+    }
+
+    private void startServer(ServerConfig serverConfig, final boolean stalled) {
+        serverConfig.setHost("localhost");
+        serverConfig.setPort(0);
+        tcpNettyServer = new TcpNettyServer();
+        tcpNettyServer.getSessionManager().addSession(SESSION_ID, -1234);
+        tcpNettyServer.addStreamListener(new StreamListener() {
+            @Override
+            public String getStreamId() {
+                return STREAM_ID;
+            }
+
+            @Override
+            public void onEvents(Event[] events) {
+                if (stalled) {
+                    try {
+                        serverRelease.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                receivedEvents.addAndGet(events.length);
+            }
+        });
+        tcpNettyServer.start(serverConfig);
+    }
+
+    private TcpNettyClient connectClient(ClientConfig clientConfig) throws Exception {
+        clientConfig.setHost("localhost");
+        clientConfig.setPort(tcpNettyServer.getPort());
+        clientConfig.setSessionId(SESSION_ID);
+        TcpNettyClient client = new TcpNettyClient(clientConfig);
+        client.connect();
+        return client;
+    }
+
+    private static List<SiddhiEventComposite> createEvents(int batch) {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Event event = new Event(System.currentTimeMillis(), new Object[]{"WSO2", batch * 1.5, (long) i});
+            events.add(new SiddhiEventComposite(event, STREAM_ID));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import junit.framework.TestCase;
+import org.wso2.carbon.tcp.transport.callback.StreamListener;
+import org.wso2.carbon.tcp.transport.config.ServerConfig;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TcpNettyServerTestCase extends TestCase {
+
+    private static final String STREAM_ID = "StockStream";
+
+    private TcpNettyServer tcpNettyServer;
+    private EventLoopGroup clientGroup;
+
+    @Override
+    protected void setUp() throws Exception {
+        StreamDefinition stockStream = StreamDefinition.id(STREAM_ID).attribute("symbol", Attribute.Type.STRING)
+                .attribute("price", Attribute.Type.INT).attribute("volume", Attribute.Type.INT);
+        TransportStreamManager.getInstance().addStreamDefinition(-1234, stockStream);
+        clientGroup = new NioEventLoopGroup(1);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (tcpNettyServer != null) {
+            tcpNettyServer.shutdown();
+        }
+        clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).awaitUninterruptibly();
+    }
+
+    public void testPublishEvents() throws Exception {
+        final int batchCount = 100;
+        final int batchSize = 10;
+        final CountDownLatch latch = new CountDownLatch(batchCount * batchSize);
+        final List<Event> receivedEvents = new CopyOnWriteArrayList<Event>();
+        final AtomicInteger deliveries = new AtomicInteger();
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setLatencyTrackingEnabled(true);
+        tcpNettyServer = startServer(serverConfig);
+        tcpNettyServer.addStreamListener(new StreamListener() {
+            @Override
+            public String getStreamId() {
+                return STREAM_ID;
+            }
+
+            @Override
+            public void onEvents(Event[] events) {
+                deliveries.incrementAndGet();
+                for (Event event : events) {
+                    receivedEvents.add(event);
+                    latch.countDown();
+                }
+            }
+        });
+
+        Channel channel = connect(tcpNettyServer.getPort());
+        for (int i = 0; i < batchCount; i++) {
+            List<SiddhiEventComposite> eventList = new ArrayList<SiddhiEventComposite>();
+            for (int j = 0; j < batchSize; j++) {
+                Event event = new Event(System.currentTimeMillis(), new Object[]{"WSO2", i, j});
+                eventList.add(new SiddhiEventComposite(event, STREAM_ID));
+            }
+            channel.writeAndFlush(eventList);
+        }
+
+        assertTrue("Events were not received within the timeout", latch.await(30, TimeUnit.SECONDS));
+        assertEquals(batchCount * batchSize, receivedEvents.size());
+        // The events of a message are delivered together.
+        assertEquals(batchCount, deliveries.get());
+        assertEquals(batchCount * batchSize, tcpNettyServer.getLatencyRecorder().getTotalCount());
+        Event firstEvent = receivedEvents.get(0);
+        assertEquals("WSO2", firstEvent.getData(0));
+        assertEquals(0, firstEvent.getData(1));
+        assertEquals(0, firstEvent.getData(2));
+        channel.close().sync();
+    }
+
+    public void testShutdown() throws Exception {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setShutdownTimeout(500);
+        tcpNettyServer = startServer(serverConfig);
+        int port = tcpNettyServer.getPort();
+        Channel channel = connect(port);
+        assertTrue(tcpNettyServer.isRunning());
+
+        // The open connection delays the shutdown until the timeout, after which the server closes it.
+        tcpNettyServer.shutdown();
+        assertFalse(tcpNettyServer.isRunning());
+        assertTrue(channel.closeFuture().await(5, TimeUnit.SECONDS));
+        try {
+            connect(port);
+            fail("Connected to the server after it was shutdown");
+        } catch (ConnectException e) {
+            // expected
+        }
+    }
+
+    private TcpNettyServer startServer(ServerConfig serverConfig) {
+        serverConfig.setHost("localhost");
+        serverConfig.setPort(0);
+        serverConfig.setWorkerThreads(2);
+        TcpNettyServer server = new TcpNettyServer();
+        server.getSessionManager().addSession("test", -1234);
+        server.start(serverConfig);
+        assertTrue(server.getPort() > 0);
+        return server;
+    }
+
+    private Channel connect(int port) throws Exception {
+        Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(clientGroup)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) throws Exception {
+                        ch.pipeline().addLast(new EventEncoder("test"));
+                    }
+                });
+        return bootstrap.connect("localhost", port).sync().channel();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import junit.framework.TestCase;
+import org.wso2.carbon.tcp.transport.dto.StreamTypeHolder;
+import org.wso2.carbon.tcp.transport.session.SessionManager;
+import org.wso2.carbon.tcp.transport.util.BinaryEventConverter;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TransportStreamManagerTestCase extends TestCase {
+
+    private static final String SESSION_ID = "registry-test";
+    private static final String STABLE_STREAM_ID = "StableStream";
+    private static final String DYNAMIC_STREAM_PREFIX = "DynamicStream";
+    private static final int DYNAMIC_STREAMS = 8;
+
+    private final TransportStreamManager streamManager = TransportStreamManager.getInstance();
+
+    public void testStreamHandles() throws Exception {
+        int tenantId = 1;
+        int firstHandle = streamManager.addStreamDefinition(tenantId, createStreamDefinition("First"));
+        int secondHandle = streamManager.addStreamDefinition(tenantId, createStreamDefinition("Second"));
+        assertTrue(firstHandle != secondHandle);
+        StreamTypeHolder snapshot = streamManager.getStreamTypeHolder(tenantId);
+        assertEquals("First", snapshot.getAttributeComposite(firstHandle).getStreamDefinition().getId());
+
+        // Redefining keeps the handle, while removing the stream does not change the snapshot read earlier.
+        assertEquals(firstHandle, streamManager.addStreamDefinition(tenantId, createStreamDefinition("First")));
+        assertTrue(streamManager.removeStreamDefinition(tenantId, "First"));
+        assertFalse(streamManager.removeStreamDefinition(tenantId, "First"));
+        StreamTypeHolder currentSnapshot = streamManager.getStreamTypeHolder(tenantId);
+        assertNull(currentSnapshot.getAttributeComposite(firstHandle));
+        assertNull(currentSnapshot.getDataType("First"));
+        assertNotNull(snapshot.getDataType("First"));
+        assertTrue(currentSnapshot.getVersion() > snapshot.getVersion());
+
+        // Handles of removed streams are not reused.
+        int thirdHandle = streamManager.addStreamDefinition(tenantId, createStreamDefinition("Third"));
+        assertTrue(thirdHandle != firstHandle && thirdHandle != secondHandle);
+    }
+
+    public void testDecodeWhileStreamsChange() throws Exception {
+        final int tenantId = 2;
+        final SessionManager sessionManager = new SessionManager();
+        sessionManager.addSession(SESSION_ID, tenantId);
+        final int stableHandle = streamManager.addStreamDefinition(tenantId,
+                createStreamDefinition(STABLE_STREAM_ID));
+        final byte[] message = createMessage();
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        int writers = 2;
+        int readers = 4;
+        final CountDownLatch done = new CountDownLatch(writers + readers);
+
+        for (int i = 0; i < writers; i++) {
+            final int writerId = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        int iteration = 0;
+                        while (running.get()) {
+                            String streamId = DYNAMIC_STREAM_PREFIX + ((iteration + writerId) % DYNAMIC_STREAMS);
+                            if (iteration % 2 == 0) {
+                                streamManager.addStreamDefinition(tenantId, createStreamDefinition(streamId));
+                            } else {
+                                streamManager.removeStreamDefinition(tenantId, streamId);
+                            }
+                            iteration++;
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "stream-writer-" + i).start();
+        }
+
+        for (int i = 0; i < readers; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        EmbeddedChannel channel = new EmbeddedChannel(new EventFrameDecoder(1024 * 1024),
+                                new EventDecoder(sessionManager));
+                        long lastVersion = 0;
+                        while (running.get()) {
+                            StreamTypeHolder snapshot = streamManager.getStreamTypeHolder(tenantId);
+                            assertTrue("Snapshot version went backwards", snapshot.getVersion() >= lastVersion);
+                            lastVersion = snapshot.getVersion();
+                            assertEquals(stableHandle,
+                                    snapshot.getAttributeComposite(STABLE_STREAM_ID).getStreamHandle());
+
+                            channel.writeInbound(Unpooled.wrappedBuffer(message));
+                            assertDecodedEvents(channel);
+                        }
+                        assertFalse(channel.finish());
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "stream-reader-" + i).start();
+        }
+
+        Thread.sleep(3000);
+        running.set(false);
+        assertTrue("Stress test threads did not stop", done.await(30, TimeUnit.SECONDS));
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertDecodedEvents(EmbeddedChannel channel) {
+        List<SiddhiEventComposite> events = (List<SiddhiEventComposite>) channel.readInbound();
+        assertNull(channel.readInbound());
+        int stableEvents = 0;
+        for (SiddhiEventComposite event : events) {
+            Object[] data = event.getSiddhiEvent().getData();
+            if (STABLE_STREAM_ID.equals(event.getStreamID())) {
+                stableEvents++;
+            } else {
+                assertTrue(event.getStreamID().startsWith(DYNAMIC_STREAM_PREFIX));
+            }
+            assertEquals(event.getStreamID(), data[0]);
+            assertEquals(event.getSiddhiEvent().getTimestamp(), data[1]);
+        }
+        assertEquals(2, stableEvents);
+    }
+
+    private static byte[] createMessage() throws Exception {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        events.add(createEvent(STABLE_STREAM_ID, 0));
+        for (int i = 0; i < DYNAMIC_STREAMS; i++) {
+            events.add(createEvent(DYNAMIC_STREAM_PREFIX + i, i + 1));
+        }
+        events.add(createEvent(STABLE_STREAM_ID, DYNAMIC_STREAMS + 1));
+        ByteBuf buffer = Unpooled.buffer();
+        BinaryEventConverter.convertToBinaryMessage(events, SESSION_ID, buffer);
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+
+    private static SiddhiEventComposite createEvent(String streamId, long timestamp) {
+        return new SiddhiEventComposite(new Event(timestamp, new Object[]{streamId, timestamp}), streamId);
+    }
+
+    private static StreamDefinition createStreamDefinition(String streamId) {
+        return StreamDefinition.id(streamId).attribute("name", Attribute.Type.STRING)
+                .attribute("value", Attribute.Type.LONG);
+    }
+}
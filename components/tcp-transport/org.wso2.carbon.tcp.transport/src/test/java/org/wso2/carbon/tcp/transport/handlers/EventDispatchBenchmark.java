@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.handlers;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.wso2.carbon.tcp.transport.SiddhiEventComposite;
+import org.wso2.carbon.tcp.transport.callback.StreamListener;
+import org.wso2.carbon.tcp.transport.callback.StreamListenerManager;
+import org.wso2.carbon.tcp.transport.util.LatencyRecorder;
+import org.wso2.siddhi.core.event.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the events per second delivered by {@link ServerChannelInboundHandler}, with and without latency
+ * tracking. The messages are fed through an embedded channel a read at a time, so the numbers exclude decoding and
+ * networking, and also report the listener calls per read.
+ * <p>
+ * Usage: EventDispatchBenchmark [messages] [events per message] [streams per message] [messages per read]
+ */
+public class EventDispatchBenchmark {
+
+    public static void main(String[] args) {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int eventsPerMessage = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int streamsPerMessage = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int messagesPerRead = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        List<SiddhiEventComposite> message = new ArrayList<SiddhiEventComposite>(eventsPerMessage);
+        StreamListenerManager streamListenerManager = new StreamListenerManager();
+        /* the delivered events, and the listener calls */
+        final long[] deliveredEvents = new long[2];
+        for (int i = 0; i < streamsPerMessage; i++) {
+            final String streamId = "BenchmarkStream" + i;
+            streamListenerManager.addStreamListener(new StreamListener() {
+                @Override
+                public String getStreamId() {
+                    return streamId;
+                }
+
+                @Override
+                public void onEvents(Event[] events) {
+                    deliveredEvents[0] += events.length;
+                    deliveredEvents[1]++;
+                }
+            });
+        }
+        for (int i = 0; i < eventsPerMessage; i++) {
+            Event event = new Event(System.currentTimeMillis(), new Object[]{"WSO2", 55.6, 100L});
+            message.add(new SiddhiEventComposite(event, "BenchmarkStream" + (i % streamsPerMessage)));
+        }
+
+        Object[] read = new Object[messagesPerRead];
+        for (int i = 0; i < read.length; i++) {
+            read[i] = message;
+        }
+        for (int round = 0; round < 3; round++) {
+            run("without latency tracking", streamListenerManager, null, read, messages, deliveredEvents);
+            run("with latency tracking", streamListenerManager, new LatencyRecorder(), read, messages,
+                    deliveredEvents);
+        }
+    }
+
+    private static void run(String name, StreamListenerManager streamListenerManager,
+                            LatencyRecorder latencyRecorder, Object[] read, int messages,
+                            long[] deliveredEvents) {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new ServerChannelInboundHandler(streamListenerManager, latencyRecorder));
+        deliveredEvents[0] = 0;
+        deliveredEvents[1] = 0;
+        int reads = Math.max(messages / read.length, 1);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            channel.writeInbound(read);
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        channel.finish();
+        System.out.println(String.format("%-25s %,15d events/sec, %.2f listener calls/read", name,
+                (long) (deliveredEvents[0] * 1e9 / elapsedTime), (double) deliveredEvents[1] / reads)
+                + (latencyRecorder == null ? "" : ", p99 latency " + latencyRecorder.getValueAtPercentile(99)
+                + " ms"));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.handlers;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import junit.framework.TestCase;
+import org.wso2.carbon.tcp.transport.SiddhiEventComposite;
+import org.wso2.carbon.tcp.transport.callback.StreamListener;
+import org.wso2.carbon.tcp.transport.callback.StreamListenerManager;
+import org.wso2.carbon.tcp.transport.util.LatencyRecorder;
+import org.wso2.siddhi.core.event.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ServerChannelInboundHandlerTestCase extends TestCase {
+
+    public void testGroupEventsByStream() throws Exception {
+        StreamListenerManager streamListenerManager = new StreamListenerManager();
+        RecordingStreamListener fooListener = new RecordingStreamListener("Foo");
+        RecordingStreamListener barListener = new RecordingStreamListener("Bar");
+        streamListenerManager.addStreamListener(fooListener);
+        streamListenerManager.addStreamListener(barListener);
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new ServerChannelInboundHandler(streamListenerManager, latencyRecorder));
+
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        events.add(createEvent("Foo", 1));
+        events.add(createEvent("Bar", 2));
+        events.add(createEvent("Unknown", 3));
+        events.add(createEvent("Foo", 4));
+        events.add(createEvent("Bar", 5));
+        events.add(createEvent("Foo", 6));
+        channel.writeInbound(events);
+        channel.writeInbound(createEvents("Foo", 7, 8));
+
+        assertEquals(2, fooListener.batches.size());
+        assertEquals("[1, 4, 6]", fooListener.batches.get(0));
+        assertEquals("[7, 8]", fooListener.batches.get(1));
+        assertEquals(1, barListener.batches.size());
+        assertEquals("[2, 5]", barListener.batches.get(0));
+        assertEquals(8, latencyRecorder.getTotalCount());
+        assertFalse(channel.finish());
+    }
+
+    public void testGroupEventsAcrossMessagesOfRead() throws Exception {
+        StreamListenerManager streamListenerManager = new StreamListenerManager();
+        RecordingStreamListener fooListener = new RecordingStreamListener("Foo");
+        RecordingStreamListener barListener = new RecordingStreamListener("Bar");
+        streamListenerManager.addStreamListener(fooListener);
+        streamListenerManager.addStreamListener(barListener);
+        EmbeddedChannel channel = new EmbeddedChannel(new ServerChannelInboundHandler(streamListenerManager, null));
+
+        List<SiddhiEventComposite> events = createEvents("Foo", 1, 2);
+        events.addAll(createEvents("Bar", 3));
+        channel.pipeline().fireChannelRead(events);
+        channel.pipeline().fireChannelRead(createEvents("Foo", 4));
+        channel.pipeline().fireChannelRead(createEvents("Bar", 5, 6));
+        assertEquals(0, fooListener.batches.size());
+        assertEquals(0, barListener.batches.size());
+        channel.pipeline().fireChannelReadComplete();
+
+        assertEquals(1, fooListener.batches.size());
+        assertEquals("[1, 2, 4]", fooListener.batches.get(0));
+        assertEquals(1, barListener.batches.size());
+        assertEquals("[3, 5, 6]", barListener.batches.get(0));
+
+        channel.writeInbound(createEvents("Foo", 7), createEvents("Foo", 8, 9));
+        assertEquals(2, fooListener.batches.size());
+        assertEquals("[7, 8, 9]", fooListener.batches.get(1));
+        assertFalse(channel.finish());
+    }
+
+    public void testDeliverPendingEventsOnClose() throws Exception {
+        StreamListenerManager streamListenerManager = new StreamListenerManager();
+        RecordingStreamListener fooListener = new RecordingStreamListener("Foo");
+        streamListenerManager.addStreamListener(fooListener);
+        EmbeddedChannel channel = new EmbeddedChannel(new ServerChannelInboundHandler(streamListenerManager, null));
+
+        channel.pipeline().fireChannelRead(createEvents("Foo", 1, 2));
+        assertFalse(channel.finish());
+
+        assertEquals(1, fooListener.batches.size());
+        assertEquals("[1, 2]", fooListener.batches.get(0));
+    }
+
+    public void testListenerFailureDoesNotCloseConnection() throws Exception {
+        StreamListenerManager streamListenerManager = new StreamListenerManager();
+        streamListenerManager.addStreamListener(new RecordingStreamListener("Foo") {
+            @Override
+            public void onEvents(Event[] events) {
+                super.onEvents(events);
+                throw new IllegalStateException("Simulated listener failure");
+            }
+        });
+        RecordingStreamListener barListener = new RecordingStreamListener("Bar");
+        streamListenerManager.addStreamListener(barListener);
+        EmbeddedChannel channel = new EmbeddedChannel(new ServerChannelInboundHandler(streamListenerManager, null));
+
+        List<SiddhiEventComposite> events = createEvents("Foo", 1, 2);
+        events.addAll(createEvents("Bar", 3));
+        channel.writeInbound(events);
+        channel.writeInbound(createEvents("Bar", 4));
+
+        assertTrue(channel.isActive());
+        assertEquals(2, barListener.batches.size());
+        assertEquals("[3]", barListener.batches.get(0));
+        assertEquals("[4]", barListener.batches.get(1));
+    }
+
+    private static List<SiddhiEventComposite> createEvents(String streamId, long... timestamps) {
+        List<SiddhiEventComposite> events = new ArrayList<SiddhiEventComposite>();
+        for (long timestamp : timestamps) {
+            events.add(createEvent(streamId, timestamp));
+        }
+        return events;
+    }
+
+    private static SiddhiEventComposite createEvent(String streamId, long timestamp) {
+        return new SiddhiEventComposite(new Event(timestamp, new Object[]{streamId}), streamId);
+    }
+
+    private static class RecordingStreamListener implements StreamListener {
+        private final String streamId;
+        private final List<String> batches = new ArrayList<String>();
+
+        private RecordingStreamListener(String streamId) {
+            this.streamId = streamId;
+        }
+
+        @Override
+        public String getStreamId() {
+            return streamId;
+        }
+
+        @Override
+        public void onEvents(Event[] events) {
+            StringBuilder timestamps = new StringBuilder("[");
+            for (int i = 0; i < events.length; i++) {
+                if (i > 0) {
+                    timestamps.append(", ");
+                }
+                timestamps.append(events[i].getTimestamp());
+            }
+            batches.add(timestamps.append(']').toString());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.wso2.carbon.tcp.transport.util;
+
+import junit.framework.TestCase;
+
+public class LatencyRecorderTestCase extends TestCase {
+
+    public void testBucketBoundaries() {
+        for (long value = 0; value < 100000; value++) {
+            assertEquivalentValues(value);
+        }
+        for (int shift = 17; shift < 63; shift++) {
+            assertEquivalentValues(1L << shift);
+            assertEquivalentValues((1L << shift) - 1);
+            assertEquivalentValues((1L << shift) + 1);
+        }
+        assertEquivalentValues(Long.MAX_VALUE);
+    }
+
+    public void testPercentiles() {
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        assertEquals(0, latencyRecorder.getValueAtPercentile(99));
+        for (int value = 1; value <= 1000; value++) {
+            latencyRecorder.recordValue(value);
+        }
+        latencyRecorder.recordValue(-5);
+
+        assertEquals(1001, latencyRecorder.getTotalCount());
+        assertEquals(0, latencyRecorder.getMinValue());
+        assertEquals(1000, latencyRecorder.getMaxValue(), 1000 / 16);
+        assertEquals(500, latencyRecorder.getValueAtPercentile(50), 500 / 16);
+        assertEquals(990, latencyRecorder.getValueAtPercentile(99), 990 / 16);
+        assertEquals(500500 / 1001.0, latencyRecorder.getMean(), 0.001);
+
+        latencyRecorder.reset();
+        assertEquals(0, latencyRecorder.getTotalCount());
+        assertEquals(0, latencyRecorder.getMaxValue());
+    }
+
+    private static void assertEquivalentValues(long value) {
+        int index = LatencyRecorder.getIndex(value);
+        long lowestValue = LatencyRecorder.getLowestEquivalentValue(index);
+        long highestValue = LatencyRecorder.getHighestEquivalentValue(index);
+        assertTrue("Value " + value + " is not in [" + lowestValue + ", " + highestValue + "]",
+                lowestValue <= value && value <= highestValue);
+        assertTrue("Bucket of " + value + " is wider than 1/16 of it", highestValue - lowestValue <= value / 16);
+    }
+}